@@ -0,0 +1,726 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.sui.bcsgen.TransactionData;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.FaucetResponse;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.objects.Balance;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.ObjectDataOptions;
+import io.sui.models.objects.ObjectResponseQuery;
+import io.sui.models.objects.PaginatedCoins;
+import io.sui.models.objects.PaginatedObjectsResponse;
+import io.sui.models.objects.SuiObjectResponse;
+import io.sui.models.objects.SuiSystemState;
+import io.sui.models.transactions.ExecuteTransactionRequestType;
+import io.sui.models.transactions.PaginatedTransactionResponse;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import io.sui.models.transactions.TransactionBlockResponseQuery;
+import io.sui.models.transactions.TransactionEffects;
+import io.sui.models.transactions.TypeTag;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Blocking sui, a straight-line facade over {@link Sui} for callers that would rather
+ * block a (virtual) thread than chain futures.
+ *
+ * <p>Every method waits for the matching {@link Sui} future and unwraps its failure, cancelling the
+ * underlying request when the wait times out or the calling thread is interrupted. Parallel
+ * sub-lookups go through {@link #invokeAll(List)}, which forks each task on the fork executor and
+ * cancels the siblings as soon as one fails. Waiting is done outside of any monitor, so virtual
+ * threads are not pinned to their carrier while a request is in flight.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class BlockingSui implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlockingSui.class);
+
+  private final Sui sui;
+
+  private final ExecutorService forkExecutor;
+
+  private final boolean ownsForkExecutor;
+
+  private final Duration timeout;
+
+  /**
+   * Instantiates a new Blocking sui whose continuations and forks run one thread per task, on
+   * virtual threads when the runtime has them.
+   *
+   * @param fullNodeEndpoint the full node endpoint
+   * @param faucetEndpoint the faucet endpoint
+   * @param keyStorePath the key store path
+   */
+  public BlockingSui(String fullNodeEndpoint, String faucetEndpoint, String keyStorePath) {
+    this(newThreadPerTaskExecutor(), fullNodeEndpoint, faucetEndpoint, keyStorePath);
+  }
+
+  private BlockingSui(
+      ExecutorService executor,
+      String fullNodeEndpoint,
+      String faucetEndpoint,
+      String keyStorePath) {
+    this(
+        new Sui(
+            new OkHttpJsonRpcClientProvider(
+                fullNodeEndpoint, new GsonJsonHandler(), new OkHttpJsonRpcClientOptions()),
+            faucetEndpoint,
+            keyStorePath,
+            executor),
+        executor,
+        true,
+        Duration.ZERO);
+  }
+
+  /**
+   * Instantiates a new Blocking sui over an existing sui, waiting without a timeout.
+   *
+   * @param sui the sui
+   */
+  public BlockingSui(Sui sui) {
+    this(sui, newThreadPerTaskExecutor(), true, Duration.ZERO);
+  }
+
+  /**
+   * Instantiates a new Blocking sui.
+   *
+   * @param sui the sui
+   * @param forkExecutor the executor running {@link #invokeAll(List)} tasks, not closed by this
+   * @param timeout the longest time a call waits, zero waits forever
+   */
+  public BlockingSui(Sui sui, ExecutorService forkExecutor, Duration timeout) {
+    this(sui, forkExecutor, false, timeout);
+  }
+
+  private BlockingSui(
+      Sui sui, ExecutorService forkExecutor, boolean ownsForkExecutor, Duration timeout) {
+    this.sui = sui;
+    this.forkExecutor = forkExecutor;
+    this.ownsForkExecutor = ownsForkExecutor;
+    this.timeout = timeout;
+  }
+
+  /**
+   * New thread per task executor, backed by virtual threads on a runtime that has them and by a
+   * cached pool of daemon platform threads otherwise.
+   *
+   * @return the executor service
+   */
+  public static ExecutorService newThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.debug("virtual threads unavailable, falling back to platform threads");
+      return Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-blocking-%d").build());
+    }
+  }
+
+  /**
+   * Gets the async sui behind this facade.
+   *
+   * @return the sui
+   */
+  public Sui getSui() {
+    return sui;
+  }
+
+  /**
+   * Gets timeout.
+   *
+   * @return the timeout
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Run the tasks in parallel and wait for all of them, like a shutdown-on-failure scope: the first
+   * failure cancels and interrupts the remaining tasks and is thrown, and the whole fork honours
+   * this facade's timeout.
+   *
+   * @param <T> the result type
+   * @param tasks the tasks
+   * @return the results in task order
+   * @throws SuiApiException the sui api exception
+   */
+  public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws SuiApiException {
+    final ExecutorCompletionService<T> scope = new ExecutorCompletionService<>(forkExecutor);
+    final List<Future<T>> forks = new ArrayList<>(tasks.size());
+    final long deadline = System.nanoTime() + timeout.toNanos();
+    try {
+      for (Callable<T> task : tasks) {
+        forks.add(scope.submit(task));
+      }
+      for (int i = 0; i < forks.size(); i++) {
+        final Future<T> done =
+            timeout.isZero()
+                ? scope.take()
+                : scope.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (done == null) {
+          throw new SuiApiException(
+              new TimeoutException(String.format("forks not done within %s", timeout)));
+        }
+        done.get();
+      }
+      final List<T> results = new ArrayList<>(forks.size());
+      for (Future<T> fork : forks) {
+        results.add(fork.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SuiApiException(e);
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    } finally {
+      for (Future<T> fork : forks) {
+        fork.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Request sui from faucet.
+   *
+   * @param address the address
+   * @return the faucet response
+   * @throws SuiApiException the sui api exception
+   */
+  public FaucetResponse requestSuiFromFaucet(String address) throws SuiApiException {
+    return await(sui.requestSuiFromFaucet(address));
+  }
+
+  /**
+   * Transfer sui.
+   *
+   * @param sender the signer
+   * @param coin the coin
+   * @param recipient the recipient
+   * @param amount the amount
+   * @param gas the gas
+   * @param gasBudget the gas budget
+   * @param gasPrice the gas price
+   * @param expiration the expiration
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse transferSui(
+      String sender,
+      String coin,
+      String recipient,
+      Long amount,
+      String gas,
+      Long gasBudget,
+      Long gasPrice,
+      Long expiration,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.transferSui(
+            sender,
+            coin,
+            recipient,
+            amount,
+            gas,
+            gasBudget,
+            gasPrice,
+            expiration,
+            transactionBlockResponseOptions,
+            requestType));
+  }
+
+  /**
+   * Move call.
+   *
+   * @param sender the signer
+   * @param packageObjectId the package object id
+   * @param module the module
+   * @param function the function
+   * @param typeArguments the type arguments
+   * @param arguments the arguments
+   * @param gas the gas
+   * @param gasBudget the gas budget
+   * @param gasPrice the gas price
+   * @param expiration the expiration
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse moveCall(
+      String sender,
+      String packageObjectId,
+      String module,
+      String function,
+      List<TypeTag> typeArguments,
+      List<?> arguments,
+      String gas,
+      Long gasBudget,
+      Long gasPrice,
+      Long expiration,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.moveCall(
+            sender,
+            packageObjectId,
+            module,
+            function,
+            typeArguments,
+            arguments,
+            gas,
+            gasBudget,
+            gasPrice,
+            expiration,
+            transactionBlockResponseOptions,
+            requestType));
+  }
+
+  /**
+   * Merge coin.
+   *
+   * @param sender the signer
+   * @param destCoin the dest coin
+   * @param sourceCoins the source coins
+   * @param gas the gas
+   * @param gasBudget the gas budget
+   * @param gasPrice the gas price
+   * @param expiration the expiration
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse mergeCoin(
+      String sender,
+      String destCoin,
+      List<String> sourceCoins,
+      String gas,
+      Long gasBudget,
+      Long gasPrice,
+      Long expiration,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.mergeCoin(
+            sender,
+            destCoin,
+            sourceCoins,
+            gas,
+            gasBudget,
+            gasPrice,
+            expiration,
+            transactionBlockResponseOptions,
+            requestType));
+  }
+
+  /**
+   * Transfer objects.
+   *
+   * @param sender the signer
+   * @param suiObjects the sui objects
+   * @param recipient the recipient
+   * @param gas the gas
+   * @param gasBudget the gas budget
+   * @param gasPrice the gas price
+   * @param expiration the expiration
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse transferObjects(
+      String sender,
+      List<String> suiObjects,
+      String recipient,
+      String gas,
+      Long gasBudget,
+      Long gasPrice,
+      Long expiration,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.transferObjects(
+            sender,
+            suiObjects,
+            recipient,
+            gas,
+            gasBudget,
+            gasPrice,
+            expiration,
+            transactionBlockResponseOptions,
+            requestType));
+  }
+
+  /**
+   * Publish.
+   *
+   * @param sender the signer
+   * @param compiledModules the compiled modules
+   * @param depIds the dep ids
+   * @param gas the gas
+   * @param gasBudget the gas budget
+   * @param gasPrice the gas price
+   * @param expiration the expiration
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse publish(
+      String sender,
+      List<String> compiledModules,
+      List<String> depIds,
+      String gas,
+      Long gasBudget,
+      Long gasPrice,
+      Long expiration,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.publish(
+            sender,
+            compiledModules,
+            depIds,
+            gas,
+            gasBudget,
+            gasPrice,
+            expiration,
+            transactionBlockResponseOptions,
+            requestType));
+  }
+
+  /**
+   * Execute transaction.
+   *
+   * @param signer the signer
+   * @param transactionData the transaction data
+   * @param transactionBlockResponseOptions the transaction response options
+   * @param requestType the request type
+   * @return the transaction block response
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse executeTransaction(
+      String signer,
+      TransactionData transactionData,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType)
+      throws SuiApiException {
+    return await(
+        sui.executeTransaction(
+            signer, transactionData, transactionBlockResponseOptions, requestType));
+  }
+
+  /**
+   * Dry run transaction.
+   *
+   * @param txBytes the tx bytes
+   * @return the transaction effects
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionEffects dryRunTransaction(String txBytes) throws SuiApiException {
+    return await(sui.dryRunTransaction(txBytes));
+  }
+
+  /**
+   * Gets object.
+   *
+   * @param id the id
+   * @param objectDataOptions the object data options
+   * @return the object
+   * @throws SuiApiException the sui api exception
+   */
+  public SuiObjectResponse getObject(String id, ObjectDataOptions objectDataOptions)
+      throws SuiApiException {
+    return await(sui.getObject(id, objectDataOptions));
+  }
+
+  /**
+   * Multi get objects.
+   *
+   * @param objectIds the object ids
+   * @param options the options
+   * @return the list
+   * @throws SuiApiException the sui api exception
+   */
+  public List<SuiObjectResponse> multiGetObjects(List<String> objectIds, ObjectDataOptions options)
+      throws SuiApiException {
+    return await(sui.multiGetObjects(objectIds, options));
+  }
+
+  /**
+   * Gets objects owned by address.
+   *
+   * @param address the address
+   * @param query the query
+   * @param cursor the cursor
+   * @param limit the limit
+   * @return the objects owned by address
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedObjectsResponse getObjectsOwnedByAddress(
+      String address, ObjectResponseQuery query, String cursor, Integer limit)
+      throws SuiApiException {
+    return await(sui.getObjectsOwnedByAddress(address, query, cursor, limit));
+  }
+
+  /**
+   * Query objects.
+   *
+   * @param query the query
+   * @param cursor the cursor
+   * @param limit the limit
+   * @return the paginated objects response
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedObjectsResponse queryObjects(
+      ObjectResponseQuery query, String cursor, Integer limit) throws SuiApiException {
+    return await(sui.queryObjects(query, cursor, limit));
+  }
+
+  /**
+   * Gets total transaction blocks.
+   *
+   * @return the total transaction blocks
+   * @throws SuiApiException the sui api exception
+   */
+  public Long getTotalTransactionBlocks() throws SuiApiException {
+    return await(sui.getTotalTransactionBlocks());
+  }
+
+  /**
+   * Gets transaction block.
+   *
+   * @param digest the digest
+   * @param options the options
+   * @return the transaction block
+   * @throws SuiApiException the sui api exception
+   */
+  public TransactionBlockResponse getTransactionBlock(
+      String digest, TransactionBlockResponseOptions options) throws SuiApiException {
+    return await(sui.getTransactionBlock(digest, options));
+  }
+
+  /**
+   * Multi get transaction blocks.
+   *
+   * @param digests the digests
+   * @param options the options
+   * @return the list
+   * @throws SuiApiException the sui api exception
+   */
+  public List<TransactionBlockResponse> multiGetTransactionBlocks(
+      List<String> digests, TransactionBlockResponseOptions options) throws SuiApiException {
+    return await(sui.multiGetTransactionBlocks(digests, options));
+  }
+
+  /**
+   * Query transaction blocks.
+   *
+   * @param query the query
+   * @param cursor the cursor
+   * @param limit the limit
+   * @param isDescOrder the is desc order
+   * @return the paginated transaction response
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedTransactionResponse queryTransactionBlocks(
+      TransactionBlockResponseQuery query, String cursor, Integer limit, boolean isDescOrder)
+      throws SuiApiException {
+    return await(sui.queryTransactionBlocks(query, cursor, limit, isDescOrder));
+  }
+
+  /**
+   * Gets events.
+   *
+   * @param query the query
+   * @param cursor the cursor
+   * @param limit the limit
+   * @param isDescOrder the is desc order
+   * @return the events
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedEvents getEvents(EventQuery query, EventId cursor, int limit, boolean isDescOrder)
+      throws SuiApiException {
+    return await(sui.getEvents(query, cursor, limit, isDescOrder));
+  }
+
+  /**
+   * Gets sui system state.
+   *
+   * @return the sui system state
+   * @throws SuiApiException the sui api exception
+   */
+  public SuiSystemState getSuiSystemState() throws SuiApiException {
+    return await(sui.getSuiSystemState());
+  }
+
+  /**
+   * Gets reference gas price.
+   *
+   * @return the reference gas price
+   * @throws SuiApiException the sui api exception
+   */
+  public Long getReferenceGasPrice() throws SuiApiException {
+    return await(sui.getReferenceGasPrice());
+  }
+
+  /**
+   * Gets all balances.
+   *
+   * @param address the address
+   * @return the all balances
+   * @throws SuiApiException the sui api exception
+   */
+  public List<Balance> getAllBalances(String address) throws SuiApiException {
+    return await(sui.getAllBalances(address));
+  }
+
+  /**
+   * Gets balance.
+   *
+   * @param address the address
+   * @param coinType the coin type
+   * @return the balance
+   * @throws SuiApiException the sui api exception
+   */
+  public Balance getBalance(String address, String coinType) throws SuiApiException {
+    return await(sui.getBalance(address, coinType));
+  }
+
+  /**
+   * Gets all coins.
+   *
+   * @param address the address
+   * @param cursor the cursor
+   * @param limit the limit
+   * @return the all coins
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedCoins getAllCoins(String address, String cursor, Integer limit)
+      throws SuiApiException {
+    return await(sui.getAllCoins(address, cursor, limit));
+  }
+
+  /**
+   * Gets coins.
+   *
+   * @param address the address
+   * @param coinType the coin type
+   * @param cursor the cursor
+   * @param limit the limit
+   * @return the coins
+   * @throws SuiApiException the sui api exception
+   */
+  public PaginatedCoins getCoins(String address, String coinType, String cursor, long limit)
+      throws SuiApiException {
+    return await(sui.getCoins(address, coinType, cursor, limit));
+  }
+
+  /**
+   * Gets checkpoint summary.
+   *
+   * @param seqNum the seq num
+   * @return the checkpoint summary
+   * @throws SuiApiException the sui api exception
+   */
+  public CheckpointSummary getCheckpointSummary(Long seqNum) throws SuiApiException {
+    return await(sui.getCheckpointSummary(seqNum));
+  }
+
+  /**
+   * Wait for the future, cancelling it when the wait is abandoned.
+   *
+   * @param <T> the result type
+   * @param future the future
+   * @return the result
+   * @throws SuiApiException the sui api exception
+   */
+  <T> T await(CompletableFuture<T> future) throws SuiApiException {
+    try {
+      return timeout.isZero() ? future.get() : future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new SuiApiException(e);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new SuiApiException(e);
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    }
+  }
+
+  private static SuiApiException unwrap(Throwable cause) {
+    Throwable actual = cause;
+    while (actual instanceof CompletionException && actual.getCause() != null) {
+      actual = actual.getCause();
+    }
+    if (actual instanceof SuiApiException) {
+      return (SuiApiException) actual;
+    }
+    if (actual instanceof RuntimeException) {
+      throw (RuntimeException) actual;
+    }
+    if (actual instanceof Error) {
+      throw (Error) actual;
+    }
+    return new SuiApiException(actual);
+  }
+
+  @Override
+  public void close() {
+    if (ownsForkExecutor) {
+      forkExecutor.shutdownNow();
+    }
+  }
+}
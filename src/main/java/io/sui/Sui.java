@@ -45,6 +45,7 @@ import io.sui.crypto.SuiKeyPair;
 import io.sui.jsonrpc.GsonJsonHandler;
 import io.sui.jsonrpc.JsonHandler;
 import io.sui.jsonrpc.JsonRpcClientProvider;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
 import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
 import io.sui.models.FaucetResponse;
 import io.sui.models.SuiApiException;
@@ -82,6 +83,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import org.bouncycastle.jcajce.provider.digest.Blake2b.Blake2b256;
 import org.bouncycastle.util.Arrays;
@@ -105,6 +108,8 @@ public class Sui {
 
   private final FaucetClient faucetClient;
 
+  private final Executor executor;
+
   /**
    * Instantiates a new Sui.
    *
@@ -113,11 +118,59 @@ public class Sui {
    * @param keyStorePath the key store path
    */
   public Sui(String fullNodeEndpoint, String faucetEndpoint, String keyStorePath) {
+    this(fullNodeEndpoint, faucetEndpoint, keyStorePath, new OkHttpJsonRpcClientOptions());
+  }
+
+  /**
+   * Instantiates a new Sui.
+   *
+   * @param fullNodeEndpoint the full node endpoint
+   * @param faucetEndpoint the faucet endpoint
+   * @param keyStorePath the key store path
+   * @param options the full node http client options
+   */
+  public Sui(
+      String fullNodeEndpoint,
+      String faucetEndpoint,
+      String keyStorePath,
+      OkHttpJsonRpcClientOptions options) {
+    this(
+        new OkHttpJsonRpcClientProvider(fullNodeEndpoint, new GsonJsonHandler(), options),
+        faucetEndpoint,
+        keyStorePath);
+  }
+
+  /**
+   * Instantiates a new Sui over any json rpc client provider, such as a {@link
+   * io.sui.jsonrpc.LoadBalancingJsonRpcClientProvider} spanning several full nodes.
+   *
+   * @param jsonRpcClientProvider the json rpc client provider
+   * @param faucetEndpoint the faucet endpoint
+   * @param keyStorePath the key store path
+   */
+  public Sui(
+      JsonRpcClientProvider jsonRpcClientProvider, String faucetEndpoint, String keyStorePath) {
+    this(jsonRpcClientProvider, faucetEndpoint, keyStorePath, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Instantiates a new Sui whose cpu bound stages, such as bcs decoding, building transactions and
+   * signing, run on the given executor instead of the http client threads.
+   *
+   * @param jsonRpcClientProvider the json rpc client provider
+   * @param faucetEndpoint the faucet endpoint
+   * @param keyStorePath the key store path
+   * @param executor the executor
+   */
+  public Sui(
+      JsonRpcClientProvider jsonRpcClientProvider,
+      String faucetEndpoint,
+      String keyStorePath,
+      Executor executor) {
+    this.executor = executor;
     this.keyStore = new FileBasedKeyStore(keyStorePath);
     final JsonHandler jsonHandler = new GsonJsonHandler();
-    final JsonRpcClientProvider jsonRpcClientProvider =
-        new OkHttpJsonRpcClientProvider(fullNodeEndpoint, jsonHandler);
-    this.queryClient = new QueryClientImpl(jsonRpcClientProvider);
+    this.queryClient = new QueryClientImpl(jsonRpcClientProvider, executor);
     this.executionClient = new ExecutionClientImpl(jsonRpcClientProvider);
     this.eventClient = new EventClientImpl(jsonRpcClientProvider);
     this.faucetClient = new OkhttpFaucetClient(faucetEndpoint, jsonHandler);
@@ -200,14 +253,15 @@ public class Sui {
                                                 (Function<Void, CompletableFuture<TransactionData>>)
                                                     unused -> transactionBlock.build());
 
-                                return transactionDataCompletableFuture.thenCompose(
+                                return transactionDataCompletableFuture.thenComposeAsync(
                                     (Function<
                                             TransactionData,
                                             CompletableFuture<TransactionBlockResponse>>)
                                         transactionData ->
                                             executeTransaction(
                                                 sender, transactionData,
-                                                transactionBlockResponseOptions, requestType));
+                                                transactionBlockResponseOptions, requestType),
+                                    executor);
                               });
                 });
   }
@@ -218,7 +272,7 @@ public class Sui {
    * @return the completable future
    */
   public CompletableFuture<TransactionBlock> newTransactionBlock() {
-    return CompletableFuture.completedFuture(new TransactionBlock(queryClient));
+    return CompletableFuture.completedFuture(new TransactionBlock(queryClient, executor));
   }
 
   /**
@@ -276,14 +330,15 @@ public class Sui {
                                                 (Function<Void, CompletableFuture<TransactionData>>)
                                                     unused -> transactionBlock.build());
 
-                                return transactionDataCompletableFuture.thenCompose(
+                                return transactionDataCompletableFuture.thenComposeAsync(
                                     (Function<
                                             TransactionData,
                                             CompletableFuture<TransactionBlockResponse>>)
                                         transactionData ->
                                             executeTransaction(
                                                 sender, transactionData,
-                                                transactionBlockResponseOptions, requestType));
+                                                transactionBlockResponseOptions, requestType),
+                                    executor);
                               });
                 });
   }
@@ -337,14 +392,15 @@ public class Sui {
                                                 (Function<Void, CompletableFuture<TransactionData>>)
                                                     unused -> transactionBlock.build());
 
-                                return transactionDataCompletableFuture.thenCompose(
+                                return transactionDataCompletableFuture.thenComposeAsync(
                                     (Function<
                                             TransactionData,
                                             CompletableFuture<TransactionBlockResponse>>)
                                         transactionData ->
                                             executeTransaction(
                                                 sender, transactionData,
-                                                transactionBlockResponseOptions, requestType));
+                                                transactionBlockResponseOptions, requestType),
+                                    executor);
                               });
                 });
   }
@@ -398,14 +454,15 @@ public class Sui {
                                                 (Function<Void, CompletableFuture<TransactionData>>)
                                                     unused -> transactionBlock.build());
 
-                                return transactionDataCompletableFuture.thenCompose(
+                                return transactionDataCompletableFuture.thenComposeAsync(
                                     (Function<
                                             TransactionData,
                                             CompletableFuture<TransactionBlockResponse>>)
                                         transactionData ->
                                             executeTransaction(
                                                 sender, transactionData,
-                                                transactionBlockResponseOptions, requestType));
+                                                transactionBlockResponseOptions, requestType),
+                                    executor);
                               });
                 });
   }
@@ -459,12 +516,13 @@ public class Sui {
                               (Function<Void, CompletableFuture<TransactionData>>)
                                   unused -> transactionBlock.build());
 
-                  return transactionDataCompletableFuture.thenCompose(
+                  return transactionDataCompletableFuture.thenComposeAsync(
                       (Function<TransactionData, CompletableFuture<TransactionBlockResponse>>)
                           transactionData ->
                               executeTransaction(
                                   sender, transactionData,
-                                  transactionBlockResponseOptions, requestType));
+                                  transactionBlockResponseOptions, requestType),
+                      executor);
                 });
   }
 
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.objects.Balance;
+import io.sui.models.objects.CheckpointContents;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.CoinMetadata;
+import io.sui.models.objects.CommitteeInfoResponse;
+import io.sui.models.objects.HydratedCheckpoint;
+import io.sui.models.objects.MoveFunctionArgType;
+import io.sui.models.objects.MoveNormalizedFunction;
+import io.sui.models.objects.MoveNormalizedModule;
+import io.sui.models.objects.MoveNormalizedStruct;
+import io.sui.models.objects.ObjectDataOptions;
+import io.sui.models.objects.ObjectResponse;
+import io.sui.models.objects.ObjectResponseQuery;
+import io.sui.models.objects.PaginatedCoins;
+import io.sui.models.objects.PaginatedObjectsResponse;
+import io.sui.models.objects.SuiObjectRef;
+import io.sui.models.objects.SuiObjectResponse;
+import io.sui.models.objects.SuiSystemState;
+import io.sui.models.objects.ValidatorMetadata;
+import io.sui.models.transactions.PaginatedTransactionResponse;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import io.sui.models.transactions.TransactionBlockResponseQuery;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Archived query client, answering checkpoint queries from a {@link CheckpointArchive}
+ * when it holds the checkpoint and from the delegate otherwise.
+ *
+ * <p>Archive reads happen on the calling thread at disk speed; a failed read falls back to the
+ * delegate. Every other query goes to the delegate unchanged.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class ArchivedQueryClient implements QueryClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ArchivedQueryClient.class);
+
+  private final QueryClient delegate;
+
+  private final CheckpointArchive archive;
+
+  /**
+   * Instantiates a new Archived query client.
+   *
+   * @param delegate the delegate
+   * @param archive the archive
+   */
+  public ArchivedQueryClient(QueryClient delegate, CheckpointArchive archive) {
+    this.delegate = delegate;
+    this.archive = archive;
+  }
+
+  @Override
+  public CompletableFuture<SuiObjectResponse> getObject(
+      String id, ObjectDataOptions objectDataOptions) {
+    return delegate.getObject(id, objectDataOptions);
+  }
+
+  @Override
+  public CompletableFuture<PaginatedObjectsResponse> getObjectsOwnedByAddress(
+      String address, ObjectResponseQuery query, String cursor, Integer limit) {
+    return delegate.getObjectsOwnedByAddress(address, query, cursor, limit);
+  }
+
+  @Override
+  public CompletableFuture<Long> getTotalTransactionBlocks() {
+    return delegate.getTotalTransactionBlocks();
+  }
+
+  @Override
+  public CompletableFuture<TransactionBlockResponse> getTransactionBlock(
+      String digest, TransactionBlockResponseOptions options) {
+    return delegate.getTransactionBlock(digest, options);
+  }
+
+  @Override
+  public CompletableFuture<List<TransactionBlockResponse>> multiGetTransactionBlocks(
+      List<String> digests, TransactionBlockResponseOptions options) {
+    return delegate.multiGetTransactionBlocks(digests, options);
+  }
+
+  @Override
+  public CompletableFuture<List<SuiObjectResponse>> multiGetObjects(
+      List<String> objectIds, ObjectDataOptions options) {
+    return delegate.multiGetObjects(objectIds, options);
+  }
+
+  @Override
+  public CompletableFuture<SuiSystemState> getSuiSystemState() {
+    return delegate.getSuiSystemState();
+  }
+
+  @Override
+  public CompletableFuture<List<ValidatorMetadata>> getValidators() {
+    return delegate.getValidators();
+  }
+
+  @Override
+  public CompletableFuture<PaginatedEvents> getEvents(
+      EventQuery query, EventId cursor, int limit, boolean isDescOrder) {
+    return delegate.getEvents(query, cursor, limit, isDescOrder);
+  }
+
+  @Override
+  public CompletableFuture<Map<String, MoveNormalizedModule>> getNormalizedMoveModulesByPackage(
+      String packageId) {
+    return delegate.getNormalizedMoveModulesByPackage(packageId);
+  }
+
+  @Override
+  public CompletableFuture<CommitteeInfoResponse> getCommitteeInfo(Long epoch) {
+    return delegate.getCommitteeInfo(epoch);
+  }
+
+  @Override
+  public CompletableFuture<List<MoveFunctionArgType>> getMoveFunctionArgTypes(
+      String suiPackage, String module, String function) {
+    return delegate.getMoveFunctionArgTypes(suiPackage, module, function);
+  }
+
+  @Override
+  public CompletableFuture<MoveNormalizedFunction> getNormalizedMoveFunction(
+      String suiPackage, String module, String function) {
+    return delegate.getNormalizedMoveFunction(suiPackage, module, function);
+  }
+
+  @Override
+  public CompletableFuture<MoveNormalizedModule> getNormalizedMoveModule(
+      String suiPackage, String module) {
+    return delegate.getNormalizedMoveModule(suiPackage, module);
+  }
+
+  @Override
+  public CompletableFuture<MoveNormalizedStruct> getNormalizedMoveStruct(
+      String suiPackage, String module, String struct) {
+    return delegate.getNormalizedMoveStruct(suiPackage, module, struct);
+  }
+
+  @Override
+  public CompletableFuture<ObjectResponse> tryGetPastObject(String objectId, long version) {
+    return delegate.tryGetPastObject(objectId, version);
+  }
+
+  @Override
+  public CompletableFuture<PaginatedTransactionResponse> queryTransactionBlocks(
+      TransactionBlockResponseQuery query, String cursor, Integer limit, boolean isDescOrder) {
+    return delegate.queryTransactionBlocks(query, cursor, limit, isDescOrder);
+  }
+
+  @Override
+  public CompletableFuture<PaginatedObjectsResponse> queryObjects(
+      ObjectResponseQuery query, String cursor, Integer limit) {
+    return delegate.queryObjects(query, cursor, limit);
+  }
+
+  @Override
+  public CompletableFuture<CoinMetadata> getCoinMetadata(String coinType) {
+    return delegate.getCoinMetadata(coinType);
+  }
+
+  @Override
+  public CompletableFuture<Long> getReferenceGasPrice() {
+    return delegate.getReferenceGasPrice();
+  }
+
+  @Override
+  public CompletableFuture<SuiObjectRef> getObjectRef(
+      String id, ObjectDataOptions objectDataOptions) {
+    return delegate.getObjectRef(id, objectDataOptions);
+  }
+
+  @Override
+  public CompletableFuture<List<Balance>> getAllBalances(String address) {
+    return delegate.getAllBalances(address);
+  }
+
+  @Override
+  public CompletableFuture<PaginatedCoins> getAllCoins(
+      String address, String cursor, Integer limit) {
+    return delegate.getAllCoins(address, cursor, limit);
+  }
+
+  @Override
+  public CompletableFuture<PaginatedCoins> getCoins(
+      String address, String coinType, String cursor, long limit) {
+    return delegate.getCoins(address, coinType, cursor, limit);
+  }
+
+  @Override
+  public CompletableFuture<Balance> getBalance(String address, String coinType) {
+    return delegate.getBalance(address, coinType);
+  }
+
+  @Override
+  public CompletableFuture<CheckpointContents> getCheckpointContents(long seqNum) {
+    return archived(
+        seqNum, HydratedCheckpoint::getContent, () -> delegate.getCheckpointContents(seqNum));
+  }
+
+  @Override
+  public CompletableFuture<CheckpointContents> getCheckpointContentsByDigest(
+      String checkpointDigest) {
+    return delegate.getCheckpointContentsByDigest(checkpointDigest);
+  }
+
+  @Override
+  public CompletableFuture<CheckpointSummary> getCheckpointSummary(Long seqNum) {
+    return archived(
+        seqNum, HydratedCheckpoint::getSummary, () -> delegate.getCheckpointSummary(seqNum));
+  }
+
+  @Override
+  public CompletableFuture<CheckpointSummary> getCheckpointSummaryByDigest(
+      String checkpointDigest) {
+    return delegate.getCheckpointSummaryByDigest(checkpointDigest);
+  }
+
+  private <T> CompletableFuture<T> archived(
+      Long seqNum, Function<HydratedCheckpoint, T> part, Supplier<CompletableFuture<T>> fallback) {
+    if (seqNum != null) {
+      try {
+        final Optional<HydratedCheckpoint> checkpoint = archive.get(seqNum);
+        if (checkpoint.isPresent()) {
+          return CompletableFuture.completedFuture(part.apply(checkpoint.get()));
+        }
+      } catch (IOException | RuntimeException e) {
+        LOGGER.warn(String.format("reading checkpoint %d from the archive failed", seqNum), e);
+      }
+    }
+    return fallback.get();
+  }
+}
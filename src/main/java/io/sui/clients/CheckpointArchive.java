@@ -0,0 +1,366 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.models.objects.HydratedCheckpoint;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * The type Checkpoint archive, an embedded append-only store of hydrated checkpoints.
+ *
+ * <p>Checkpoints are appended in sequence order as length prefixed json records to segment files
+ * that roll over at the segment size. A memory-mapped index holds, for every sequence number, the
+ * segment, offset and length of its record, so a lookup is one index read plus one record read, and
+ * sealed segments are themselves memory-mapped for reading. The record count in the index header is
+ * only written by {@link #flush()}, after the segment data has been forced to disk, so after a
+ * crash of the process or of the machine the archive reopens with the checkpoints of the last
+ * flush, and anything appended later, torn or not, is ignored and overwritten.
+ *
+ * <p>Appends are serialized, reads are lock free and may run concurrently with appends.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CheckpointArchive implements AutoCloseable {
+
+  /** The default segment size. */
+  public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+  private static final String INDEX_FILE = "index";
+
+  private static final int HEADER_BYTES = 16;
+
+  private static final int ENTRY_BYTES = 16;
+
+  private static final int INDEX_GROWTH_ENTRIES = 1 << 16;
+
+  private final Path dir;
+
+  private final GsonJsonHandler jsonHandler;
+
+  private final long segmentBytes;
+
+  private final ReentrantLock appendLock = new ReentrantLock();
+
+  private final FileChannel indexChannel;
+
+  private final Map<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+  private final Map<Integer, MappedByteBuffer> sealed = new ConcurrentHashMap<>();
+
+  private volatile MappedByteBuffer index;
+
+  private volatile long base;
+
+  private volatile long count;
+
+  private volatile int activeSegment;
+
+  private FileChannel activeChannel;
+
+  private long activeSize;
+
+  /**
+   * Instantiates a new Checkpoint archive with the default segment size.
+   *
+   * @param dir the dir
+   * @param jsonHandler the json handler
+   * @throws IOException the io exception
+   */
+  public CheckpointArchive(Path dir, GsonJsonHandler jsonHandler) throws IOException {
+    this(dir, jsonHandler, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Instantiates a new Checkpoint archive, creating the directory if needed.
+   *
+   * @param dir the dir
+   * @param jsonHandler the json handler
+   * @param segmentBytes the size after which a new segment is started
+   * @throws IOException the io exception
+   */
+  public CheckpointArchive(Path dir, GsonJsonHandler jsonHandler, long segmentBytes)
+      throws IOException {
+    this.dir = dir;
+    this.jsonHandler = jsonHandler;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(dir);
+    this.indexChannel =
+        FileChannel.open(
+            dir.resolve(INDEX_FILE),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    final boolean fresh = indexChannel.size() < HEADER_BYTES;
+    this.index = map(Math.max(indexChannel.size(), indexBytes(INDEX_GROWTH_ENTRIES)));
+    if (fresh) {
+      index.putLong(0, -1);
+      index.putLong(8, 0);
+    }
+    this.base = index.getLong(0);
+    this.count = index.getLong(8);
+    if (count == 0) {
+      this.activeSegment = 0;
+      this.activeSize = 0;
+    } else {
+      final long last = indexBytes(count - 1);
+      this.activeSegment = index.getInt((int) last);
+      this.activeSize = index.getLong((int) last + 4) + 4 + index.getInt((int) last + 12);
+    }
+    this.activeChannel =
+        FileChannel.open(
+            segment(activeSegment),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    activeChannel.truncate(activeSize);
+  }
+
+  /**
+   * Gets first archived sequence number.
+   *
+   * @return the first sequence number, empty when the archive is empty
+   */
+  public OptionalLong getFirstSequenceNumber() {
+    return count == 0 ? OptionalLong.empty() : OptionalLong.of(base);
+  }
+
+  /**
+   * Gets last archived sequence number.
+   *
+   * @return the last sequence number, empty when the archive is empty
+   */
+  public OptionalLong getLastSequenceNumber() {
+    final long archived = count;
+    return archived == 0 ? OptionalLong.empty() : OptionalLong.of(base + archived - 1);
+  }
+
+  /**
+   * Append the checkpoint following the last archived one, any checkpoint when empty. It is
+   * readable at once and survives a reopen after the next {@link #flush()}.
+   *
+   * @param checkpoint the checkpoint
+   * @throws IOException the io exception
+   */
+  public void append(HydratedCheckpoint checkpoint) throws IOException {
+    final byte[] record = jsonHandler.toJsonValue(checkpoint).getBytes(StandardCharsets.UTF_8);
+    appendLock.lock();
+    try {
+      final long sequenceNumber = checkpoint.getSequenceNumber();
+      if (count > 0 && sequenceNumber != base + count) {
+        throw new IllegalArgumentException(
+            String.format(
+                "expected checkpoint %d, got %d, the archive is append only",
+                base + count, sequenceNumber));
+      }
+      if (activeSize > 0 && activeSize + 4 + record.length > segmentBytes) {
+        roll();
+      }
+      final ByteBuffer buffer = ByteBuffer.allocate(4 + record.length);
+      buffer.putInt(record.length).put(record).flip();
+      long position = activeSize;
+      while (buffer.hasRemaining()) {
+        position += activeChannel.write(buffer, position);
+      }
+      if (indexBytes(count + 1) > index.capacity()) {
+        index = map(indexBytes(count + 1 + INDEX_GROWTH_ENTRIES));
+      }
+      final int entry = (int) indexBytes(count);
+      index.putInt(entry, activeSegment);
+      index.putLong(entry + 4, activeSize);
+      index.putInt(entry + 12, record.length);
+      if (count == 0) {
+        base = sequenceNumber;
+        index.putLong(0, sequenceNumber);
+      }
+      activeSize = position;
+      count++;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Get an archived checkpoint.
+   *
+   * @param sequenceNumber the sequence number
+   * @return the checkpoint, empty when it is not archived
+   * @throws IOException the io exception
+   */
+  public Optional<HydratedCheckpoint> get(long sequenceNumber) throws IOException {
+    final long archived = count;
+    final long first = base;
+    if (archived == 0 || sequenceNumber < first || sequenceNumber >= first + archived) {
+      return Optional.empty();
+    }
+    final MappedByteBuffer entries = index;
+    final int entry = (int) indexBytes(sequenceNumber - first);
+    final int segment = entries.getInt(entry);
+    final long offset = entries.getLong(entry + 4) + 4;
+    final byte[] record = new byte[entries.getInt(entry + 12)];
+    if (segment >= activeSegment) {
+      try {
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        final FileChannel reader = reader(segment);
+        while (buffer.hasRemaining()) {
+          if (reader.read(buffer, offset + buffer.position()) < 0) {
+            throw new IOException(String.format("checkpoint %d is truncated", sequenceNumber));
+          }
+        }
+        return Optional.of(decode(record));
+      } catch (ClosedChannelException e) {
+        // the segment was sealed while reading it, read it from its mapping instead
+      }
+    }
+    final ByteBuffer view = sealed(segment).duplicate();
+    view.position((int) offset);
+    view.get(record);
+    return Optional.of(decode(record));
+  }
+
+  private HydratedCheckpoint decode(byte[] record) {
+    return jsonHandler.fromJsonValue(
+        new String(record, StandardCharsets.UTF_8), HydratedCheckpoint.class);
+  }
+
+  /**
+   * Stream the archived checkpoints within a range, read lazily.
+   *
+   * @param fromInclusive the first sequence number
+   * @param toExclusive the sequence number after the last one
+   * @return the stream, failing with {@link UncheckedIOException} on read errors
+   */
+  public Stream<HydratedCheckpoint> stream(long fromInclusive, long toExclusive) {
+    final long first = base;
+    final long end = first + count;
+    if (count == 0) {
+      return Stream.empty();
+    }
+    return LongStream.range(Math.max(fromInclusive, first), Math.min(toExclusive, end))
+        .mapToObj(
+            sequenceNumber -> {
+              try {
+                return get(sequenceNumber).orElseThrow(IllegalStateException::new);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  /**
+   * Flush appended checkpoints and then the index to disk, making them durable.
+   *
+   * @throws IOException the io exception
+   */
+  public void flush() throws IOException {
+    appendLock.lock();
+    try {
+      activeChannel.force(false);
+      index.force();
+      // published only once the records and their entries are on disk
+      index.putLong(8, count);
+      index.force();
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  private void roll() throws IOException {
+    activeChannel.force(false);
+    activeChannel.close();
+    activeChannel =
+        FileChannel.open(
+            segment(activeSegment + 1),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    activeChannel.truncate(0);
+    activeSize = 0;
+    activeSegment++;
+    final FileChannel previous = readers.remove(activeSegment - 1);
+    if (previous != null) {
+      previous.close();
+    }
+  }
+
+  private MappedByteBuffer sealed(int segment) {
+    return sealed.computeIfAbsent(
+        segment,
+        key -> {
+          try (FileChannel channel = FileChannel.open(segment(key), StandardOpenOption.READ)) {
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  private FileChannel reader(int segment) {
+    return readers.computeIfAbsent(
+        segment,
+        key -> {
+          try {
+            return FileChannel.open(segment(key), StandardOpenOption.READ);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  private MappedByteBuffer map(long bytes) throws IOException {
+    return indexChannel.map(MapMode.READ_WRITE, 0, bytes);
+  }
+
+  private Path segment(int segment) {
+    return dir.resolve(String.format("segment-%010d", segment));
+  }
+
+  private static long indexBytes(long entries) {
+    return HEADER_BYTES + entries * ENTRY_BYTES;
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    activeChannel.close();
+    indexChannel.close();
+    for (FileChannel reader : readers.values()) {
+      reader.close();
+    }
+    readers.clear();
+    sealed.clear();
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.sui.models.objects.CheckpointContents;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.HydratedCheckpoint;
+import io.sui.models.transactions.ExecutionDigests;
+import io.sui.models.transactions.TransactionBlockResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Checkpoint streamer, an ordered ingestion pipeline of fully hydrated checkpoints.
+ *
+ * <p>A window of checkpoints after the last delivered one is fetched concurrently. For each of them
+ * the summary and the contents are requested together, and the transaction blocks as soon as the
+ * contents arrive. Hydrated checkpoints complete in any order and are handed to a bounded queue
+ * strictly by sequence number, the window sliding forward as the consumer takes them.
+ *
+ * <p>A checkpoint that fails, usually because it is past the chain tip, is parked; only the lowest
+ * parked checkpoint is retried every retry interval and the others follow once it succeeds, so
+ * following the tip costs one request per interval. Streaming starts right after the watermark,
+ * which the consumer moves with {@link #commit(long)} once a checkpoint is processed.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CheckpointStreamer implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointStreamer.class);
+
+  private final QueryClient queryClient;
+
+  private final CheckpointStreamerOptions options;
+
+  private final CheckpointWatermark watermark;
+
+  private final BlockingQueue<HydratedCheckpoint> queue;
+
+  private final ExecutorService deliverer;
+
+  private final ScheduledExecutorService retrier;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition readyCondition = lock.newCondition();
+
+  private final TreeMap<Long, HydratedCheckpoint> ready = new TreeMap<>();
+
+  private final TreeSet<Long> parked = new TreeSet<>();
+
+  private boolean retrying;
+
+  private long retryingSequenceNumber = -1;
+
+  private long nextLaunch = -1;
+
+  private long nextDeliver = -1;
+
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new Checkpoint streamer.
+   *
+   * @param queryClient the query client
+   * @param options the options
+   * @param watermark the watermark
+   */
+  public CheckpointStreamer(
+      QueryClient queryClient, CheckpointStreamerOptions options, CheckpointWatermark watermark) {
+    this.queryClient = queryClient;
+    this.options = options;
+    this.watermark = watermark;
+    this.queue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    this.deliverer =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("sui-checkpoint-deliverer-%d")
+                .build());
+    this.retrier =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("sui-checkpoint-retrier-%d")
+                .build());
+  }
+
+  /** Start streaming right after the watermark, or at the start sequence number without one. */
+  public void start() {
+    lock.lock();
+    try {
+      if (nextDeliver >= 0) {
+        throw new IllegalStateException("checkpoint streamer already started");
+      }
+      nextDeliver = watermark.load().orElse(options.getStartSequenceNumber() - 1) + 1;
+      nextLaunch = nextDeliver;
+    } finally {
+      lock.unlock();
+    }
+    LOGGER.info(String.format("streaming checkpoints from %d", nextDeliver));
+    deliverer.execute(this::deliver);
+    launchWindow();
+  }
+
+  /**
+   * Take the next checkpoint, waiting until it is hydrated.
+   *
+   * @return the hydrated checkpoint
+   * @throws InterruptedException the interrupted exception
+   */
+  public HydratedCheckpoint take() throws InterruptedException {
+    return queue.take();
+  }
+
+  /**
+   * Poll the next checkpoint.
+   *
+   * @param timeout the timeout
+   * @return the hydrated checkpoint, null when none arrived within the timeout
+   * @throws InterruptedException the interrupted exception
+   */
+  public HydratedCheckpoint poll(Duration timeout) throws InterruptedException {
+    return queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Commit a processed checkpoint, a restarted streamer resumes right after it.
+   *
+   * @param sequenceNumber the sequence number
+   */
+  public void commit(long sequenceNumber) {
+    watermark.save(sequenceNumber);
+  }
+
+  /**
+   * Gets the sequence number of the next checkpoint to hand to the queue.
+   *
+   * @return the next sequence number
+   */
+  public long getNextSequenceNumber() {
+    lock.lock();
+    try {
+      return nextDeliver;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void launchWindow() {
+    final List<Long> launches = new ArrayList<>();
+    lock.lock();
+    try {
+      while (nextLaunch < nextDeliver + options.getWindowSize()) {
+        launches.add(nextLaunch++);
+      }
+    } finally {
+      lock.unlock();
+    }
+    launches.forEach(this::hydrate);
+  }
+
+  private void hydrate(long sequenceNumber) {
+    if (closed) {
+      return;
+    }
+    try {
+      final CompletableFuture<CheckpointSummary> summary =
+          queryClient.getCheckpointSummary(sequenceNumber);
+      final CompletableFuture<CheckpointContents> contents =
+          queryClient.getCheckpointContents(sequenceNumber);
+      final CompletableFuture<List<TransactionBlockResponse>> transactionBlocks =
+          contents.thenCompose(this::transactionBlocks);
+      CompletableFuture.allOf(summary, contents, transactionBlocks)
+          .thenApply(
+              unused -> {
+                final HydratedCheckpoint checkpoint = new HydratedCheckpoint();
+                checkpoint.setSequenceNumber(sequenceNumber);
+                checkpoint.setSummary(summary.join());
+                checkpoint.setContent(contents.join());
+                checkpoint.setTransactionBlocks(transactionBlocks.join());
+                return checkpoint;
+              })
+          .whenComplete(
+              (checkpoint, throwable) -> {
+                if (throwable != null) {
+                  onFailure(sequenceNumber, throwable);
+                } else {
+                  onHydrated(checkpoint);
+                }
+              });
+    } catch (Throwable throwable) {
+      onFailure(sequenceNumber, throwable);
+    }
+  }
+
+  private CompletableFuture<List<TransactionBlockResponse>> transactionBlocks(
+      CheckpointContents contents) {
+    if (contents.getTransactions() == null || contents.getTransactions().isEmpty()) {
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+    return queryClient.multiGetTransactionBlocks(
+        contents.getTransactions().stream()
+            .map(ExecutionDigests::getTransaction)
+            .collect(Collectors.toList()),
+        options.getTransactionBlockResponseOptions());
+  }
+
+  private void onHydrated(HydratedCheckpoint checkpoint) {
+    final List<Long> relaunches = new ArrayList<>();
+    lock.lock();
+    try {
+      ready.put(checkpoint.getSequenceNumber(), checkpoint);
+      if (checkpoint.getSequenceNumber() == retryingSequenceNumber) {
+        relaunches.addAll(parked);
+        parked.clear();
+        retrying = false;
+        retryingSequenceNumber = -1;
+      }
+      readyCondition.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    relaunches.forEach(this::hydrate);
+  }
+
+  private void onFailure(long sequenceNumber, Throwable throwable) {
+    if (closed) {
+      return;
+    }
+    LOGGER.debug(
+        String.format("checkpoint %d not hydrated, parking it", sequenceNumber), throwable);
+    final boolean schedule;
+    lock.lock();
+    try {
+      parked.add(sequenceNumber);
+      schedule = !retrying || sequenceNumber == retryingSequenceNumber;
+      if (schedule) {
+        retrying = true;
+        retryingSequenceNumber = -1;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (schedule) {
+      retrier.schedule(
+          this::retryLowest, options.getRetryInterval().toNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void retryLowest() {
+    final Long lowest;
+    lock.lock();
+    try {
+      lowest = parked.pollFirst();
+      if (lowest == null) {
+        retrying = false;
+        return;
+      }
+      retryingSequenceNumber = lowest;
+    } finally {
+      lock.unlock();
+    }
+    hydrate(lowest);
+  }
+
+  private void deliver() {
+    try {
+      while (!closed) {
+        HydratedCheckpoint next;
+        lock.lock();
+        try {
+          while ((next = ready.remove(nextDeliver)) == null) {
+            readyCondition.await();
+          }
+        } finally {
+          lock.unlock();
+        }
+        queue.put(next);
+        lock.lock();
+        try {
+          nextDeliver++;
+        } finally {
+          lock.unlock();
+        }
+        launchWindow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    deliverer.shutdownNow();
+    retrier.shutdownNow();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Checkpoint streamer options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CheckpointStreamerOptions {
+
+  private int windowSize = 32;
+
+  private int queueCapacity = 64;
+
+  private long startSequenceNumber = 0;
+
+  private Duration retryInterval = Duration.ofMillis(500);
+
+  private TransactionBlockResponseOptions transactionBlockResponseOptions =
+      new TransactionBlockResponseOptions();
+
+  /**
+   * Gets window size, the most checkpoints fetched concurrently ahead of the next one delivered.
+   *
+   * @return the window size
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * Sets window size.
+   *
+   * @param windowSize the window size
+   */
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Gets queue capacity, the most delivered checkpoints waiting for the consumer.
+   *
+   * @return the queue capacity
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  /**
+   * Sets queue capacity.
+   *
+   * @param queueCapacity the queue capacity
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Gets start sequence number, used when the watermark is empty.
+   *
+   * @return the start sequence number
+   */
+  public long getStartSequenceNumber() {
+    return startSequenceNumber;
+  }
+
+  /**
+   * Sets start sequence number.
+   *
+   * @param startSequenceNumber the start sequence number
+   */
+  public void setStartSequenceNumber(long startSequenceNumber) {
+    this.startSequenceNumber = startSequenceNumber;
+  }
+
+  /**
+   * Gets retry interval of a checkpoint that failed or is not yet certified.
+   *
+   * @return the retry interval
+   */
+  public Duration getRetryInterval() {
+    return retryInterval;
+  }
+
+  /**
+   * Sets retry interval.
+   *
+   * @param retryInterval the retry interval
+   */
+  public void setRetryInterval(Duration retryInterval) {
+    this.retryInterval = retryInterval;
+  }
+
+  /**
+   * Gets transaction block response options used to hydrate checkpoints.
+   *
+   * @return the transaction block response options
+   */
+  public TransactionBlockResponseOptions getTransactionBlockResponseOptions() {
+    return transactionBlockResponseOptions;
+  }
+
+  /**
+   * Sets transaction block response options.
+   *
+   * @param transactionBlockResponseOptions the transaction block response options
+   */
+  public void setTransactionBlockResponseOptions(
+      TransactionBlockResponseOptions transactionBlockResponseOptions) {
+    this.transactionBlockResponseOptions = transactionBlockResponseOptions;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CheckpointStreamerOptions)) {
+      return false;
+    }
+    CheckpointStreamerOptions that = (CheckpointStreamerOptions) o;
+    return windowSize == that.windowSize
+        && queueCapacity == that.queueCapacity
+        && startSequenceNumber == that.startSequenceNumber
+        && retryInterval.equals(that.retryInterval)
+        && transactionBlockResponseOptions.equals(that.transactionBlockResponseOptions);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        windowSize,
+        queueCapacity,
+        startSequenceNumber,
+        retryInterval,
+        transactionBlockResponseOptions);
+  }
+
+  @Override
+  public String toString() {
+    return "CheckpointStreamerOptions{"
+        + "windowSize="
+        + windowSize
+        + ", queueCapacity="
+        + queueCapacity
+        + ", startSequenceNumber="
+        + startSequenceNumber
+        + ", retryInterval="
+        + retryInterval
+        + ", transactionBlockResponseOptions="
+        + transactionBlockResponseOptions
+        + '}';
+  }
+}
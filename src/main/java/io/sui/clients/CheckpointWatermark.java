@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The interface Checkpoint watermark, the last checkpoint sequence number a consumer fully
+ * processed, persisted so that a {@link CheckpointStreamer} resumes right after it.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public interface CheckpointWatermark {
+
+  /**
+   * Load the watermark.
+   *
+   * @return the last processed sequence number, empty when nothing was processed yet
+   */
+  OptionalLong load();
+
+  /**
+   * Save the watermark.
+   *
+   * @param sequenceNumber the last processed sequence number
+   */
+  void save(long sequenceNumber);
+
+  /**
+   * In memory checkpoint watermark, lost with the process.
+   *
+   * @return the checkpoint watermark
+   */
+  static CheckpointWatermark inMemory() {
+    return new InMemory();
+  }
+
+  /**
+   * File checkpoint watermark, replacing the file atomically on every save.
+   *
+   * @param path the path
+   * @return the checkpoint watermark
+   */
+  static CheckpointWatermark file(Path path) {
+    return new File(path);
+  }
+
+  /**
+   * Checkpoint watermark kept in a cursor store under a consumer name.
+   *
+   * @param store the store
+   * @param name the consumer name
+   * @return the checkpoint watermark
+   */
+  static CheckpointWatermark cursorStore(CursorStore store, String name) {
+    return new Stored(store, name);
+  }
+
+  /** The type In memory. */
+  class InMemory implements CheckpointWatermark {
+
+    private final AtomicLong sequenceNumber = new AtomicLong(-1);
+
+    @Override
+    public OptionalLong load() {
+      final long value = sequenceNumber.get();
+      return value < 0 ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    @Override
+    public void save(long sequenceNumber) {
+      this.sequenceNumber.set(sequenceNumber);
+    }
+  }
+
+  /** The type File. */
+  class File implements CheckpointWatermark {
+
+    private final Path path;
+
+    /**
+     * Instantiates a new File.
+     *
+     * @param path the path
+     */
+    public File(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    public OptionalLong load() {
+      if (!Files.exists(path)) {
+        return OptionalLong.empty();
+      }
+      try {
+        return OptionalLong.of(
+            Long.parseLong(new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void save(long sequenceNumber) {
+      final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      try {
+        Files.write(tmp, Long.toString(sequenceNumber).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** The type Stored. */
+  class Stored implements CheckpointWatermark {
+
+    private final CursorStore store;
+
+    private final String name;
+
+    /**
+     * Instantiates a new Stored.
+     *
+     * @param store the store
+     * @param name the name
+     */
+    public Stored(CursorStore store, String name) {
+      this.store = store;
+      this.name = name;
+    }
+
+    @Override
+    public OptionalLong load() {
+      return store
+          .load(name)
+          .map(cursor -> OptionalLong.of(Long.parseLong(cursor)))
+          .orElse(OptionalLong.empty());
+    }
+
+    @Override
+    public void save(long sequenceNumber) {
+      store.save(name, Long.toString(sequenceNumber));
+    }
+  }
+}
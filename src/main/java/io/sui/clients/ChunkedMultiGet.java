@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.collect.Lists;
+import io.sui.jsonrpc.JsonRpcClientProvider;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The type Chunked multi get, splitting a multi get into chunks the fullnode accepts.
+ *
+ * <p>At most the configured number of chunks are in flight at once, each finished chunk starting
+ * the next one. Results are written back at their input positions, and the ids of failed chunks are
+ * reported through a {@link MultiGetException}.
+ *
+ * @param <T> the result type
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class ChunkedMultiGet<T> {
+
+  private final List<List<String>> chunks;
+
+  private final Function<List<String>, CompletableFuture<List<T>>> call;
+
+  private final Executor executor;
+
+  private final Object[] results;
+
+  private final Map<String, Throwable> failures = new LinkedHashMap<>();
+
+  private final AtomicInteger nextChunk = new AtomicInteger();
+
+  private final AtomicInteger remaining;
+
+  private final CompletableFuture<List<T>> future = new CompletableFuture<>();
+
+  private ChunkedMultiGet(
+      List<String> ids,
+      int chunkSize,
+      Function<List<String>, CompletableFuture<List<T>>> call,
+      Executor executor) {
+    this.chunks = Lists.partition(ids, chunkSize);
+    this.call = call;
+    this.executor = executor;
+    this.results = new Object[ids.size()];
+    this.remaining = new AtomicInteger(chunks.size());
+  }
+
+  /**
+   * Multi get the ids in chunks of at most chunk size, a single call when they fit in one.
+   *
+   * @param ids the ids
+   * @param chunkSize the chunk size
+   * @param concurrency the maximum chunks in flight
+   * @param call the multi get call of one chunk
+   * @param executor the executor running continuations
+   */
+  static <T> CompletableFuture<List<T>> multiGet(
+      List<String> ids,
+      int chunkSize,
+      int concurrency,
+      Function<List<String>, CompletableFuture<List<T>>> call,
+      Executor executor) {
+    if (ids.size() <= chunkSize) {
+      return call.apply(ids);
+    }
+    final ChunkedMultiGet<T> multiGet = new ChunkedMultiGet<>(ids, chunkSize, call, executor);
+    for (int i = 0; i < Math.min(concurrency, multiGet.chunks.size()); i++) {
+      multiGet.launch();
+    }
+    return multiGet.future;
+  }
+
+  private void launch() {
+    final int chunk = nextChunk.getAndIncrement();
+    if (chunk >= chunks.size() || future.isDone()) {
+      return;
+    }
+    final List<String> chunkIds = chunks.get(chunk);
+    final CompletableFuture<List<T>> chunkFuture;
+    try {
+      chunkFuture = call.apply(chunkIds);
+    } catch (Throwable throwable) {
+      complete(chunk, null, throwable);
+      return;
+    }
+    JsonRpcClientProvider.cancelOnCompletion(future, chunkFuture);
+    chunkFuture.whenCompleteAsync(
+        (chunkResults, throwable) -> complete(chunk, chunkResults, throwable), executor);
+  }
+
+  private void complete(int chunk, List<T> chunkResults, Throwable throwable) {
+    final List<String> chunkIds = chunks.get(chunk);
+    final int offset = chunk * chunks.get(0).size();
+    Throwable failure = throwable;
+    if (failure == null && (chunkResults == null || chunkResults.size() != chunkIds.size())) {
+      failure =
+          new IllegalStateException(
+              String.format(
+                  "expected %d results for chunk %d, got %d",
+                  chunkIds.size(), chunk, chunkResults == null ? 0 : chunkResults.size()));
+    }
+    if (failure instanceof CompletionException && failure.getCause() != null) {
+      failure = failure.getCause();
+    }
+    synchronized (this) {
+      if (failure == null) {
+        for (int i = 0; i < chunkResults.size(); i++) {
+          results[offset + i] = chunkResults.get(i);
+        }
+      } else {
+        for (String id : chunkIds) {
+          failures.putIfAbsent(id, failure);
+        }
+      }
+    }
+    if (remaining.decrementAndGet() == 0) {
+      finish();
+    } else {
+      launch();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void finish() {
+    final List<T> ordered;
+    final Map<String, Throwable> failed;
+    synchronized (this) {
+      ordered = new ArrayList<>((List<T>) Arrays.asList(results));
+      failed = new LinkedHashMap<>(failures);
+    }
+    if (failed.isEmpty()) {
+      future.complete(ordered);
+    } else {
+      future.completeExceptionally(new MultiGetException(ordered, failed));
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.sui.models.events.EventId;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The interface Cursor store, the last processed cursor of named consumers, persisted so that a
+ * scan resumes right after it on restart.
+ *
+ * <p>Cursors are opaque strings: an encoded {@link EventId} for event scans, a transaction digest
+ * for transaction scans and a sequence number for checkpoints. Saves may be batched, a cursor is
+ * durable once {@link #flush()} or {@link #close()} returns.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public interface CursorStore extends AutoCloseable {
+
+  /**
+   * Load the cursor of a consumer.
+   *
+   * @param name the consumer name
+   * @return the last processed cursor, empty when nothing was processed yet
+   */
+  Optional<String> load(String name);
+
+  /**
+   * Save the cursor of a consumer.
+   *
+   * @param name the consumer name
+   * @param cursor the last processed cursor
+   */
+  void save(String name, String cursor);
+
+  /** Flush saved cursors to durable storage. */
+  void flush();
+
+  @Override
+  void close();
+
+  /**
+   * In memory cursor store, lost with the process.
+   *
+   * @return the cursor store
+   */
+  static CursorStore inMemory() {
+    return new InMemory();
+  }
+
+  /**
+   * File cursor store, flushing every 100 saves or every second.
+   *
+   * @param path the path
+   * @return the cursor store
+   */
+  static CursorStore file(Path path) {
+    return new FileCursorStore(path, 100, Duration.ofSeconds(1));
+  }
+
+  /**
+   * File cursor store.
+   *
+   * @param path the path
+   * @param batchSize the number of saves after which the file is flushed
+   * @param flushInterval the interval after which pending saves are flushed
+   * @return the cursor store
+   */
+  static CursorStore file(Path path, int batchSize, Duration flushInterval) {
+    return new FileCursorStore(path, batchSize, flushInterval);
+  }
+
+  /**
+   * Encode an event id as a cursor.
+   *
+   * @param id the event id
+   * @return the cursor
+   */
+  static String encodeEventId(EventId id) {
+    return id.getTxDigest() + ":" + id.getEventSeq();
+  }
+
+  /**
+   * Decode a cursor encoded by {@link #encodeEventId(EventId)}.
+   *
+   * @param cursor the cursor
+   * @return the event id
+   */
+  static EventId decodeEventId(String cursor) {
+    final int separator = cursor.lastIndexOf(':');
+    final EventId id = new EventId();
+    id.setTxDigest(cursor.substring(0, separator));
+    id.setEventSeq(new BigInteger(cursor.substring(separator + 1)));
+    return id;
+  }
+
+  /** The type In memory. */
+  class InMemory implements CursorStore {
+
+    private final Map<String, String> cursors = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<String> load(String name) {
+      return Optional.ofNullable(cursors.get(name));
+    }
+
+    @Override
+    public void save(String name, String cursor) {
+      cursors.put(name, cursor);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+
+  /**
+   * The type File cursor store, holding every cursor in one properties file that is replaced
+   * atomically on flush. The new file is forced to disk before it is renamed over the old one and
+   * the directory is forced after, so a power loss leaves either the old or the new cursors.
+   */
+  class FileCursorStore implements CursorStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCursorStore.class);
+
+    private final Path path;
+
+    private final int batchSize;
+
+    private final Properties cursors = new Properties();
+
+    private final ScheduledExecutorService flusher;
+
+    private int pending;
+
+    /**
+     * Instantiates a new File cursor store, loading the cursors already in it.
+     *
+     * @param path the path
+     * @param batchSize the batch size
+     * @param flushInterval the flush interval
+     */
+    public FileCursorStore(Path path, int batchSize, Duration flushInterval) {
+      this.path = path;
+      this.batchSize = batchSize;
+      if (Files.exists(path)) {
+        try (InputStream in = Files.newInputStream(path)) {
+          cursors.load(in);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      this.flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("sui-cursor-store-flush-%d")
+                  .build());
+      final long interval = flushInterval.toMillis();
+      flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized Optional<String> load(String name) {
+      return Optional.ofNullable(cursors.getProperty(name));
+    }
+
+    @Override
+    public synchronized void save(String name, String cursor) {
+      cursors.setProperty(name, cursor);
+      if (++pending >= batchSize) {
+        flush();
+      }
+    }
+
+    @Override
+    public synchronized void flush() {
+      if (pending == 0) {
+        return;
+      }
+      final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      try {
+        if (path.getParent() != null) {
+          Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel =
+            FileChannel.open(
+                tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+          final OutputStream out = Channels.newOutputStream(channel);
+          cursors.store(out, null);
+          out.flush();
+          channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.toAbsolutePath().getParent());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      pending = 0;
+    }
+
+    /** Persist the rename, on platforms where a directory can be opened for it. */
+    private static void forceDirectory(Path dir) throws IOException {
+      final FileChannel channel;
+      try {
+        channel = FileChannel.open(dir, StandardOpenOption.READ);
+      } catch (IOException e) {
+        LOGGER.debug(String.format("cannot open %s to force the rename", dir), e);
+        return;
+      }
+      try (FileChannel opened = channel) {
+        opened.force(true);
+      }
+    }
+
+    private void flushQuietly() {
+      try {
+        flush();
+      } catch (UncheckedIOException e) {
+        LOGGER.warn(String.format("flushing cursors to %s failed", path), e.getCause());
+      }
+    }
+
+    @Override
+    public void close() {
+      flusher.shutdownNow();
+      flush();
+    }
+  }
+}
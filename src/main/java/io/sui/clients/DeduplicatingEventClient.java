@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.EventKind;
+import io.sui.models.events.MoveEvent;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.events.TimeRange;
+import io.sui.models.objects.CheckpointSummary;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Deduplicating event client, merging the subscriptions of several endpoints and filling
+ * the gaps between them from {@link QueryClient#getEvents}.
+ *
+ * <p>Every subscription is opened on each upstream and every event id passes an {@link
+ * EventDeduplicator} of its own, so redelivery after a reconnect, the same event from two
+ * endpoints, or a backfill overlapping the live stream reaches the consumer once. The subscription
+ * only fails when every upstream failed.
+ *
+ * <p>Gaps are found from the checkpoints the application sees: when {@link
+ * #onCheckpoint(CheckpointSummary)} skips sequence numbers, the events between the timestamps of
+ * the last checkpoint and the new one are paged with {@link EventBackfill}, matched against each
+ * subscription's filter and delivered through the same deduplication. Backfilled events arrive
+ * after live events that are newer.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class DeduplicatingEventClient implements EventClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeduplicatingEventClient.class);
+
+  private final List<EventClient> upstreams;
+
+  private final QueryClient queryClient;
+
+  private final Supplier<EventDeduplicator> deduplicators;
+
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  private CheckpointSummary lastCheckpoint;
+
+  /**
+   * Instantiates a new Deduplicating event client.
+   *
+   * @param upstreams the upstream event clients, usually one per endpoint
+   * @param queryClient the query client used to backfill gaps
+   * @param deduplicators the deduplicator of each subscription
+   */
+  public DeduplicatingEventClient(
+      List<EventClient> upstreams,
+      QueryClient queryClient,
+      Supplier<EventDeduplicator> deduplicators) {
+    if (upstreams.isEmpty()) {
+      throw new IllegalArgumentException("at least one upstream is required");
+    }
+    this.upstreams = Collections.unmodifiableList(new ArrayList<>(upstreams));
+    this.queryClient = queryClient;
+    this.deduplicators = deduplicators;
+  }
+
+  @Override
+  public Disposable subscribeEvent(
+      EventFilter eventFilter, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    final Subscription subscription =
+        new Subscription(
+            EventPredicates.compile(eventFilter),
+            deduplicators.get(),
+            upstreams.size(),
+            onNext,
+            onError);
+    final List<Disposable> disposables = new ArrayList<>(upstreams.size());
+    RuntimeException failure = null;
+    for (EventClient upstream : upstreams) {
+      try {
+        disposables.add(
+            upstream.subscribeEvent(eventFilter, subscription::deliver, subscription::fail));
+      } catch (RuntimeException e) {
+        LOGGER.warn("upstream subscription failed", e);
+        subscription.failedToSubscribe();
+        failure = e;
+      }
+    }
+    if (disposables.isEmpty()) {
+      throw failure;
+    }
+    subscriptions.add(subscription);
+    return Disposable.fromAction(
+        () -> {
+          subscriptions.remove(subscription);
+          disposables.forEach(Disposable::dispose);
+        });
+  }
+
+  /**
+   * Record a checkpoint seen by the application, backfilling the events of the skipped checkpoints
+   * when its sequence number does not follow the last one.
+   *
+   * @param checkpoint the checkpoint
+   * @return the number of events the backfill delivered
+   * @throws SuiApiException when the backfill fails
+   * @throws InterruptedException the interrupted exception
+   */
+  public synchronized long onCheckpoint(CheckpointSummary checkpoint)
+      throws SuiApiException, InterruptedException {
+    final CheckpointSummary previous = lastCheckpoint;
+    if (previous != null && checkpoint.getSequence_number() <= previous.getSequence_number()) {
+      return 0;
+    }
+    lastCheckpoint = checkpoint;
+    if (previous == null || checkpoint.getSequence_number() == previous.getSequence_number() + 1) {
+      return 0;
+    }
+    LOGGER.warn(
+        String.format(
+            "checkpoints %d to %d skipped, backfilling",
+            previous.getSequence_number() + 1, checkpoint.getSequence_number() - 1));
+    final TimeRange range = new TimeRange();
+    range.setStart_time(previous.getTimestampMs());
+    range.setEnd_time(checkpoint.getTimestampMs() + 1);
+    return backfill(range);
+  }
+
+  /**
+   * Backfill the events of a time range into every subscription they match.
+   *
+   * @param timeRange the time range, including its start and excluding its end
+   * @return the number of events delivered, duplicates excluded
+   * @throws SuiApiException when a page fails on every attempt
+   * @throws InterruptedException the interrupted exception
+   */
+  public long backfill(TimeRange timeRange) throws SuiApiException, InterruptedException {
+    if (subscriptions.isEmpty() || timeRange.getStart_time() >= timeRange.getEnd_time()) {
+      return 0;
+    }
+    final EventBackfillOptions options = new EventBackfillOptions();
+    options.setPartitions(1);
+    final AtomicLong delivered = new AtomicLong();
+    new EventBackfill(queryClient, timeRange, options)
+        .run(
+            envelope -> {
+              final SuiEvent event = toSuiEvent(envelope);
+              if (event == null) {
+                return;
+              }
+              for (Subscription subscription : subscriptions) {
+                if (subscription.predicate.test(event) && subscription.deliverBackfilled(event)) {
+                  delivered.incrementAndGet();
+                }
+              }
+            });
+    return delivered.get();
+  }
+
+  /** Convert an envelope to the subscription model, null for events that are not move events. */
+  private static SuiEvent toSuiEvent(EventEnvelope envelope) {
+    if (!(envelope.getEvent() instanceof EventKind.MoveEventKind)) {
+      return null;
+    }
+    final MoveEvent moveEvent = ((EventKind.MoveEventKind) envelope.getEvent()).getMoveEvent();
+    final SuiEvent event = new SuiEvent();
+    event.setId(envelope.getId());
+    event.setPackageId(moveEvent.getPackageId());
+    event.setTransactionModule(moveEvent.getTransactionModule());
+    event.setSender(moveEvent.getSender());
+    event.setType(moveEvent.getType());
+    event.setLazyParsedJson(moveEvent.getLazyFields());
+    event.setBcs(moveEvent.getBcs());
+    event.setTimestampMs(
+        envelope.getTimestamp() == null ? null : BigInteger.valueOf(envelope.getTimestamp()));
+    return event;
+  }
+
+  private static class Subscription {
+
+    private final Predicate<SuiEvent> predicate;
+
+    private final EventDeduplicator deduplicator;
+
+    private final Consumer<SuiEvent> onNext;
+
+    private final Consumer<SuiApiException> onError;
+
+    private final int upstreams;
+
+    private int failures;
+
+    private Subscription(
+        Predicate<SuiEvent> predicate,
+        EventDeduplicator deduplicator,
+        int upstreams,
+        Consumer<SuiEvent> onNext,
+        Consumer<SuiApiException> onError) {
+      this.predicate = predicate;
+      this.deduplicator = deduplicator;
+      this.upstreams = upstreams;
+      this.onNext = onNext;
+      this.onError = onError;
+    }
+
+    /** Serializes delivery from every upstream and the backfill. */
+    private synchronized boolean deliver(SuiEvent event) throws Throwable {
+      if (!deduplicator.add(event.getId())) {
+        return false;
+      }
+      onNext.accept(event);
+      return true;
+    }
+
+    private boolean deliverBackfilled(SuiEvent event) {
+      try {
+        return deliver(event);
+      } catch (Throwable throwable) {
+        LOGGER.warn("backfilled event consumer failed", throwable);
+        return true;
+      }
+    }
+
+    private synchronized void failedToSubscribe() {
+      failures++;
+    }
+
+    private synchronized void fail(SuiApiException e) throws Throwable {
+      failures++;
+      if (failures < upstreams) {
+        LOGGER.warn(
+            String.format("upstream subscription failed, %d left", upstreams - failures), e);
+        return;
+      }
+      if (failures == upstreams) {
+        onError.accept(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.events.TimeRange;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The type Event backfill, paging the events of a time range through several concurrent cursors.
+ *
+ * <p>The time range is split into equal, disjoint sub-ranges that are paged concurrently with
+ * {@link QueryClient#getEvents(EventQuery, EventId, int, boolean)}, each buffering a bounded number
+ * of pages ahead of the consumer. Events are handed over in {@code (timestamp, event id)} order:
+ * within a partition that is the fullnode's ascending order, and partitions cover ascending ranges,
+ * so the merge drains them one after the other. With memory buffers only, a partition the consumer
+ * has not reached stops after {@link EventBackfillOptions#getBufferedPages()} pages, so while the
+ * first partition is consumed the others prefetch at most that many pages each and the speedup over
+ * a single cursor is capped accordingly. With a {@link EventBackfillOptions#getSpillDirectory()
+ * spill directory}, pages beyond the buffer go to a temporary {@link EventIndex} instead and every
+ * partition fetches to the end of its range, the consumer reading the spilled pages back in order
+ * once it gets there. The spill is deleted when the backfill completes. When a progress cursor
+ * store is configured, the cursor of every partition is saved after the consumer finished each
+ * page, and a backfill over the same range resumes from there, refetching at most the pages that
+ * were buffered or spilled but not consumed.
+ *
+ * <p>One run at a time, a failed run may be run again and continues where it stopped.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class EventBackfill {
+
+  private static final String DONE = "done";
+
+  private final QueryClient queryClient;
+
+  private final EventBackfillOptions options;
+
+  private final List<Partition> partitions;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition changed = lock.newCondition();
+
+  private boolean stopped;
+
+  private Path spillDir;
+
+  private EventIndex spill;
+
+  /**
+   * Instantiates a new Event backfill, loading the progress of an earlier run when present.
+   *
+   * @param queryClient the query client
+   * @param timeRange the time range, including its start and excluding its end
+   * @param options the options
+   */
+  public EventBackfill(QueryClient queryClient, TimeRange timeRange, EventBackfillOptions options) {
+    final long start = timeRange.getStart_time();
+    final long end = timeRange.getEnd_time();
+    if (start >= end) {
+      throw new IllegalArgumentException("time range must not be empty");
+    }
+    if (options.getPartitions() <= 0) {
+      throw new IllegalArgumentException("partitions must be positive");
+    }
+    this.queryClient = queryClient;
+    this.options = options;
+    final int count = (int) Math.min(options.getPartitions(), end - start);
+    final long width = (end - start) / count;
+    final List<Partition> partitions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      partitions.add(
+          new Partition(start + i * width, i == count - 1 ? end : start + (i + 1) * width));
+    }
+    this.partitions = Collections.unmodifiableList(partitions);
+  }
+
+  /**
+   * Gets the number of partitions whose events were all handed over.
+   *
+   * @return the completed partitions
+   */
+  public int getCompletedPartitions() {
+    lock.lock();
+    try {
+      int completed = 0;
+      for (Partition partition : partitions) {
+        if (partition.isFinished()) {
+          completed++;
+        }
+      }
+      return completed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of partitions that fetched their whole range, whether handed over or not.
+   *
+   * @return the fetched partitions
+   */
+  int fetchedPartitions() {
+    lock.lock();
+    try {
+      int fetched = 0;
+      for (Partition partition : partitions) {
+        if (partition.exhausted && !partition.inFlight) {
+          fetched++;
+        }
+      }
+      return fetched;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Run the backfill to the end of the time range, handing every event to the consumer on the
+   * calling thread.
+   *
+   * @param consumer the consumer
+   * @return the number of events handed over
+   * @throws SuiApiException when a page fails on every attempt or the consumer fails
+   * @throws InterruptedException the interrupted exception
+   */
+  public long run(Consumer<EventEnvelope> consumer) throws SuiApiException, InterruptedException {
+    long handedOver = 0;
+    lock.lock();
+    try {
+      stopped = false;
+      for (Partition partition : partitions) {
+        partition.failure = null;
+        partition.fetchIfRoom();
+      }
+      for (Partition partition : partitions) {
+        while (!partition.isFinished()) {
+          while (partition.pages.isEmpty()
+              && partition.unspilled == 0
+              && partition.failure == null
+              && !partition.isFinished()) {
+            changed.await();
+          }
+          if (partition.failure != null) {
+            throw new SuiApiException(partition.failure);
+          }
+          if (partition.pages.isEmpty()) {
+            if (partition.unspilled == 0) {
+              continue;
+            }
+            try {
+              partition.unspill();
+            } catch (IOException e) {
+              throw new SuiApiException(e);
+            }
+          }
+          final PaginatedEvents page = partition.pages.peek();
+          final EventEnvelope event = page.getData().get(partition.position);
+          lock.unlock();
+          try {
+            consumer.accept(event);
+          } catch (Throwable throwable) {
+            throw new SuiApiException(throwable);
+          } finally {
+            lock.lock();
+          }
+          handedOver++;
+          if (++partition.position == page.getData().size()) {
+            partition.pages.poll();
+            partition.position = 0;
+            partition.consumed = PageCursors.eventCursor(page);
+            try {
+              partition.saveProgress();
+            } catch (UncheckedIOException e) {
+              throw new SuiApiException(e.getCause());
+            }
+            partition.fetchIfRoom();
+          }
+        }
+      }
+      if (options.getProgress() != null) {
+        try {
+          options.getProgress().flush();
+        } catch (UncheckedIOException e) {
+          throw new SuiApiException(e.getCause());
+        }
+      }
+      try {
+        deleteSpill();
+      } catch (IOException e) {
+        throw new SuiApiException(e);
+      }
+      return handedOver;
+    } finally {
+      stopped = true;
+      lock.unlock();
+    }
+  }
+
+  /** The spill, created on the first page a partition has no room for. */
+  private EventIndex spill() throws IOException {
+    if (spill == null) {
+      Files.createDirectories(options.getSpillDirectory());
+      spillDir = Files.createTempDirectory(options.getSpillDirectory(), "event-backfill");
+      spill = new EventIndex(spillDir, new GsonJsonHandler());
+    }
+    return spill;
+  }
+
+  private void deleteSpill() throws IOException {
+    if (spill == null) {
+      return;
+    }
+    spill.close();
+    spill = null;
+    final List<Path> files;
+    try (Stream<Path> listed = Files.list(spillDir)) {
+      files = listed.collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      Files.delete(file);
+    }
+    Files.delete(spillDir);
+    spillDir = null;
+  }
+
+  /** One sub-range, guarded by the backfill lock. */
+  private final class Partition {
+
+    private final long start;
+
+    private final long end;
+
+    private final String name;
+
+    private final Deque<PaginatedEvents> pages = new ArrayDeque<>();
+
+    private EventId cursor;
+
+    private EventId consumed;
+
+    private boolean exhausted;
+
+    private boolean inFlight;
+
+    private int attempts;
+
+    private int position;
+
+    private long unspilled;
+
+    private EventId spillCursor;
+
+    private Throwable failure;
+
+    private Partition(long start, long end) {
+      this.start = start;
+      this.end = end;
+      this.name = String.format("%s.%d-%d", options.getProgressName(), start, end);
+      loadProgress();
+    }
+
+    private boolean isFinished() {
+      return exhausted && pages.isEmpty() && unspilled == 0 && !inFlight;
+    }
+
+    private void fetchIfRoom() {
+      if (!stopped
+          && !exhausted
+          && !inFlight
+          && failure == null
+          && (pages.size() < options.getBufferedPages() || options.getSpillDirectory() != null)) {
+        fetch();
+      }
+    }
+
+    private EventQuery query() {
+      final TimeRange range = new TimeRange();
+      range.setStart_time(start);
+      range.setEnd_time(end);
+      final EventQuery.TimeRangeEventQuery query = new EventQuery.TimeRangeEventQuery();
+      query.setTimeRange(range);
+      return query;
+    }
+
+    private void fetch() {
+      inFlight = true;
+      CompletableFuture<PaginatedEvents> call;
+      try {
+        call = queryClient.getEvents(query(), cursor, options.getPageSize(), false);
+      } catch (Throwable throwable) {
+        call = CompletableFuture.failedFuture(throwable);
+      }
+      call.whenComplete(this::onPage);
+    }
+
+    private void onPage(PaginatedEvents page, Throwable throwable) {
+      lock.lock();
+      try {
+        inFlight = false;
+        if (throwable != null) {
+          if (++attempts < options.getMaxAttempts()) {
+            inFlight = true;
+            CompletableFuture.runAsync(
+                this::retry,
+                CompletableFuture.delayedExecutor(
+                    options.getRetryInterval().toNanos(), TimeUnit.NANOSECONDS));
+          } else {
+            attempts = 0;
+            failure = throwable;
+          }
+        } else {
+          attempts = 0;
+          try {
+            accept(page);
+          } catch (RuntimeException e) {
+            failure = e;
+          }
+        }
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void accept(PaginatedEvents page) {
+      final EventId next = PageCursors.eventCursor(page);
+      if (page.getData() != null && !page.getData().isEmpty()) {
+        // once spilling, later pages follow the spilled ones so the order is kept
+        if (options.getSpillDirectory() != null
+            && (unspilled > 0 || pages.size() >= options.getBufferedPages())) {
+          try {
+            unspilled += spill().index(page.getData());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        } else {
+          pages.add(page);
+        }
+      }
+      if (next == null) {
+        exhausted = true;
+      } else {
+        cursor = next;
+      }
+      if (isFinished()) {
+        saveProgress();
+      }
+      fetchIfRoom();
+    }
+
+    /** Read the next spilled page back into the buffer. */
+    private void unspill() throws IOException {
+      final PaginatedEvents page =
+          spill.getEvents(query(), spillCursor, options.getPageSize(), false);
+      final List<EventEnvelope> data = page.getData();
+      if (data.isEmpty()) {
+        throw new IOException(String.format("spilled events of %s are missing", name));
+      }
+      spillCursor = data.get(data.size() - 1).getId();
+      page.setNextCursor(spillCursor);
+      unspilled -= data.size();
+      pages.add(page);
+    }
+
+    private void retry() {
+      lock.lock();
+      try {
+        inFlight = false;
+        fetchIfRoom();
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void loadProgress() {
+      if (options.getProgress() == null) {
+        return;
+      }
+      options
+          .getProgress()
+          .load(name)
+          .ifPresent(
+              saved -> {
+                if (DONE.equals(saved)) {
+                  exhausted = true;
+                } else {
+                  cursor = CursorStore.decodeEventId(saved);
+                  consumed = cursor;
+                }
+              });
+    }
+
+    /** Save the cursor after the last page the consumer finished. */
+    private void saveProgress() {
+      if (options.getProgress() == null) {
+        return;
+      }
+      if (isFinished()) {
+        options.getProgress().save(name, DONE);
+      } else if (consumed != null) {
+        options.getProgress().save(name, CursorStore.encodeEventId(consumed));
+      }
+    }
+  }
+}
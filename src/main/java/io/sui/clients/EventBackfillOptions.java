@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Event backfill options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class EventBackfillOptions {
+
+  private int partitions = 8;
+
+  private int pageSize = 50;
+
+  private int bufferedPages = 16;
+
+  private int maxAttempts = 3;
+
+  private Duration retryInterval = Duration.ofMillis(500);
+
+  private CursorStore progress;
+
+  private String progressName = "event-backfill";
+
+  private Path spillDirectory;
+
+  /**
+   * Gets partitions, the number of sub-ranges the time range is split into and paged concurrently.
+   *
+   * @return the partitions
+   */
+  public int getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Sets partitions.
+   *
+   * @param partitions the partitions
+   */
+  public void setPartitions(int partitions) {
+    this.partitions = partitions;
+  }
+
+  /**
+   * Gets page size of every getEvents call.
+   *
+   * @return the page size
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets page size.
+   *
+   * @param pageSize the page size
+   */
+  public void setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Gets buffered pages, the most fetched pages a partition holds in memory ahead of the consumer.
+   * Without a spill directory a partition stops fetching there until the consumer reaches it.
+   *
+   * @return the buffered pages
+   */
+  public int getBufferedPages() {
+    return bufferedPages;
+  }
+
+  /**
+   * Sets buffered pages.
+   *
+   * @param bufferedPages the buffered pages
+   */
+  public void setBufferedPages(int bufferedPages) {
+    this.bufferedPages = bufferedPages;
+  }
+
+  /**
+   * Gets max attempts of a page fetch before the backfill fails.
+   *
+   * @return the max attempts
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Sets max attempts.
+   *
+   * @param maxAttempts the max attempts
+   */
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Gets retry interval between attempts of a page fetch.
+   *
+   * @return the retry interval
+   */
+  public Duration getRetryInterval() {
+    return retryInterval;
+  }
+
+  /**
+   * Sets retry interval.
+   *
+   * @param retryInterval the retry interval
+   */
+  public void setRetryInterval(Duration retryInterval) {
+    this.retryInterval = retryInterval;
+  }
+
+  /**
+   * Gets progress, the store keeping the cursor of every partition so an interrupted backfill
+   * resumes, null keeps no progress.
+   *
+   * @return the progress
+   */
+  public CursorStore getProgress() {
+    return progress;
+  }
+
+  /**
+   * Sets progress.
+   *
+   * @param progress the progress
+   */
+  public void setProgress(CursorStore progress) {
+    this.progress = progress;
+  }
+
+  /**
+   * Gets progress name, the prefix of the cursor name of every partition.
+   *
+   * @return the progress name
+   */
+  public String getProgressName() {
+    return progressName;
+  }
+
+  /**
+   * Sets progress name.
+   *
+   * @param progressName the progress name
+   */
+  public void setProgressName(String progressName) {
+    this.progressName = progressName;
+  }
+
+  /**
+   * Gets spill directory, where partitions write the pages beyond their buffered pages so that
+   * every partition fetches to the end of its range whatever the consumer is at, null bounds each
+   * partition to its buffered pages.
+   *
+   * @return the spill directory
+   */
+  public Path getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets spill directory.
+   *
+   * @param spillDirectory the spill directory
+   */
+  public void setSpillDirectory(Path spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof EventBackfillOptions)) {
+      return false;
+    }
+    EventBackfillOptions that = (EventBackfillOptions) o;
+    return partitions == that.partitions
+        && pageSize == that.pageSize
+        && bufferedPages == that.bufferedPages
+        && maxAttempts == that.maxAttempts
+        && retryInterval.equals(that.retryInterval)
+        && Objects.equals(progress, that.progress)
+        && progressName.equals(that.progressName)
+        && Objects.equals(spillDirectory, that.spillDirectory);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        partitions,
+        pageSize,
+        bufferedPages,
+        maxAttempts,
+        retryInterval,
+        progress,
+        progressName,
+        spillDirectory);
+  }
+
+  @Override
+  public String toString() {
+    return "EventBackfillOptions{"
+        + "partitions="
+        + partitions
+        + ", pageSize="
+        + pageSize
+        + ", bufferedPages="
+        + bufferedPages
+        + ", maxAttempts="
+        + maxAttempts
+        + ", retryInterval="
+        + retryInterval
+        + ", progress="
+        + progress
+        + ", progressName='"
+        + progressName
+        + '\''
+        + ", spillDirectory="
+        + spillDirectory
+        + '}';
+  }
+}
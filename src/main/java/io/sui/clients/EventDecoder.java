@@ -0,0 +1,701 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.primitives.Primitives;
+import com.novi.bcs.BcsDeserializer;
+import com.novi.serde.DeserializationError;
+import com.novi.serde.Tuple2;
+import io.sui.bcsgen.AccountAddress;
+import io.sui.bcsgen.Identifier;
+import io.sui.bcsgen.MoveFieldLayout;
+import io.sui.bcsgen.MoveStruct;
+import io.sui.bcsgen.MoveStructLayout;
+import io.sui.bcsgen.MoveTypeLayout;
+import io.sui.bcsgen.MoveValue;
+import io.sui.bcsgen.StructTag;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.objects.MoveNormalizedField;
+import io.sui.models.objects.MoveNormalizedType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.bitcoinj.core.Base58;
+
+/**
+ * The type Event decoder, decoding the bcs of events straight into java objects without building
+ * the parsed json maps.
+ *
+ * <p>The layout of an event type is resolved once from {@link
+ * QueryClient#getNormalizedMoveStruct(String, String, String)}, with the type arguments of the type
+ * substituted, and cached by the canonical type name. Layouts can also be registered up front so
+ * that no fullnode is needed.
+ *
+ * <p>Decoding binds to {@link MoveValue} or {@code Object}, or to a class with a no argument
+ * constructor whose fields are named like the move fields, either as is or in camel case. Integers
+ * bind to any wide enough integer type, {@link BigInteger} or {@link String}, addresses to strings,
+ * {@code vector<u8>} to {@code byte[]} or a utf-8 string, other vectors to arrays or lists. A
+ * {@code 0x1::option::Option}, resolved from the fullnode or registered under that type, binds to
+ * the type of its element, decoding to null when empty, or to an array or list. Any other struct
+ * with a single field bound to a non object type is unwrapped, which covers {@code String}, {@code
+ * ID}, {@code UID} and {@code Balance}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class EventDecoder {
+
+  private final QueryClient queryClient;
+
+  private final Map<String, CompletableFuture<MoveTypeLayout>> layouts = new ConcurrentHashMap<>();
+
+  private final Map<Class<?>, Binding> bindings = new ConcurrentHashMap<>();
+
+  private final Set<MoveStructLayout> options =
+      Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+
+  /**
+   * Instantiates a new Event decoder.
+   *
+   * @param queryClient the query client resolving layouts, null to only use registered ones
+   */
+  public EventDecoder(QueryClient queryClient) {
+    this.queryClient = queryClient;
+  }
+
+  /**
+   * Register the layout of a type.
+   *
+   * @param type the type, such as {@code 0x2::coin::Coin<0x2::sui::SUI>}
+   * @param layout the layout
+   */
+  public void register(String type, MoveTypeLayout layout) {
+    final TypeName name = TypeName.parse(type);
+    if (name.isOption() && layout instanceof MoveTypeLayout.struct) {
+      options.add(((MoveTypeLayout.struct) layout).value);
+    }
+    layouts.put(name.canonical(), CompletableFuture.completedFuture(layout));
+  }
+
+  /**
+   * Gets the layout of a type, resolving and caching it on first use.
+   *
+   * @param type the type
+   * @return the layout
+   */
+  public CompletableFuture<MoveTypeLayout> getLayout(String type) {
+    try {
+      return layout(TypeName.parse(type));
+    } catch (RuntimeException e) {
+      final CompletableFuture<MoveTypeLayout> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  /**
+   * Decode an event to a move value.
+   *
+   * @param event the event
+   * @return the move value
+   */
+  public CompletableFuture<MoveValue> decode(SuiEvent event) {
+    return decode(event, MoveValue.class);
+  }
+
+  /**
+   * Decode an event to a java object.
+   *
+   * @param <T> the type parameter
+   * @param event the event
+   * @param type the class to bind to
+   * @return the decoded event
+   */
+  public <T> CompletableFuture<T> decode(SuiEvent event, Class<T> type) {
+    return getLayout(event.getType())
+        .thenApply(layout -> decode(Base58.decode(event.getBcs()), layout, type));
+  }
+
+  /**
+   * Decode bcs bytes of a layout to a java object.
+   *
+   * @param <T> the type parameter
+   * @param bcs the bcs bytes
+   * @param layout the layout
+   * @param type the class to bind to
+   * @return the decoded value
+   */
+  public <T> T decode(byte[] bcs, MoveTypeLayout layout, Class<T> type) {
+    final BcsDeserializer deserializer = new BcsDeserializer(bcs);
+    final Object value;
+    try {
+      value = read(deserializer, layout, type);
+    } catch (DeserializationError
+        | ReflectiveOperationException
+        | ArithmeticException
+        | IllegalArgumentException e) {
+      throw new BcsDeserializationException(e);
+    }
+    if (deserializer.get_buffer_offset() != bcs.length) {
+      throw new BcsDeserializationException(
+          String.format("%d trailing bytes", bcs.length - deserializer.get_buffer_offset()));
+    }
+    try {
+      return Primitives.wrap(type).cast(value);
+    } catch (ClassCastException e) {
+      throw new BcsDeserializationException(e);
+    }
+  }
+
+  private CompletableFuture<MoveTypeLayout> layout(TypeName type) {
+    if (type.address != null) {
+      return structLayout(type);
+    }
+    switch (type.name) {
+      case "bool":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.bool());
+      case "u8":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u8());
+      case "u16":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u16());
+      case "u32":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u32());
+      case "u64":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u64());
+      case "u128":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u128());
+      case "u256":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.u256());
+      case "address":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.address());
+      case "signer":
+        return CompletableFuture.completedFuture(new MoveTypeLayout.signer());
+      case "vector":
+        return layout(type.arguments.get(0)).thenApply(MoveTypeLayout.vector::new);
+      default:
+        throw new IllegalArgumentException(String.format("unknown move type %s", type.name));
+    }
+  }
+
+  /** Resolve a struct once, a failed resolution is forgotten so that it can be retried. */
+  private CompletableFuture<MoveTypeLayout> structLayout(TypeName type) {
+    final String key = type.canonical();
+    final CompletableFuture<MoveTypeLayout> cached = layouts.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    if (queryClient == null) {
+      throw new IllegalArgumentException(String.format("no layout registered for %s", key));
+    }
+    final CompletableFuture<MoveTypeLayout> created = new CompletableFuture<>();
+    final CompletableFuture<MoveTypeLayout> raced = layouts.putIfAbsent(key, created);
+    if (raced != null) {
+      return raced;
+    }
+    queryClient
+        .getNormalizedMoveStruct(type.address, type.module, type.name)
+        .thenCompose(
+            struct -> {
+              final List<MoveNormalizedField> fields = struct.getFields();
+              final List<CompletableFuture<MoveTypeLayout>> fieldLayouts =
+                  new ArrayList<>(fields.size());
+              for (MoveNormalizedField field : fields) {
+                fieldLayouts.add(layout(TypeName.of(field.getType_(), type.arguments)));
+              }
+              return CompletableFuture.allOf(fieldLayouts.toArray(new CompletableFuture<?>[0]))
+                  .thenApply(
+                      v -> {
+                        final List<MoveFieldLayout> layout = new ArrayList<>(fields.size());
+                        for (int i = 0; i < fields.size(); i++) {
+                          layout.add(
+                              new MoveFieldLayout(
+                                  new Identifier(fields.get(i).getName()),
+                                  fieldLayouts.get(i).join()));
+                        }
+                        final MoveStructLayout structLayout =
+                            new MoveStructLayout.WithFields(layout);
+                        if (type.isOption()) {
+                          options.add(structLayout);
+                        }
+                        return (MoveTypeLayout) new MoveTypeLayout.struct(structLayout);
+                      });
+            })
+        .whenComplete(
+            (layout, throwable) -> {
+              if (throwable != null) {
+                layouts.remove(key, created);
+                created.completeExceptionally(throwable);
+              } else {
+                created.complete(layout);
+              }
+            });
+    return created;
+  }
+
+  private Object read(BcsDeserializer in, MoveTypeLayout layout, Type target)
+      throws DeserializationError, ReflectiveOperationException {
+    final Class<?> raw = rawClass(target);
+    if (raw == MoveValue.class || raw == Object.class) {
+      return readValue(in, layout);
+    }
+    if (layout instanceof MoveTypeLayout.bool) {
+      return in.deserialize_bool();
+    } else if (layout instanceof MoveTypeLayout.u8) {
+      return integer(Byte.toUnsignedLong(in.deserialize_u8()), raw);
+    } else if (layout instanceof MoveTypeLayout.u16) {
+      return integer(Short.toUnsignedLong(in.deserialize_u16()), raw);
+    } else if (layout instanceof MoveTypeLayout.u32) {
+      return integer(Integer.toUnsignedLong(in.deserialize_u32()), raw);
+    } else if (layout instanceof MoveTypeLayout.u64) {
+      return integer(in.deserialize_u64(), raw);
+    } else if (layout instanceof MoveTypeLayout.u128) {
+      return integer(in.deserialize_u128(), raw);
+    } else if (layout instanceof MoveTypeLayout.u256) {
+      return integer(readU256(in), raw);
+    } else if (layout instanceof MoveTypeLayout.address
+        || layout instanceof MoveTypeLayout.signer) {
+      return address(readAddress(in));
+    } else if (layout instanceof MoveTypeLayout.vector) {
+      return readVector(in, ((MoveTypeLayout.vector) layout).value, target, raw);
+    }
+    final MoveStructLayout struct = ((MoveTypeLayout.struct) layout).value;
+    final List<MoveFieldLayout> fields = fieldsOf(struct);
+    if (isOption(struct)) {
+      return readOption(in, fields, target, raw);
+    }
+    if (fields.size() == 1 && !isObject(raw)) {
+      return read(in, fields.get(0).layout, target);
+    }
+    final Binding binding = bindings.computeIfAbsent(raw, Binding::new);
+    final Object instance = binding.constructor.newInstance();
+    for (MoveFieldLayout field : fields) {
+      final Field javaField = binding.field(field.name.value);
+      if (javaField == null) {
+        readValue(in, field.layout);
+      } else {
+        javaField.set(instance, read(in, field.layout, javaField.getGenericType()));
+      }
+    }
+    return instance;
+  }
+
+  private Object readVector(BcsDeserializer in, MoveTypeLayout element, Type target, Class<?> raw)
+      throws DeserializationError, ReflectiveOperationException {
+    if (element instanceof MoveTypeLayout.u8 && (raw == byte[].class || raw == String.class)) {
+      final byte[] bytes = in.deserialize_bytes().content();
+      return raw == String.class ? new String(bytes, StandardCharsets.UTF_8) : bytes;
+    }
+    final int length = (int) in.deserialize_len();
+    if (raw.isArray()) {
+      final Object array = Array.newInstance(raw.getComponentType(), length);
+      for (int i = 0; i < length; i++) {
+        Array.set(array, i, read(in, element, raw.getComponentType()));
+      }
+      return array;
+    }
+    if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class) {
+      final Type elementType =
+          target instanceof ParameterizedType
+              ? ((ParameterizedType) target).getActualTypeArguments()[0]
+              : Object.class;
+      final List<Object> list = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+        list.add(read(in, element, elementType));
+      }
+      return list;
+    }
+    return readOptional(in, element, target, raw, length);
+  }
+
+  /** Read an option, a vector of at most one element, whatever the class it is bound to. */
+  private Object readOption(
+      BcsDeserializer in, List<MoveFieldLayout> fields, Type target, Class<?> raw)
+      throws DeserializationError, ReflectiveOperationException {
+    if (fields.size() != 1 || !(fields.get(0).layout instanceof MoveTypeLayout.vector)) {
+      throw new BcsDeserializationException("an option layout must hold a single vector field");
+    }
+    final MoveTypeLayout element = ((MoveTypeLayout.vector) fields.get(0).layout).value;
+    if (raw.isArray() || Collection.class.isAssignableFrom(raw) || raw == Iterable.class) {
+      return readVector(in, element, target, raw);
+    }
+    return readOptional(in, element, target, raw, (int) in.deserialize_len());
+  }
+
+  private Object readOptional(
+      BcsDeserializer in, MoveTypeLayout element, Type target, Class<?> raw, int length)
+      throws DeserializationError, ReflectiveOperationException {
+    if (length == 0 && !raw.isPrimitive()) {
+      return null;
+    }
+    if (length == 1) {
+      return read(in, element, target);
+    }
+    throw new BcsDeserializationException(
+        String.format("cannot bind a vector of %d elements to %s", length, raw.getName()));
+  }
+
+  private boolean isOption(MoveStructLayout struct) {
+    if (struct instanceof MoveStructLayout.WithTypes) {
+      final StructTag tag = ((MoveStructLayout.WithTypes) struct).type_;
+      final List<Byte> address = tag.address.value;
+      for (int i = 0; i < address.size() - 1; i++) {
+        if (address.get(i) != 0) {
+          return false;
+        }
+      }
+      return address.get(address.size() - 1) == 1
+          && "option".equals(tag.module.value)
+          && "Option".equals(tag.name.value);
+    }
+    return options.contains(struct);
+  }
+
+  private static MoveValue readValue(BcsDeserializer in, MoveTypeLayout layout)
+      throws DeserializationError {
+    if (layout instanceof MoveTypeLayout.bool) {
+      return new MoveValue.Bool(in.deserialize_bool());
+    } else if (layout instanceof MoveTypeLayout.u8) {
+      return new MoveValue.U8(in.deserialize_u8());
+    } else if (layout instanceof MoveTypeLayout.u16) {
+      return new MoveValue.U16(in.deserialize_u16());
+    } else if (layout instanceof MoveTypeLayout.u32) {
+      return new MoveValue.U32(in.deserialize_u32());
+    } else if (layout instanceof MoveTypeLayout.u64) {
+      return new MoveValue.U64(in.deserialize_u64());
+    } else if (layout instanceof MoveTypeLayout.u128) {
+      return new MoveValue.U128(in.deserialize_u128());
+    } else if (layout instanceof MoveTypeLayout.u256) {
+      final List<Byte> bytes = new ArrayList<>(32);
+      for (int i = 0; i < 32; i++) {
+        bytes.add(in.deserialize_u8());
+      }
+      return new MoveValue.U256(bytes);
+    } else if (layout instanceof MoveTypeLayout.address) {
+      return new MoveValue.Address(new AccountAddress(boxed(readAddress(in))));
+    } else if (layout instanceof MoveTypeLayout.signer) {
+      return new MoveValue.Signer(new AccountAddress(boxed(readAddress(in))));
+    } else if (layout instanceof MoveTypeLayout.vector) {
+      final MoveTypeLayout element = ((MoveTypeLayout.vector) layout).value;
+      final int length = (int) in.deserialize_len();
+      final List<MoveValue> values = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+        values.add(readValue(in, element));
+      }
+      return new MoveValue.Vector(values);
+    }
+    final MoveStructLayout struct = ((MoveTypeLayout.struct) layout).value;
+    if (struct instanceof MoveStructLayout.Runtime) {
+      final List<MoveTypeLayout> fields = ((MoveStructLayout.Runtime) struct).value;
+      final List<MoveValue> values = new ArrayList<>(fields.size());
+      for (MoveTypeLayout field : fields) {
+        values.add(readValue(in, field));
+      }
+      return new MoveValue.Struct(new MoveStruct.Runtime(values));
+    }
+    final List<MoveFieldLayout> fields = fieldsOf(struct);
+    final List<Tuple2<Identifier, MoveValue>> values = new ArrayList<>(fields.size());
+    for (MoveFieldLayout field : fields) {
+      values.add(new Tuple2<>(field.name, readValue(in, field.layout)));
+    }
+    return new MoveValue.Struct(new MoveStruct.WithFields(values));
+  }
+
+  private static List<MoveFieldLayout> fieldsOf(MoveStructLayout struct) {
+    if (struct instanceof MoveStructLayout.WithFields) {
+      return ((MoveStructLayout.WithFields) struct).value;
+    }
+    if (struct instanceof MoveStructLayout.WithTypes) {
+      return ((MoveStructLayout.WithTypes) struct).fields;
+    }
+    throw new BcsDeserializationException("a runtime struct layout has no field names to bind");
+  }
+
+  private static byte[] readAddress(BcsDeserializer in) throws DeserializationError {
+    final byte[] bytes = new byte[SuiCodec.ADDRESS_LENGTH];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = in.deserialize_u8();
+    }
+    return bytes;
+  }
+
+  private static BigInteger readU256(BcsDeserializer in) throws DeserializationError {
+    final byte[] bigEndian = new byte[32];
+    for (int i = bigEndian.length - 1; i >= 0; i--) {
+      bigEndian[i] = in.deserialize_u8();
+    }
+    return new BigInteger(1, bigEndian);
+  }
+
+  private static String address(byte[] bytes) {
+    final char[] chars = new char[2 + bytes.length * 2];
+    chars[0] = '0';
+    chars[1] = 'x';
+    SuiCodec.encodeHex(bytes, chars, 2);
+    return new String(chars);
+  }
+
+  private static List<Byte> boxed(byte[] bytes) {
+    final List<Byte> boxed = new ArrayList<>(bytes.length);
+    for (byte b : bytes) {
+      boxed.add(b);
+    }
+    return boxed;
+  }
+
+  /** Bind an unsigned integer up to u64, negative values being u64 above the long range. */
+  private static Object integer(long value, Class<?> raw) {
+    if (raw == long.class || raw == Long.class) {
+      if (value < 0) {
+        throw new ArithmeticException("u64 overflows long");
+      }
+      return value;
+    } else if (raw == int.class || raw == Integer.class) {
+      if (value < 0) {
+        throw new ArithmeticException("u64 overflows int");
+      }
+      return Math.toIntExact(value);
+    } else if (raw == BigInteger.class || raw == Number.class) {
+      return value < 0 ? new BigInteger(Long.toUnsignedString(value)) : BigInteger.valueOf(value);
+    } else if (raw == String.class) {
+      return Long.toUnsignedString(value);
+    }
+    return integer(new BigInteger(Long.toUnsignedString(value)), raw);
+  }
+
+  private static Object integer(BigInteger value, Class<?> raw) {
+    if (raw == BigInteger.class || raw == Number.class) {
+      return value;
+    } else if (raw == String.class) {
+      return value.toString();
+    } else if (raw == long.class || raw == Long.class) {
+      return value.longValueExact();
+    } else if (raw == int.class || raw == Integer.class) {
+      return value.intValueExact();
+    } else if (raw == short.class || raw == Short.class) {
+      return value.shortValueExact();
+    } else if (raw == byte.class || raw == Byte.class) {
+      return value.byteValueExact();
+    }
+    throw new BcsDeserializationException(
+        String.format("cannot bind an integer to %s", raw.getName()));
+  }
+
+  private static Class<?> rawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    }
+    if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    }
+    return Object.class;
+  }
+
+  /** Whether a class is bound field by field rather than from a single value. */
+  private static boolean isObject(Class<?> raw) {
+    return !raw.isPrimitive()
+        && !raw.isArray()
+        && raw != String.class
+        && raw != Boolean.class
+        && !Number.class.isAssignableFrom(raw)
+        && !Iterable.class.isAssignableFrom(raw);
+  }
+
+  /** The constructor and fields of a bound class. */
+  private static final class Binding {
+
+    private final Constructor<?> constructor;
+
+    private final Map<String, Field> fields = new HashMap<>();
+
+    private Binding(Class<?> type) {
+      try {
+        this.constructor = type.getDeclaredConstructor();
+        this.constructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new BcsDeserializationException(
+            String.format("%s has no argument-less constructor", type.getName()));
+      }
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())
+              || Modifier.isTransient(field.getModifiers())) {
+            continue;
+          }
+          field.setAccessible(true);
+          fields.putIfAbsent(field.getName(), field);
+        }
+      }
+    }
+
+    private Field field(String moveName) {
+      final Field field = fields.get(moveName);
+      if (field != null || moveName.indexOf('_') < 0) {
+        return field;
+      }
+      final StringBuilder camel = new StringBuilder(moveName.length());
+      boolean upper = false;
+      for (char c : moveName.toCharArray()) {
+        if (c == '_') {
+          upper = camel.length() > 0;
+        } else {
+          camel.append(upper ? Character.toUpperCase(c) : c);
+          upper = false;
+        }
+      }
+      return fields.get(camel.toString());
+    }
+  }
+
+  /** A parsed move type, structs carry their address, module, name and type arguments. */
+  private static final class TypeName {
+
+    private static final String OPTION_ADDRESS = normalizeAddress("0x1");
+
+    private final String name;
+
+    private final String address;
+
+    private final String module;
+
+    private final List<TypeName> arguments;
+
+    private TypeName(String name, String address, String module, List<TypeName> arguments) {
+      this.name = name;
+      this.address = address;
+      this.module = module;
+      this.arguments = arguments;
+    }
+
+    private static TypeName parse(String type) {
+      final int[] position = {0};
+      final TypeName parsed = parse(type, position);
+      if (position[0] != type.length()) {
+        throw new IllegalArgumentException(String.format("invalid move type %s", type));
+      }
+      return parsed;
+    }
+
+    private static TypeName parse(String type, int[] position) {
+      int end = position[0];
+      while (end < type.length() && "<>,".indexOf(type.charAt(end)) < 0) {
+        end++;
+      }
+      final String token = type.substring(position[0], end).trim();
+      position[0] = end;
+      final List<TypeName> arguments = new ArrayList<>();
+      if (end < type.length() && type.charAt(end) == '<') {
+        do {
+          position[0]++;
+          arguments.add(parse(type, position));
+        } while (position[0] < type.length() && type.charAt(position[0]) == ',');
+        if (position[0] >= type.length() || type.charAt(position[0]) != '>') {
+          throw new IllegalArgumentException(String.format("invalid move type %s", type));
+        }
+        position[0]++;
+      }
+      final String[] parts = token.split("::");
+      if (parts.length == 3) {
+        return new TypeName(
+            parts[2],
+            normalizeAddress(parts[0]),
+            parts[1],
+            Collections.unmodifiableList(arguments));
+      }
+      if ("vector".equals(token) ? arguments.size() != 1 : !arguments.isEmpty()) {
+        throw new IllegalArgumentException(String.format("invalid move type %s", type));
+      }
+      return new TypeName(token, null, null, arguments);
+    }
+
+    private static TypeName of(MoveNormalizedType type, List<TypeName> typeArguments) {
+      if (type instanceof MoveNormalizedType.TypeMoveNormalizedType) {
+        return new TypeName(
+            ((MoveNormalizedType.TypeMoveNormalizedType) type).name().toLowerCase(Locale.ROOT),
+            null,
+            null,
+            Collections.emptyList());
+      } else if (type instanceof MoveNormalizedType.VectorReferenceMoveNormalizedType) {
+        return new TypeName(
+            "vector",
+            null,
+            null,
+            Collections.singletonList(
+                of(
+                    ((MoveNormalizedType.VectorReferenceMoveNormalizedType) type).getVector(),
+                    typeArguments)));
+      } else if (type instanceof MoveNormalizedType.MoveNormalizedTypeParameterType) {
+        return typeArguments.get(
+            ((MoveNormalizedType.MoveNormalizedTypeParameterType) type).getTypeParameter());
+      } else if (type instanceof MoveNormalizedType.MoveNormalizedStructType) {
+        final MoveNormalizedType.MoveNormalizedStructType.Struct struct =
+            ((MoveNormalizedType.MoveNormalizedStructType) type).getStruct();
+        final List<TypeName> arguments =
+            struct.getTypeArguments() == null
+                ? Collections.emptyList()
+                : struct.getTypeArguments().stream()
+                    .map(argument -> of(argument, typeArguments))
+                    .collect(Collectors.toList());
+        return new TypeName(
+            struct.getName(), normalizeAddress(struct.getAddress()), struct.getModule(), arguments);
+      }
+      throw new IllegalArgumentException(String.format("unsupported field type %s", type));
+    }
+
+    private boolean isOption() {
+      return OPTION_ADDRESS.equals(address) && "option".equals(module) && "Option".equals(name);
+    }
+
+    private static String normalizeAddress(String address) {
+      final String hex = StringUtils.removeStart(address.toLowerCase(Locale.ROOT), "0x");
+      return "0x" + StringUtils.leftPad(hex, SuiCodec.ADDRESS_LENGTH * 2, '0');
+    }
+
+    private String canonical() {
+      final StringBuilder builder = new StringBuilder();
+      if (address != null) {
+        builder.append(address).append("::").append(module).append("::");
+      }
+      builder.append(name);
+      if (!arguments.isEmpty()) {
+        builder.append('<');
+        builder.append(
+            arguments.stream().map(TypeName::canonical).collect(Collectors.joining(", ")));
+        builder.append('>');
+      }
+      return builder.toString();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.sui.models.events.EventId;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.function.LongSupplier;
+
+/**
+ * The type Event deduplicator, a bounded memory set of the event ids seen recently.
+ *
+ * <p>The most recent ids are kept exactly and answered first. An id evicted from the exact window
+ * moves into the current of two bloom filter generations. The generations rotate every window, or
+ * earlier once the current one holds its expected number of ids and everything in the previous one
+ * was added more than a window ago, so an evicted id is remembered for at least one window and
+ * memory stays fixed. A new id reported by a bloom filter is treated as a duplicate, which drops it
+ * with the configured false positive probability; keep the exact window larger than any expected
+ * redelivery burst.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class EventDeduplicator {
+
+  private final int exactCapacity;
+
+  private final long windowNanos;
+
+  private final int expectedPerWindow;
+
+  private final double falsePositiveRate;
+
+  private final LongSupplier clock;
+
+  private final LinkedHashSet<String> exact = new LinkedHashSet<>();
+
+  private BloomFilter<CharSequence> current;
+
+  private BloomFilter<CharSequence> previous;
+
+  private long generationStart;
+
+  private long currentLastPut;
+
+  private long previousLastPut;
+
+  private long duplicates;
+
+  /** Instantiates a new Event deduplicator sized for ten minutes of 200,000 events. */
+  public EventDeduplicator() {
+    this(10_000, Duration.ofMinutes(10), 200_000, 1e-6);
+  }
+
+  /**
+   * Instantiates a new Event deduplicator.
+   *
+   * @param exactCapacity the number of most recent ids kept exactly
+   * @param window the least time an id is remembered
+   * @param expectedPerWindow the ids expected per window, sizing each bloom filter
+   * @param falsePositiveRate the false positive rate of each bloom filter
+   */
+  public EventDeduplicator(
+      int exactCapacity, Duration window, int expectedPerWindow, double falsePositiveRate) {
+    this(exactCapacity, window, expectedPerWindow, falsePositiveRate, System::nanoTime);
+  }
+
+  EventDeduplicator(
+      int exactCapacity,
+      Duration window,
+      int expectedPerWindow,
+      double falsePositiveRate,
+      LongSupplier clock) {
+    if (exactCapacity <= 0 || expectedPerWindow <= 0) {
+      throw new IllegalArgumentException("capacities must be positive");
+    }
+    this.exactCapacity = exactCapacity;
+    this.windowNanos = window.toNanos();
+    this.expectedPerWindow = expectedPerWindow;
+    this.falsePositiveRate = falsePositiveRate;
+    this.clock = clock;
+    this.current = newFilter();
+    this.previous = newFilter();
+    this.generationStart = clock.getAsLong();
+    this.currentLastPut = generationStart;
+    this.previousLastPut = generationStart;
+  }
+
+  /**
+   * Add an event id.
+   *
+   * @param id the id
+   * @return true when the id was not seen before
+   */
+  public synchronized boolean add(EventId id) {
+    final String key = CursorStore.encodeEventId(id);
+    final long now = clock.getAsLong();
+    rotateIfDue(now);
+    if (exact.contains(key) || current.mightContain(key) || previous.mightContain(key)) {
+      duplicates++;
+      return false;
+    }
+    exact.add(key);
+    if (exact.size() > exactCapacity) {
+      final Iterator<String> eldest = exact.iterator();
+      current.put(eldest.next());
+      eldest.remove();
+      currentLastPut = now;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the number of ids rejected as duplicates.
+   *
+   * @return the duplicates
+   */
+  public synchronized long getDuplicates() {
+    return duplicates;
+  }
+
+  private void rotateIfDue(long now) {
+    if (now - generationStart < windowNanos
+        && (current.approximateElementCount() < expectedPerWindow
+            || now - previousLastPut < windowNanos)) {
+      return;
+    }
+    previous = current;
+    previousLastPut = currentLastPut;
+    current = newFilter();
+    generationStart = now;
+    currentLastPut = now;
+  }
+
+  private BloomFilter<CharSequence> newFilter() {
+    return BloomFilter.create(
+        Funnels.stringFunnel(StandardCharsets.UTF_8), expectedPerWindow, falsePositiveRate);
+  }
+}
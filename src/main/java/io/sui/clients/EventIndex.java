@@ -0,0 +1,545 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.models.events.CoinBalanceChangeEvent;
+import io.sui.models.events.DeleteObjectEvent;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventKind;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.EventType;
+import io.sui.models.events.MoveEvent;
+import io.sui.models.events.MutateObjectEvent;
+import io.sui.models.events.NewObjectEvent;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.events.PublishEvent;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.events.TimeRange;
+import io.sui.models.events.TransferObjectEvent;
+import io.sui.models.objects.MoveModule;
+import io.sui.models.objects.SuiObjectOwner;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Event index, a local store answering {@link EventQuery} pages without a fullnode.
+ *
+ * <p>Events fed from subscriptions or backfill are appended once, keyed by event id, as length
+ * prefixed json records to a single log file. Secondary indexes by transaction, sender, package,
+ * module, move event type, event type, object, recipient and timestamp hold the positions of
+ * matching events and are rebuilt from the log on open, so a query reads only the records of the
+ * page it returns. Pages follow ingestion order, time ranges timestamp then ingestion order, and
+ * have the same cursor semantics as {@link QueryClient#getEvents(EventQuery, EventId, int,
+ * boolean)}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class EventIndex implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventIndex.class);
+
+  private static final String LOG_FILE = "events.log";
+
+  private final GsonJsonHandler jsonHandler;
+
+  private final FileChannel log;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Integer> ordinals = new HashMap<>();
+
+  private final Map<String, Postings> postings = new HashMap<>();
+
+  private final TreeMap<Long, Postings> timestamps = new TreeMap<>();
+
+  private long[] offsets = new long[1024];
+
+  private Long[] stamps = new Long[1024];
+
+  private int count;
+
+  private long size;
+
+  /**
+   * Instantiates a new Event index, creating the directory when missing.
+   *
+   * @param dir the dir
+   * @param jsonHandler the json handler
+   * @throws IOException the io exception
+   */
+  public EventIndex(Path dir, GsonJsonHandler jsonHandler) throws IOException {
+    Files.createDirectories(dir);
+    this.jsonHandler = jsonHandler;
+    this.log =
+        FileChannel.open(
+            dir.resolve(LOG_FILE),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    recover();
+  }
+
+  /**
+   * Gets count of indexed events.
+   *
+   * @return the count
+   */
+  public int getCount() {
+    lock.readLock().lock();
+    try {
+      return count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Index an event, ignoring one already indexed.
+   *
+   * @param envelope the envelope
+   * @return true when the event was new
+   * @throws IOException the io exception
+   */
+  public boolean index(EventEnvelope envelope) throws IOException {
+    final byte[] json = jsonHandler.toJsonValue(envelope).getBytes(StandardCharsets.UTF_8);
+    final String id = key(envelope.getId());
+    lock.writeLock().lock();
+    try {
+      if (ordinals.containsKey(id)) {
+        return false;
+      }
+      final ByteBuffer record = ByteBuffer.allocate(4 + json.length);
+      record.putInt(json.length).put(json).flip();
+      long position = size;
+      while (record.hasRemaining()) {
+        position += log.write(record, position);
+      }
+      add(envelope, size);
+      size = position;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Index events, typically a page of a backfill.
+   *
+   * @param envelopes the envelopes
+   * @return the number of new events
+   * @throws IOException the io exception
+   */
+  public int index(List<EventEnvelope> envelopes) throws IOException {
+    int indexed = 0;
+    for (EventEnvelope envelope : envelopes) {
+      if (index(envelope)) {
+        indexed++;
+      }
+    }
+    return indexed;
+  }
+
+  /**
+   * Index a subscribed event, usable as the on next consumer of {@link EventClient#subscribeEvent}.
+   * The parsed json is stored as received, without building its map.
+   *
+   * @param event the event
+   * @return true when the event was new
+   * @throws IOException the io exception
+   */
+  public boolean index(SuiEvent event) throws IOException {
+    final MoveEvent moveEvent = new MoveEvent();
+    moveEvent.setBcs(event.getBcs());
+    moveEvent.setPackageId(event.getPackageId());
+    moveEvent.setSender(event.getSender());
+    moveEvent.setTransactionModule(event.getTransactionModule());
+    moveEvent.setType(event.getType());
+    moveEvent.setLazyFields(event.getLazyParsedJson());
+    final EventKind.MoveEventKind kind = new EventKind.MoveEventKind();
+    kind.setMoveEvent(moveEvent);
+    final EventEnvelope envelope = new EventEnvelope();
+    envelope.setId(event.getId());
+    envelope.setTxDigest(event.getId().getTxDigest());
+    envelope.setTimestamp(
+        event.getTimestampMs() == null ? null : event.getTimestampMs().longValue());
+    envelope.setEvent(kind);
+    return index(envelope);
+  }
+
+  /**
+   * Gets a page of the indexed events matching the query.
+   *
+   * @param query the query, a time range includes its start and excludes its end
+   * @param cursor the id of the last event of the previous page, null for the first page
+   * @param limit the limit
+   * @param isDescOrder the is desc order
+   * @return the paginated events, whose next cursor is null after the last page
+   * @throws IOException the io exception
+   */
+  public PaginatedEvents getEvents(EventQuery query, EventId cursor, int limit, boolean isDescOrder)
+      throws IOException {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    final List<EventEnvelope> data = new ArrayList<>();
+    final boolean more;
+    lock.readLock().lock();
+    try {
+      final Integer after = cursor == null ? null : ordinals.get(key(cursor));
+      if (cursor != null && after == null) {
+        throw new IllegalArgumentException(String.format("cursor %s is not indexed", cursor));
+      }
+      final Postings page =
+          query instanceof EventQuery.TimeRangeEventQuery
+              ? timeRangePage(
+                  ((EventQuery.TimeRangeEventQuery) query).getTimeRange(),
+                  after,
+                  limit,
+                  isDescOrder)
+              : page(match(query), after, limit, isDescOrder);
+      for (int i = 0; i < page.size && data.size() < limit; i++) {
+        data.add(read(page.get(i)));
+      }
+      more = page.size > limit;
+    } finally {
+      lock.readLock().unlock();
+    }
+    final PaginatedEvents page = new PaginatedEvents();
+    page.setData(data);
+    page.setNextCursor(more ? data.get(data.size() - 1).getId() : null);
+    return page;
+  }
+
+  /**
+   * Force indexed events to disk.
+   *
+   * @throws IOException the io exception
+   */
+  public void flush() throws IOException {
+    log.force(false);
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.writeLock().lock();
+    try {
+      log.close();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Up to limit + 1 ordinals of the matches following the cursor, the extra one telling more. */
+  private static Postings page(Postings matches, Integer after, int limit, boolean isDescOrder) {
+    int position;
+    if (after == null) {
+      position = isDescOrder ? matches.size - 1 : 0;
+    } else {
+      final int found = matches.search(after);
+      if (isDescOrder) {
+        position = found >= 0 ? found - 1 : -found - 2;
+      } else {
+        position = found >= 0 ? found + 1 : -found - 1;
+      }
+    }
+    final int step = isDescOrder ? -1 : 1;
+    final Postings page = new Postings();
+    while (page.size <= limit && position >= 0 && position < matches.size) {
+      page.add(matches.get(position));
+      position += step;
+    }
+    return page;
+  }
+
+  /**
+   * Up to limit + 1 ordinals in the time range following the cursor, walking only the timestamps
+   * from the cursor on rather than collecting and sorting the whole range per page.
+   */
+  private Postings timeRangePage(TimeRange range, Integer after, int limit, boolean isDescOrder) {
+    long start = range.getStart_time();
+    long end = range.getEnd_time();
+    boolean endInclusive = false;
+    if (after != null) {
+      final Long stamp = stamps[after];
+      if (stamp == null) {
+        throw new IllegalArgumentException(
+            String.format("cursor event %d has no timestamp", after));
+      }
+      if (!isDescOrder && stamp > start) {
+        start = stamp;
+      } else if (isDescOrder && stamp < end) {
+        end = stamp;
+        endInclusive = true;
+      }
+    }
+    if (start > end || start == end && !endInclusive) {
+      return new Postings();
+    }
+    final NavigableMap<Long, Postings> walk = timestamps.subMap(start, true, end, endInclusive);
+    final Postings page = new Postings();
+    for (Postings atTimestamp : isDescOrder ? walk.descendingMap().values() : walk.values()) {
+      final Postings next =
+          page(
+              atTimestamp,
+              atTimestamp.contains(after) ? after : null,
+              limit - page.size,
+              isDescOrder);
+      for (int i = 0; i < next.size && page.size <= limit; i++) {
+        page.add(next.get(i));
+      }
+      if (page.size > limit) {
+        break;
+      }
+    }
+    return page;
+  }
+
+  private Postings match(EventQuery query) {
+    if (query == EventQuery.AllQuery.All) {
+      return Postings.all(count);
+    }
+    final Postings matches = postings.get(queryKey(query));
+    return matches == null ? new Postings() : matches;
+  }
+
+  private static String queryKey(EventQuery query) {
+    if (query instanceof EventQuery.TransactionEventQuery) {
+      return "tx:" + ((EventQuery.TransactionEventQuery) query).getTransaction();
+    }
+    if (query instanceof EventQuery.SenderEventQuery) {
+      return "sender:" + ((EventQuery.SenderEventQuery) query).getSender();
+    }
+    if (query instanceof EventQuery.MoveModuleEventQuery) {
+      final MoveModule module = ((EventQuery.MoveModuleEventQuery) query).getMoveModule();
+      return "module:" + module.getSuiPackage() + "::" + module.getModule();
+    }
+    if (query instanceof EventQuery.MoveEventEventQuery) {
+      return "move:" + ((EventQuery.MoveEventEventQuery) query).getMoveEvent();
+    }
+    if (query instanceof EventQuery.EventTypeEventQuery) {
+      return "type:" + ((EventQuery.EventTypeEventQuery) query).getEventType();
+    }
+    if (query instanceof EventQuery.ObjectEventQuery) {
+      return "object:" + ((EventQuery.ObjectEventQuery) query).getObject();
+    }
+    if (query instanceof EventQuery.RecipientEventQuery) {
+      return "recipient:" + ((EventQuery.RecipientEventQuery) query).getRecipient();
+    }
+    throw new IllegalArgumentException(String.format("unsupported event query %s", query));
+  }
+
+  /** The index keys of an event, matching {@link #queryKey(EventQuery)}. */
+  private static List<String> keys(EventEnvelope envelope) {
+    final List<String> keys = new ArrayList<>();
+    keys.add("tx:" + envelope.getTxDigest());
+    final EventKind event = envelope.getEvent();
+    if (event instanceof EventKind.MoveEventKind) {
+      final MoveEvent moveEvent = ((EventKind.MoveEventKind) event).getMoveEvent();
+      keys.add("type:" + EventType.MoveEvent);
+      addModuleKeys(
+          keys, moveEvent.getSender(), moveEvent.getPackageId(), moveEvent.getTransactionModule());
+      keys.add("move:" + moveEvent.getType());
+    } else if (event instanceof EventKind.PublishEventKind) {
+      final PublishEvent publish = ((EventKind.PublishEventKind) event).getPublish();
+      keys.add("type:" + EventType.Publish);
+      keys.add("sender:" + publish.getSender());
+    } else if (event instanceof EventKind.CoinBalanceChangeEventKind) {
+      final CoinBalanceChangeEvent change =
+          ((EventKind.CoinBalanceChangeEventKind) event).getCoinBalanceChange();
+      keys.add("type:" + EventType.CoinBalanceChange);
+      addModuleKeys(keys, change.getSender(), change.getPackageId(), change.getTransactionModule());
+      keys.add("object:" + change.getCoinObjectId());
+      addRecipientKey(keys, change.getOwner());
+    } else if (event instanceof EventKind.TransferObjectEventKind) {
+      final TransferObjectEvent transfer =
+          ((EventKind.TransferObjectEventKind) event).getTransferObject();
+      keys.add("type:" + EventType.TransferObject);
+      addModuleKeys(
+          keys, transfer.getSender(), transfer.getPackageId(), transfer.getTransactionModule());
+      keys.add("object:" + transfer.getObjectId());
+      addRecipientKey(keys, transfer.getRecipient());
+    } else if (event instanceof EventKind.MutateObjectEventKind) {
+      final MutateObjectEvent mutate = ((EventKind.MutateObjectEventKind) event).getMutateObject();
+      keys.add("type:" + EventType.MutateObject);
+      addModuleKeys(keys, mutate.getSender(), mutate.getPackageId(), mutate.getTransactionModule());
+      keys.add("object:" + mutate.getObjectId());
+    } else if (event instanceof EventKind.DeleteObjectEventKind) {
+      final DeleteObjectEvent delete = ((EventKind.DeleteObjectEventKind) event).getDeleteObject();
+      keys.add("type:" + EventType.DeleteObject);
+      addModuleKeys(keys, delete.getSender(), delete.getPackageId(), delete.getTransactionModule());
+      keys.add("object:" + delete.getObjectId());
+    } else if (event instanceof EventKind.NewObjectEventKind) {
+      final NewObjectEvent newObject = ((EventKind.NewObjectEventKind) event).getNewObject();
+      keys.add("type:" + EventType.NewObject);
+      addModuleKeys(
+          keys, newObject.getSender(), newObject.getPackageId(), newObject.getTransactionModule());
+      keys.add("object:" + newObject.getObjectId());
+      addRecipientKey(keys, newObject.getRecipient());
+    } else if (event instanceof EventKind.EpochChangeEventKind) {
+      keys.add("type:" + EventType.EpochChange);
+    } else if (event instanceof EventKind.CheckpointEventKind) {
+      keys.add("type:" + EventType.Checkpoint);
+    }
+    return keys;
+  }
+
+  private static void addModuleKeys(
+      List<String> keys, String sender, String packageId, String module) {
+    keys.add("sender:" + sender);
+    keys.add("module:" + packageId + "::" + module);
+  }
+
+  private static void addRecipientKey(List<String> keys, SuiObjectOwner recipient) {
+    if (recipient != null) {
+      keys.add("recipient:" + recipient);
+    }
+  }
+
+  private static String key(EventId id) {
+    return id.getTxDigest() + ":" + id.getEventSeq();
+  }
+
+  private void add(EventEnvelope envelope, long offset) {
+    if (count == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+      stamps = Arrays.copyOf(stamps, stamps.length * 2);
+    }
+    final int ordinal = count;
+    stamps[count] = envelope.getTimestamp();
+    offsets[count++] = offset;
+    ordinals.put(key(envelope.getId()), ordinal);
+    for (String key : keys(envelope)) {
+      postings.computeIfAbsent(key, k -> new Postings()).add(ordinal);
+    }
+    if (envelope.getTimestamp() != null) {
+      timestamps.computeIfAbsent(envelope.getTimestamp(), k -> new Postings()).add(ordinal);
+    }
+  }
+
+  private EventEnvelope read(int ordinal) throws IOException {
+    final long end = ordinal + 1 < count ? offsets[ordinal + 1] : size;
+    final ByteBuffer record = ByteBuffer.allocate((int) (end - offsets[ordinal] - 4));
+    long position = offsets[ordinal] + 4;
+    while (record.hasRemaining()) {
+      final int read = log.read(record, position);
+      if (read < 0) {
+        throw new EOFException(String.format("event log ends inside event %d", ordinal));
+      }
+      position += read;
+    }
+    return jsonHandler.fromJsonValue(
+        new String(record.array(), StandardCharsets.UTF_8), EventEnvelope.class);
+  }
+
+  /** Rebuild the indexes from the log, truncating a record torn by a crash. */
+  private void recover() throws IOException {
+    final long logSize = log.size();
+    log.position(0);
+    final DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Channels.newInputStream(log), 1 << 16));
+    long position = 0;
+    while (position + 4 <= logSize) {
+      final int length = in.readInt();
+      if (length < 0 || position + 4 + length > logSize) {
+        break;
+      }
+      final byte[] json = new byte[length];
+      in.readFully(json);
+      final EventEnvelope envelope;
+      try {
+        envelope =
+            jsonHandler.fromJsonValue(
+                new String(json, StandardCharsets.UTF_8), EventEnvelope.class);
+      } catch (RuntimeException e) {
+        LOGGER.warn(String.format("dropping unreadable event log tail at %d", position), e);
+        break;
+      }
+      add(envelope, position);
+      position += 4 + length;
+    }
+    if (position < logSize) {
+      LOGGER.warn(String.format("truncating event log from %d to %d bytes", logSize, position));
+      log.truncate(position);
+    }
+    size = position;
+  }
+
+  /** The ascending ordinals of the events under one index key. */
+  private static final class Postings {
+
+    private int[] ordinals;
+
+    private int size;
+
+    private Postings() {
+      this.ordinals = new int[4];
+    }
+
+    /** Every ordinal below count, without materializing them. */
+    private static Postings all(int count) {
+      final Postings all = new Postings();
+      all.ordinals = null;
+      all.size = count;
+      return all;
+    }
+
+    private void add(int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    private int get(int position) {
+      return ordinals == null ? position : ordinals[position];
+    }
+
+    private boolean contains(Integer ordinal) {
+      return ordinal != null && search(ordinal) >= 0;
+    }
+
+    private int search(int ordinal) {
+      if (ordinals == null) {
+        return ordinal < size ? ordinal : -size - 1;
+      }
+      return Arrays.binarySearch(ordinals, 0, size, ordinal);
+    }
+  }
+}
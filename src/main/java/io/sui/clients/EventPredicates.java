@@ -0,0 +1,232 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.objects.MoveModule;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The type Event predicates, compiling {@link EventFilter} trees into predicates evaluated locally
+ * with the fullnode's matching rules.
+ *
+ * <p>A filter is walked once when it is compiled, field paths are split and constants captured, so
+ * testing an event costs only the comparisons themselves. Addresses in sender, package, module and
+ * event type filters are compared in their full length lower case form, so {@code 0x2} matches
+ * {@code 0x0000...0002} as it does on the fullnode.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public final class EventPredicates {
+
+  private static final Pattern TYPE_ADDRESS =
+      Pattern.compile("(?<![0-9A-Za-z_])0[xX][0-9a-fA-F]+(?=::)");
+
+  private EventPredicates() {}
+
+  /**
+   * Compile an event filter.
+   *
+   * @param filter the filter
+   * @return the predicate
+   */
+  public static Predicate<SuiEvent> compile(EventFilter filter) {
+    if (filter instanceof EventFilter.AllEventFilter) {
+      return allOf(((EventFilter.AllEventFilter) filter).getAll());
+    }
+    if (filter instanceof EventFilter.AnyEventFilter) {
+      return anyOf(((EventFilter.AnyEventFilter) filter).getAny());
+    }
+    if (filter instanceof EventFilter.AndEventFilter) {
+      return allOf(Arrays.asList(((EventFilter.AndEventFilter) filter).getAnd()));
+    }
+    if (filter instanceof EventFilter.OrEventFilter) {
+      return anyOf(Arrays.asList(((EventFilter.OrEventFilter) filter).getOr()));
+    }
+    if (filter instanceof EventFilter.MoveEventTypeEventFilter) {
+      final String type =
+          normalizeType(((EventFilter.MoveEventTypeEventFilter) filter).getMoveEventType());
+      return event -> type.equals(event.getType()) || type.equals(normalizeType(event.getType()));
+    }
+    if (filter instanceof EventFilter.SenderAddressEventFilter) {
+      final String sender =
+          normalizeAddress(((EventFilter.SenderAddressEventFilter) filter).getSender());
+      return event -> addressEquals(sender, event.getSender());
+    }
+    if (filter instanceof EventFilter.PackageEventFilter) {
+      final String suiPackage =
+          normalizeAddress(((EventFilter.PackageEventFilter) filter).getSuiPackage());
+      return event -> addressEquals(suiPackage, event.getPackageId());
+    }
+    if (filter instanceof EventFilter.MoveModuleEventFilter) {
+      final MoveModule module = ((EventFilter.MoveModuleEventFilter) filter).getModule();
+      final String suiPackage = normalizeAddress(module.getSuiPackage());
+      final String name = module.getModule();
+      return event ->
+          name.equals(event.getTransactionModule())
+              && addressEquals(suiPackage, event.getPackageId());
+    }
+    if (filter instanceof EventFilter.TransactionEventFilter) {
+      final String transaction = ((EventFilter.TransactionEventFilter) filter).getTransaction();
+      return event -> event.getId() != null && transaction.equals(event.getId().getTxDigest());
+    }
+    if (filter instanceof EventFilter.MoveEventFieldEventFilter) {
+      return field(((EventFilter.MoveEventFieldEventFilter) filter).getMoveEventField());
+    }
+    if (filter instanceof EventFilter.TimeRangeFilter) {
+      final EventFilter.TimeRangeFilter.TimeRange range =
+          ((EventFilter.TimeRangeFilter) filter).getTimeRange();
+      final long start = range.getStart_time();
+      final long end = range.getEnd_time();
+      return event ->
+          event.getTimestampMs() != null
+              && event.getTimestampMs().longValue() >= start
+              && event.getTimestampMs().longValue() < end;
+    }
+    throw new IllegalArgumentException(String.format("unsupported event filter %s", filter));
+  }
+
+  private static Predicate<SuiEvent> allOf(List<EventFilter> filters) {
+    final List<Predicate<SuiEvent>> predicates =
+        filters.stream().map(EventPredicates::compile).collect(Collectors.toList());
+    if (predicates.size() == 2) {
+      final Predicate<SuiEvent> left = predicates.get(0);
+      final Predicate<SuiEvent> right = predicates.get(1);
+      return event -> left.test(event) && right.test(event);
+    }
+    return event -> {
+      for (Predicate<SuiEvent> predicate : predicates) {
+        if (!predicate.test(event)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  private static Predicate<SuiEvent> anyOf(List<EventFilter> filters) {
+    final List<Predicate<SuiEvent>> predicates =
+        filters.stream().map(EventPredicates::compile).collect(Collectors.toList());
+    if (predicates.size() == 2) {
+      final Predicate<SuiEvent> left = predicates.get(0);
+      final Predicate<SuiEvent> right = predicates.get(1);
+      return event -> left.test(event) || right.test(event);
+    }
+    return event -> {
+      for (Predicate<SuiEvent> predicate : predicates) {
+        if (predicate.test(event)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /** The field at a json pointer path of the parsed json, equal to the value. */
+  private static Predicate<SuiEvent> field(EventFilter.MoveEventField<?> field) {
+    final String[] path = pointer(field.getPath());
+    final Object expected = field.getValue();
+    return event -> {
+      final Object actual = valueAt(event, path);
+      return actual != null && valueEquals(actual, expected);
+    };
+  }
+
+  /** The address in its full length lower case form, null stays null. */
+  static String normalizeAddress(String address) {
+    if (address == null) {
+      return null;
+    }
+    final String hex = StringUtils.removeStart(address.toLowerCase(Locale.ROOT), "0x");
+    return "0x" + StringUtils.leftPad(hex, SuiCodec.ADDRESS_LENGTH * 2, '0');
+  }
+
+  /** The move type with every address in it normalized, null stays null. */
+  static String normalizeType(String type) {
+    if (type == null) {
+      return null;
+    }
+    final Matcher matcher = TYPE_ADDRESS.matcher(type);
+    final StringBuffer normalized = new StringBuffer(type.length() + 64);
+    while (matcher.find()) {
+      matcher.appendReplacement(normalized, normalizeAddress(matcher.group()));
+    }
+    return matcher.appendTail(normalized).toString();
+  }
+
+  /** The normalized address equals the actual one, compared raw first to skip normalizing. */
+  private static boolean addressEquals(String normalized, String actual) {
+    return normalized.equals(actual) || normalized.equals(normalizeAddress(actual));
+  }
+
+  /** Split a json pointer into its segments. */
+  static String[] pointer(String path) {
+    return Arrays.stream(path.split("/"))
+        .filter(segment -> !segment.isEmpty())
+        .toArray(String[]::new);
+  }
+
+  /** The value at the segments of a json pointer in the parsed json, null when absent. */
+  static Object valueAt(SuiEvent event, String[] path) {
+    Object current = event.getParsedJson();
+    for (String segment : path) {
+      if (current instanceof Map) {
+        current = ((Map<?, ?>) current).get(segment);
+      } else if (current instanceof List && isIndex(segment, ((List<?>) current).size())) {
+        current = ((List<?>) current).get(Integer.parseInt(segment));
+      } else {
+        return null;
+      }
+    }
+    return current;
+  }
+
+  private static boolean isIndex(String segment, int size) {
+    if (segment.isEmpty()
+        || segment.length() > 9
+        || !segment.chars().allMatch(Character::isDigit)) {
+      return false;
+    }
+    return Integer.parseInt(segment) < size;
+  }
+
+  /** Json numbers compare by value, since parsed json holds them as doubles. */
+  private static boolean valueEquals(Object actual, Object expected) {
+    if (actual instanceof Number && expected instanceof Number) {
+      try {
+        return new BigDecimal(actual.toString()).compareTo(new BigDecimal(expected.toString()))
+            == 0;
+      } catch (NumberFormatException e) {
+        return actual.equals(expected);
+      }
+    }
+    return Objects.equals(actual, expected);
+  }
+}
@@ -20,7 +20,6 @@ import static io.sui.models.transactions.TypeTag.SimpleType.u8;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.novi.serde.Bytes;
 import com.novi.serde.DeserializationError;
 import com.novi.serde.SerializationError;
 import com.novi.serde.Tuple3;
@@ -73,13 +72,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.bitcoinj.core.Base58;
 import org.bouncycastle.util.encoders.Base64;
-import org.bouncycastle.util.encoders.Hex;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -112,13 +111,27 @@ public class LocalTransactionBuilder implements TransactionBuilder {
 
   private final QueryClient queryClient;
 
+  private final Executor executor;
+
   /**
    * Instantiates a new Local transaction builder.
    *
    * @param queryClient the query client
    */
   public LocalTransactionBuilder(QueryClient queryClient) {
+    this(queryClient, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Instantiates a new Local transaction builder.
+   *
+   * @param queryClient the query client
+   * @param executor the executor running the continuations of lookups, such as bcs encoding of the
+   *     transaction data, instead of the http client threads completing them
+   */
+  public LocalTransactionBuilder(QueryClient queryClient, Executor executor) {
     this.queryClient = queryClient;
+    this.executor = executor;
   }
 
   @Override
@@ -223,7 +236,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
 
     return CompletableFuture.allOf(
             ArrayUtils.addAll(coinRefFutures, gasRefFuture, refGasPriceFuture))
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final SuiObjectRef objRef = gasRefFuture.join();
               final long refGasPrice = refGasPriceFuture.join();
@@ -268,7 +281,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(transactionData);
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   @Override
@@ -291,7 +305,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
                 .toArray(CompletableFuture[]::new);
 
     return CompletableFuture.allOf(ArrayUtils.addAll(coinRefFutures, refGasPriceFuture))
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final long refGasPrice = refGasPriceFuture.join();
               List<SuiObjectRef> coinRefs =
@@ -334,7 +348,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(transactionData);
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   @Override
@@ -353,7 +368,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
                 .toArray(CompletableFuture[]::new);
 
     return CompletableFuture.allOf(ArrayUtils.addAll(coinRefFutures, refGasPriceFuture))
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final long refGasPrice = refGasPriceFuture.join();
               List<SuiObjectRef> coinRefs =
@@ -390,7 +405,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(transactionData);
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   @Override
@@ -400,7 +416,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
     CompletableFuture<SuiObjectRef> objRefFuture =
         queryClient.getObjectRef(coin, new ObjectDataOptions());
     return CompletableFuture.allOf(refGasPriceFuture, objRefFuture)
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final Long refGasPrice = refGasPriceFuture.join();
               final SuiObjectRef objRef = objRefFuture.join();
@@ -425,7 +441,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(transactionData);
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   @Override
@@ -440,7 +457,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
                 gasPrice ->
                     selectGas(signer, gas, gasBudget, gasPrice, Lists.newArrayList(suiObject)));
     return CompletableFuture.allOf(refGasPriceFuture, objRefFuture, gasRefFuture)
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final Long refGasPrice = refGasPriceFuture.join();
               final SuiObjectRef objRef = objRefFuture.join();
@@ -482,7 +499,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(v1Builder.build());
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   @Override
@@ -1032,7 +1050,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
                 gasPrice -> selectGas(signer, gas, gasBudget, gasPrice, Lists.newArrayList()));
 
     return CompletableFuture.allOf(refGasPriceFuture, gasRefFuture)
-        .thenApply(
+        .thenApplyAsync(
             unused -> {
               final Long refGasPrice = refGasPriceFuture.join();
               final SuiObjectRef objRef = gasRefFuture.join();
@@ -1072,7 +1090,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
               final TransactionBytes transactionBytes = new TransactionBytes();
               transactionBytes.setLocalTxBytes(transactionData);
               return transactionBytes;
-            });
+            },
+            executor);
   }
 
   //  private CompletableFuture<TypeTag> getCoinStructTag(String objectId) {
@@ -1130,7 +1149,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
       objectResponseQuery.setOptions(objectDataOptions);
       return queryClient
           .getObjectsOwnedByAddress(signer, objectResponseQuery, null, null)
-          .thenCompose(
+          .thenComposeAsync(
               (Function<PaginatedObjectsResponse, CompletableFuture<SuiObjectRef>>)
                   paginatedObjectsResponse -> {
                     CompletableFuture<Optional<SuiObjectRef>>[] gases =
@@ -1189,7 +1208,8 @@ public class LocalTransactionBuilder implements TransactionBuilder {
 
                               return selected.get().get();
                             });
-                  });
+                  },
+              executor);
     }
   }
 
@@ -1530,12 +1550,11 @@ public class LocalTransactionBuilder implements TransactionBuilder {
   }
 
   @NotNull private List<Byte> geAddressBytes(String address) {
-    return Arrays.asList(ArrayUtils.toObject(Hex.decode(StringUtils.removeStart(address, "0x"))));
+    return SuiCodec.addressBytes(address);
   }
 
   private String toAddress(List<Byte> addressBytes) {
-    return StringUtils.prependIfMissing(
-        Hex.toHexString(ArrayUtils.toPrimitive(addressBytes.toArray(new Byte[0]))), "0x");
+    return SuiCodec.toAddress(addressBytes);
   }
 
   private Tuple3<ObjectID, SequenceNumber, ObjectDigest> getObjectRef(SuiObjectRef objRef) {
@@ -1548,7 +1567,7 @@ public class LocalTransactionBuilder implements TransactionBuilder {
     SequenceNumber.Builder sequenceNumberBuilder = new SequenceNumber.Builder();
     sequenceNumberBuilder.value = objRef.getVersion().longValue();
     Digest.Builder digestBuilder = new Digest.Builder();
-    digestBuilder.value = Bytes.valueOf(Base58.decode(objRef.getDigest()));
+    digestBuilder.value = SuiCodec.digestBytes(objRef.getDigest());
     ObjectDigest.Builder objectDigestBuilder = new ObjectDigest.Builder();
     objectDigestBuilder.value = digestBuilder.build();
 
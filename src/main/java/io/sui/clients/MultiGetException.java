@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.SuiApiException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Multi get exception, raised when some chunks of a chunked multi get failed.
+ *
+ * <p>The results of the chunks that succeeded are kept in input order, with null at the positions
+ * whose chunk failed, and every missing id is mapped to the failure of its chunk.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class MultiGetException extends SuiApiException {
+
+  private final List<?> results;
+
+  private final Map<String, Throwable> failures;
+
+  /**
+   * Instantiates a new Multi get exception.
+   *
+   * @param results the results in input order, null where the chunk failed
+   * @param failures the failure of every id whose chunk failed
+   */
+  public MultiGetException(List<?> results, Map<String, Throwable> failures) {
+    super(failures.values().iterator().next());
+    this.results = Collections.unmodifiableList(results);
+    this.failures = Collections.unmodifiableMap(failures);
+    if (getCause() instanceof SuiApiException) {
+      setError(((SuiApiException) getCause()).getError());
+    }
+  }
+
+  /**
+   * Gets partial results in input order, null where the chunk failed.
+   *
+   * @return the results
+   */
+  public List<?> getResults() {
+    return results;
+  }
+
+  /**
+   * Gets failures by id.
+   *
+   * @return the failures
+   */
+  public Map<String, Throwable> getFailures() {
+    return failures;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.SuiEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Multiplexing event client, serving many local subscriptions from few server side ones.
+ *
+ * <p>Subscriptions with equal filters form a group that shares one upstream subscription, opened
+ * with the first subscriber and disposed with the last. When built with a broad upstream filter, a
+ * single upstream subscription with that filter feeds every group instead and each group's filter,
+ * compiled once by {@link EventPredicates}, is evaluated locally; the broad filter must cover every
+ * filter subscribed.
+ *
+ * <p>A subscriber whose consumer throws gets the error and is dropped without affecting the others.
+ * An upstream error ends every subscription it fed.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class MultiplexingEventClient implements EventClient {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MultiplexingEventClient.class);
+
+  private final EventClient delegate;
+
+  private final EventFilter upstreamFilter;
+
+  private final Map<EventFilter, Group> groups = new ConcurrentHashMap<>();
+
+  private Disposable upstream;
+
+  /**
+   * Instantiates a new Multiplexing event client sharing one upstream subscription per filter.
+   *
+   * @param delegate the delegate
+   */
+  public MultiplexingEventClient(EventClient delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * Instantiates a new Multiplexing event client over one upstream subscription.
+   *
+   * @param delegate the delegate
+   * @param upstreamFilter the upstream filter, null to share one upstream subscription per filter
+   */
+  public MultiplexingEventClient(EventClient delegate, EventFilter upstreamFilter) {
+    this.delegate = delegate;
+    this.upstreamFilter = upstreamFilter;
+  }
+
+  /**
+   * Gets the number of distinct filters subscribed.
+   *
+   * @return the group count
+   */
+  public int getGroupCount() {
+    return groups.size();
+  }
+
+  @Override
+  public synchronized Disposable subscribeEvent(
+      EventFilter eventFilter, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    final Subscriber subscriber = new Subscriber(onNext, onError);
+    Group group = groups.get(eventFilter);
+    final boolean created = group == null;
+    if (created) {
+      group = new Group(eventFilter);
+      groups.put(eventFilter, group);
+    }
+    group.subscribers.add(subscriber);
+    try {
+      if (upstreamFilter == null && created) {
+        group.upstream = delegate.subscribeEvent(eventFilter, group::deliver, group::fail);
+      } else if (upstreamFilter != null && upstream == null) {
+        upstream = delegate.subscribeEvent(upstreamFilter, this::dispatch, this::fail);
+        if (groups.isEmpty()) {
+          // the upstream failed while subscribing
+          upstream = null;
+        }
+      }
+    } catch (RuntimeException e) {
+      unsubscribe(group, subscriber);
+      throw e;
+    }
+    final Group subscribed = group;
+    return Disposable.fromAction(() -> unsubscribe(subscribed, subscriber));
+  }
+
+  private synchronized void unsubscribe(Group group, Subscriber subscriber) {
+    if (!group.subscribers.remove(subscriber) || !group.subscribers.isEmpty()) {
+      return;
+    }
+    groups.remove(group.filter, group);
+    if (group.upstream != null) {
+      group.upstream.dispose();
+    }
+    if (upstream != null && groups.isEmpty()) {
+      upstream.dispose();
+      upstream = null;
+    }
+  }
+
+  private void dispatch(SuiEvent event) {
+    for (Group group : groups.values()) {
+      if (group.predicate.test(event)) {
+        group.deliver(event);
+      }
+    }
+  }
+
+  private void fail(SuiApiException error) {
+    final List<Group> failed;
+    synchronized (this) {
+      failed = new ArrayList<>(groups.values());
+      groups.clear();
+      upstream = null;
+    }
+    for (Group group : failed) {
+      group.failAll(error);
+    }
+  }
+
+  /** The subscribers of one filter. */
+  private final class Group {
+
+    private final EventFilter filter;
+
+    private final Predicate<SuiEvent> predicate;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private Disposable upstream;
+
+    private Group(EventFilter filter) {
+      this.filter = filter;
+      this.predicate = upstreamFilter == null ? event -> true : EventPredicates.compile(filter);
+    }
+
+    private void deliver(SuiEvent event) {
+      for (Subscriber subscriber : subscribers) {
+        try {
+          subscriber.onNext.accept(event);
+        } catch (Throwable throwable) {
+          LOGGER.warn("event consumer failed, dropping its subscription", throwable);
+          unsubscribe(this, subscriber);
+          subscriber.fail(new SuiApiException(throwable));
+        }
+      }
+    }
+
+    private void fail(SuiApiException error) {
+      synchronized (MultiplexingEventClient.this) {
+        groups.remove(filter, this);
+      }
+      failAll(error);
+    }
+
+    private void failAll(SuiApiException error) {
+      for (Subscriber subscriber : subscribers) {
+        subscriber.fail(error);
+      }
+      subscribers.clear();
+    }
+  }
+
+  private static final class Subscriber {
+
+    private final Consumer<SuiEvent> onNext;
+
+    private final Consumer<SuiApiException> onError;
+
+    private Subscriber(Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+      this.onNext = onNext;
+      this.onError = onError;
+    }
+
+    private void fail(SuiApiException error) {
+      try {
+        onError.accept(error);
+      } catch (Throwable throwable) {
+        LOGGER.warn("event error consumer failed", throwable);
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.events.EventId;
+import io.sui.models.events.PaginatedEvents;
+
+/**
+ * The type Page cursors, the cursor of the page after a response, shared by the blocking, reactive
+ * and backfill scans.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class PageCursors {
+
+  private PageCursors() {}
+
+  /**
+   * The cursor of the page after an events page. Event pages carry no has-next flag, so the scan
+   * ends on the first empty page.
+   */
+  static EventId eventCursor(PaginatedEvents page) {
+    return page.getData() == null || page.getData().isEmpty() ? null : page.getNextCursor();
+  }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.objects.Coin;
+import io.sui.models.objects.ObjectResponseQuery;
+import io.sui.models.objects.PaginatedCoins;
+import io.sui.models.objects.PaginatedObjectsResponse;
+import io.sui.models.objects.SuiObjectResponse;
+import io.sui.models.transactions.PaginatedTransactionResponse;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseQuery;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The type Paginator, a lazy view of every item of a paginated query.
+ *
+ * <p>Iteration starts with the first page and, as soon as a page arrives, the page after it is
+ * requested so that it downloads while the current one is consumed. Only the page being consumed
+ * and the one being prefetched are held, so memory stays constant however long the scan is. A
+ * failed page surfaces as a {@link java.util.concurrent.CompletionException} from the iterator.
+ * Each call to {@link #iterator()} or {@link #stream()} starts a new scan; closing the stream
+ * cancels the pending prefetch.
+ *
+ * <p>The resumable event and transaction block paginators start after the cursor saved in a {@link
+ * CursorStore} and save the cursor of every item once the consumer asks for the next one, so a
+ * restarted scan continues after the last item that was processed.
+ *
+ * @param <T> the item type
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class Paginator<T> implements Iterable<T> {
+
+  private final PageSource<?, ?, T> source;
+
+  private Paginator(PageSource<?, ?, T> source) {
+    this.source = source;
+  }
+
+  /**
+   * Paginator over any cursor paginated call.
+   *
+   * @param <C> the cursor type
+   * @param <P> the page type
+   * @param <T> the item type
+   * @param start the cursor to start after, null for the first page
+   * @param fetch fetches the page after a cursor
+   * @param data the items of a page
+   * @param next the cursor of the page after this one, null when it is the last page
+   * @return the paginator
+   */
+  public static <C, P, T> Paginator<T> of(
+      C start,
+      Function<C, CompletableFuture<P>> fetch,
+      Function<P, List<T>> data,
+      Function<P, C> next) {
+    return new Paginator<>(new PageSource<>(() -> start, fetch, data, next, null));
+  }
+
+  /**
+   * Paginator over the coins of one coin type owned by an address.
+   *
+   * @param queryClient the query client
+   * @param address the owner address
+   * @param coinType the coin type
+   * @param pageSize the page size
+   * @return the paginator
+   */
+  public static Paginator<Coin> coins(
+      QueryClient queryClient, String address, String coinType, int pageSize) {
+    return of(
+        (String) null,
+        cursor -> queryClient.getCoins(address, coinType, cursor, pageSize),
+        PaginatedCoins::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Paginator over all coins owned by an address.
+   *
+   * @param queryClient the query client
+   * @param address the owner address
+   * @param pageSize the page size
+   * @return the paginator
+   */
+  public static Paginator<Coin> allCoins(QueryClient queryClient, String address, int pageSize) {
+    return of(
+        (String) null,
+        cursor -> queryClient.getAllCoins(address, cursor, pageSize),
+        PaginatedCoins::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Paginator over the objects owned by an address.
+   *
+   * @param queryClient the query client
+   * @param address the owner address
+   * @param query the query
+   * @param pageSize the page size
+   * @return the paginator
+   */
+  public static Paginator<SuiObjectResponse> objectsOwnedByAddress(
+      QueryClient queryClient, String address, ObjectResponseQuery query, int pageSize) {
+    return of(
+        (String) null,
+        cursor -> queryClient.getObjectsOwnedByAddress(address, query, cursor, pageSize),
+        PaginatedObjectsResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Paginator over the objects matching a query.
+   *
+   * @param queryClient the query client
+   * @param query the query
+   * @param pageSize the page size
+   * @return the paginator
+   */
+  public static Paginator<SuiObjectResponse> objects(
+      QueryClient queryClient, ObjectResponseQuery query, int pageSize) {
+    return of(
+        (String) null,
+        cursor -> queryClient.queryObjects(query, cursor, pageSize),
+        PaginatedObjectsResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Paginator over the transaction blocks matching a query.
+   *
+   * @param queryClient the query client
+   * @param query the query
+   * @param pageSize the page size
+   * @param isDescOrder the is desc order
+   * @return the paginator
+   */
+  public static Paginator<TransactionBlockResponse> transactionBlocks(
+      QueryClient queryClient,
+      TransactionBlockResponseQuery query,
+      int pageSize,
+      boolean isDescOrder) {
+    return of(
+        (String) null,
+        cursor -> queryClient.queryTransactionBlocks(query, cursor, pageSize, isDescOrder),
+        PaginatedTransactionResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Resumable paginator over the transaction blocks matching a query.
+   *
+   * @param queryClient the query client
+   * @param query the query
+   * @param pageSize the page size
+   * @param isDescOrder the is desc order
+   * @param store the cursor store
+   * @param name the consumer name in the store
+   * @return the paginator
+   */
+  public static Paginator<TransactionBlockResponse> transactionBlocks(
+      QueryClient queryClient,
+      TransactionBlockResponseQuery query,
+      int pageSize,
+      boolean isDescOrder,
+      CursorStore store,
+      String name) {
+    return resumable(
+        store,
+        name,
+        Function.identity(),
+        TransactionBlockResponse::getDigest,
+        cursor -> queryClient.queryTransactionBlocks(query, cursor, pageSize, isDescOrder),
+        PaginatedTransactionResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  /**
+   * Paginator over the events matching a query.
+   *
+   * @param queryClient the query client
+   * @param query the query
+   * @param pageSize the page size
+   * @param isDescOrder the is desc order
+   * @return the paginator
+   */
+  public static Paginator<EventEnvelope> events(
+      QueryClient queryClient, EventQuery query, int pageSize, boolean isDescOrder) {
+    return of(
+        (EventId) null,
+        cursor -> queryClient.getEvents(query, cursor, pageSize, isDescOrder),
+        PaginatedEvents::getData,
+        PageCursors::eventCursor);
+  }
+
+  /**
+   * Resumable paginator over the events matching a query.
+   *
+   * @param queryClient the query client
+   * @param query the query
+   * @param pageSize the page size
+   * @param isDescOrder the is desc order
+   * @param store the cursor store
+   * @param name the consumer name in the store
+   * @return the paginator
+   */
+  public static Paginator<EventEnvelope> events(
+      QueryClient queryClient,
+      EventQuery query,
+      int pageSize,
+      boolean isDescOrder,
+      CursorStore store,
+      String name) {
+    return resumable(
+        store,
+        name,
+        CursorStore::decodeEventId,
+        envelope -> CursorStore.encodeEventId(envelope.getId()),
+        cursor -> queryClient.getEvents(query, cursor, pageSize, isDescOrder),
+        PaginatedEvents::getData,
+        PageCursors::eventCursor);
+  }
+
+  private static <C, P, T> Paginator<T> resumable(
+      CursorStore store,
+      String name,
+      Function<String, C> decode,
+      Function<T, String> encode,
+      Function<C, CompletableFuture<P>> fetch,
+      Function<P, List<T>> data,
+      Function<P, C> next) {
+    return new Paginator<>(
+        new PageSource<>(
+            () -> store.load(name).map(decode).orElse(null),
+            fetch,
+            data,
+            next,
+            item -> store.save(name, encode.apply(item))));
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return source.iterator();
+  }
+
+  /**
+   * Stream of the items, closing it cancels the pending prefetch.
+   *
+   * @return the stream
+   */
+  public Stream<T> stream() {
+    final PageIterator<?, ?, T> iterator = source.iterator();
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(iterator::close);
+  }
+
+  private static final class PageSource<C, P, T> {
+
+    private final Supplier<C> start;
+
+    private final Function<C, CompletableFuture<P>> fetch;
+
+    private final Function<P, List<T>> data;
+
+    private final Function<P, C> next;
+
+    private final Consumer<T> processed;
+
+    private PageSource(
+        Supplier<C> start,
+        Function<C, CompletableFuture<P>> fetch,
+        Function<P, List<T>> data,
+        Function<P, C> next,
+        Consumer<T> processed) {
+      this.start = start;
+      this.fetch = fetch;
+      this.data = data;
+      this.next = next;
+      this.processed = processed;
+    }
+
+    private PageIterator<C, P, T> iterator() {
+      return new PageIterator<>(this);
+    }
+  }
+
+  private static final class PageIterator<C, P, T> implements Iterator<T> {
+
+    private final PageSource<C, P, T> source;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private CompletableFuture<P> pending;
+
+    private T last;
+
+    private PageIterator(PageSource<C, P, T> source) {
+      this.source = source;
+      this.pending = source.fetch.apply(source.start.get());
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (last != null) {
+        source.processed.accept(last);
+        last = null;
+      }
+      while (!current.hasNext()) {
+        if (pending == null) {
+          return false;
+        }
+        final P page = pending.join();
+        final C cursor = source.next.apply(page);
+        pending = cursor == null ? null : source.fetch.apply(cursor);
+        final List<T> items = source.data.apply(page);
+        current = items == null ? Collections.emptyIterator() : items.iterator();
+      }
+      return true;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final T item = current.next();
+      if (source.processed != null) {
+        last = item;
+      }
+      return item;
+    }
+
+    private void close() {
+      if (pending != null) {
+        pending.cancel(true);
+        pending = null;
+      }
+      current = Collections.emptyIterator();
+    }
+  }
+}
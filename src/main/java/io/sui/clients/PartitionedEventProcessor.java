@@ -0,0 +1,395 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.SuiEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Partitioned event processor, handling one event subscription on several threads while
+ * keeping the events of one key in order.
+ *
+ * <p>The key of every event picks one of a fixed number of lanes by hash. Each lane is a bounded
+ * queue drained by its own thread, so events sharing a key are handled one at a time in arrival
+ * order while different keys proceed in parallel. When a lane is full the subscription waits for
+ * room instead of dropping events. A handler that throws is logged and counted, the lane goes on.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class PartitionedEventProcessor implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedEventProcessor.class);
+
+  private final EventClient client;
+
+  private final EventFilter filter;
+
+  private final Function<SuiEvent, ?> key;
+
+  private final List<Lane> lanes;
+
+  private Disposable subscription;
+
+  private final AtomicInteger routing = new AtomicInteger();
+
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new Partitioned event processor.
+   *
+   * @param client the event client
+   * @param filter the event filter
+   * @param key the key of an event, events with equal keys are handled in order
+   * @param laneCount the number of lanes
+   * @param laneCapacity the events each lane queues before the subscription waits
+   */
+  public PartitionedEventProcessor(
+      EventClient client,
+      EventFilter filter,
+      Function<SuiEvent, ?> key,
+      int laneCount,
+      int laneCapacity) {
+    if (laneCount <= 0 || laneCapacity <= 0) {
+      throw new IllegalArgumentException("lane count and capacity must be positive");
+    }
+    this.client = client;
+    this.filter = filter;
+    this.key = key;
+    final List<Lane> created = new ArrayList<>(laneCount);
+    for (int i = 0; i < laneCount; i++) {
+      created.add(new Lane(i, laneCapacity));
+    }
+    this.lanes = Collections.unmodifiableList(created);
+  }
+
+  /**
+   * Key by sender.
+   *
+   * @return the key function
+   */
+  public static Function<SuiEvent, String> bySender() {
+    return SuiEvent::getSender;
+  }
+
+  /**
+   * Key by package id.
+   *
+   * @return the key function
+   */
+  public static Function<SuiEvent, String> byPackageId() {
+    return SuiEvent::getPackageId;
+  }
+
+  /**
+   * Key by a field of the parsed json.
+   *
+   * @param path the json pointer of the field, such as {@code /pool_id}
+   * @return the key function
+   */
+  public static Function<SuiEvent, Object> byField(String path) {
+    final String[] pointer = EventPredicates.pointer(path);
+    return event -> EventPredicates.valueAt(event, pointer);
+  }
+
+  /**
+   * Key by an object id field of the parsed json, ignoring case and leading zeros so that every
+   * spelling of one id lands in the same lane.
+   *
+   * @param path the json pointer of the object id field
+   * @return the key function
+   */
+  public static Function<SuiEvent, String> byObjectId(String path) {
+    final String[] pointer = EventPredicates.pointer(path);
+    return event -> {
+      final Object id = EventPredicates.valueAt(event, pointer);
+      if (id == null) {
+        return null;
+      }
+      final String hex = StringUtils.removeStart(id.toString().toLowerCase(Locale.ROOT), "0x");
+      return "0x" + StringUtils.defaultIfEmpty(StringUtils.stripStart(hex, "0"), "0");
+    };
+  }
+
+  /**
+   * Subscribe and start handling events.
+   *
+   * @param handler the handler, called on the lane of the event
+   * @param onError the on error of the subscription
+   */
+  public synchronized void start(Consumer<SuiEvent> handler, Consumer<SuiApiException> onError) {
+    if (subscription != null || closed) {
+      throw new IllegalStateException("processor already started");
+    }
+    final ThreadFactory threadFactory =
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-event-lane-%d").build();
+    for (Lane lane : lanes) {
+      lane.thread = threadFactory.newThread(() -> lane.drain(handler));
+      lane.thread.start();
+    }
+    subscription = client.subscribeEvent(filter, this::route, onError);
+  }
+
+  /**
+   * Gets a snapshot of the metrics of every lane.
+   *
+   * @return the lane metrics
+   */
+  public List<LaneMetrics> getLaneMetrics() {
+    final long now = System.nanoTime();
+    final long wallClock = System.currentTimeMillis();
+    final List<LaneMetrics> metrics = new ArrayList<>(lanes.size());
+    for (Lane lane : lanes) {
+      metrics.add(lane.metrics(now, wallClock));
+    }
+    return metrics;
+  }
+
+  /**
+   * Dispose the subscription and wait for every lane to handle the events already queued or being
+   * queued. An interrupt stops the wait and is kept on the calling thread, the lanes still drain.
+   * Called from a handler, it waits for every lane but the handler's own.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (subscription != null) {
+        subscription.dispose();
+      }
+    }
+    try {
+      for (Lane lane : lanes) {
+        // a handler closing on a poison event must not wait for its own lane
+        if (lane.thread != null && lane.thread != Thread.currentThread()) {
+          lane.thread.join();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void route(SuiEvent event) throws InterruptedException {
+    routing.incrementAndGet();
+    try {
+      if (closed) {
+        LOGGER.debug(String.format("skipping event %s after close", event.getId()));
+        return;
+      }
+      final Object eventKey = key.apply(event);
+      final int hash = eventKey == null ? 0 : eventKey.hashCode();
+      lanes.get(Math.floorMod(hash, lanes.size())).queue.put(new Queued(event, System.nanoTime()));
+    } finally {
+      routing.decrementAndGet();
+    }
+  }
+
+  /** The type Lane metrics, a snapshot of one lane. */
+  public static class LaneMetrics {
+
+    private final int lane;
+
+    private final int queued;
+
+    private final long processed;
+
+    private final long failed;
+
+    private final long queueDelayMillis;
+
+    private final long eventLagMillis;
+
+    LaneMetrics(
+        int lane,
+        int queued,
+        long processed,
+        long failed,
+        long queueDelayMillis,
+        long eventLagMillis) {
+      this.lane = lane;
+      this.queued = queued;
+      this.processed = processed;
+      this.failed = failed;
+      this.queueDelayMillis = queueDelayMillis;
+      this.eventLagMillis = eventLagMillis;
+    }
+
+    /**
+     * Gets lane.
+     *
+     * @return the lane
+     */
+    public int getLane() {
+      return lane;
+    }
+
+    /**
+     * Gets queued events.
+     *
+     * @return the queued
+     */
+    public int getQueued() {
+      return queued;
+    }
+
+    /**
+     * Gets processed events, including failed ones.
+     *
+     * @return the processed
+     */
+    public long getProcessed() {
+      return processed;
+    }
+
+    /**
+     * Gets events whose handler threw.
+     *
+     * @return the failed
+     */
+    public long getFailed() {
+      return failed;
+    }
+
+    /**
+     * Gets how long the oldest queued event has been waiting, zero when the lane is idle.
+     *
+     * @return the queue delay millis
+     */
+    public long getQueueDelayMillis() {
+      return queueDelayMillis;
+    }
+
+    /**
+     * Gets the wall clock time minus the timestamp of the last processed event, -1 before the first
+     * event with a timestamp.
+     *
+     * @return the event lag millis
+     */
+    public long getEventLagMillis() {
+      return eventLagMillis;
+    }
+
+    @Override
+    public String toString() {
+      return "LaneMetrics{"
+          + "lane="
+          + lane
+          + ", queued="
+          + queued
+          + ", processed="
+          + processed
+          + ", failed="
+          + failed
+          + ", queueDelayMillis="
+          + queueDelayMillis
+          + ", eventLagMillis="
+          + eventLagMillis
+          + '}';
+    }
+  }
+
+  private static class Queued {
+
+    private final SuiEvent event;
+
+    private final long enqueuedNanos;
+
+    private Queued(SuiEvent event, long enqueuedNanos) {
+      this.event = event;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+
+  private class Lane {
+
+    private final int index;
+
+    private final BlockingQueue<Queued> queue;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile long lastTimestampMs = -1;
+
+    private Thread thread;
+
+    private Lane(int index, int capacity) {
+      this.index = index;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    private void drain(Consumer<SuiEvent> handler) {
+      try {
+        // an event counted in routing before close is either queued or about to be
+        while (!closed || routing.get() > 0 || !queue.isEmpty()) {
+          final Queued queued = queue.poll(100, TimeUnit.MILLISECONDS);
+          if (queued == null) {
+            continue;
+          }
+          try {
+            handler.accept(queued.event);
+          } catch (Throwable throwable) {
+            failed.incrementAndGet();
+            LOGGER.warn(String.format("event handler failed on lane %d", index), throwable);
+          }
+          if (queued.event.getTimestampMs() != null) {
+            lastTimestampMs = queued.event.getTimestampMs().longValue();
+          }
+          processed.incrementAndGet();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private LaneMetrics metrics(long now, long wallClock) {
+      final Queued oldest = queue.peek();
+      final long timestamp = lastTimestampMs;
+      return new LaneMetrics(
+          index,
+          queue.size(),
+          processed.get(),
+          failed.get(),
+          oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest.enqueuedNanos),
+          timestamp < 0 ? -1 : Math.max(0, wallClock - timestamp));
+    }
+  }
+}
@@ -49,6 +49,8 @@ import io.sui.models.transactions.TransactionBlockResponseQuery;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -59,15 +61,64 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class QueryClientImpl implements QueryClient {
 
+  /** The default multi get chunk size, the fullnode's per call limit. */
+  public static final int DEFAULT_MULTI_GET_CHUNK_SIZE = 50;
+
+  /** The default number of multi get chunks in flight at once. */
+  public static final int DEFAULT_MULTI_GET_CONCURRENCY = 4;
+
   private final JsonRpcClientProvider jsonRpcClientProvider;
 
+  private final Executor executor;
+
+  private final int multiGetChunkSize;
+
+  private final int multiGetConcurrency;
+
   /**
    * Instantiates a new Sui client.
    *
    * @param jsonRpcClientProvider the json rpc client provider
    */
   public QueryClientImpl(JsonRpcClientProvider jsonRpcClientProvider) {
+    this(jsonRpcClientProvider, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Instantiates a new Sui client.
+   *
+   * @param jsonRpcClientProvider the json rpc client provider
+   * @param executor the executor running cpu bound continuations of responses, such as reassembling
+   *     chunked multi gets, instead of the http client threads completing them
+   */
+  public QueryClientImpl(JsonRpcClientProvider jsonRpcClientProvider, Executor executor) {
+    this(
+        jsonRpcClientProvider,
+        executor,
+        DEFAULT_MULTI_GET_CHUNK_SIZE,
+        DEFAULT_MULTI_GET_CONCURRENCY);
+  }
+
+  /**
+   * Instantiates a new Sui client.
+   *
+   * @param jsonRpcClientProvider the json rpc client provider
+   * @param executor the executor running continuations of responses
+   * @param multiGetChunkSize the most ids sent in one multi get call, larger lists are chunked
+   * @param multiGetConcurrency the most multi get chunks in flight at once
+   */
+  public QueryClientImpl(
+      JsonRpcClientProvider jsonRpcClientProvider,
+      Executor executor,
+      int multiGetChunkSize,
+      int multiGetConcurrency) {
+    if (multiGetChunkSize < 1 || multiGetConcurrency < 1) {
+      throw new IllegalArgumentException("multi get chunk size and concurrency must be positive");
+    }
     this.jsonRpcClientProvider = jsonRpcClientProvider;
+    this.executor = executor;
+    this.multiGetChunkSize = multiGetChunkSize;
+    this.multiGetConcurrency = multiGetConcurrency;
   }
 
   @Override
@@ -80,9 +131,20 @@ public class QueryClientImpl implements QueryClient {
         "/sui_getObject", request, new TypeToken<SuiObjectResponse>() {}.getType());
   }
 
+  /**
+   * Gets object ref.
+   *
+   * @param id the id
+   * @param objectDataOptions the object data options
+   * @return the object ref
+   */
   public CompletableFuture<SuiObjectRef> getObjectRef(
       String id, ObjectDataOptions objectDataOptions) {
-    return this.getObject(id, objectDataOptions).thenApply(SuiObjectResponse::getObjectRef);
+    final CompletableFuture<SuiObjectResponse> object = this.getObject(id, objectDataOptions);
+    final CompletableFuture<SuiObjectRef> objectRef =
+        object.thenApply(SuiObjectResponse::getObjectRef);
+    JsonRpcClientProvider.cancelOnCompletion(objectRef, object);
+    return objectRef;
   }
 
   @Override
@@ -116,9 +178,28 @@ public class QueryClientImpl implements QueryClient {
         new TypeToken<TransactionBlockResponse>() {}.getType());
   }
 
+  /**
+   * Multi get transaction blocks, chunked to the fullnode's per call limit with the chunks sent in
+   * parallel. When some chunks fail the future fails with a {@link MultiGetException} holding the
+   * other results and the failure of every missing digest.
+   *
+   * @param digests the digests
+   * @param options the options
+   * @return the transaction blocks in digest order
+   */
   @Override
   public CompletableFuture<List<TransactionBlockResponse>> multiGetTransactionBlocks(
       List<String> digests, TransactionBlockResponseOptions options) {
+    return ChunkedMultiGet.multiGet(
+        digests,
+        multiGetChunkSize,
+        multiGetConcurrency,
+        chunk -> multiGetTransactionBlocksChunk(chunk, options),
+        executor);
+  }
+
+  private CompletableFuture<List<TransactionBlockResponse>> multiGetTransactionBlocksChunk(
+      List<String> digests, TransactionBlockResponseOptions options) {
     final JsonRpc20Request request =
         this.jsonRpcClientProvider.createJsonRpc20Request(
             "sui_multiGetTransactionBlocks", Lists.newArrayList(digests, options));
@@ -128,9 +209,28 @@ public class QueryClientImpl implements QueryClient {
         new TypeToken<List<TransactionBlockResponse>>() {}.getType());
   }
 
+  /**
+   * Multi get objects, chunked to the fullnode's per call limit with the chunks sent in parallel.
+   * When some chunks fail the future fails with a {@link MultiGetException} holding the other
+   * results and the failure of every missing object id.
+   *
+   * @param objectIds the object ids
+   * @param options the options
+   * @return the objects in id order
+   */
   @Override
   public CompletableFuture<List<SuiObjectResponse>> multiGetObjects(
       List<String> objectIds, ObjectDataOptions options) {
+    return ChunkedMultiGet.multiGet(
+        objectIds,
+        multiGetChunkSize,
+        multiGetConcurrency,
+        chunk -> multiGetObjectsChunk(chunk, options),
+        executor);
+  }
+
+  private CompletableFuture<List<SuiObjectResponse>> multiGetObjectsChunk(
+      List<String> objectIds, ObjectDataOptions options) {
     final JsonRpc20Request request =
         this.jsonRpcClientProvider.createJsonRpc20Request(
             "sui_multiGetObjects", Lists.newArrayList(objectIds, options));
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.processors.UnicastProcessor;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The type Reactive calls, bridging completable futures into rx java.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class ReactiveCalls {
+
+  private ReactiveCalls() {}
+
+  /**
+   * A cold single issuing the call on subscription and cancelling it on dispose. A null result is
+   * signalled as a {@link NullPointerException}, as rx java does not carry nulls.
+   */
+  static <T> Single<T> single(Supplier<CompletableFuture<T>> call) {
+    return Single.create(
+        emitter -> {
+          final CompletableFuture<T> future = call.get();
+          emitter.setCancellable(() -> future.cancel(true));
+          future.whenComplete(
+              (result, throwable) -> {
+                if (throwable != null) {
+                  emitter.tryOnError(
+                      throwable instanceof CompletionException && throwable.getCause() != null
+                          ? throwable.getCause()
+                          : throwable);
+                } else if (result == null) {
+                  emitter.tryOnError(new NullPointerException("the call returned no result"));
+                } else {
+                  emitter.onSuccess(result);
+                }
+              });
+        });
+  }
+
+  /**
+   * A flowable of the items of every page, starting after the given cursor.
+   *
+   * <p>The cursors are fed back through a unicast processor, so a page is only fetched after the
+   * previous one was emitted, and pages are only emitted as the items are requested: at most one
+   * page is buffered and one is in flight, whatever the length of the scan.
+   *
+   * @param start the cursor to start after, null for the first page
+   * @param fetch fetches the page after a cursor
+   * @param data the items of a page
+   * @param next the cursor of the page after this one, null when it is the last page
+   */
+  static <C, P, T> Flowable<T> paginate(
+      C start,
+      Function<C, CompletableFuture<P>> fetch,
+      Function<P, List<T>> data,
+      Function<P, C> next) {
+    return Flowable.defer(
+        () -> {
+          final UnicastProcessor<Optional<C>> cursors = UnicastProcessor.create();
+          cursors.onNext(Optional.ofNullable(start));
+          return cursors
+              .concatMapSingle(cursor -> single(() -> fetch.apply(cursor.orElse(null))), 1)
+              .doOnNext(
+                  page -> {
+                    final C nextCursor = next.apply(page);
+                    if (nextCursor == null) {
+                      cursors.onComplete();
+                    } else {
+                      cursors.onNext(Optional.of(nextCursor));
+                    }
+                  })
+              .concatMapIterable(data::apply, 1);
+        });
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.core.Single;
+import io.sui.models.transactions.ExecuteTransactionRequestType;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import io.sui.models.transactions.TransactionEffects;
+import java.util.List;
+
+/**
+ * The type Reactive execution client, adapting an {@link ExecutionClient}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class ReactiveExecutionClientImpl implements ReactiveExecutionClient {
+
+  private final ExecutionClient executionClient;
+
+  /**
+   * Instantiates a new Reactive execution client impl.
+   *
+   * @param executionClient the execution client
+   */
+  public ReactiveExecutionClientImpl(ExecutionClient executionClient) {
+    this.executionClient = executionClient;
+  }
+
+  @Override
+  public Single<TransactionEffects> dryRunTransaction(String txBytes) {
+    return ReactiveCalls.single(() -> executionClient.dryRunTransaction(txBytes));
+  }
+
+  @Override
+  public Single<TransactionBlockResponse> executeTransaction(
+      String txBytes,
+      List<String> signatures,
+      TransactionBlockResponseOptions transactionBlockResponseOptions,
+      ExecuteTransactionRequestType requestType) {
+    return ReactiveCalls.single(
+        () ->
+            executionClient.executeTransaction(
+                txBytes, signatures, transactionBlockResponseOptions, requestType));
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.objects.Balance;
+import io.sui.models.objects.CheckpointContents;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.Coin;
+import io.sui.models.objects.CoinMetadata;
+import io.sui.models.objects.CommitteeInfoResponse;
+import io.sui.models.objects.MoveFunctionArgType;
+import io.sui.models.objects.MoveNormalizedFunction;
+import io.sui.models.objects.MoveNormalizedModule;
+import io.sui.models.objects.MoveNormalizedStruct;
+import io.sui.models.objects.ObjectDataOptions;
+import io.sui.models.objects.ObjectResponse;
+import io.sui.models.objects.ObjectResponseQuery;
+import io.sui.models.objects.SuiObjectRef;
+import io.sui.models.objects.SuiObjectResponse;
+import io.sui.models.objects.SuiSystemState;
+import io.sui.models.objects.ValidatorMetadata;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import io.sui.models.transactions.TransactionBlockResponseQuery;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The interface Reactive query client, the rx java counterpart of {@link QueryClient}.
+ *
+ * <p>Every call is cold: nothing is sent until subscription, and disposing cancels the request.
+ * Paginated queries are backpressured flowables of the items of every page, starting after the
+ * given cursor; the next page is only fetched once the items already received are requested.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public interface ReactiveQueryClient {
+
+  /**
+   * Gets object.
+   *
+   * @param id the id
+   * @param objectDataOptions the object data options
+   * @return the object
+   */
+  Single<SuiObjectResponse> getObject(String id, ObjectDataOptions objectDataOptions);
+
+  /**
+   * Gets objects owned by address across all pages.
+   *
+   * @param address the address
+   * @param query the query
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<SuiObjectResponse> getObjectsOwnedByAddress(
+      String address, ObjectResponseQuery query, String cursor, Integer limit);
+
+  /**
+   * Gets total transaction number.
+   *
+   * @return the total transaction number
+   */
+  Single<Long> getTotalTransactionBlocks();
+
+  /**
+   * Gets transaction.
+   *
+   * @param digest the digest
+   * @param options the options
+   * @return the transaction
+   */
+  Single<TransactionBlockResponse> getTransactionBlock(
+      String digest, TransactionBlockResponseOptions options);
+
+  /**
+   * Multi get transaction blocks single.
+   *
+   * @param digests the digests
+   * @param options the options
+   * @return the single
+   */
+  Single<List<TransactionBlockResponse>> multiGetTransactionBlocks(
+      List<String> digests, TransactionBlockResponseOptions options);
+
+  /**
+   * Multi get objects single.
+   *
+   * @param objectIds the object ids
+   * @param options the options
+   * @return the single
+   */
+  Single<List<SuiObjectResponse>> multiGetObjects(
+      List<String> objectIds, ObjectDataOptions options);
+
+  /**
+   * Gets sui system state.
+   *
+   * @return the sui system state
+   */
+  Single<SuiSystemState> getSuiSystemState();
+
+  /**
+   * Return all validators available for stake delegation.
+   *
+   * @return all validators available for stake delegation.
+   */
+  Single<List<ValidatorMetadata>> getValidators();
+
+  /**
+   * Gets events across all pages.
+   *
+   * @param query the query
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @param isDescOrder the is desc order
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<EventEnvelope> getEvents(
+      EventQuery query, EventId cursor, int limit, boolean isDescOrder);
+
+  /**
+   * Gets normalized move modules by package.
+   *
+   * @param packageId the package id
+   * @return the normalized move modules by package
+   */
+  Single<Map<String, MoveNormalizedModule>> getNormalizedMoveModulesByPackage(String packageId);
+
+  /**
+   * Gets committee info.
+   *
+   * @param epoch the epoch
+   * @return the committee info
+   */
+  Single<CommitteeInfoResponse> getCommitteeInfo(Long epoch);
+
+  /**
+   * Gets move function arg types.
+   *
+   * @param suiPackage the sui package
+   * @param module the module
+   * @param function the function
+   * @return the move function arg types
+   */
+  Single<List<MoveFunctionArgType>> getMoveFunctionArgTypes(
+      String suiPackage, String module, String function);
+
+  /**
+   * Gets normalized move function.
+   *
+   * @param suiPackage the sui package
+   * @param module the module
+   * @param function the function
+   * @return the normalized move function
+   */
+  Single<MoveNormalizedFunction> getNormalizedMoveFunction(
+      String suiPackage, String module, String function);
+
+  /**
+   * Gets normalized move module.
+   *
+   * @param suiPackage the sui package
+   * @param module the module
+   * @return the normalized move module
+   */
+  Single<MoveNormalizedModule> getNormalizedMoveModule(String suiPackage, String module);
+
+  /**
+   * Gets normalized move struct.
+   *
+   * @param suiPackage the sui package
+   * @param module the module
+   * @param struct the struct
+   * @return the normalized move struct
+   */
+  Single<MoveNormalizedStruct> getNormalizedMoveStruct(
+      String suiPackage, String module, String struct);
+
+  /**
+   * Try get past object single.
+   *
+   * @param objectId the object id
+   * @param version the version
+   * @return the single
+   */
+  Single<ObjectResponse> tryGetPastObject(String objectId, long version);
+
+  /**
+   * Query transaction blocks across all pages.
+   *
+   * @param query the query
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @param isDescOrder the is desc order
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<TransactionBlockResponse> queryTransactionBlocks(
+      TransactionBlockResponseQuery query, String cursor, Integer limit, boolean isDescOrder);
+
+  /**
+   * Query objects across all pages.
+   *
+   * @param query the query
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<SuiObjectResponse> queryObjects(ObjectResponseQuery query, String cursor, Integer limit);
+
+  /**
+   * Gets coin metadata.
+   *
+   * @param coinType the coin type
+   * @return the coin metadata
+   */
+  Single<CoinMetadata> getCoinMetadata(String coinType);
+
+  /**
+   * Gets reference gas price.
+   *
+   * @return the reference gas price
+   */
+  Single<Long> getReferenceGasPrice();
+
+  /**
+   * Gets object ref.
+   *
+   * @param id the id
+   * @param objectDataOptions the object data options
+   * @return the object ref
+   */
+  Single<SuiObjectRef> getObjectRef(String id, ObjectDataOptions objectDataOptions);
+
+  /**
+   * Return the total coin balance for all coin type, owned by the address owner.
+   *
+   * @param address the owner address
+   * @return the total coin balance for all coin type, owned by the address owner.
+   */
+  Single<List<Balance>> getAllBalances(String address);
+
+  /**
+   * Return all Coin objects owned by an address across all pages.
+   *
+   * @param address the owner address
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<Coin> getAllCoins(String address, String cursor, Integer limit);
+
+  /**
+   * Return all Coin with coin_type objects owned by an address across all pages.
+   *
+   * @param address the owner address
+   * @param coinType the coin type
+   * @param cursor the cursor to start after, null for the first page
+   * @param limit the page size
+   * @return the items, one page fetched at a time as they are requested
+   */
+  Flowable<Coin> getCoins(String address, String coinType, String cursor, long limit);
+
+  /**
+   * Return the total coin balance for one coin type, owned by the address owner.
+   *
+   * @param address the owner address
+   * @param coinType the coin type
+   * @return the balance for the coin type, owned by the address owner
+   */
+  Single<Balance> getBalance(String address, String coinType);
+
+  /**
+   * Return contents of a checkpoint, namely a list of execution digests.
+   *
+   * @param seqNum the sequence number
+   * @return the contents of a checkpoint
+   */
+  Single<CheckpointContents> getCheckpointContents(long seqNum);
+
+  /**
+   * Return contents of a checkpoint based on checkpoint content digest.
+   *
+   * @param checkpointDigest the checkpoint digest
+   * @return the contents of a checkpoint
+   */
+  Single<CheckpointContents> getCheckpointContentsByDigest(String checkpointDigest);
+
+  /**
+   * Return a checkpoint summary based on a checkpoint sequence number.
+   *
+   * @param seqNum the checkpoint sequence number
+   * @return the checkpoint summary based on the checkpoint sequence number
+   */
+  Single<CheckpointSummary> getCheckpointSummary(Long seqNum);
+
+  /**
+   * Return a checkpoint summary based on checkpoint digest.
+   *
+   * @param checkpointDigest the checkpoint digest
+   * @return the checkpoint summary based on the checkpoint digest
+   */
+  Single<CheckpointSummary> getCheckpointSummaryByDigest(String checkpointDigest);
+}
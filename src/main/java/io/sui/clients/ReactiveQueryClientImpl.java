@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.objects.Balance;
+import io.sui.models.objects.CheckpointContents;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.Coin;
+import io.sui.models.objects.CoinMetadata;
+import io.sui.models.objects.CommitteeInfoResponse;
+import io.sui.models.objects.MoveFunctionArgType;
+import io.sui.models.objects.MoveNormalizedFunction;
+import io.sui.models.objects.MoveNormalizedModule;
+import io.sui.models.objects.MoveNormalizedStruct;
+import io.sui.models.objects.ObjectDataOptions;
+import io.sui.models.objects.ObjectResponse;
+import io.sui.models.objects.ObjectResponseQuery;
+import io.sui.models.objects.PaginatedCoins;
+import io.sui.models.objects.PaginatedObjectsResponse;
+import io.sui.models.objects.SuiObjectRef;
+import io.sui.models.objects.SuiObjectResponse;
+import io.sui.models.objects.SuiSystemState;
+import io.sui.models.objects.ValidatorMetadata;
+import io.sui.models.transactions.PaginatedTransactionResponse;
+import io.sui.models.transactions.TransactionBlockResponse;
+import io.sui.models.transactions.TransactionBlockResponseOptions;
+import io.sui.models.transactions.TransactionBlockResponseQuery;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Reactive query client, adapting a {@link QueryClient}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class ReactiveQueryClientImpl implements ReactiveQueryClient {
+
+  private final QueryClient queryClient;
+
+  /**
+   * Instantiates a new Reactive query client impl.
+   *
+   * @param queryClient the query client
+   */
+  public ReactiveQueryClientImpl(QueryClient queryClient) {
+    this.queryClient = queryClient;
+  }
+
+  @Override
+  public Single<SuiObjectResponse> getObject(String id, ObjectDataOptions objectDataOptions) {
+    return ReactiveCalls.single(() -> queryClient.getObject(id, objectDataOptions));
+  }
+
+  @Override
+  public Flowable<SuiObjectResponse> getObjectsOwnedByAddress(
+      String address, ObjectResponseQuery query, String cursor, Integer limit) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.getObjectsOwnedByAddress(address, query, next, limit),
+        PaginatedObjectsResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  @Override
+  public Single<Long> getTotalTransactionBlocks() {
+    return ReactiveCalls.single(() -> queryClient.getTotalTransactionBlocks());
+  }
+
+  @Override
+  public Single<TransactionBlockResponse> getTransactionBlock(
+      String digest, TransactionBlockResponseOptions options) {
+    return ReactiveCalls.single(() -> queryClient.getTransactionBlock(digest, options));
+  }
+
+  @Override
+  public Single<List<TransactionBlockResponse>> multiGetTransactionBlocks(
+      List<String> digests, TransactionBlockResponseOptions options) {
+    return ReactiveCalls.single(() -> queryClient.multiGetTransactionBlocks(digests, options));
+  }
+
+  @Override
+  public Single<List<SuiObjectResponse>> multiGetObjects(
+      List<String> objectIds, ObjectDataOptions options) {
+    return ReactiveCalls.single(() -> queryClient.multiGetObjects(objectIds, options));
+  }
+
+  @Override
+  public Single<SuiSystemState> getSuiSystemState() {
+    return ReactiveCalls.single(() -> queryClient.getSuiSystemState());
+  }
+
+  @Override
+  public Single<List<ValidatorMetadata>> getValidators() {
+    return ReactiveCalls.single(() -> queryClient.getValidators());
+  }
+
+  @Override
+  public Flowable<EventEnvelope> getEvents(
+      EventQuery query, EventId cursor, int limit, boolean isDescOrder) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.getEvents(query, next, limit, isDescOrder),
+        PaginatedEvents::getData,
+        PageCursors::eventCursor);
+  }
+
+  @Override
+  public Single<Map<String, MoveNormalizedModule>> getNormalizedMoveModulesByPackage(
+      String packageId) {
+    return ReactiveCalls.single(() -> queryClient.getNormalizedMoveModulesByPackage(packageId));
+  }
+
+  @Override
+  public Single<CommitteeInfoResponse> getCommitteeInfo(Long epoch) {
+    return ReactiveCalls.single(() -> queryClient.getCommitteeInfo(epoch));
+  }
+
+  @Override
+  public Single<List<MoveFunctionArgType>> getMoveFunctionArgTypes(
+      String suiPackage, String module, String function) {
+    return ReactiveCalls.single(
+        () -> queryClient.getMoveFunctionArgTypes(suiPackage, module, function));
+  }
+
+  @Override
+  public Single<MoveNormalizedFunction> getNormalizedMoveFunction(
+      String suiPackage, String module, String function) {
+    return ReactiveCalls.single(
+        () -> queryClient.getNormalizedMoveFunction(suiPackage, module, function));
+  }
+
+  @Override
+  public Single<MoveNormalizedModule> getNormalizedMoveModule(String suiPackage, String module) {
+    return ReactiveCalls.single(() -> queryClient.getNormalizedMoveModule(suiPackage, module));
+  }
+
+  @Override
+  public Single<MoveNormalizedStruct> getNormalizedMoveStruct(
+      String suiPackage, String module, String struct) {
+    return ReactiveCalls.single(
+        () -> queryClient.getNormalizedMoveStruct(suiPackage, module, struct));
+  }
+
+  @Override
+  public Single<ObjectResponse> tryGetPastObject(String objectId, long version) {
+    return ReactiveCalls.single(() -> queryClient.tryGetPastObject(objectId, version));
+  }
+
+  @Override
+  public Flowable<TransactionBlockResponse> queryTransactionBlocks(
+      TransactionBlockResponseQuery query, String cursor, Integer limit, boolean isDescOrder) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.queryTransactionBlocks(query, next, limit, isDescOrder),
+        PaginatedTransactionResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  @Override
+  public Flowable<SuiObjectResponse> queryObjects(
+      ObjectResponseQuery query, String cursor, Integer limit) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.queryObjects(query, next, limit),
+        PaginatedObjectsResponse::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  @Override
+  public Single<CoinMetadata> getCoinMetadata(String coinType) {
+    return ReactiveCalls.single(() -> queryClient.getCoinMetadata(coinType));
+  }
+
+  @Override
+  public Single<Long> getReferenceGasPrice() {
+    return ReactiveCalls.single(() -> queryClient.getReferenceGasPrice());
+  }
+
+  @Override
+  public Single<SuiObjectRef> getObjectRef(String id, ObjectDataOptions objectDataOptions) {
+    return ReactiveCalls.single(() -> queryClient.getObjectRef(id, objectDataOptions));
+  }
+
+  @Override
+  public Single<List<Balance>> getAllBalances(String address) {
+    return ReactiveCalls.single(() -> queryClient.getAllBalances(address));
+  }
+
+  @Override
+  public Flowable<Coin> getAllCoins(String address, String cursor, Integer limit) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.getAllCoins(address, next, limit),
+        PaginatedCoins::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  @Override
+  public Flowable<Coin> getCoins(String address, String coinType, String cursor, long limit) {
+    return ReactiveCalls.paginate(
+        cursor,
+        next -> queryClient.getCoins(address, coinType, next, limit),
+        PaginatedCoins::getData,
+        page -> page.isHasNextPage() ? page.getNextCursor() : null);
+  }
+
+  @Override
+  public Single<Balance> getBalance(String address, String coinType) {
+    return ReactiveCalls.single(() -> queryClient.getBalance(address, coinType));
+  }
+
+  @Override
+  public Single<CheckpointContents> getCheckpointContents(long seqNum) {
+    return ReactiveCalls.single(() -> queryClient.getCheckpointContents(seqNum));
+  }
+
+  @Override
+  public Single<CheckpointContents> getCheckpointContentsByDigest(String checkpointDigest) {
+    return ReactiveCalls.single(() -> queryClient.getCheckpointContentsByDigest(checkpointDigest));
+  }
+
+  @Override
+  public Single<CheckpointSummary> getCheckpointSummary(Long seqNum) {
+    return ReactiveCalls.single(() -> queryClient.getCheckpointSummary(seqNum));
+  }
+
+  @Override
+  public Single<CheckpointSummary> getCheckpointSummaryByDigest(String checkpointDigest) {
+    return ReactiveCalls.single(() -> queryClient.getCheckpointSummaryByDigest(checkpointDigest));
+  }
+}
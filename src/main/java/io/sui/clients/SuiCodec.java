@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.novi.serde.Bytes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.bitcoinj.core.Base58;
+
+/**
+ * The type Sui codec, an interned and bounded cache of decoded addresses and digests.
+ *
+ * <p>Addresses decode to a shared, unmodifiable {@code List<Byte>} so repeated lookups of the same
+ * address in a transaction block return the same instance. Encoding such an instance back to its
+ * hex form is an identity lookup.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public final class SuiCodec {
+
+  /** The constant ADDRESS_LENGTH. */
+  public static final int ADDRESS_LENGTH = 32;
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final Cache<String, List<Byte>> ADDRESS_BYTES =
+      CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+  // weak keys compare by identity, which is exactly what interned address lists need.
+  private static final Cache<List<Byte>, String> ADDRESSES =
+      CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).weakKeys().build();
+
+  private static final Cache<String, Bytes> DIGESTS =
+      CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).build();
+
+  private SuiCodec() {}
+
+  /**
+   * Gets the interned 32 bytes of a hex address, with or without 0x prefix and leading zeros.
+   *
+   * @param address the address
+   * @return the unmodifiable address bytes
+   */
+  public static List<Byte> addressBytes(String address) {
+    List<Byte> bytes = ADDRESS_BYTES.getIfPresent(address);
+    if (bytes != null) {
+      return bytes;
+    }
+
+    final byte[] decoded = new byte[ADDRESS_LENGTH];
+    decodeAddress(address, decoded);
+    final Byte[] boxed = new Byte[ADDRESS_LENGTH];
+    for (int i = 0; i < ADDRESS_LENGTH; i++) {
+      boxed[i] = decoded[i];
+    }
+    bytes = Collections.unmodifiableList(Arrays.asList(boxed));
+    ADDRESS_BYTES.put(address, bytes);
+    ADDRESSES.put(bytes, encodeHex(decoded, true));
+    return bytes;
+  }
+
+  /**
+   * To address string, 0x prefixed lower case hex.
+   *
+   * @param addressBytes the address bytes
+   * @return the string
+   */
+  public static String toAddress(List<Byte> addressBytes) {
+    final String address = ADDRESSES.getIfPresent(addressBytes);
+    if (address != null) {
+      return address;
+    }
+    final char[] chars = new char[2 + addressBytes.size() * 2];
+    chars[0] = '0';
+    chars[1] = 'x';
+    int j = 2;
+    for (Byte b : addressBytes) {
+      chars[j++] = HEX_DIGITS[(b >> 4) & 0x0f];
+      chars[j++] = HEX_DIGITS[b & 0x0f];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Gets the cached bytes of a base58 digest.
+   *
+   * @param digest the digest
+   * @return the bytes
+   */
+  public static Bytes digestBytes(String digest) {
+    Bytes bytes = DIGESTS.getIfPresent(digest);
+    if (bytes == null) {
+      bytes = new Bytes(Base58.decode(digest));
+      DIGESTS.put(digest, bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * Decode a hex address right aligned into dst without intermediate strings, the 0x prefix is
+   * optional and missing leading zeros are filled in.
+   *
+   * @param address the address
+   * @param dst the 32 bytes destination
+   */
+  public static void decodeAddress(CharSequence address, byte[] dst) {
+    final int start =
+        address.length() >= 2 && address.charAt(0) == '0' && address.charAt(1) == 'x' ? 2 : 0;
+    final int digits = address.length() - start;
+    if (digits > dst.length * 2) {
+      throw new IllegalArgumentException(
+          String.format("address %s is longer than %d bytes", address, dst.length));
+    }
+    Arrays.fill(dst, (byte) 0);
+    int nibble = dst.length * 2 - 1;
+    for (int i = address.length() - 1; i >= start; i--, nibble--) {
+      final int value = hexValue(address.charAt(i));
+      if ((nibble & 1) == 1) {
+        dst[nibble >> 1] = (byte) value;
+      } else {
+        dst[nibble >> 1] |= (byte) (value << 4);
+      }
+    }
+  }
+
+  /**
+   * Decode an even length hex sequence into dst at offset.
+   *
+   * @param hex the hex
+   * @param dst the dst
+   * @param offset the offset
+   * @return the number of bytes written
+   */
+  public static int decodeHex(CharSequence hex, byte[] dst, int offset) {
+    if ((hex.length() & 1) != 0) {
+      throw new IllegalArgumentException("hex string has odd length");
+    }
+    final int length = hex.length() >> 1;
+    for (int i = 0; i < length; i++) {
+      dst[offset + i] =
+          (byte) ((hexValue(hex.charAt(2 * i)) << 4) | hexValue(hex.charAt(2 * i + 1)));
+    }
+    return length;
+  }
+
+  /**
+   * Encode bytes into dst at offset as lower case hex.
+   *
+   * @param bytes the bytes
+   * @param dst the dst
+   * @param offset the offset
+   * @return the number of chars written
+   */
+  public static int encodeHex(byte[] bytes, char[] dst, int offset) {
+    int j = offset;
+    for (byte b : bytes) {
+      dst[j++] = HEX_DIGITS[(b >> 4) & 0x0f];
+      dst[j++] = HEX_DIGITS[b & 0x0f];
+    }
+    return j - offset;
+  }
+
+  private static String encodeHex(byte[] bytes, boolean prefixed) {
+    final int offset = prefixed ? 2 : 0;
+    final char[] chars = new char[offset + bytes.length * 2];
+    if (prefixed) {
+      chars[0] = '0';
+      chars[1] = 'x';
+    }
+    encodeHex(bytes, chars, offset);
+    return new String(chars);
+  }
+
+  private static int hexValue(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+    throw new IllegalArgumentException(String.format("invalid hex character '%c'", c));
+  }
+}
@@ -21,7 +21,6 @@ import static io.sui.bcsgen.CallArg.Pure.Builder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Streams;
-import com.novi.serde.Bytes;
 import com.novi.serde.DeserializationError;
 import com.novi.serde.SerializationError;
 import com.novi.serde.Tuple3;
@@ -57,6 +56,8 @@ import io.sui.bcsgen.TypeTag.u256;
 import io.sui.bcsgen.TypeTag.u32;
 import io.sui.bcsgen.TypeTag.u64;
 import io.sui.bcsgen.TypeTag.u8;
+import io.sui.jsonrpc.JsonRpcClientProvider;
+import io.sui.models.SuiApiException;
 import io.sui.models.objects.MoveNormalizedFunction;
 import io.sui.models.objects.MoveNormalizedType;
 import io.sui.models.objects.MoveNormalizedType.MoveNormalizedStructType;
@@ -73,19 +74,22 @@ import io.sui.models.objects.SuiObjectRef;
 import io.sui.models.objects.SuiRawData;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.bitcoinj.core.Base58;
 import org.bouncycastle.util.encoders.Base64;
-import org.bouncycastle.util.encoders.Hex;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -127,6 +131,8 @@ public class TransactionBlock {
 
   private final GasData.Builder gasBuilder;
 
+  private final Executor executor;
+
   private SuiAddress sender;
 
   private TransactionExpiration transactionExpiration =
@@ -138,7 +144,19 @@ public class TransactionBlock {
    * @param queryClient the query client
    */
   public TransactionBlock(QueryClient queryClient) {
+    this(queryClient, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Instantiates a new Transaction block.
+   *
+   * @param queryClient the query client
+   * @param executor the executor running the continuations of lookups, such as bcs decoding of gas
+   *     coins and building call args, instead of the http client threads completing them
+   */
+  public TransactionBlock(QueryClient queryClient, Executor executor) {
     this.queryClient = queryClient;
+    this.executor = executor;
     this.programmableTransactionBuilder = new ProgrammableTransactionBuilder();
     this.gasBuilder = new GasData.Builder();
   }
@@ -209,11 +227,47 @@ public class TransactionBlock {
   }
 
   /**
-   * Build completable future.
+   * Build completable future, cancelling it cancels the lookups still running.
    *
    * @return the completable future
    */
   public CompletableFuture<TransactionData> build() {
+    final CompletableFuture<TransactionData> future = new CompletableFuture<>();
+    doBuild(future)
+        .whenComplete(
+            (transactionData, throwable) -> {
+              if (throwable != null) {
+                future.completeExceptionally(throwable);
+              } else {
+                future.complete(transactionData);
+              }
+            });
+    return future;
+  }
+
+  /**
+   * Build completable future within a timeout, the reference gas price and gas coin lookups still
+   * running when it expires are cancelled and the future fails with a {@link SuiApiException}
+   * caused by a {@link TimeoutException}.
+   *
+   * @param timeout the timeout
+   * @return the completable future
+   */
+  public CompletableFuture<TransactionData> build(Duration timeout) {
+    final CompletableFuture<TransactionData> future = build();
+    JsonRpcClientProvider.failAfter(
+        future,
+        timeout,
+        () ->
+            new SuiApiException(
+                new TimeoutException(
+                    String.format(
+                        "transaction block build timed out after %d ms", timeout.toMillis()))));
+    return future;
+  }
+
+  /** Build with every lookup cancelled once the scope completes. */
+  private CompletableFuture<TransactionData> doBuild(CompletableFuture<?> scope) {
     TransactionKind.ProgrammableTransaction.Builder transactionKindBuilder =
         new TransactionKind.ProgrammableTransaction.Builder();
     transactionKindBuilder.value = this.programmableTransactionBuilder.build();
@@ -229,7 +283,7 @@ public class TransactionBlock {
 
     CompletableFuture<Long> gasPriceFuture;
     if (this.gasBuilder.price == null) {
-      gasPriceFuture = queryClient.getReferenceGasPrice();
+      gasPriceFuture = lookup(scope, queryClient.getReferenceGasPrice());
     } else {
       gasPriceFuture = CompletableFuture.completedFuture(this.gasBuilder.price);
     }
@@ -243,10 +297,10 @@ public class TransactionBlock {
     }
 
     return CompletableFuture.allOf(gasPriceFuture, gasPriceFuture)
-        .thenCompose(
+        .thenComposeAsync(
             (Function<Void, CompletableFuture<TransactionData>>)
                 unused -> {
-                  List<String> excludeObjects =
+                  Set<String> excludeObjects =
                       programmableTransactionBuilder.getInputs().values().stream()
                           .flatMap(
                               (Function<CallArg, Stream<ObjectArg>>)
@@ -281,7 +335,7 @@ public class TransactionBlock {
                                   })
                           .filter(Optional::isPresent)
                           .map(Optional::get)
-                          .collect(Collectors.toList());
+                          .collect(Collectors.toSet());
 
                   Long gasBudget = gasBudgetFuture.join();
                   Long gasPrice = gasPriceFuture.join();
@@ -293,7 +347,11 @@ public class TransactionBlock {
                   V1.Builder builder = new V1.Builder();
                   if (this.gasBuilder.payment == null || this.gasBuilder.payment.isEmpty()) {
                     return selectGas(
-                            toAddress(gasBuilder.owner.value), gasBudget, gasPrice, excludeObjects)
+                            toAddress(gasBuilder.owner.value),
+                            gasBudget,
+                            gasPrice,
+                            excludeObjects,
+                            scope)
                         .thenApply(
                             suiObjectRef -> {
                               Tuple3<ObjectID, SequenceNumber, ObjectDigest> gas =
@@ -309,7 +367,8 @@ public class TransactionBlock {
                     builder.value = v1builder.build();
                     return CompletableFuture.completedFuture(builder.build());
                   }
-                });
+                },
+            executor);
   }
 
   /**
@@ -531,7 +590,7 @@ public class TransactionBlock {
     List<io.sui.bcsgen.TypeTag> bcsTypeArguments =
         typeArguments.stream().map(this::toBcsTypeTag).collect(Collectors.toList());
     return extractNormalizedFunctionParams(packageObjectId, module, function)
-        .thenCompose(
+        .thenComposeAsync(
             moveNormalizedTypes -> {
               if (moveNormalizedTypes.size() != arguments.size()) {
                 throw new MoveCallArgSizeNotMatchException(
@@ -570,7 +629,8 @@ public class TransactionBlock {
                             bcsTypeArguments,
                             callArgs);
                       });
-            });
+            },
+            executor);
   }
 
   /**
@@ -611,9 +671,19 @@ public class TransactionBlock {
     return this.programmableTransactionBuilder.pure(value);
   }
 
+  private static <T> CompletableFuture<T> lookup(
+      CompletableFuture<?> scope, CompletableFuture<T> lookup) {
+    JsonRpcClientProvider.cancelOnCompletion(scope, lookup);
+    return lookup;
+  }
+
   @SuppressWarnings("unchecked")
   private CompletableFuture<SuiObjectRef> selectGas(
-      String signer, Long budget, Long gasPrice, List<String> excludeObjects) {
+      String signer,
+      Long budget,
+      Long gasPrice,
+      Set<String> excludeObjects,
+      CompletableFuture<?> scope) {
     if (budget < gasPrice) {
       throw new GasBudgetLessThanGasPriceException(budget, gasPrice);
     }
@@ -625,9 +695,9 @@ public class TransactionBlock {
     objectDataOptions.setShowStorageRebate(true);
     objectDataOptions.setShowBcs(true);
     objectResponseQuery.setOptions(objectDataOptions);
-    return queryClient
-        .getObjectsOwnedByAddress(signer, objectResponseQuery, null, null)
-        .thenCompose(
+    return lookup(
+            scope, queryClient.getObjectsOwnedByAddress(signer, objectResponseQuery, null, null))
+        .thenComposeAsync(
             (Function<PaginatedObjectsResponse, CompletableFuture<SuiObjectRef>>)
                 paginatedObjectsResponse -> {
                   CompletableFuture<Optional<SuiObjectRef>>[] gases =
@@ -681,7 +751,8 @@ public class TransactionBlock {
 
                             return selected.get().get();
                           });
-                });
+                },
+            executor);
   }
 
   private CompletableFuture<List<MoveNormalizedType>> extractNormalizedFunctionParams(
@@ -1038,9 +1109,7 @@ public class TransactionBlock {
    * @return the list
    */
   @NotNull public List<Byte> geAddressBytes(String address) {
-    return Arrays.asList(
-        ArrayUtils.toObject(
-            Hex.decode(StringUtils.leftPad(StringUtils.removeStart(address, "0x"), 64, "0"))));
+    return SuiCodec.addressBytes(address);
   }
 
   /**
@@ -1050,8 +1119,7 @@ public class TransactionBlock {
    * @return the string
    */
   public String toAddress(List<Byte> addressBytes) {
-    return StringUtils.prependIfMissing(
-        Hex.toHexString(ArrayUtils.toPrimitive(addressBytes.toArray(new Byte[0]))), "0x");
+    return SuiCodec.toAddress(addressBytes);
   }
 
   private Tuple3<ObjectID, SequenceNumber, ObjectDigest> getObjectRef(SuiObjectRef objRef) {
@@ -1064,7 +1132,7 @@ public class TransactionBlock {
     SequenceNumber.Builder sequenceNumberBuilder = new SequenceNumber.Builder();
     sequenceNumberBuilder.value = objRef.getVersion().longValue();
     Digest.Builder digestBuilder = new Digest.Builder();
-    digestBuilder.value = Bytes.valueOf(Base58.decode(objRef.getDigest()));
+    digestBuilder.value = SuiCodec.digestBytes(objRef.getDigest());
     ObjectDigest.Builder objectDigestBuilder = new ObjectDigest.Builder();
     objectDigestBuilder.value = digestBuilder.build();
 
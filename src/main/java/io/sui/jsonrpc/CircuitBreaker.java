@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+/**
+ * The type Circuit breaker, tracking failure and slow call rates over the latest calls.
+ *
+ * <p>{@link State#CLOSED} lets every call through until the failure or slow call rate reaches its
+ * threshold, then the circuit turns {@link State#OPEN} and rejects calls for the open duration.
+ * After that it is {@link State#HALF_OPEN} and lets a few probe calls through, closing again when
+ * they all succeed and opening again on the first failed or slow probe.
+ *
+ * <p>Each call is admitted with a {@link Permit} of the current generation, which moves on at every
+ * state change. Results and cancellations of calls admitted in an earlier generation, such as a
+ * late success of a call sent before the circuit opened, are ignored.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CircuitBreaker {
+
+  /** The enum State. */
+  public enum State {
+    /** Closed state. */
+    CLOSED,
+    /** Open state. */
+    OPEN,
+    /** Half open state. */
+    HALF_OPEN
+  }
+
+  /** The type Permit, the admission of one call in a generation of the circuit. */
+  public static final class Permit {
+
+    private final long generation;
+
+    private final boolean probe;
+
+    private Permit(long generation, boolean probe) {
+      this.generation = generation;
+      this.probe = probe;
+    }
+
+    /**
+     * Is probe boolean.
+     *
+     * @return whether the call is a half open probe
+     */
+    public boolean isProbe() {
+      return probe;
+    }
+  }
+
+  private static final byte FAILED = 1;
+
+  private static final byte SLOW = 2;
+
+  private final CircuitBreakingJsonRpcClientOptions options;
+
+  private final byte[] outcomes;
+
+  private State state = State.CLOSED;
+
+  private long generation;
+
+  private int next;
+
+  private int calls;
+
+  private int failures;
+
+  private int slowCalls;
+
+  private long openUntilNanos;
+
+  private int probesSent;
+
+  private int probesSucceeded;
+
+  /**
+   * Instantiates a new Circuit breaker.
+   *
+   * @param options the options
+   */
+  public CircuitBreaker(CircuitBreakingJsonRpcClientOptions options) {
+    this.options = options;
+    this.outcomes = new byte[options.getWindowSize()];
+  }
+
+  /**
+   * Gets state.
+   *
+   * @return the state
+   */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Try acquire permission to send a call.
+   *
+   * @return the permit, null when the call is rejected
+   */
+  public synchronized Permit tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return new Permit(generation, false);
+      case OPEN:
+        if (System.nanoTime() - openUntilNanos < 0) {
+          return null;
+        }
+        state = State.HALF_OPEN;
+        generation++;
+        probesSent = 0;
+        probesSucceeded = 0;
+        return tryAcquire();
+      default:
+        if (probesSent >= options.getHalfOpenCalls()) {
+          return null;
+        }
+        probesSent++;
+        return new Permit(generation, true);
+    }
+  }
+
+  /**
+   * Record the outcome of a call sent after {@link #tryAcquire()}.
+   *
+   * @param permit the permit the call was admitted with
+   * @param latencyNanos the latency nanos
+   * @param failed the failed
+   */
+  public synchronized void onResult(Permit permit, long latencyNanos, boolean failed) {
+    if (permit.generation != generation) {
+      // late result of a call admitted before the last state change
+      return;
+    }
+    final boolean slow = latencyNanos >= options.getSlowCallDuration().toNanos();
+    switch (state) {
+      case CLOSED:
+        record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+        if (calls >= options.getMinimumCalls()
+            && (failures >= options.getFailureRateThreshold() * calls
+                || slowCalls >= options.getSlowCallRateThreshold() * calls)) {
+          open();
+        }
+        break;
+      case HALF_OPEN:
+        if (failed || slow) {
+          open();
+        } else if (++probesSucceeded >= options.getHalfOpenCalls()) {
+          state = State.CLOSED;
+          generation++;
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Give back the probe permit of a cancelled call, its outcome tells nothing about the node.
+   *
+   * @param permit the permit the call was admitted with
+   */
+  public synchronized void onCancelled(Permit permit) {
+    if (permit.probe && permit.generation == generation) {
+      probesSent--;
+    }
+  }
+
+  private void record(byte outcome) {
+    if (calls == outcomes.length) {
+      final byte evicted = outcomes[next];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      calls++;
+    }
+    outcomes[next] = outcome;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+    next = (next + 1) % outcomes.length;
+  }
+
+  private void open() {
+    state = State.OPEN;
+    generation++;
+    openUntilNanos = System.nanoTime() + options.getOpenDuration().toNanos();
+    next = 0;
+    calls = 0;
+    failures = 0;
+    slowCalls = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "CircuitBreaker{"
+        + "state="
+        + state
+        + ", calls="
+        + calls
+        + ", failures="
+        + failures
+        + ", slowCalls="
+        + slowCalls
+        + '}';
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Circuit breaking json rpc client options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CircuitBreakingJsonRpcClientOptions {
+
+  private int windowSize = 50;
+
+  private int minimumCalls = 10;
+
+  private double failureRateThreshold = 0.5;
+
+  private double slowCallRateThreshold = 0.8;
+
+  private Duration slowCallDuration = Duration.ofSeconds(5);
+
+  private Duration openDuration = Duration.ofSeconds(30);
+
+  private int halfOpenCalls = 3;
+
+  /**
+   * Gets window size, the number of latest calls the rates are computed over.
+   *
+   * @return the window size
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * Sets window size.
+   *
+   * @param windowSize the window size
+   */
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Gets minimum calls in the window before the circuit may open.
+   *
+   * @return the minimum calls
+   */
+  public int getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  /**
+   * Sets minimum calls.
+   *
+   * @param minimumCalls the minimum calls
+   */
+  public void setMinimumCalls(int minimumCalls) {
+    this.minimumCalls = minimumCalls;
+  }
+
+  /**
+   * Gets failure rate threshold.
+   *
+   * @return the failure rate threshold
+   */
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /**
+   * Sets failure rate threshold.
+   *
+   * @param failureRateThreshold the failure rate threshold
+   */
+  public void setFailureRateThreshold(double failureRateThreshold) {
+    this.failureRateThreshold = failureRateThreshold;
+  }
+
+  /**
+   * Gets slow call rate threshold.
+   *
+   * @return the slow call rate threshold
+   */
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /**
+   * Sets slow call rate threshold.
+   *
+   * @param slowCallRateThreshold the slow call rate threshold
+   */
+  public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+    this.slowCallRateThreshold = slowCallRateThreshold;
+  }
+
+  /**
+   * Gets slow call duration.
+   *
+   * @return the slow call duration
+   */
+  public Duration getSlowCallDuration() {
+    return slowCallDuration;
+  }
+
+  /**
+   * Sets slow call duration.
+   *
+   * @param slowCallDuration the slow call duration
+   */
+  public void setSlowCallDuration(Duration slowCallDuration) {
+    this.slowCallDuration = slowCallDuration;
+  }
+
+  /**
+   * Gets open duration before the circuit lets probe calls through.
+   *
+   * @return the open duration
+   */
+  public Duration getOpenDuration() {
+    return openDuration;
+  }
+
+  /**
+   * Sets open duration.
+   *
+   * @param openDuration the open duration
+   */
+  public void setOpenDuration(Duration openDuration) {
+    this.openDuration = openDuration;
+  }
+
+  /**
+   * Gets half open calls, the probe calls that must succeed to close the circuit.
+   *
+   * @return the half open calls
+   */
+  public int getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  /**
+   * Sets half open calls.
+   *
+   * @param halfOpenCalls the half open calls
+   */
+  public void setHalfOpenCalls(int halfOpenCalls) {
+    this.halfOpenCalls = halfOpenCalls;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CircuitBreakingJsonRpcClientOptions)) {
+      return false;
+    }
+    CircuitBreakingJsonRpcClientOptions that = (CircuitBreakingJsonRpcClientOptions) o;
+    return windowSize == that.windowSize
+        && minimumCalls == that.minimumCalls
+        && Double.compare(that.failureRateThreshold, failureRateThreshold) == 0
+        && Double.compare(that.slowCallRateThreshold, slowCallRateThreshold) == 0
+        && halfOpenCalls == that.halfOpenCalls
+        && slowCallDuration.equals(that.slowCallDuration)
+        && openDuration.equals(that.openDuration);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        windowSize,
+        minimumCalls,
+        failureRateThreshold,
+        slowCallRateThreshold,
+        slowCallDuration,
+        openDuration,
+        halfOpenCalls);
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreakingJsonRpcClientOptions{"
+        + "windowSize="
+        + windowSize
+        + ", minimumCalls="
+        + minimumCalls
+        + ", failureRateThreshold="
+        + failureRateThreshold
+        + ", slowCallRateThreshold="
+        + slowCallRateThreshold
+        + ", slowCallDuration="
+        + slowCallDuration
+        + ", openDuration="
+        + openDuration
+        + ", halfOpenCalls="
+        + halfOpenCalls
+        + '}';
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.SuiEvent;
+import java.lang.reflect.Type;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Circuit breaking json rpc client provider, failing calls at once while its {@link
+ * CircuitBreaker} is open.
+ *
+ * <p>Wrap the provider of each fullnode separately, for instance each {@link JsonRpcEndpoint} of a
+ * {@link LoadBalancingJsonRpcClientProvider}, which fails reads over to the next endpoint when a
+ * circuit is open. Rejected calls complete with {@link ErrorCode#CIRCUIT_OPEN}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class CircuitBreakingJsonRpcClientProvider extends JsonRpcClientProvider {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CircuitBreakingJsonRpcClientProvider.class);
+
+  private final JsonRpcClientProvider delegate;
+
+  private final CircuitBreaker circuitBreaker;
+
+  /**
+   * Instantiates a new Circuit breaking json rpc client provider.
+   *
+   * @param delegate the delegate
+   * @param options the options
+   */
+  public CircuitBreakingJsonRpcClientProvider(
+      JsonRpcClientProvider delegate, CircuitBreakingJsonRpcClientOptions options) {
+    this.delegate = delegate;
+    this.circuitBreaker = new CircuitBreaker(options);
+  }
+
+  /**
+   * Gets circuit breaker.
+   *
+   * @return the circuit breaker
+   */
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  @Override
+  public Disposable subscribe(
+      JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    return delegate.subscribe(request, onNext, onError);
+  }
+
+  @Override
+  public <T> CompletableFuture<JsonRpc20Response<T>> call(
+      JsonRpc20Request request, String url, Type typeOfT) {
+    final CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+    if (permit == null) {
+      final JsonRpc20Response<T> response = new JsonRpc20Response<>();
+      final JsonRpc20Response.Error error = new JsonRpc20Response.Error();
+      error.setCode(ErrorCode.CIRCUIT_OPEN);
+      error.setMessage(String.format("request id %d rejected, circuit open", request.getId()));
+      response.setError(error);
+      return CompletableFuture.completedFuture(response);
+    }
+    final long start = System.nanoTime();
+    final CompletableFuture<JsonRpc20Response<T>> call;
+    try {
+      call = delegate.call(request, url, typeOfT);
+    } catch (Throwable throwable) {
+      circuitBreaker.onResult(permit, System.nanoTime() - start, true);
+      throw throwable;
+    }
+    final CompletableFuture<JsonRpc20Response<T>> future = new CompletableFuture<>();
+    cancelOnCompletion(future, call);
+    call.whenComplete(
+        (response, throwable) -> {
+          if (throwable instanceof CancellationException) {
+            circuitBreaker.onCancelled(permit);
+            future.completeExceptionally(throwable);
+            return;
+          }
+          final CircuitBreaker.State before = circuitBreaker.getState();
+          circuitBreaker.onResult(
+              permit,
+              System.nanoTime() - start,
+              throwable != null || JsonRpcMethods.isTransportFailure(response));
+          final CircuitBreaker.State after = circuitBreaker.getState();
+          if (before != after) {
+            LOGGER.warn(String.format("circuit %s, now %s", before, after));
+          }
+          if (throwable != null) {
+            future.completeExceptionally(throwable);
+          } else {
+            future.complete(response);
+          }
+        });
+    return future;
+  }
+}
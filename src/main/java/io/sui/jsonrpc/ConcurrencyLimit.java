@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+/**
+ * The interface Concurrency limit, the adaptive in flight window of {@link
+ * ConcurrencyLimitingJsonRpcClientProvider}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public interface ConcurrencyLimit {
+
+  /**
+   * Gets limit.
+   *
+   * @return the limit
+   */
+  int getLimit();
+
+  /**
+   * Update the limit with a completed call.
+   *
+   * @param latencyNanos the latency nanos
+   * @param inFlight the calls in flight when the call was sent
+   * @param dropped whether the call failed on the transport
+   */
+  void onSample(long latencyNanos, int inFlight, boolean dropped);
+
+  /**
+   * Aimd concurrency limit.
+   *
+   * @param initialLimit the initial limit
+   * @param minLimit the min limit
+   * @param maxLimit the max limit
+   * @param slowCallNanos the latency from which a call counts as dropped
+   * @return the concurrency limit
+   */
+  static ConcurrencyLimit aimd(int initialLimit, int minLimit, int maxLimit, long slowCallNanos) {
+    return new Aimd(initialLimit, minLimit, maxLimit, slowCallNanos);
+  }
+
+  /**
+   * Gradient concurrency limit.
+   *
+   * @param initialLimit the initial limit
+   * @param minLimit the min limit
+   * @param maxLimit the max limit
+   * @return the concurrency limit
+   */
+  static ConcurrencyLimit gradient(int initialLimit, int minLimit, int maxLimit) {
+    return new Gradient(initialLimit, minLimit, maxLimit);
+  }
+
+  /**
+   * The type Aimd, growing the limit by one while it is used and cutting it by a tenth on each
+   * dropped or slow call.
+   */
+  class Aimd implements ConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long slowCallNanos;
+
+    private volatile double limit;
+
+    /**
+     * Instantiates a new Aimd.
+     *
+     * @param initialLimit the initial limit
+     * @param minLimit the min limit
+     * @param maxLimit the max limit
+     * @param slowCallNanos the slow call nanos
+     */
+    public Aimd(int initialLimit, int minLimit, int maxLimit, long slowCallNanos) {
+      this.limit = initialLimit;
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.slowCallNanos = slowCallNanos;
+    }
+
+    @Override
+    public int getLimit() {
+      return (int) limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inFlight, boolean dropped) {
+      if (dropped || latencyNanos > slowCallNanos) {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+      } else if (inFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1);
+      }
+    }
+  }
+
+  /**
+   * The type Gradient, scaling the limit by the ratio between the long term and the current latency
+   * so the window shrinks as soon as requests start queueing on the node.
+   */
+  class Gradient implements ConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double LONG_WINDOW_ALPHA = 2.0 / 601;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile double limit;
+
+    private double longLatencyNanos;
+
+    /**
+     * Instantiates a new Gradient.
+     *
+     * @param initialLimit the initial limit
+     * @param minLimit the min limit
+     * @param maxLimit the max limit
+     */
+    public Gradient(int initialLimit, int minLimit, int maxLimit) {
+      this.limit = initialLimit;
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public int getLimit() {
+      return (int) limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inFlight, boolean dropped) {
+      if (longLatencyNanos == 0) {
+        longLatencyNanos = latencyNanos;
+      } else {
+        longLatencyNanos += LONG_WINDOW_ALPHA * (latencyNanos - longLatencyNanos);
+      }
+      // recover faster from a latency shift instead of holding the limit low for a whole window
+      if (longLatencyNanos > latencyNanos * 2) {
+        longLatencyNanos *= 0.95;
+      }
+      if (!dropped && inFlight * 2 < limit) {
+        return;
+      }
+      final double gradient =
+          dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * longLatencyNanos / latencyNanos));
+      final double target = limit * gradient + Math.sqrt(limit);
+      limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Concurrency limiting json rpc client options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class ConcurrencyLimitingJsonRpcClientOptions {
+
+  private ConcurrencyLimit limit = ConcurrencyLimit.gradient(20, 4, 256);
+
+  private Duration maxQueueTime = Duration.ofMillis(500);
+
+  private int maxQueueSize = 256;
+
+  /**
+   * Gets limit.
+   *
+   * @return the limit
+   */
+  public ConcurrencyLimit getLimit() {
+    return limit;
+  }
+
+  /**
+   * Sets limit.
+   *
+   * @param limit the limit
+   */
+  public void setLimit(ConcurrencyLimit limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Gets max queue time a call waits for a slot, zero rejects at once when saturated.
+   *
+   * @return the max queue time
+   */
+  public Duration getMaxQueueTime() {
+    return maxQueueTime;
+  }
+
+  /**
+   * Sets max queue time.
+   *
+   * @param maxQueueTime the max queue time
+   */
+  public void setMaxQueueTime(Duration maxQueueTime) {
+    this.maxQueueTime = maxQueueTime;
+  }
+
+  /**
+   * Gets max queue size.
+   *
+   * @return the max queue size
+   */
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * Sets max queue size.
+   *
+   * @param maxQueueSize the max queue size
+   */
+  public void setMaxQueueSize(int maxQueueSize) {
+    this.maxQueueSize = maxQueueSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ConcurrencyLimitingJsonRpcClientOptions)) {
+      return false;
+    }
+    ConcurrencyLimitingJsonRpcClientOptions that = (ConcurrencyLimitingJsonRpcClientOptions) o;
+    return maxQueueSize == that.maxQueueSize
+        && limit.equals(that.limit)
+        && maxQueueTime.equals(that.maxQueueTime);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(limit, maxQueueTime, maxQueueSize);
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencyLimitingJsonRpcClientOptions{"
+        + "limit="
+        + limit
+        + ", maxQueueTime="
+        + maxQueueTime
+        + ", maxQueueSize="
+        + maxQueueSize
+        + '}';
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.SuiEvent;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Concurrency limiting json rpc client provider, bounding calls in flight by an adaptive
+ * {@link ConcurrencyLimit}.
+ *
+ * <p>When the limit is reached calls wait in a bounded queue for at most {@link
+ * ConcurrencyLimitingJsonRpcClientOptions#getMaxQueueTime()}, then complete with {@link
+ * ErrorCode#LIMIT_EXCEEDED} which {@link #callAndUnwrapResponse} turns into a {@link
+ * SuiApiException}. A slow node thus gets fewer concurrent calls instead of an ever growing
+ * dispatcher queue where every call ends in a timeout.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class ConcurrencyLimitingJsonRpcClientProvider extends JsonRpcClientProvider
+    implements AutoCloseable {
+
+  private final JsonRpcClientProvider delegate;
+
+  private final ConcurrencyLimitingJsonRpcClientOptions options;
+
+  private final ConcurrencyLimit limit;
+
+  private final Deque<Runnable> queue = new ArrayDeque<>();
+
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  private int inFlight;
+
+  /**
+   * Instantiates a new Concurrency limiting json rpc client provider.
+   *
+   * @param delegate the delegate
+   * @param options the options
+   */
+  public ConcurrencyLimitingJsonRpcClientProvider(
+      JsonRpcClientProvider delegate, ConcurrencyLimitingJsonRpcClientOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+    this.limit = options.getLimit();
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("sui-concurrency-limit-%d")
+                .build());
+    // a call leaving the queue drops its expiry timer instead of holding it until it fires
+    scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Gets current limit.
+   *
+   * @return the limit
+   */
+  public int getLimit() {
+    return limit.getLimit();
+  }
+
+  /**
+   * Gets calls in flight.
+   *
+   * @return the in flight
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /** The number of queue expiry timers still scheduled. */
+  int pendingExpiries() {
+    return scheduler.getQueue().size();
+  }
+
+  @Override
+  public Disposable subscribe(
+      JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    return delegate.subscribe(request, onNext, onError);
+  }
+
+  @Override
+  public <T> CompletableFuture<JsonRpc20Response<T>> call(
+      JsonRpc20Request request, String url, Type typeOfT) {
+    final CompletableFuture<JsonRpc20Response<T>> future = new CompletableFuture<>();
+    final Runnable send = () -> send(request, url, typeOfT, future);
+    final int sentInFlight;
+    synchronized (this) {
+      if (inFlight < limit.getLimit()) {
+        sentInFlight = ++inFlight;
+      } else if (options.getMaxQueueTime().isZero() || queue.size() >= options.getMaxQueueSize()) {
+        sentInFlight = -1;
+      } else {
+        queue.addLast(send);
+        final ScheduledFuture<?> expiry =
+            scheduler.schedule(
+                () -> {
+                  final boolean expired;
+                  synchronized (this) {
+                    expired = queue.remove(send);
+                  }
+                  if (expired) {
+                    future.complete(rejected(request, "queued for longer than max queue time"));
+                  }
+                },
+                options.getMaxQueueTime().toNanos(),
+                TimeUnit.NANOSECONDS);
+        future.whenComplete(
+            (response, throwable) -> {
+              synchronized (this) {
+                queue.remove(send);
+              }
+              expiry.cancel(false);
+            });
+        return future;
+      }
+    }
+    if (sentInFlight < 0) {
+      future.complete(rejected(request, "concurrency limit " + limit.getLimit() + " reached"));
+    } else {
+      send(request, url, typeOfT, future);
+    }
+    return future;
+  }
+
+  private <T> void send(
+      JsonRpc20Request request,
+      String url,
+      Type typeOfT,
+      CompletableFuture<JsonRpc20Response<T>> future) {
+    final int sentInFlight = getInFlight();
+    final long start = System.nanoTime();
+    final CompletableFuture<JsonRpc20Response<T>> call;
+    try {
+      call = delegate.call(request, url, typeOfT);
+    } catch (Throwable throwable) {
+      release();
+      future.completeExceptionally(throwable);
+      return;
+    }
+    cancelOnCompletion(future, call);
+    call.whenComplete(
+        (response, throwable) -> {
+          if (throwable instanceof CancellationException) {
+            release();
+            future.completeExceptionally(throwable);
+            return;
+          }
+          limit.onSample(
+              System.nanoTime() - start,
+              sentInFlight,
+              throwable != null || JsonRpcMethods.isTransportFailure(response));
+          release();
+          if (throwable != null) {
+            future.completeExceptionally(throwable);
+          } else {
+            future.complete(response);
+          }
+        });
+  }
+
+  /** Free a slot and hand the free slots to queued calls, which are sent outside the lock. */
+  private void release() {
+    Runnable next;
+    synchronized (this) {
+      inFlight--;
+      next = inFlight < limit.getLimit() ? queue.pollFirst() : null;
+      if (next != null) {
+        inFlight++;
+      }
+    }
+    while (next != null) {
+      next.run();
+      synchronized (this) {
+        next = inFlight < limit.getLimit() ? queue.pollFirst() : null;
+        if (next != null) {
+          inFlight++;
+        }
+      }
+    }
+  }
+
+  private static <T> JsonRpc20Response<T> rejected(JsonRpc20Request request, String reason) {
+    final JsonRpc20Response<T> response = new JsonRpc20Response<>();
+    final JsonRpc20Response.Error error = new JsonRpc20Response.Error();
+    error.setCode(ErrorCode.LIMIT_EXCEEDED);
+    error.setMessage(String.format("request id %d rejected, %s", request.getId(), reason));
+    response.setError(error);
+    return response;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
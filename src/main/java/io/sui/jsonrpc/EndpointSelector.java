@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The interface Endpoint selector, the pluggable strategy of {@link
+ * LoadBalancingJsonRpcClientProvider}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public interface EndpointSelector {
+
+  /**
+   * Select one of the candidates.
+   *
+   * @param candidates the non empty candidates
+   * @return the json rpc endpoint
+   */
+  JsonRpcEndpoint select(List<JsonRpcEndpoint> candidates);
+
+  /**
+   * Round robin endpoint selector.
+   *
+   * @return the endpoint selector
+   */
+  static EndpointSelector roundRobin() {
+    return new RoundRobin();
+  }
+
+  /**
+   * Least outstanding endpoint selector.
+   *
+   * @return the endpoint selector
+   */
+  static EndpointSelector leastOutstanding() {
+    return new LeastOutstanding();
+  }
+
+  /**
+   * Latency ewma endpoint selector.
+   *
+   * @return the endpoint selector
+   */
+  static EndpointSelector latencyEwma() {
+    return new LatencyEwma();
+  }
+
+  /** The type Round robin. */
+  class RoundRobin implements EndpointSelector {
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public JsonRpcEndpoint select(List<JsonRpcEndpoint> candidates) {
+      return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+  }
+
+  /** The type Least outstanding. */
+  class LeastOutstanding implements EndpointSelector {
+
+    @Override
+    public JsonRpcEndpoint select(List<JsonRpcEndpoint> candidates) {
+      JsonRpcEndpoint selected = candidates.get(0);
+      for (JsonRpcEndpoint candidate : candidates) {
+        if (candidate.getOutstanding() < selected.getOutstanding()) {
+          selected = candidate;
+        }
+      }
+      return selected;
+    }
+  }
+
+  /**
+   * The type Latency ewma, weighting each endpoint's latency ewma by its outstanding calls so a
+   * fast node is not flooded.
+   */
+  class LatencyEwma implements EndpointSelector {
+
+    @Override
+    public JsonRpcEndpoint select(List<JsonRpcEndpoint> candidates) {
+      JsonRpcEndpoint selected = null;
+      double selectedCost = Double.MAX_VALUE;
+      for (JsonRpcEndpoint candidate : candidates) {
+        final double cost = candidate.getLatencyEwmaNanos() * (candidate.getOutstanding() + 1);
+        if (selected == null || cost < selectedCost) {
+          selected = candidate;
+          selectedCost = cost;
+        }
+      }
+      return selected;
+    }
+  }
+}
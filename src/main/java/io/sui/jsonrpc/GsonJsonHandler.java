@@ -29,9 +29,14 @@ import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import com.google.gson.ToNumberPolicy;
+import com.google.gson.TypeAdapter;
 import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import io.sui.models.FaucetResponse;
+import io.sui.models.LazyJson;
 import io.sui.models.events.EventFilter;
 import io.sui.models.events.EventFilter.PackageEventFilter;
 import io.sui.models.events.EventKind;
@@ -92,6 +97,8 @@ import io.sui.models.transactions.TransactionKind;
 import io.sui.models.transactions.TypeTag;
 import io.sui.models.transactions.TypeTag.StructType;
 import io.sui.models.transactions.TypeTag.VectorType;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -136,18 +143,145 @@ public class GsonJsonHandler implements JsonHandler {
     }
   }
 
-  /** The type Sui parsed data deserializer. */
+  /**
+   * The type Lazy json type adapter, copying the json object token by token into its compact text
+   * instead of building the nested map.
+   */
+  public class LazyJsonTypeAdapter extends TypeAdapter<LazyJson> {
+
+    @Override
+    public void write(JsonWriter out, LazyJson value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+      } else if (value.getRaw() != null) {
+        out.jsonValue(value.getRaw());
+      } else {
+        gson.toJson(value.asMap(), Map.class, out);
+      }
+    }
+
+    @Override
+    public LazyJson read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      final StringWriter raw = new StringWriter();
+      final JsonWriter out = new JsonWriter(raw);
+      copy(in, out);
+      out.flush();
+      return new LazyJson(raw.toString(), (json, type) -> gson.fromJson(json, type));
+    }
+
+    private void copy(JsonReader in, JsonWriter out) throws IOException {
+      switch (in.peek()) {
+        case BEGIN_OBJECT:
+          in.beginObject();
+          out.beginObject();
+          while (in.hasNext()) {
+            out.name(in.nextName());
+            copy(in, out);
+          }
+          in.endObject();
+          out.endObject();
+          break;
+        case BEGIN_ARRAY:
+          in.beginArray();
+          out.beginArray();
+          while (in.hasNext()) {
+            copy(in, out);
+          }
+          in.endArray();
+          out.endArray();
+          break;
+        case STRING:
+          out.value(in.nextString());
+          break;
+        case NUMBER:
+          out.jsonValue(in.nextString());
+          break;
+        case BOOLEAN:
+          out.value(in.nextBoolean());
+          break;
+        case NULL:
+          in.nextNull();
+          out.nullValue();
+          break;
+        default:
+          throw new JsonParseException(String.format("unexpected token %s", in.peek()));
+      }
+    }
+  }
+
+  /**
+   * The type Sui parsed data deserializer.
+   *
+   * @deprecated the handler reads parsed data with {@link SuiParsedDataTypeAdapter}, this delegates
+   *     to it for code still registering the deserializer and will be removed.
+   */
+  @Deprecated
   public class SuiParsedDataDeserializer implements JsonDeserializer<SuiParsedData> {
 
     @Override
     public SuiParsedData deserialize(
         JsonElement json, Type typeOfT, JsonDeserializationContext context)
         throws JsonParseException {
-      if ("package".equals(json.getAsJsonObject().get("dataType").getAsString())) {
-        return gson.fromJson(json, SuiParsedData.PackageObject.class);
+      return new SuiParsedDataTypeAdapter().fromJsonTree(json);
+    }
+  }
+
+  /**
+   * The type Sui parsed data type adapter, streaming the content so move object fields stay lazy.
+   */
+  public class SuiParsedDataTypeAdapter extends TypeAdapter<SuiParsedData> {
+
+    @Override
+    public void write(JsonWriter out, SuiParsedData value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+      } else {
+        gson.toJson(value, value.getClass(), out);
       }
-      if ("moveObject".equals(json.getAsJsonObject().get("dataType").getAsString())) {
-        return gson.fromJson(json, SuiParsedData.MoveObject.class);
+    }
+
+    @Override
+    public SuiParsedData read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      String dataType = null;
+      final SuiParsedData.MoveObject moveObject = new SuiParsedData.MoveObject();
+      final SuiParsedData.PackageObject packageObject = new SuiParsedData.PackageObject();
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "dataType":
+            dataType = in.nextString();
+            break;
+          case "type":
+            moveObject.setType(in.nextString());
+            break;
+          case "fields":
+            moveObject.setLazyFields(gson.getAdapter(LazyJson.class).read(in));
+            break;
+          case "hasPublicTransfer":
+            moveObject.setHasPublicTransfer(in.nextBoolean());
+            break;
+          case "disassembled":
+            packageObject.setDisassembled(
+                gson.fromJson(in, new TypeToken<Map<String, String>>() {}.getType()));
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      if ("package".equals(dataType)) {
+        return packageObject;
+      }
+      if ("moveObject".equals(dataType)) {
+        return moveObject;
       }
       return null;
     }
@@ -768,7 +902,8 @@ public class GsonJsonHandler implements JsonHandler {
             .registerTypeAdapter(Argument.class, new SuiArgumentDeserializer())
             .registerTypeAdapter(Command.class, new SuiCommandDeserializer())
             .registerTypeAdapter(ObjectChange.class, new ObjectChangeDeserializer())
-            .registerTypeAdapter(SuiParsedData.class, new SuiParsedDataDeserializer())
+            .registerTypeAdapter(SuiParsedData.class, new SuiParsedDataTypeAdapter())
+            .registerTypeAdapter(LazyJson.class, new LazyJsonTypeAdapter())
             .registerTypeAdapter(BigInteger.class, TypeAdapters.BIG_INTEGER)
             .create();
   }
@@ -804,4 +939,27 @@ public class GsonJsonHandler implements JsonHandler {
   public String toJson(JsonRpc20Request request) {
     return this.gson.toJson(request);
   }
+
+  /**
+   * From json value, a plain json document that is not a json rpc envelope, as kept by the on disk
+   * stores.
+   *
+   * @param <T> the type parameter
+   * @param json the json
+   * @param typeOfT the type of t
+   * @return the value
+   */
+  public <T> T fromJsonValue(String json, Type typeOfT) {
+    return this.gson.fromJson(json, typeOfT);
+  }
+
+  /**
+   * To json value string, a plain json document as kept by the on disk stores.
+   *
+   * @param value the value
+   * @return the string
+   */
+  public String toJsonValue(Object value) {
+    return this.gson.toJson(value);
+  }
 }
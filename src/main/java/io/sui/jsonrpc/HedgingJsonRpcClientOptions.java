@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The type Hedging json rpc client options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class HedgingJsonRpcClientOptions {
+
+  private Set<String> methods = new HashSet<>();
+
+  private double hedgeQuantile = 0.95;
+
+  private int minSamples = 20;
+
+  private int windowSize = 512;
+
+  private Duration minHedgeDelay = Duration.ofMillis(10);
+
+  private double maxHedgeRatio = 0.1;
+
+  /**
+   * Gets methods to hedge, empty hedges every read method.
+   *
+   * @return the methods
+   */
+  public Set<String> getMethods() {
+    return methods;
+  }
+
+  /**
+   * Sets methods.
+   *
+   * @param methods the methods
+   */
+  public void setMethods(Set<String> methods) {
+    this.methods = methods;
+  }
+
+  /**
+   * Gets hedge quantile, the latency quantile after which a duplicate is sent.
+   *
+   * @return the hedge quantile
+   */
+  public double getHedgeQuantile() {
+    return hedgeQuantile;
+  }
+
+  /**
+   * Sets hedge quantile.
+   *
+   * @param hedgeQuantile the hedge quantile
+   */
+  public void setHedgeQuantile(double hedgeQuantile) {
+    this.hedgeQuantile = hedgeQuantile;
+  }
+
+  /**
+   * Gets min samples of a method before it is hedged.
+   *
+   * @return the min samples
+   */
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  /**
+   * Sets min samples.
+   *
+   * @param minSamples the min samples
+   */
+  public void setMinSamples(int minSamples) {
+    this.minSamples = minSamples;
+  }
+
+  /**
+   * Gets window size, the number of latest latencies kept per method.
+   *
+   * @return the window size
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * Sets window size.
+   *
+   * @param windowSize the window size
+   */
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Gets min hedge delay.
+   *
+   * @return the min hedge delay
+   */
+  public Duration getMinHedgeDelay() {
+    return minHedgeDelay;
+  }
+
+  /**
+   * Sets min hedge delay.
+   *
+   * @param minHedgeDelay the min hedge delay
+   */
+  public void setMinHedgeDelay(Duration minHedgeDelay) {
+    this.minHedgeDelay = minHedgeDelay;
+  }
+
+  /**
+   * Gets max hedge ratio, the share of calls that may be duplicated.
+   *
+   * @return the max hedge ratio
+   */
+  public double getMaxHedgeRatio() {
+    return maxHedgeRatio;
+  }
+
+  /**
+   * Sets max hedge ratio.
+   *
+   * @param maxHedgeRatio the max hedge ratio
+   */
+  public void setMaxHedgeRatio(double maxHedgeRatio) {
+    this.maxHedgeRatio = maxHedgeRatio;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof HedgingJsonRpcClientOptions)) {
+      return false;
+    }
+    HedgingJsonRpcClientOptions that = (HedgingJsonRpcClientOptions) o;
+    return Double.compare(that.hedgeQuantile, hedgeQuantile) == 0
+        && minSamples == that.minSamples
+        && windowSize == that.windowSize
+        && Double.compare(that.maxHedgeRatio, maxHedgeRatio) == 0
+        && methods.equals(that.methods)
+        && minHedgeDelay.equals(that.minHedgeDelay);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        methods, hedgeQuantile, minSamples, windowSize, minHedgeDelay, maxHedgeRatio);
+  }
+
+  @Override
+  public String toString() {
+    return "HedgingJsonRpcClientOptions{"
+        + "methods="
+        + methods
+        + ", hedgeQuantile="
+        + hedgeQuantile
+        + ", minSamples="
+        + minSamples
+        + ", windowSize="
+        + windowSize
+        + ", minHedgeDelay="
+        + minHedgeDelay
+        + ", maxHedgeRatio="
+        + maxHedgeRatio
+        + '}';
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.SuiEvent;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Hedging json rpc client provider, cutting the latency tail of read methods.
+ *
+ * <p>When a read has not answered within the configured quantile of its recent latencies, the same
+ * request is sent once more through the delegate and the first usable response wins. Put it in
+ * front of a {@link LoadBalancingJsonRpcClientProvider} so the duplicate goes to another fullnode,
+ * or in front of an {@link OkHttpJsonRpcClientProvider} for another connection. The share of
+ * duplicated calls is capped by {@link HedgingJsonRpcClientOptions#getMaxHedgeRatio()}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class HedgingJsonRpcClientProvider extends JsonRpcClientProvider implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HedgingJsonRpcClientProvider.class);
+
+  private static final double MAX_HEDGE_TOKENS = 10;
+
+  private final JsonRpcClientProvider delegate;
+
+  private final HedgingJsonRpcClientOptions options;
+
+  private final ConcurrentHashMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService scheduler;
+
+  private final TokenBudget budget;
+
+  /**
+   * Instantiates a new Hedging json rpc client provider.
+   *
+   * @param delegate the delegate
+   * @param options the options
+   */
+  public HedgingJsonRpcClientProvider(
+      JsonRpcClientProvider delegate, HedgingJsonRpcClientOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+    this.budget = new TokenBudget(options.getMaxHedgeRatio(), MAX_HEDGE_TOKENS);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-hedging-%d").build());
+  }
+
+  /**
+   * Gets the number of hedged calls sent so far.
+   *
+   * @return the hedges
+   */
+  public long getHedges() {
+    return budget.getSpent();
+  }
+
+  @Override
+  public Disposable subscribe(
+      JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    return delegate.subscribe(request, onNext, onError);
+  }
+
+  @Override
+  public <T> CompletableFuture<JsonRpc20Response<T>> call(
+      JsonRpc20Request request, String url, Type typeOfT) {
+    final String method = request.getMethod();
+    if (!isHedged(method)) {
+      return delegate.call(request, url, typeOfT);
+    }
+    final LatencyWindow window =
+        latencies.computeIfAbsent(method, m -> new LatencyWindow(options.getWindowSize()));
+    final long start = System.nanoTime();
+    final CompletableFuture<JsonRpc20Response<T>> future = new CompletableFuture<>();
+    final AtomicInteger pending = new AtomicInteger(1);
+    final boolean warm = window.size() >= options.getMinSamples();
+    budget.earn();
+    send(request, url, typeOfT, window, start, pending, future);
+    if (warm) {
+      final long delay =
+          Math.max(
+              options.getMinHedgeDelay().toNanos(), window.quantile(options.getHedgeQuantile()));
+      final ScheduledFuture<?> hedge =
+          scheduler.schedule(
+              () -> {
+                if (future.isDone() || !budget.trySpend()) {
+                  return;
+                }
+                LOGGER.debug(
+                    String.format(
+                        "request id %d of %s slower than %d ms, hedging",
+                        request.getId(), method, TimeUnit.NANOSECONDS.toMillis(delay)));
+                pending.incrementAndGet();
+                send(request, url, typeOfT, window, start, pending, future);
+              },
+              delay,
+              TimeUnit.NANOSECONDS);
+      future.whenComplete((response, throwable) -> hedge.cancel(false));
+    }
+    return future;
+  }
+
+  private <T> void send(
+      JsonRpc20Request request,
+      String url,
+      Type typeOfT,
+      LatencyWindow window,
+      long start,
+      AtomicInteger pending,
+      CompletableFuture<JsonRpc20Response<T>> future) {
+    final CompletableFuture<JsonRpc20Response<T>> call;
+    try {
+      call = delegate.call(request, url, typeOfT);
+    } catch (Throwable throwable) {
+      if (pending.decrementAndGet() == 0) {
+        future.completeExceptionally(throwable);
+      }
+      return;
+    }
+    cancelOnCompletion(future, call);
+    call.whenComplete(
+        (response, throwable) -> {
+          final boolean usable = throwable == null && !JsonRpcMethods.isTransportFailure(response);
+          if (usable) {
+            // the latency seen by the caller, a hedge winning does not hide a slow primary,
+            // recorded before completing so the next call already sees it
+            if (!future.isDone()) {
+              window.record(System.nanoTime() - start);
+            }
+            future.complete(response);
+          } else if (pending.decrementAndGet() == 0) {
+            if (throwable != null) {
+              future.completeExceptionally(throwable);
+            } else {
+              future.complete(response);
+            }
+          }
+        });
+  }
+
+  /**
+   * Gets a latency quantile of a method, as seen by callers from the start of the call.
+   *
+   * @param method the method
+   * @param quantile the quantile between 0 and 1
+   * @return the latency nanos, zero when no call completed yet
+   */
+  long latency(String method, double quantile) {
+    final LatencyWindow window = latencies.get(method);
+    return window == null ? 0 : window.quantile(quantile);
+  }
+
+  private boolean isHedged(String method) {
+    return options.getMethods().isEmpty()
+        ? JsonRpcMethods.isRead(method)
+        : options.getMethods().contains(method);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
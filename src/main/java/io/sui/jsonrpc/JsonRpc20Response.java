@@ -58,7 +58,13 @@ public class JsonRpc20Response<T> {
       FAILURE_RESPONSE(-40000),
 
       /** Io error error code. */
-      IO_ERROR(-40001);
+      IO_ERROR(-40001),
+
+      /** Limit exceeded error code, the call was rejected by the client before being sent. */
+      LIMIT_EXCEEDED(-40002),
+
+      /** Circuit open error code, the endpoint is failing and calls are not sent to it. */
+      CIRCUIT_OPEN(-40003);
 
       private static final Map<Integer, ErrorCode> BY_CODE = new HashMap<>();
 
@@ -17,14 +17,21 @@
 package io.sui.jsonrpc;
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.sui.models.SuiApiException;
 import io.sui.models.events.SuiEvent;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * The interface Json rpc client provider.
@@ -34,6 +41,8 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public abstract class JsonRpcClientProvider {
 
+  private static final ScheduledThreadPoolExecutor DEADLINES = newDeadlineScheduler();
+
   /** The constant nextId. */
   private final AtomicLong nextId = new AtomicLong();
 
@@ -74,8 +83,9 @@ public abstract class JsonRpcClientProvider {
   public <T> CompletableFuture<T> callAndUnwrapResponse(
       String url, JsonRpc20Request request, Type typeOfT) {
     final CompletableFuture<T> future = new CompletableFuture<>();
-    this.call(request, url, typeOfT)
-        .thenAccept(
+    final CompletableFuture<JsonRpc20Response<T>> call = this.call(request, url, typeOfT);
+    cancelOnCompletion(future, call);
+    call.thenAccept(
             jsonRpc20Response -> {
               if (jsonRpc20Response.getError() != null) {
                 final SuiApiException e;
@@ -99,6 +109,75 @@ public abstract class JsonRpcClientProvider {
     return future;
   }
 
+  /**
+   * Call and unwrap response completable future, failing with a {@link SuiApiException} caused by a
+   * {@link TimeoutException} and cancelling the call when no response arrived before the timeout.
+   *
+   * @param <T> the type parameter
+   * @param url the url
+   * @param request the request
+   * @param typeOfT the type of t
+   * @param timeout the timeout
+   * @return the completable future
+   */
+  public <T> CompletableFuture<T> callWithDeadline(
+      String url, JsonRpc20Request request, Type typeOfT, Duration timeout) {
+    final CompletableFuture<T> future = this.callAndUnwrapResponse(url, request, typeOfT);
+    failAfter(
+        future,
+        timeout,
+        () ->
+            new SuiApiException(
+                new TimeoutException(
+                    String.format(
+                        "request id %d of %s timed out after %d ms",
+                        request.getId(), request.getMethod(), timeout.toMillis()))));
+    return future;
+  }
+
+  /**
+   * Fail the future unless it completes within the timeout. The timer is cancelled and dropped as
+   * soon as the future completes, so a finished call keeps nothing reachable until the deadline.
+   *
+   * @param future the future
+   * @param timeout the timeout
+   * @param failure the failure completing the future when the timeout expires
+   */
+  public static void failAfter(
+      CompletableFuture<?> future, Duration timeout, Supplier<? extends Throwable> failure) {
+    final ScheduledFuture<?> deadline =
+        DEADLINES.schedule(
+            () -> future.completeExceptionally(failure.get()),
+            timeout.toNanos(),
+            TimeUnit.NANOSECONDS);
+    future.whenComplete((result, throwable) -> deadline.cancel(false));
+  }
+
+  /** The number of deadlines still scheduled. */
+  static int pendingDeadlines() {
+    return DEADLINES.getQueue().size();
+  }
+
+  private static ScheduledThreadPoolExecutor newDeadlineScheduler() {
+    final ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor(
+            1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-deadline-%d").build());
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  /**
+   * Cancel the inner future once the outer one completes, so a call whose result is no longer
+   * wanted, because it was cancelled, timed out or answered by another call, stops holding a
+   * connection.
+   *
+   * @param outer the outer future
+   * @param inner the inner future
+   */
+  public static void cancelOnCompletion(CompletableFuture<?> outer, CompletableFuture<?> inner) {
+    outer.whenComplete((result, throwable) -> inner.cancel(true));
+  }
+
   /**
    * Create json rpc 20 request json rpc 20 request.
    *
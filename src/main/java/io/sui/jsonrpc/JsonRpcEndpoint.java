@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The type Json rpc endpoint, one fullnode behind a {@link LoadBalancingJsonRpcClientProvider}
+ * together with the load and health statistics used to pick it.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class JsonRpcEndpoint {
+
+  private static final double EWMA_ALPHA = 0.2;
+
+  private final String name;
+
+  private final JsonRpcClientProvider provider;
+
+  private final AtomicInteger outstanding = new AtomicInteger();
+
+  private double latencyEwmaNanos;
+
+  private int consecutiveFailures;
+
+  private int ejections;
+
+  private long ejectedUntilNanos;
+
+  /**
+   * Instantiates a new Json rpc endpoint.
+   *
+   * @param name the name, usually the base url
+   * @param provider the provider
+   */
+  public JsonRpcEndpoint(String name, JsonRpcClientProvider provider) {
+    this.name = name;
+    this.provider = provider;
+  }
+
+  /**
+   * Gets name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets provider.
+   *
+   * @return the provider
+   */
+  public JsonRpcClientProvider getProvider() {
+    return provider;
+  }
+
+  /**
+   * Gets outstanding calls.
+   *
+   * @return the outstanding
+   */
+  public int getOutstanding() {
+    return outstanding.get();
+  }
+
+  /**
+   * Gets latency ewma in nanos of successful calls, zero until the first call succeeds.
+   *
+   * @return the latency ewma nanos
+   */
+  public synchronized double getLatencyEwmaNanos() {
+    return latencyEwmaNanos;
+  }
+
+  /**
+   * Is ejected boolean.
+   *
+   * @param nowNanos the now nanos
+   * @return the boolean
+   */
+  public synchronized boolean isEjected(long nowNanos) {
+    return ejectedUntilNanos != 0 && nowNanos - ejectedUntilNanos < 0;
+  }
+
+  void onStart() {
+    outstanding.incrementAndGet();
+  }
+
+  void onCancelled() {
+    outstanding.decrementAndGet();
+  }
+
+  boolean onComplete(long latencyNanos, boolean failed, LoadBalancingJsonRpcClientOptions options) {
+    outstanding.decrementAndGet();
+    return record(latencyNanos, failed, options);
+  }
+
+  synchronized boolean record(
+      long latencyNanos, boolean failed, LoadBalancingJsonRpcClientOptions options) {
+    if (!failed) {
+      // a fast failure must not make a broken node look like the cheapest one
+      latencyEwmaNanos =
+          latencyEwmaNanos == 0
+              ? latencyNanos
+              : EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * latencyEwmaNanos;
+      consecutiveFailures = 0;
+      return false;
+    }
+    consecutiveFailures++;
+    if (consecutiveFailures < options.getConsecutiveFailuresToEject()
+        || isEjected(System.nanoTime())) {
+      return false;
+    }
+    ejections++;
+    final Duration ejection = options.getBaseEjectionTime().multipliedBy(ejections);
+    final Duration capped =
+        ejection.compareTo(options.getMaxEjectionTime()) > 0
+            ? options.getMaxEjectionTime()
+            : ejection;
+    ejectedUntilNanos = System.nanoTime() + capped.toNanos();
+    return true;
+  }
+
+  synchronized void reinstate() {
+    consecutiveFailures = 0;
+    ejections = 0;
+    ejectedUntilNanos = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "JsonRpcEndpoint{"
+        + "name='"
+        + name
+        + '\''
+        + ", outstanding="
+        + outstanding
+        + ", latencyEwmaNanos="
+        + latencyEwmaNanos
+        + ", consecutiveFailures="
+        + consecutiveFailures
+        + ", ejections="
+        + ejections
+        + '}';
+  }
+}
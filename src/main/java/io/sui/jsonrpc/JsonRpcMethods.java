@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The type Json rpc methods, classifying sui json rpc methods and responses.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public final class JsonRpcMethods {
+
+  /** The constant EXECUTE_TRANSACTION_BLOCK. */
+  public static final String EXECUTE_TRANSACTION_BLOCK = "sui_executeTransactionBlock";
+
+  private static final String[] NAMESPACES = {"suix_", "sui_"};
+
+  private static final String[] READ_PREFIXES = {
+    "get", "multiGet", "tryGet", "query", "dryRun", "devInspect", "resolve"
+  };
+
+  private JsonRpcMethods() {}
+
+  /**
+   * Is read boolean, read methods have no side effect and can be sent again or to another node.
+   *
+   * @param method the method
+   * @return the boolean
+   */
+  public static boolean isRead(String method) {
+    for (String namespace : NAMESPACES) {
+      if (StringUtils.startsWith(method, namespace)) {
+        final String name = method.substring(namespace.length());
+        for (String prefix : READ_PREFIXES) {
+          if (name.startsWith(prefix)) {
+            return true;
+          }
+        }
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Is idempotent boolean, reads plus transaction execution, which is idempotent by digest since
+   * resubmitting the same signed bytes executes the transaction at most once.
+   *
+   * @param method the method
+   * @return the boolean
+   */
+  public static boolean isIdempotent(String method) {
+    return isRead(method) || EXECUTE_TRANSACTION_BLOCK.equals(method);
+  }
+
+  /**
+   * Is transport failure boolean, a failure of the node or the network rather than of the request.
+   *
+   * @param response the response
+   * @return the boolean
+   */
+  public static boolean isTransportFailure(JsonRpc20Response<?> response) {
+    if (response == null || response.getError() == null) {
+      return false;
+    }
+    final ErrorCode code = response.getError().getCode();
+    return code == ErrorCode.IO_ERROR || code == ErrorCode.FAILURE_RESPONSE;
+  }
+
+  /**
+   * Is circuit open boolean, the call was not sent because the endpoint's circuit is open.
+   *
+   * @param response the response
+   * @return the boolean
+   */
+  public static boolean isCircuitOpen(JsonRpc20Response<?> response) {
+    return response != null
+        && response.getError() != null
+        && response.getError().getCode() == ErrorCode.CIRCUIT_OPEN;
+  }
+}
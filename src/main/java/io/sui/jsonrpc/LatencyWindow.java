@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.util.Arrays;
+
+/**
+ * The type Latency window, a sliding window over the latest call latencies of one method.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class LatencyWindow {
+
+  private static final int RECOMPUTE_EVERY = 16;
+
+  private final long[] samples;
+
+  private int next;
+
+  private int size;
+
+  private int sinceRecompute;
+
+  private double cachedQuantile = -1;
+
+  private long cachedNanos;
+
+  /**
+   * Instantiates a new Latency window.
+   *
+   * @param capacity the capacity
+   */
+  LatencyWindow(int capacity) {
+    this.samples = new long[capacity];
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param latencyNanos the latency nanos
+   */
+  synchronized void record(long latencyNanos) {
+    samples[next] = latencyNanos;
+    next = (next + 1) % samples.length;
+    if (size < samples.length) {
+      size++;
+    }
+    sinceRecompute++;
+  }
+
+  /**
+   * Gets size.
+   *
+   * @return the size
+   */
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Quantile of the window, recomputed only every few samples since it sorts a copy.
+   *
+   * @param quantile the quantile between 0 and 1
+   * @return the latency nanos, zero when empty
+   */
+  synchronized long quantile(double quantile) {
+    if (size == 0) {
+      return 0;
+    }
+    if (quantile != cachedQuantile || sinceRecompute >= RECOMPUTE_EVERY) {
+      final long[] sorted = Arrays.copyOf(samples, size);
+      Arrays.sort(sorted);
+      final int index = (int) Math.ceil(quantile * size) - 1;
+      cachedNanos = sorted[Math.max(0, Math.min(size - 1, index))];
+      cachedQuantile = quantile;
+      sinceRecompute = 0;
+    }
+    return cachedNanos;
+  }
+}
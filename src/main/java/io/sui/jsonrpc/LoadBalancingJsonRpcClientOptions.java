@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Load balancing json rpc client options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class LoadBalancingJsonRpcClientOptions {
+
+  private EndpointSelector selector = EndpointSelector.leastOutstanding();
+
+  private int consecutiveFailuresToEject = 5;
+
+  private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+  private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+  private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+  private String healthCheckMethod = "sui_getTotalTransactionBlocks";
+
+  private boolean failoverReads = true;
+
+  /**
+   * Gets selector.
+   *
+   * @return the selector
+   */
+  public EndpointSelector getSelector() {
+    return selector;
+  }
+
+  /**
+   * Sets selector.
+   *
+   * @param selector the selector
+   */
+  public void setSelector(EndpointSelector selector) {
+    this.selector = selector;
+  }
+
+  /**
+   * Gets consecutive transport failures after which an endpoint is ejected.
+   *
+   * @return the consecutive failures to eject
+   */
+  public int getConsecutiveFailuresToEject() {
+    return consecutiveFailuresToEject;
+  }
+
+  /**
+   * Sets consecutive failures to eject.
+   *
+   * @param consecutiveFailuresToEject the consecutive failures to eject
+   */
+  public void setConsecutiveFailuresToEject(int consecutiveFailuresToEject) {
+    this.consecutiveFailuresToEject = consecutiveFailuresToEject;
+  }
+
+  /**
+   * Gets base ejection time, multiplied by the number of times the endpoint was ejected.
+   *
+   * @return the base ejection time
+   */
+  public Duration getBaseEjectionTime() {
+    return baseEjectionTime;
+  }
+
+  /**
+   * Sets base ejection time.
+   *
+   * @param baseEjectionTime the base ejection time
+   */
+  public void setBaseEjectionTime(Duration baseEjectionTime) {
+    this.baseEjectionTime = baseEjectionTime;
+  }
+
+  /**
+   * Gets max ejection time.
+   *
+   * @return the max ejection time
+   */
+  public Duration getMaxEjectionTime() {
+    return maxEjectionTime;
+  }
+
+  /**
+   * Sets max ejection time.
+   *
+   * @param maxEjectionTime the max ejection time
+   */
+  public void setMaxEjectionTime(Duration maxEjectionTime) {
+    this.maxEjectionTime = maxEjectionTime;
+  }
+
+  /**
+   * Gets health check interval, zero disables health checks.
+   *
+   * @return the health check interval
+   */
+  public Duration getHealthCheckInterval() {
+    return healthCheckInterval;
+  }
+
+  /**
+   * Sets health check interval.
+   *
+   * @param healthCheckInterval the health check interval
+   */
+  public void setHealthCheckInterval(Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+  }
+
+  /**
+   * Gets health check method, a parameterless json rpc method.
+   *
+   * @return the health check method
+   */
+  public String getHealthCheckMethod() {
+    return healthCheckMethod;
+  }
+
+  /**
+   * Sets health check method.
+   *
+   * @param healthCheckMethod the health check method
+   */
+  public void setHealthCheckMethod(String healthCheckMethod) {
+    this.healthCheckMethod = healthCheckMethod;
+  }
+
+  /**
+   * Is failover reads boolean, retrying read methods on another endpoint after a transport failure.
+   *
+   * @return the boolean
+   */
+  public boolean isFailoverReads() {
+    return failoverReads;
+  }
+
+  /**
+   * Sets failover reads.
+   *
+   * @param failoverReads the failover reads
+   */
+  public void setFailoverReads(boolean failoverReads) {
+    this.failoverReads = failoverReads;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LoadBalancingJsonRpcClientOptions)) {
+      return false;
+    }
+    LoadBalancingJsonRpcClientOptions that = (LoadBalancingJsonRpcClientOptions) o;
+    return consecutiveFailuresToEject == that.consecutiveFailuresToEject
+        && failoverReads == that.failoverReads
+        && selector.equals(that.selector)
+        && baseEjectionTime.equals(that.baseEjectionTime)
+        && maxEjectionTime.equals(that.maxEjectionTime)
+        && healthCheckInterval.equals(that.healthCheckInterval)
+        && healthCheckMethod.equals(that.healthCheckMethod);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        selector,
+        consecutiveFailuresToEject,
+        baseEjectionTime,
+        maxEjectionTime,
+        healthCheckInterval,
+        healthCheckMethod,
+        failoverReads);
+  }
+
+  @Override
+  public String toString() {
+    return "LoadBalancingJsonRpcClientOptions{"
+        + "selector="
+        + selector
+        + ", consecutiveFailuresToEject="
+        + consecutiveFailuresToEject
+        + ", baseEjectionTime="
+        + baseEjectionTime
+        + ", maxEjectionTime="
+        + maxEjectionTime
+        + ", healthCheckInterval="
+        + healthCheckInterval
+        + ", healthCheckMethod='"
+        + healthCheckMethod
+        + '\''
+        + ", failoverReads="
+        + failoverReads
+        + '}';
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.SuiEvent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Load balancing json rpc client provider, spreading calls over several fullnodes.
+ *
+ * <p>Each call goes to an endpoint picked by the configured {@link EndpointSelector}. Endpoints
+ * with too many consecutive transport failures are ejected for a growing period and come back early
+ * when a periodic health check succeeds. Read methods that fail on the transport are sent again to
+ * the remaining endpoints, writes never are.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class LoadBalancingJsonRpcClientProvider extends JsonRpcClientProvider
+    implements AutoCloseable {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(LoadBalancingJsonRpcClientProvider.class);
+
+  private final List<JsonRpcEndpoint> endpoints;
+
+  private final LoadBalancingJsonRpcClientOptions options;
+
+  private final ScheduledExecutorService healthChecker;
+
+  /**
+   * Instantiates a new Load balancing json rpc client provider over ok http fullnode endpoints.
+   *
+   * @param baseUrls the base urls
+   * @param jsonHandler the json handler
+   * @param httpOptions the http options
+   * @param options the options
+   */
+  public LoadBalancingJsonRpcClientProvider(
+      List<String> baseUrls,
+      JsonHandler jsonHandler,
+      OkHttpJsonRpcClientOptions httpOptions,
+      LoadBalancingJsonRpcClientOptions options) {
+    this(
+        baseUrls.stream()
+            .map(
+                baseUrl ->
+                    new JsonRpcEndpoint(
+                        baseUrl,
+                        new OkHttpJsonRpcClientProvider(baseUrl, jsonHandler, httpOptions)))
+            .collect(Collectors.toList()),
+        options);
+  }
+
+  /**
+   * Instantiates a new Load balancing json rpc client provider.
+   *
+   * @param endpoints the endpoints
+   * @param options the options
+   */
+  public LoadBalancingJsonRpcClientProvider(
+      List<JsonRpcEndpoint> endpoints, LoadBalancingJsonRpcClientOptions options) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("at least one endpoint is required");
+    }
+    this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+    this.options = options;
+    if (options.getHealthCheckInterval().isZero()) {
+      this.healthChecker = null;
+    } else {
+      this.healthChecker =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("sui-endpoint-health-check-%d")
+                  .build());
+      final long interval = options.getHealthCheckInterval().toMillis();
+      this.healthChecker.scheduleWithFixedDelay(
+          this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Gets endpoints.
+   *
+   * @return the endpoints
+   */
+  public List<JsonRpcEndpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  @Override
+  public Disposable subscribe(
+      JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    return select(Collections.emptySet()).getProvider().subscribe(request, onNext, onError);
+  }
+
+  @Override
+  public <T> CompletableFuture<JsonRpc20Response<T>> call(
+      JsonRpc20Request request, String url, Type typeOfT) {
+    final CompletableFuture<JsonRpc20Response<T>> future = new CompletableFuture<>();
+    final boolean failover =
+        options.isFailoverReads() && JsonRpcMethods.isRead(request.getMethod());
+    attempt(request, url, typeOfT, failover, new HashSet<>(), future);
+    return future;
+  }
+
+  private <T> void attempt(
+      JsonRpc20Request request,
+      String url,
+      Type typeOfT,
+      boolean failover,
+      Set<JsonRpcEndpoint> tried,
+      CompletableFuture<JsonRpc20Response<T>> future) {
+    final JsonRpcEndpoint endpoint = select(tried);
+    tried.add(endpoint);
+    endpoint.onStart();
+    final long start = System.nanoTime();
+    final CompletableFuture<JsonRpc20Response<T>> call;
+    try {
+      call = endpoint.getProvider().call(request, url, typeOfT);
+    } catch (Throwable throwable) {
+      endpoint.onComplete(System.nanoTime() - start, true, options);
+      future.completeExceptionally(throwable);
+      return;
+    }
+    cancelOnCompletion(future, call);
+    call.whenComplete(
+        (response, throwable) -> {
+          if (throwable instanceof CancellationException) {
+            endpoint.onCancelled();
+            future.completeExceptionally(throwable);
+            return;
+          }
+          final boolean failed =
+              throwable != null
+                  || JsonRpcMethods.isTransportFailure(response)
+                  || JsonRpcMethods.isCircuitOpen(response);
+          if (endpoint.onComplete(System.nanoTime() - start, failed, options)) {
+            LOGGER.warn(String.format("endpoint %s ejected", endpoint.getName()));
+          }
+          if (failed && failover && tried.size() < endpoints.size() && !future.isDone()) {
+            LOGGER.debug(
+                String.format(
+                    "request id %d failed on %s, failing over",
+                    request.getId(), endpoint.getName()));
+            attempt(request, url, typeOfT, true, tried, future);
+          } else if (throwable != null) {
+            future.completeExceptionally(throwable);
+          } else {
+            future.complete(response);
+          }
+        });
+  }
+
+  /**
+   * Select an endpoint that is not ejected and not yet tried, falling back to ejected ones so that
+   * losing every node still sends the request somewhere.
+   */
+  private JsonRpcEndpoint select(Set<JsonRpcEndpoint> tried) {
+    final long now = System.nanoTime();
+    final List<JsonRpcEndpoint> healthy = new ArrayList<>(endpoints.size());
+    final List<JsonRpcEndpoint> untried = new ArrayList<>(endpoints.size());
+    for (JsonRpcEndpoint endpoint : endpoints) {
+      if (tried.contains(endpoint)) {
+        continue;
+      }
+      untried.add(endpoint);
+      if (!endpoint.isEjected(now)) {
+        healthy.add(endpoint);
+      }
+    }
+    return options.getSelector().select(!healthy.isEmpty() ? healthy : untried);
+  }
+
+  private void checkHealth() {
+    for (JsonRpcEndpoint endpoint : endpoints) {
+      final JsonRpc20Request request =
+          createJsonRpc20Request(options.getHealthCheckMethod(), Lists.newArrayList());
+      final long start = System.nanoTime();
+      try {
+        endpoint
+            .getProvider()
+            .call(request, "/" + options.getHealthCheckMethod(), Object.class)
+            .whenComplete(
+                (response, throwable) -> {
+                  final boolean failed =
+                      throwable != null || (response != null && response.getError() != null);
+                  if (failed) {
+                    if (endpoint.record(System.nanoTime() - start, true, options)) {
+                      LOGGER.warn(String.format("endpoint %s ejected", endpoint.getName()));
+                    }
+                  } else if (endpoint.isEjected(System.nanoTime())) {
+                    LOGGER.info(String.format("endpoint %s reinstated", endpoint.getName()));
+                    endpoint.reinstate();
+                  }
+                });
+      } catch (Throwable throwable) {
+        LOGGER.warn(String.format("health check of %s failed", endpoint.getName()), throwable);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (healthChecker != null) {
+      healthChecker.shutdownNow();
+    }
+  }
+}
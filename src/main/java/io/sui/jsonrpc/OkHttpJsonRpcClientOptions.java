@@ -0,0 +1,439 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The type Ok http json rpc client options, tuning the dispatcher, connection pool, protocol and
+ * timeouts of {@link OkHttpJsonRpcClientProvider}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class OkHttpJsonRpcClientOptions {
+
+  private int maxRequests = 64;
+
+  private int maxRequestsPerHost = 64;
+
+  private int maxIdleConnections = 16;
+
+  private Duration keepAlive = Duration.ofMinutes(5);
+
+  private boolean http2PriorKnowledge;
+
+  private Duration connectTimeout = Duration.ofSeconds(10);
+
+  private Duration readTimeout = Duration.ofSeconds(15);
+
+  private Duration writeTimeout = Duration.ofSeconds(15);
+
+  private Duration pingInterval = Duration.ofSeconds(15);
+
+  private Map<String, Duration> methodTimeouts = new HashMap<>();
+
+  private Map<RequestPriority, Integer> laneMaxRequests = defaultLaneMaxRequests();
+
+  private Map<String, RequestPriority> methodPriorities = new HashMap<>();
+
+  private int subscriptionWorkers = 1;
+
+  private int subscriptionRingSize = 1024;
+
+  private WaitStrategy subscriptionWaitStrategy = WaitStrategy.BLOCKING;
+
+  /**
+   * Gets max requests executing concurrently in the dispatcher.
+   *
+   * @return the max requests
+   */
+  public int getMaxRequests() {
+    return maxRequests;
+  }
+
+  /**
+   * Sets max requests.
+   *
+   * @param maxRequests the max requests
+   */
+  public void setMaxRequests(int maxRequests) {
+    this.maxRequests = maxRequests;
+  }
+
+  /**
+   * Gets max requests executing concurrently per host.
+   *
+   * @return the max requests per host
+   */
+  public int getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  /**
+   * Sets max requests per host.
+   *
+   * @param maxRequestsPerHost the max requests per host
+   */
+  public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  /**
+   * Gets max idle connections kept in the pool.
+   *
+   * @return the max idle connections
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Sets max idle connections.
+   *
+   * @param maxIdleConnections the max idle connections
+   */
+  public void setMaxIdleConnections(int maxIdleConnections) {
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  /**
+   * Gets keep alive of idle pooled connections.
+   *
+   * @return the keep alive
+   */
+  public Duration getKeepAlive() {
+    return keepAlive;
+  }
+
+  /**
+   * Sets keep alive.
+   *
+   * @param keepAlive the keep alive
+   */
+  public void setKeepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  /**
+   * Is http 2 prior knowledge (h2c) boolean, only valid for plain http endpoints.
+   *
+   * @return the boolean
+   */
+  public boolean isHttp2PriorKnowledge() {
+    return http2PriorKnowledge;
+  }
+
+  /**
+   * Sets http 2 prior knowledge.
+   *
+   * @param http2PriorKnowledge the http 2 prior knowledge
+   */
+  public void setHttp2PriorKnowledge(boolean http2PriorKnowledge) {
+    this.http2PriorKnowledge = http2PriorKnowledge;
+  }
+
+  /**
+   * Gets connect timeout.
+   *
+   * @return the connect timeout
+   */
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  /**
+   * Sets connect timeout.
+   *
+   * @param connectTimeout the connect timeout
+   */
+  public void setConnectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  /**
+   * Gets read timeout.
+   *
+   * @return the read timeout
+   */
+  public Duration getReadTimeout() {
+    return readTimeout;
+  }
+
+  /**
+   * Sets read timeout.
+   *
+   * @param readTimeout the read timeout
+   */
+  public void setReadTimeout(Duration readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Gets write timeout.
+   *
+   * @return the write timeout
+   */
+  public Duration getWriteTimeout() {
+    return writeTimeout;
+  }
+
+  /**
+   * Sets write timeout.
+   *
+   * @param writeTimeout the write timeout
+   */
+  public void setWriteTimeout(Duration writeTimeout) {
+    this.writeTimeout = writeTimeout;
+  }
+
+  /**
+   * Gets web socket ping interval.
+   *
+   * @return the ping interval
+   */
+  public Duration getPingInterval() {
+    return pingInterval;
+  }
+
+  /**
+   * Sets ping interval.
+   *
+   * @param pingInterval the ping interval
+   */
+  public void setPingInterval(Duration pingInterval) {
+    this.pingInterval = pingInterval;
+  }
+
+  /**
+   * Gets whole call timeouts keyed by json rpc method name, such as sui_executeTransactionBlock.
+   *
+   * @return the method timeouts
+   */
+  public Map<String, Duration> getMethodTimeouts() {
+    return methodTimeouts;
+  }
+
+  /**
+   * Sets method timeouts.
+   *
+   * @param methodTimeouts the method timeouts
+   */
+  public void setMethodTimeouts(Map<String, Duration> methodTimeouts) {
+    this.methodTimeouts = methodTimeouts;
+  }
+
+  /**
+   * Sets the whole call timeout of one json rpc method.
+   *
+   * @param method the method
+   * @param timeout the timeout
+   */
+  public void setMethodTimeout(String method, Duration timeout) {
+    this.methodTimeouts.put(method, timeout);
+  }
+
+  /**
+   * Gets lane max requests, the in flight calls of each priority with its own dispatcher.
+   * Priorities without a lane share the dispatcher sized by {@link #getMaxRequests()}, so calls of
+   * a lane never queue behind calls of another.
+   *
+   * @return the lane max requests
+   */
+  public Map<RequestPriority, Integer> getLaneMaxRequests() {
+    return laneMaxRequests;
+  }
+
+  /**
+   * Sets lane max requests.
+   *
+   * @param laneMaxRequests the lane max requests
+   */
+  public void setLaneMaxRequests(Map<RequestPriority, Integer> laneMaxRequests) {
+    this.laneMaxRequests = laneMaxRequests;
+  }
+
+  /**
+   * Gets method priorities, overriding {@link RequestPriority#of(String)}.
+   *
+   * @return the method priorities
+   */
+  public Map<String, RequestPriority> getMethodPriorities() {
+    return methodPriorities;
+  }
+
+  /**
+   * Sets method priorities.
+   *
+   * @param methodPriorities the method priorities
+   */
+  public void setMethodPriorities(Map<String, RequestPriority> methodPriorities) {
+    this.methodPriorities = methodPriorities;
+  }
+
+  /**
+   * Gets subscription workers, the threads decoding and dispatching subscription notifications.
+   * Notifications of one subscription always go to the same worker so they stay in order, zero
+   * dispatches on the web socket reader thread. The workers start on the first subscription and
+   * stop when the provider is closed.
+   *
+   * @return the subscription workers
+   */
+  public int getSubscriptionWorkers() {
+    return subscriptionWorkers;
+  }
+
+  /**
+   * Sets subscription workers.
+   *
+   * @param subscriptionWorkers the subscription workers
+   */
+  public void setSubscriptionWorkers(int subscriptionWorkers) {
+    this.subscriptionWorkers = subscriptionWorkers;
+  }
+
+  /**
+   * Gets subscription ring size, the pending notifications of each worker before the web socket
+   * reader waits for room.
+   *
+   * @return the subscription ring size
+   */
+  public int getSubscriptionRingSize() {
+    return subscriptionRingSize;
+  }
+
+  /**
+   * Sets subscription ring size, rounded up to a power of two.
+   *
+   * @param subscriptionRingSize the subscription ring size
+   */
+  public void setSubscriptionRingSize(int subscriptionRingSize) {
+    this.subscriptionRingSize = subscriptionRingSize;
+  }
+
+  /**
+   * Gets subscription wait strategy.
+   *
+   * @return the subscription wait strategy
+   */
+  public WaitStrategy getSubscriptionWaitStrategy() {
+    return subscriptionWaitStrategy;
+  }
+
+  /**
+   * Sets subscription wait strategy.
+   *
+   * @param subscriptionWaitStrategy the subscription wait strategy
+   */
+  public void setSubscriptionWaitStrategy(WaitStrategy subscriptionWaitStrategy) {
+    this.subscriptionWaitStrategy = subscriptionWaitStrategy;
+  }
+
+  private static Map<RequestPriority, Integer> defaultLaneMaxRequests() {
+    final Map<RequestPriority, Integer> lanes = new EnumMap<>(RequestPriority.class);
+    lanes.put(RequestPriority.CRITICAL, 16);
+    lanes.put(RequestPriority.BULK, 32);
+    return lanes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof OkHttpJsonRpcClientOptions)) {
+      return false;
+    }
+    OkHttpJsonRpcClientOptions that = (OkHttpJsonRpcClientOptions) o;
+    return maxRequests == that.maxRequests
+        && maxRequestsPerHost == that.maxRequestsPerHost
+        && maxIdleConnections == that.maxIdleConnections
+        && http2PriorKnowledge == that.http2PriorKnowledge
+        && subscriptionWorkers == that.subscriptionWorkers
+        && subscriptionRingSize == that.subscriptionRingSize
+        && subscriptionWaitStrategy == that.subscriptionWaitStrategy
+        && keepAlive.equals(that.keepAlive)
+        && connectTimeout.equals(that.connectTimeout)
+        && readTimeout.equals(that.readTimeout)
+        && writeTimeout.equals(that.writeTimeout)
+        && pingInterval.equals(that.pingInterval)
+        && methodTimeouts.equals(that.methodTimeouts)
+        && laneMaxRequests.equals(that.laneMaxRequests)
+        && methodPriorities.equals(that.methodPriorities);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        maxRequests,
+        maxRequestsPerHost,
+        maxIdleConnections,
+        keepAlive,
+        http2PriorKnowledge,
+        connectTimeout,
+        readTimeout,
+        writeTimeout,
+        pingInterval,
+        methodTimeouts,
+        laneMaxRequests,
+        methodPriorities,
+        subscriptionWorkers,
+        subscriptionRingSize,
+        subscriptionWaitStrategy);
+  }
+
+  @Override
+  public String toString() {
+    return "OkHttpJsonRpcClientOptions{"
+        + "maxRequests="
+        + maxRequests
+        + ", maxRequestsPerHost="
+        + maxRequestsPerHost
+        + ", maxIdleConnections="
+        + maxIdleConnections
+        + ", keepAlive="
+        + keepAlive
+        + ", http2PriorKnowledge="
+        + http2PriorKnowledge
+        + ", connectTimeout="
+        + connectTimeout
+        + ", readTimeout="
+        + readTimeout
+        + ", writeTimeout="
+        + writeTimeout
+        + ", pingInterval="
+        + pingInterval
+        + ", methodTimeouts="
+        + methodTimeouts
+        + ", laneMaxRequests="
+        + laneMaxRequests
+        + ", methodPriorities="
+        + methodPriorities
+        + ", subscriptionWorkers="
+        + subscriptionWorkers
+        + ", subscriptionRingSize="
+        + subscriptionRingSize
+        + ", subscriptionWaitStrategy="
+        + subscriptionWaitStrategy
+        + '}';
+  }
+}
@@ -19,6 +19,9 @@ package io.sui.jsonrpc;
 import static org.apache.commons.lang3.StringUtils.replace;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.Consumer;
@@ -28,15 +31,26 @@ import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
 import io.sui.models.SuiApiException;
 import io.sui.models.events.SuiEvent;
 import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -51,10 +65,15 @@ import org.slf4j.LoggerFactory;
 /**
  * The type Ok http json rpc client provider.
  *
+ * <p>The web socket reader thread only completes subscribe and unsubscribe replies, notifications
+ * are handed to dispatch workers through pre-allocated rings and decoded there. The ring of a
+ * notification is picked from its subscription id, so one subscription is always delivered in order
+ * by one worker while a slow consumer only holds back the subscriptions sharing its worker.
+ *
  * @author grapebaba
  * @since 2022.11
  */
-public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
+public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider implements AutoCloseable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OkHttpJsonRpcClientProvider.class);
 
@@ -64,6 +83,22 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
 
   private final JsonHandler jsonHandler;
 
+  private final Map<String, Duration> methodTimeouts;
+
+  private final Map<RequestPriority, OkHttpClient> lanes = new EnumMap<>(RequestPriority.class);
+
+  private final Map<String, RequestPriority> methodPriorities;
+
+  private final int subscriptionWorkers;
+
+  private final int subscriptionRingSize;
+
+  private final WaitStrategy subscriptionWaitStrategy;
+
+  private volatile List<RingBuffer<String>> dispatchRings = Collections.emptyList();
+
+  private boolean closed;
+
   private final WebSocket webSocket;
 
   private final ConcurrentHashMap<Long, CompletableFuture<Object>> requestIdToReplies =
@@ -84,17 +119,52 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
    * @param baseUrl the base url
    * @param jsonHandler the json handler
    */
-  @SuppressWarnings("unchecked")
   public OkHttpJsonRpcClientProvider(String baseUrl, JsonHandler jsonHandler) {
+    this(baseUrl, jsonHandler, new OkHttpJsonRpcClientOptions());
+  }
+
+  /**
+   * Instantiates a new Ok http json rpc client provider.
+   *
+   * @param baseUrl the base url
+   * @param jsonHandler the json handler
+   * @param options the http client options
+   */
+  public OkHttpJsonRpcClientProvider(
+      String baseUrl, JsonHandler jsonHandler, OkHttpJsonRpcClientOptions options) {
     this.baseUrl = baseUrl;
     this.jsonHandler = jsonHandler;
-    this.client =
+    this.subscriptionWorkers = options.getSubscriptionWorkers();
+    this.subscriptionRingSize = options.getSubscriptionRingSize();
+    this.subscriptionWaitStrategy = options.getSubscriptionWaitStrategy();
+    this.methodTimeouts = new HashMap<>(options.getMethodTimeouts());
+    final Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(options.getMaxRequests());
+    dispatcher.setMaxRequestsPerHost(options.getMaxRequestsPerHost());
+    final OkHttpClient.Builder clientBuilder =
         new OkHttpClient()
             .newBuilder()
-            .pingInterval(Duration.ofSeconds(15))
-            .writeTimeout(Duration.ofSeconds(15))
-            .readTimeout(Duration.ofSeconds(15))
-            .build();
+            .dispatcher(dispatcher)
+            .connectionPool(
+                new ConnectionPool(
+                    options.getMaxIdleConnections(),
+                    options.getKeepAlive().toMillis(),
+                    TimeUnit.MILLISECONDS))
+            .pingInterval(options.getPingInterval())
+            .connectTimeout(options.getConnectTimeout())
+            .writeTimeout(options.getWriteTimeout())
+            .readTimeout(options.getReadTimeout());
+    if (options.isHttp2PriorKnowledge()) {
+      clientBuilder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+    }
+    this.client = clientBuilder.build();
+    this.methodPriorities = new HashMap<>(options.getMethodPriorities());
+    for (Map.Entry<RequestPriority, Integer> lane : options.getLaneMaxRequests().entrySet()) {
+      final Dispatcher laneDispatcher = new Dispatcher();
+      laneDispatcher.setMaxRequests(lane.getValue());
+      laneDispatcher.setMaxRequestsPerHost(lane.getValue());
+      this.lanes.put(lane.getKey(), this.client.newBuilder().dispatcher(laneDispatcher).build());
+    }
     final String wsUrl;
     if (StringUtils.startsWith(baseUrl, "https")) {
       wsUrl = replace(baseUrl, "https", "wss");
@@ -108,6 +178,7 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
               @Override
               public void onClosed(WebSocket webSocket, int code, String reason) {
                 super.onClosed(webSocket, code, reason);
+                dispatchRings.forEach(RingBuffer::close);
               }
 
               @Override
@@ -118,36 +189,23 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
               @Override
               public void onFailure(WebSocket webSocket, Throwable t, Response response) {
                 super.onFailure(webSocket, t, response);
+                dispatchRings.forEach(RingBuffer::close);
               }
 
               @Override
               public void onMessage(WebSocket webSocket, String text) {
-                System.out.println(text);
-                final Map<String, Object> reply = jsonHandler.fromJsonMap(text);
-                if (null != reply.get("id")) {
-                  CompletableFuture<Object> replayFuture =
-                      requestIdToReplies.get((Long) reply.get("id"));
-                  if (reply.get("error") != null) {
-                    Map<String, Object> errorInfo = (Map<String, Object>) reply.get("error");
-                    Error error = new Error();
-                    error.setCode(ErrorCode.valueOfCode((int) errorInfo.get("code")));
-                    error.setMessage((String) errorInfo.get("message"));
-
-                    replayFuture.completeExceptionally(new SuiApiException(error));
-                  }
-
-                  if (null != requestIdToSubjects.get((Long) reply.get("id"))) {
-                    subscriptionIdToSubjects.put(
-                        (Long) reply.get("result"),
-                        requestIdToSubjects.get((Long) reply.get("id")));
-                    requestIdToSubjects.remove((Long) reply.get("id"));
+                final RingBuffer<String> ring = dispatchRingOf(text);
+                if (ring == null) {
+                  handleMessage(text);
+                  return;
+                }
+                try {
+                  if (!ring.publish(text)) {
+                    LOGGER.warn("subscription message dropped, dispatch is closed");
                   }
-                  replayFuture.complete(reply.get("result"));
-                } else {
-                  final JsonRpc20WSResponse message = jsonHandler.fromJson(text);
-                  PublishSubject<JsonRpc20WSResponse> publishSubject =
-                      subscriptionIdToSubjects.get(message.getParams().getSubscription());
-                  publishSubject.onNext(message);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  LOGGER.warn("subscription message dropped, reader interrupted");
                 }
               }
 
@@ -167,8 +225,9 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
   @Override
   public Disposable subscribe(
       JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    startDispatch();
     final String subscribeRequestBodyJsonStr = this.jsonHandler.toJson(request);
-    System.out.println(subscribeRequestBodyJsonStr);
+    LOGGER.debug(String.format("subscribe request %s", subscribeRequestBodyJsonStr));
     final CompletableFuture<Object> subscriptionResponseFuture = new CompletableFuture<>();
     this.requestIdToReplies.put(request.getId(), subscriptionResponseFuture);
     PublishSubject<JsonRpc20WSResponse> subject = PublishSubject.create();
@@ -225,47 +284,194 @@ public class OkHttpJsonRpcClientProvider extends JsonRpcClientProvider {
       return future;
     }
 
-    this.client
-        .newCall(okhttpRequest)
-        .enqueue(
-            new Callback() {
-              @Override
-              public void onFailure(Call call, IOException e) {
-                final JsonRpc20Response<T> jsonRpc20Response = new JsonRpc20Response<>();
-                JsonRpc20Response.Error error = new JsonRpc20Response.Error();
-                error.setCode(JsonRpc20Response.Error.ErrorCode.IO_ERROR);
-                jsonRpc20Response.setError(error);
-                jsonRpc20Response.setThrowable(e);
-                future.complete(jsonRpc20Response);
-              }
+    final RequestPriority priority =
+        this.methodPriorities.getOrDefault(
+            request.getMethod(), RequestPriority.of(request.getMethod()));
+    final Call call = this.lanes.getOrDefault(priority, this.client).newCall(okhttpRequest);
+    final Duration methodTimeout = this.methodTimeouts.get(request.getMethod());
+    if (methodTimeout != null) {
+      call.timeout().timeout(methodTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    future.whenComplete(
+        (response, throwable) -> {
+          if (future.isCancelled()) {
+            call.cancel();
+          }
+        });
+    call.enqueue(
+        new Callback() {
+          @Override
+          public void onFailure(Call call, IOException e) {
+            final JsonRpc20Response<T> jsonRpc20Response = new JsonRpc20Response<>();
+            JsonRpc20Response.Error error = new JsonRpc20Response.Error();
+            error.setCode(JsonRpc20Response.Error.ErrorCode.IO_ERROR);
+            jsonRpc20Response.setError(error);
+            jsonRpc20Response.setThrowable(e);
+            future.complete(jsonRpc20Response);
+          }
 
-              @Override
-              public void onResponse(Call call, Response response) {
-                try {
-                  final JsonRpc20Response<T> jsonRpc20Response;
-                  if (response.isSuccessful()) {
-                    final ResponseBody responseBody = response.body();
-                    if (responseBody != null) {
-                      jsonRpc20Response = jsonHandler.fromJson(responseBody.string(), typeOfT);
-                    } else {
-                      jsonRpc20Response = new JsonRpc20Response<>();
-                    }
-                  } else {
-                    jsonRpc20Response = new JsonRpc20Response<>();
-                    JsonRpc20Response.Error error = new JsonRpc20Response.Error();
-                    error.setCode(JsonRpc20Response.Error.ErrorCode.FAILURE_RESPONSE);
-                    jsonRpc20Response.setError(error);
-                  }
-                  future.complete(jsonRpc20Response);
-                } catch (Throwable throwable) {
-                  future.completeExceptionally(throwable);
+          @Override
+          public void onResponse(Call call, Response response) {
+            try {
+              final JsonRpc20Response<T> jsonRpc20Response;
+              if (response.isSuccessful()) {
+                final ResponseBody responseBody = response.body();
+                if (responseBody != null) {
+                  jsonRpc20Response = jsonHandler.fromJson(responseBody.string(), typeOfT);
+                } else {
+                  jsonRpc20Response = new JsonRpc20Response<>();
                 }
+              } else {
+                jsonRpc20Response = new JsonRpc20Response<>();
+                JsonRpc20Response.Error error = new JsonRpc20Response.Error();
+                error.setCode(JsonRpc20Response.Error.ErrorCode.FAILURE_RESPONSE);
+                jsonRpc20Response.setError(error);
               }
-            });
+              future.complete(jsonRpc20Response);
+            } catch (Throwable throwable) {
+              future.completeExceptionally(throwable);
+            }
+          }
+        });
 
     return future;
   }
 
+  /** Close the web socket and stop the dispatch workers once they drained their notifications. */
+  @Override
+  public void close() {
+    final List<RingBuffer<String>> rings;
+    synchronized (this) {
+      closed = true;
+      rings = dispatchRings;
+    }
+    rings.forEach(RingBuffer::close);
+    webSocket.close(1000, null);
+  }
+
+  /**
+   * Gets the number of started dispatch workers.
+   *
+   * @return the dispatch workers
+   */
+  int dispatchWorkers() {
+    return dispatchRings.size();
+  }
+
+  /** Start the dispatch workers on the first subscription, providers only calling never do. */
+  private synchronized void startDispatch() {
+    if (closed || !dispatchRings.isEmpty() || subscriptionWorkers <= 0) {
+      return;
+    }
+    final ThreadFactory threadFactory =
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-ws-dispatch-%d").build();
+    final List<RingBuffer<String>> rings = new ArrayList<>(subscriptionWorkers);
+    for (int i = 0; i < subscriptionWorkers; i++) {
+      final RingBuffer<String> ring =
+          new RingBuffer<>(subscriptionRingSize, subscriptionWaitStrategy);
+      rings.add(ring);
+      threadFactory.newThread(() -> dispatch(ring)).start();
+    }
+    dispatchRings = Collections.unmodifiableList(rings);
+  }
+
+  /**
+   * Pick the dispatch ring of a notification from its {@code params.subscription}, read with a
+   * streaming reader that stops there rather than decoding the message. Replies and anything
+   * unexpected return null and are handled inline.
+   */
+  private RingBuffer<String> dispatchRingOf(String text) {
+    final List<RingBuffer<String>> rings = dispatchRings;
+    if (rings.isEmpty()) {
+      return null;
+    }
+    final String subscription = subscriptionOf(text);
+    if (subscription == null) {
+      return null;
+    }
+    return rings.get(Math.floorMod(subscription.hashCode(), rings.size()));
+  }
+
+  /**
+   * Gets the subscription id of a notification, only looking at the top level {@code params} so
+   * that a field of the event named {@code subscription} does not count.
+   *
+   * @param text the message
+   * @return the subscription id, null if the message is not a notification
+   */
+  static String subscriptionOf(String text) {
+    try (JsonReader reader = new JsonReader(new StringReader(text))) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (!"params".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT) {
+          reader.skipValue();
+          continue;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if ("subscription".equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+            return reader.nextString();
+          }
+          reader.skipValue();
+        }
+        return null;
+      }
+      return null;
+    } catch (IOException | IllegalStateException e) {
+      return null;
+    }
+  }
+
+  private void dispatch(RingBuffer<String> ring) {
+    try {
+      String text;
+      while ((text = ring.take()) != null) {
+        try {
+          handleMessage(text);
+        } catch (RuntimeException e) {
+          LOGGER.error("subscription message dispatch failed", e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void handleMessage(String text) {
+    final Map<String, Object> reply = jsonHandler.fromJsonMap(text);
+    if (null != reply.get("id")) {
+      CompletableFuture<Object> replayFuture = requestIdToReplies.get((Long) reply.get("id"));
+      if (reply.get("error") != null) {
+        Map<String, Object> errorInfo = (Map<String, Object>) reply.get("error");
+        Error error = new Error();
+        error.setCode(ErrorCode.valueOfCode((int) errorInfo.get("code")));
+        error.setMessage((String) errorInfo.get("message"));
+
+        replayFuture.completeExceptionally(new SuiApiException(error));
+      }
+
+      if (null != requestIdToSubjects.get((Long) reply.get("id"))) {
+        subscriptionIdToSubjects.put(
+            (Long) reply.get("result"), requestIdToSubjects.get((Long) reply.get("id")));
+        requestIdToSubjects.remove((Long) reply.get("id"));
+      }
+      replayFuture.complete(reply.get("result"));
+    } else {
+      final JsonRpc20WSResponse message = jsonHandler.fromJson(text);
+      PublishSubject<JsonRpc20WSResponse> publishSubject =
+          subscriptionIdToSubjects.get(message.getParams().getSubscription());
+      if (publishSubject == null) {
+        LOGGER.debug(
+            String.format(
+                "message of unknown subscription %d dropped",
+                message.getParams().getSubscription()));
+        return;
+      }
+      publishSubject.onNext(message);
+    }
+  }
+
   private void unsubscribe(JsonRpc20Request request) {
     final Long subscriptionId = requestIdToSubscriptionIds.get(request.getId());
     final JsonRpc20Request unsubscribeRequest =
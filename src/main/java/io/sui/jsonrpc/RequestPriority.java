@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+
+/**
+ * The enum Request priority, the class of a json rpc call used to give it its own concurrency.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public enum RequestPriority {
+
+  /** Critical priority, transaction submission and the calls right before it. */
+  CRITICAL,
+
+  /** Normal priority. */
+  NORMAL,
+
+  /** Bulk priority, paginated scans and backfills. */
+  BULK;
+
+  private static final Set<String> CRITICAL_METHODS =
+      ImmutableSet.of(
+          JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK,
+          "suix_getReferenceGasPrice",
+          "sui_dryRunTransaction",
+          "sui_dryRunTransactionBlock");
+
+  private static final Set<String> BULK_METHODS =
+      ImmutableSet.of(
+          "suix_getOwnedObjects",
+          "suix_getAllCoins",
+          "suix_getDynamicFields",
+          "suix_queryObjects",
+          "suix_queryEvents",
+          "suix_queryTransactionBlocks",
+          "sui_getEvents",
+          "sui_getCheckpoints");
+
+  /**
+   * Default priority of a method.
+   *
+   * @param method the method
+   * @return the request priority
+   */
+  public static RequestPriority of(String method) {
+    if (CRITICAL_METHODS.contains(method)) {
+      return CRITICAL;
+    }
+    if (BULK_METHODS.contains(method)) {
+      return BULK;
+    }
+    return NORMAL;
+  }
+}
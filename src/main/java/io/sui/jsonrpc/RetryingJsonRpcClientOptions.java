@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The type Retrying json rpc client options.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class RetryingJsonRpcClientOptions {
+
+  private int maxAttempts = 3;
+
+  private Duration initialBackoff = Duration.ofMillis(100);
+
+  private Duration maxBackoff = Duration.ofSeconds(2);
+
+  private double backoffMultiplier = 2;
+
+  private double retryBudgetRatio = 0.1;
+
+  private int retryBudgetBurst = 10;
+
+  private boolean retryExecuteTransactionBlock = true;
+
+  /**
+   * Gets max attempts, including the first one.
+   *
+   * @return the max attempts
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Sets max attempts.
+   *
+   * @param maxAttempts the max attempts
+   */
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Gets initial backoff.
+   *
+   * @return the initial backoff
+   */
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * Sets initial backoff.
+   *
+   * @param initialBackoff the initial backoff
+   */
+  public void setInitialBackoff(Duration initialBackoff) {
+    this.initialBackoff = initialBackoff;
+  }
+
+  /**
+   * Gets max backoff.
+   *
+   * @return the max backoff
+   */
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * Sets max backoff.
+   *
+   * @param maxBackoff the max backoff
+   */
+  public void setMaxBackoff(Duration maxBackoff) {
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * Gets backoff multiplier.
+   *
+   * @return the backoff multiplier
+   */
+  public double getBackoffMultiplier() {
+    return backoffMultiplier;
+  }
+
+  /**
+   * Sets backoff multiplier.
+   *
+   * @param backoffMultiplier the backoff multiplier
+   */
+  public void setBackoffMultiplier(double backoffMultiplier) {
+    this.backoffMultiplier = backoffMultiplier;
+  }
+
+  /**
+   * Gets retry budget ratio, the share of calls that may be retried over time.
+   *
+   * @return the retry budget ratio
+   */
+  public double getRetryBudgetRatio() {
+    return retryBudgetRatio;
+  }
+
+  /**
+   * Sets retry budget ratio.
+   *
+   * @param retryBudgetRatio the retry budget ratio
+   */
+  public void setRetryBudgetRatio(double retryBudgetRatio) {
+    this.retryBudgetRatio = retryBudgetRatio;
+  }
+
+  /**
+   * Gets retry budget burst, the retries allowed before any call earned budget.
+   *
+   * @return the retry budget burst
+   */
+  public int getRetryBudgetBurst() {
+    return retryBudgetBurst;
+  }
+
+  /**
+   * Sets retry budget burst.
+   *
+   * @param retryBudgetBurst the retry budget burst
+   */
+  public void setRetryBudgetBurst(int retryBudgetBurst) {
+    this.retryBudgetBurst = retryBudgetBurst;
+  }
+
+  /**
+   * Is retry execute transaction block boolean.
+   *
+   * @return the boolean
+   */
+  public boolean isRetryExecuteTransactionBlock() {
+    return retryExecuteTransactionBlock;
+  }
+
+  /**
+   * Sets retry execute transaction block.
+   *
+   * @param retryExecuteTransactionBlock the retry execute transaction block
+   */
+  public void setRetryExecuteTransactionBlock(boolean retryExecuteTransactionBlock) {
+    this.retryExecuteTransactionBlock = retryExecuteTransactionBlock;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RetryingJsonRpcClientOptions)) {
+      return false;
+    }
+    RetryingJsonRpcClientOptions that = (RetryingJsonRpcClientOptions) o;
+    return maxAttempts == that.maxAttempts
+        && Double.compare(that.backoffMultiplier, backoffMultiplier) == 0
+        && Double.compare(that.retryBudgetRatio, retryBudgetRatio) == 0
+        && retryBudgetBurst == that.retryBudgetBurst
+        && retryExecuteTransactionBlock == that.retryExecuteTransactionBlock
+        && initialBackoff.equals(that.initialBackoff)
+        && maxBackoff.equals(that.maxBackoff);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        maxAttempts,
+        initialBackoff,
+        maxBackoff,
+        backoffMultiplier,
+        retryBudgetRatio,
+        retryBudgetBurst,
+        retryExecuteTransactionBlock);
+  }
+
+  @Override
+  public String toString() {
+    return "RetryingJsonRpcClientOptions{"
+        + "maxAttempts="
+        + maxAttempts
+        + ", initialBackoff="
+        + initialBackoff
+        + ", maxBackoff="
+        + maxBackoff
+        + ", backoffMultiplier="
+        + backoffMultiplier
+        + ", retryBudgetRatio="
+        + retryBudgetRatio
+        + ", retryBudgetBurst="
+        + retryBudgetBurst
+        + ", retryExecuteTransactionBlock="
+        + retryExecuteTransactionBlock
+        + '}';
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.SuiEvent;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The type Retrying json rpc client provider, retrying transport failures of idempotent methods.
+ *
+ * <p>Only {@link JsonRpc20Response.Error.ErrorCode#IO_ERROR} and {@link
+ * JsonRpc20Response.Error.ErrorCode#FAILURE_RESPONSE} responses and calls failing with an {@link
+ * IOException} are retried, errors returned by the node and responses that fail to decode are
+ * final. Reads are always safe to send again. {@code sui_executeTransactionBlock} is retried too,
+ * resubmitting the same signed bytes is idempotent by digest and the node answers a transaction it
+ * already executed with its effects. Other methods are never retried. Backoff is exponential with
+ * full jitter and a token budget keeps retries from amplifying an outage.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class RetryingJsonRpcClientProvider extends JsonRpcClientProvider implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RetryingJsonRpcClientProvider.class);
+
+  private final JsonRpcClientProvider delegate;
+
+  private final RetryingJsonRpcClientOptions options;
+
+  private final TokenBudget budget;
+
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Instantiates a new Retrying json rpc client provider.
+   *
+   * @param delegate the delegate
+   * @param options the options
+   */
+  public RetryingJsonRpcClientProvider(
+      JsonRpcClientProvider delegate, RetryingJsonRpcClientOptions options) {
+    this.delegate = delegate;
+    this.options = options;
+    this.budget = new TokenBudget(options.getRetryBudgetRatio(), options.getRetryBudgetBurst());
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sui-retry-%d").build());
+  }
+
+  /**
+   * Gets the number of retries sent so far.
+   *
+   * @return the retries
+   */
+  public long getRetries() {
+    return budget.getSpent();
+  }
+
+  @Override
+  public Disposable subscribe(
+      JsonRpc20Request request, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+    return delegate.subscribe(request, onNext, onError);
+  }
+
+  @Override
+  public <T> CompletableFuture<JsonRpc20Response<T>> call(
+      JsonRpc20Request request, String url, Type typeOfT) {
+    if (!isRetryable(request.getMethod()) || options.getMaxAttempts() <= 1) {
+      return delegate.call(request, url, typeOfT);
+    }
+    budget.earn();
+    final CompletableFuture<JsonRpc20Response<T>> future = new CompletableFuture<>();
+    attempt(request, url, typeOfT, 1, future);
+    return future;
+  }
+
+  private <T> void attempt(
+      JsonRpc20Request request,
+      String url,
+      Type typeOfT,
+      int attempt,
+      CompletableFuture<JsonRpc20Response<T>> future) {
+    if (future.isDone()) {
+      return;
+    }
+    final CompletableFuture<JsonRpc20Response<T>> call;
+    try {
+      call = delegate.call(request, url, typeOfT);
+    } catch (Throwable throwable) {
+      future.completeExceptionally(throwable);
+      return;
+    }
+    cancelOnCompletion(future, call);
+    call.whenComplete(
+        (response, throwable) -> {
+          final boolean failed =
+              isTransportFailure(throwable) || JsonRpcMethods.isTransportFailure(response);
+          if (failed
+              && attempt < options.getMaxAttempts()
+              && !future.isDone()
+              && budget.trySpend()) {
+            final long backoff = backoffNanos(attempt);
+            LOGGER.debug(
+                String.format(
+                    "request id %d of %s failed on attempt %d, retrying in %d ms",
+                    request.getId(),
+                    request.getMethod(),
+                    attempt,
+                    TimeUnit.NANOSECONDS.toMillis(backoff)));
+            scheduler.schedule(
+                () -> attempt(request, url, typeOfT, attempt + 1, future),
+                backoff,
+                TimeUnit.NANOSECONDS);
+          } else if (throwable != null) {
+            future.completeExceptionally(throwable);
+          } else {
+            future.complete(response);
+          }
+        });
+  }
+
+  /** Full jitter, a random delay up to the exponential backoff of the attempt. */
+  private long backoffNanos(int attempt) {
+    final double exponential =
+        options.getInitialBackoff().toNanos()
+            * Math.pow(options.getBackoffMultiplier(), attempt - 1);
+    final long capped = (long) Math.min(options.getMaxBackoff().toNanos(), exponential);
+    return capped <= 0 ? 0 : ThreadLocalRandom.current().nextLong(capped + 1);
+  }
+
+  /** Only a failed exchange is worth resending, a response that failed to decode would again. */
+  private static boolean isTransportFailure(Throwable throwable) {
+    Throwable cause = throwable;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof IOException;
+  }
+
+  private boolean isRetryable(String method) {
+    if (JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK.equals(method)) {
+      return options.isRetryExecuteTransactionBlock();
+    }
+    return JsonRpcMethods.isIdempotent(method);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
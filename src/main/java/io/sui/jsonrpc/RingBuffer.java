@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The type Ring buffer, a pre-allocated single producer single consumer handoff.
+ *
+ * <p>Slots are reused forever, the producer and the consumer only exchange two sequences, so
+ * publishing a message allocates nothing and never contends with the consumer on a lock. With
+ * {@link WaitStrategy#BLOCKING} the lock is only taken to park, and by the other side when it sees
+ * a parked waiter.
+ *
+ * @param <E> the type of elements
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class RingBuffer<E> {
+
+  private static final int SPIN_TRIES = 100;
+
+  private static final int YIELD_TRIES = 200;
+
+  private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final Object[] slots;
+
+  private final int mask;
+
+  private final WaitStrategy waitStrategy;
+
+  /** The next sequence to consume. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** The next sequence to publish. */
+  private final AtomicLong tail = new AtomicLong();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition changed = lock.newCondition();
+
+  /** The threads parked on the condition, or about to park. */
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  private volatile boolean closed;
+
+  /**
+   * Instantiates a new Ring buffer.
+   *
+   * @param capacity the capacity, rounded up to a power of two
+   * @param waitStrategy the wait strategy
+   */
+  RingBuffer(int capacity, WaitStrategy waitStrategy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new Object[size];
+    this.mask = size - 1;
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * Publish an element, waiting while the ring is full.
+   *
+   * @param element the element
+   * @return false if the ring was closed and the element dropped
+   * @throws InterruptedException the interrupted exception
+   */
+  boolean publish(E element) throws InterruptedException {
+    if (closed) {
+      return false;
+    }
+    final long sequence = tail.get();
+    int tries = 0;
+    while (sequence - head.get() >= slots.length) {
+      if (closed) {
+        return false;
+      }
+      tries = idle(tries, () -> sequence - head.get() < slots.length);
+    }
+    slots[(int) sequence & mask] = element;
+    advance(tail, sequence + 1);
+    return true;
+  }
+
+  /**
+   * Take the next element, waiting while the ring is empty.
+   *
+   * @return the element, or null once the ring is closed and drained
+   * @throws InterruptedException the interrupted exception
+   */
+  @SuppressWarnings("unchecked")
+  E take() throws InterruptedException {
+    final long sequence = head.get();
+    int tries = 0;
+    while (sequence == tail.get()) {
+      if (closed && sequence == tail.get()) {
+        return null;
+      }
+      tries = idle(tries, () -> sequence != tail.get());
+    }
+    final int index = (int) sequence & mask;
+    final E element = (E) slots[index];
+    slots[index] = null;
+    advance(head, sequence + 1);
+    return element;
+  }
+
+  /**
+   * Gets the number of published and not yet taken elements.
+   *
+   * @return the size
+   */
+  int size() {
+    return (int) (tail.get() - head.get());
+  }
+
+  /**
+   * Gets capacity.
+   *
+   * @return the capacity
+   */
+  int capacity() {
+    return slots.length;
+  }
+
+  /** Close the ring, the consumer drains what was published and then sees null. */
+  void close() {
+    closed = true;
+    lock.lock();
+    try {
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int idle(int tries, BooleanSupplier ready) throws InterruptedException {
+    switch (waitStrategy) {
+      case BLOCKING:
+        lock.lock();
+        try {
+          // registered before the re-check, so a sequence moved after it sees the waiter
+          waiters.incrementAndGet();
+          while (!ready.getAsBoolean() && !closed) {
+            changed.await();
+          }
+        } finally {
+          waiters.decrementAndGet();
+          lock.unlock();
+        }
+        break;
+      case SLEEPING:
+        if (tries < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(SLEEP_NANOS);
+        }
+        break;
+      case YIELDING:
+        if (tries < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+        break;
+      default:
+        Thread.onSpinWait();
+        break;
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    return tries + 1;
+  }
+
+  /**
+   * Move a sequence forward. Blocking rings publish it with a full fence so that it is ordered
+   * before the waiter check, and wake the other side only when it is parked.
+   */
+  private void advance(AtomicLong sequence, long value) {
+    if (waitStrategy != WaitStrategy.BLOCKING) {
+      sequence.lazySet(value);
+      return;
+    }
+    sequence.set(value);
+    if (waiters.get() > 0) {
+      lock.lock();
+      try {
+        changed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+/**
+ * The type Token budget, allowing extra calls such as retries or hedges for a share of the calls.
+ *
+ * <p>Every call earns {@code ratio} tokens up to {@code maxTokens}, every extra call spends one, so
+ * extra calls stay bounded by the ratio when the backend is failing.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class TokenBudget {
+
+  private final double ratio;
+
+  private final double maxTokens;
+
+  private double tokens;
+
+  private long spent;
+
+  /**
+   * Instantiates a new Token budget.
+   *
+   * @param ratio the ratio
+   * @param maxTokens the max tokens, also the initial tokens
+   */
+  TokenBudget(double ratio, double maxTokens) {
+    this.ratio = ratio;
+    this.maxTokens = maxTokens;
+    this.tokens = maxTokens;
+  }
+
+  /** Earn tokens for one call. */
+  synchronized void earn() {
+    tokens = Math.min(maxTokens, tokens + ratio);
+  }
+
+  /**
+   * Try spend one token.
+   *
+   * @return the boolean
+   */
+  synchronized boolean trySpend() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    spent++;
+    return true;
+  }
+
+  /**
+   * Gets spent tokens.
+   *
+   * @return the spent
+   */
+  synchronized long getSpent() {
+    return spent;
+  }
+}
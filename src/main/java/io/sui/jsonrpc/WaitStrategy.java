@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+/**
+ * The enum Wait strategy, how a web socket dispatch worker waits for the next message and how the
+ * web socket reader waits for room when the ring of a worker is full.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public enum WaitStrategy {
+  /** Park on a lock condition, the cheapest on cpu and the slowest to wake up. */
+  BLOCKING,
+  /** Spin, then yield, then park for short periods without taking a lock. */
+  SLEEPING,
+  /** Spin, then yield the cpu, lower latency at the cost of a busy core per worker. */
+  YIELDING,
+  /** Spin without ever giving up the cpu, the lowest latency, one dedicated core per worker. */
+  BUSY_SPIN
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.models;
+
+
+import com.google.common.primitives.Primitives;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The type Lazy json, a json object kept as its raw text and only turned into a map on first
+ * access, so events and objects that are dropped unread never pay for the nested map.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class LazyJson {
+
+  private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+  private static final Gson MAP_BINDER = new Gson();
+
+  private final String raw;
+
+  private final BiFunction<String, Type, Object> decoder;
+
+  private volatile Map<String, ?> map;
+
+  /**
+   * Instantiates a new Lazy json over raw json text.
+   *
+   * @param raw the raw json
+   * @param decoder the decoder binding raw json to a type
+   */
+  public LazyJson(String raw, BiFunction<String, Type, Object> decoder) {
+    this.raw = raw;
+    this.decoder = decoder;
+  }
+
+  /**
+   * Instantiates a new Lazy json over an already materialized map.
+   *
+   * @param map the map
+   */
+  public LazyJson(Map<String, ?> map) {
+    this.raw = null;
+    this.decoder = null;
+    this.map = map;
+  }
+
+  /**
+   * Gets raw json, null when built from a map.
+   *
+   * @return the raw
+   */
+  public String getRaw() {
+    return raw;
+  }
+
+  /**
+   * Is materialized boolean.
+   *
+   * @return the boolean
+   */
+  public boolean isMaterialized() {
+    return map != null;
+  }
+
+  /**
+   * As map, decoded once and cached.
+   *
+   * @return the map
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, ?> asMap() {
+    Map<String, ?> result = map;
+    if (result == null) {
+      synchronized (this) {
+        result = map;
+        if (result == null) {
+          result = (Map<String, ?>) decoder.apply(raw, MAP_TYPE);
+          map = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * As a typed value, decoded straight from the raw json without building the map, or bound from
+   * the map when built from one.
+   *
+   * @param <T> the type parameter
+   * @param type the type
+   * @return the value
+   */
+  public <T> T as(Class<T> type) {
+    final Class<T> boxed = Primitives.wrap(type);
+    if (raw == null) {
+      return boxed.cast(MAP_BINDER.fromJson(MAP_BINDER.toJsonTree(map), type));
+    }
+    return boxed.cast(decoder.apply(raw, type));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LazyJson)) {
+      return false;
+    }
+    LazyJson that = (LazyJson) o;
+    return asMap().equals(that.asMap());
+  }
+
+  @Override
+  public int hashCode() {
+    return asMap().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(asMap());
+  }
+}
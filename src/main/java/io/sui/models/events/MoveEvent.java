@@ -17,6 +17,7 @@
 package io.sui.models.events;
 
 
+import io.sui.models.LazyJson;
 import java.util.Map;
 import java.util.Objects;
 
@@ -38,7 +39,7 @@ public class MoveEvent {
 
   private String type;
 
-  private Map<String, ?> fields;
+  private LazyJson fields;
 
   /**
    * Gets bcs.
@@ -131,11 +132,20 @@ public class MoveEvent {
   }
 
   /**
-   * Gets fields.
+   * Gets fields, decoded from the raw json on first access.
    *
    * @return the fields
    */
   public Map<String, ?> getFields() {
+    return fields == null ? null : fields.asMap();
+  }
+
+  /**
+   * Gets lazy fields, for reading the raw json or binding it to a type.
+   *
+   * @return the lazy fields
+   */
+  public LazyJson getLazyFields() {
     return fields;
   }
 
@@ -145,6 +155,15 @@ public class MoveEvent {
    * @param fields the fields
    */
   public void setFields(Map<String, ?> fields) {
+    this.fields = fields == null ? null : new LazyJson(fields);
+  }
+
+  /**
+   * Sets lazy fields.
+   *
+   * @param fields the fields
+   */
+  public void setLazyFields(LazyJson fields) {
     this.fields = fields;
   }
 
@@ -17,6 +17,7 @@
 package io.sui.models.events;
 
 
+import io.sui.models.LazyJson;
 import java.math.BigInteger;
 import java.util.Map;
 import java.util.Objects;
@@ -39,7 +40,7 @@ public class SuiEvent {
 
   private String type;
 
-  private Map<String, ?> parsedJson;
+  private LazyJson parsedJson;
 
   private String bcs;
 
@@ -136,11 +137,20 @@ public class SuiEvent {
   }
 
   /**
-   * Gets parsed json.
+   * Gets parsed json, decoded from the raw json on first access.
    *
    * @return the parsed json
    */
   public Map<String, ?> getParsedJson() {
+    return parsedJson == null ? null : parsedJson.asMap();
+  }
+
+  /**
+   * Gets lazy parsed json, for reading the raw json or binding it to a type.
+   *
+   * @return the lazy parsed json
+   */
+  public LazyJson getLazyParsedJson() {
     return parsedJson;
   }
 
@@ -150,6 +160,15 @@ public class SuiEvent {
    * @param parsedJson the parsed json
    */
   public void setParsedJson(Map<String, ?> parsedJson) {
+    this.parsedJson = parsedJson == null ? null : new LazyJson(parsedJson);
+  }
+
+  /**
+   * Sets lazy parsed json.
+   *
+   * @param parsedJson the parsed json
+   */
+  public void setLazyParsedJson(LazyJson parsedJson) {
     this.parsedJson = parsedJson;
   }
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.models.objects;
+
+
+import com.google.common.base.Objects;
+import io.sui.models.transactions.TransactionBlockResponse;
+import java.util.List;
+
+/**
+ * the checkpoint together with the transaction blocks it contains, in content order.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+public class HydratedCheckpoint extends Checkpoint {
+
+  private long sequenceNumber;
+
+  private List<TransactionBlockResponse> transactionBlocks;
+
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  public void setSequenceNumber(long sequenceNumber) {
+    this.sequenceNumber = sequenceNumber;
+  }
+
+  public List<TransactionBlockResponse> getTransactionBlocks() {
+    return transactionBlocks;
+  }
+
+  public void setTransactionBlocks(List<TransactionBlockResponse> transactionBlocks) {
+    this.transactionBlocks = transactionBlocks;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass() || !super.equals(o)) {
+      return false;
+    }
+    HydratedCheckpoint that = (HydratedCheckpoint) o;
+    return sequenceNumber == that.sequenceNumber
+        && Objects.equal(transactionBlocks, that.transactionBlocks);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(super.hashCode(), sequenceNumber, transactionBlocks);
+  }
+
+  @Override
+  public String toString() {
+    return "HydratedCheckpoint{"
+        + "sequenceNumber="
+        + sequenceNumber
+        + ", summary="
+        + getSummary()
+        + ", content="
+        + getContent()
+        + ", transactionBlocks="
+        + transactionBlocks
+        + '}';
+  }
+}
@@ -17,6 +17,7 @@
 package io.sui.models.objects;
 
 
+import io.sui.models.LazyJson;
 import java.util.Map;
 import java.util.Objects;
 
@@ -33,7 +34,7 @@ public abstract class SuiParsedData {
 
     private String type;
 
-    private Map<String, ?> fields;
+    private LazyJson fields;
 
     private boolean hasPublicTransfer;
 
@@ -56,11 +57,20 @@ public abstract class SuiParsedData {
     }
 
     /**
-     * Gets fields.
+     * Gets fields, decoded from the raw json on first access.
      *
      * @return the fields
      */
     public Map<String, ?> getFields() {
+      return fields == null ? null : fields.asMap();
+    }
+
+    /**
+     * Gets lazy fields, for reading the raw json or binding it to a type.
+     *
+     * @return the lazy fields
+     */
+    public LazyJson getLazyFields() {
       return fields;
     }
 
@@ -70,6 +80,15 @@ public abstract class SuiParsedData {
      * @param fields the fields
      */
     public void setFields(Map<String, ?> fields) {
+      this.fields = fields == null ? null : new LazyJson(fields);
+    }
+
+    /**
+     * Sets lazy fields.
+     *
+     * @param fields the fields
+     */
+    public void setLazyFields(LazyJson fields) {
       this.fields = fields;
     }
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.SuiApiException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Blocking sui test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class BlockingSuiTest {
+
+  private MockWebServer mockWebServer;
+
+  private Sui sui;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if ("/sui_getTotalTransactionBlocks".equals(request.getPath())) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody("{\"jsonrpc\":\"2.0\",\"result\":7,\"id\":1}");
+            }
+            if ("/sui_getCheckpointSummary".equals(request.getPath())) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBodyDelay(5, TimeUnit.SECONDS)
+                  .setBody("{\"jsonrpc\":\"2.0\",\"result\":null,\"id\":1}");
+            }
+            if ("/suix_getReferenceGasPrice".equals(request.getPath())) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody(
+                      "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"bad\"},"
+                          + "\"id\":1}");
+            }
+            return new MockResponse().setResponseCode(404);
+          }
+        });
+    mockWebServer.start();
+    sui =
+        new Sui(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()),
+            "http://localhost:9123",
+            "build/blocking-sui.keystore");
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Results and json rpc errors come back without futures.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test blocking calls return results and throw api errors.")
+  void blockingCalls() throws Exception {
+    try (BlockingSui blockingSui = new BlockingSui(sui)) {
+      assertEquals(7L, blockingSui.getTotalTransactionBlocks());
+      final SuiApiException exception =
+          assertThrows(SuiApiException.class, blockingSui::getReferenceGasPrice);
+      assertEquals(-32602, exception.getError().getCode().getCode());
+    }
+  }
+
+  /**
+   * A call waiting longer than the timeout fails with a timeout.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test blocking calls honour the timeout.")
+  void timeout() throws Exception {
+    try (BlockingSui blockingSui =
+        new BlockingSui(sui, BlockingSui.newThreadPerTaskExecutor(), Duration.ofMillis(200))) {
+      final long start = System.nanoTime();
+      final SuiApiException exception =
+          assertThrows(SuiApiException.class, () -> blockingSui.getCheckpointSummary(1L));
+      assertTrue(exception.getCause() instanceof TimeoutException);
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+    }
+  }
+
+  /**
+   * Forks run in parallel and a failing fork interrupts its siblings.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test invoke all runs forks and fails fast.")
+  void invokeAll() throws Exception {
+    try (BlockingSui blockingSui = new BlockingSui(sui)) {
+      final List<Callable<Long>> forks =
+          Lists.newArrayList(
+              blockingSui::getTotalTransactionBlocks, blockingSui::getTotalTransactionBlocks);
+      assertEquals(Lists.newArrayList(7L, 7L), blockingSui.invokeAll(forks));
+
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      final List<Callable<Long>> failing =
+          Lists.newArrayList(
+              () -> {
+                try {
+                  Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                  interrupted.countDown();
+                }
+                return 0L;
+              },
+              blockingSui::getReferenceGasPrice);
+      assertThrows(SuiApiException.class, () -> blockingSui.invokeAll(failing));
+      assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+  }
+}
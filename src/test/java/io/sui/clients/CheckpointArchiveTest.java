@@ -0,0 +1,208 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.objects.CheckpointContents;
+import io.sui.models.objects.CheckpointSummary;
+import io.sui.models.objects.HydratedCheckpoint;
+import io.sui.models.transactions.ExecutionDigests;
+import io.sui.models.transactions.TransactionBlockResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The type Checkpoint archive test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class CheckpointArchiveTest {
+
+  /**
+   * Checkpoints survive reopening and are read back across segments.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test archive appends, rolls segments and reopens.")
+  void appendAndRead(@TempDir Path dir) throws Exception {
+    try (CheckpointArchive archive = new CheckpointArchive(dir, new GsonJsonHandler(), 1024)) {
+      assertFalse(archive.getFirstSequenceNumber().isPresent());
+      for (long sequenceNumber = 100; sequenceNumber < 200; sequenceNumber++) {
+        archive.append(checkpoint(sequenceNumber));
+      }
+      assertThrows(IllegalArgumentException.class, () -> archive.append(checkpoint(300)));
+      assertEquals("tx150", archive.get(150).get().getTransactionBlocks().get(0).getDigest());
+    }
+    try (Stream<Path> files = Files.list(dir)) {
+      assertTrue(
+          files.filter(file -> file.getFileName().toString().startsWith("segment")).count() > 1);
+    }
+
+    try (CheckpointArchive archive = new CheckpointArchive(dir, new GsonJsonHandler(), 1024)) {
+      assertEquals(OptionalLong.of(100), archive.getFirstSequenceNumber());
+      assertEquals(OptionalLong.of(199), archive.getLastSequenceNumber());
+      assertFalse(archive.get(99).isPresent());
+      assertFalse(archive.get(200).isPresent());
+      for (long sequenceNumber = 100; sequenceNumber < 200; sequenceNumber++) {
+        final HydratedCheckpoint checkpoint = archive.get(sequenceNumber).get();
+        assertEquals(sequenceNumber, checkpoint.getSequenceNumber());
+        assertEquals(sequenceNumber, checkpoint.getSummary().getSequence_number().longValue());
+        assertEquals(
+            "tx" + sequenceNumber,
+            checkpoint.getContent().getTransactions().get(0).getTransaction());
+      }
+      assertEquals(
+          Lists.newArrayList(198L, 199L),
+          archive.stream(198, 300)
+              .map(HydratedCheckpoint::getSequenceNumber)
+              .collect(Collectors.toList()));
+      archive.append(checkpoint(200));
+      assertEquals(OptionalLong.of(200), archive.getLastSequenceNumber());
+    }
+  }
+
+  /**
+   * A record torn by a crash, or appended after the last flush, is dropped on reopen.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test archive ignores a torn tail.")
+  void tornTail(@TempDir Path dir) throws Exception {
+    try (CheckpointArchive archive = new CheckpointArchive(dir, new GsonJsonHandler())) {
+      archive.append(checkpoint(1));
+    }
+    Files.write(
+        dir.resolve("segment-0000000000"), new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+    try (CheckpointArchive archive = new CheckpointArchive(dir, new GsonJsonHandler())) {
+      assertEquals(OptionalLong.of(1), archive.getLastSequenceNumber());
+      archive.append(checkpoint(2));
+      assertEquals(2, archive.get(2).get().getSequenceNumber());
+      assertEquals(1, archive.get(1).get().getSequenceNumber());
+      archive.flush();
+      archive.append(checkpoint(3));
+      assertEquals(3, archive.get(3).get().getSequenceNumber());
+      try (CheckpointArchive crashed = new CheckpointArchive(dir, new GsonJsonHandler())) {
+        assertEquals(OptionalLong.of(2), crashed.getLastSequenceNumber());
+      }
+    }
+  }
+
+  /**
+   * Archived checkpoints are answered without a request, others go to the fullnode.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test archived query client reads the archive first.")
+  void archivedQueryClient(@TempDir Path dir) throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    final MockWebServer mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            calls.incrementAndGet();
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":{\"sequence_number\":9},\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+    try (CheckpointArchive archive = new CheckpointArchive(dir, new GsonJsonHandler())) {
+      archive.append(checkpoint(8));
+      final QueryClient queryClient =
+          new ArchivedQueryClient(
+              new QueryClientImpl(
+                  new OkHttpJsonRpcClientProvider(
+                      mockWebServer.url("").toString().replaceAll("/$", ""),
+                      new GsonJsonHandler(),
+                      new OkHttpJsonRpcClientOptions())),
+              archive);
+      assertEquals(
+          8L, queryClient.getCheckpointSummary(8L).get(5, TimeUnit.SECONDS).getSequence_number());
+      assertEquals(0, calls.get());
+      assertEquals(
+          9L, queryClient.getCheckpointSummary(9L).get(5, TimeUnit.SECONDS).getSequence_number());
+      assertEquals(1, calls.get());
+
+      try (FileChannel segment =
+          FileChannel.open(dir.resolve("segment-0000000000"), StandardOpenOption.WRITE)) {
+        segment.write(ByteBuffer.wrap("]]]]".getBytes(StandardCharsets.UTF_8)), 4);
+      }
+      assertEquals(
+          9L, queryClient.getCheckpointSummary(8L).get(5, TimeUnit.SECONDS).getSequence_number());
+      assertEquals(2, calls.get());
+    } finally {
+      mockWebServer.shutdown();
+    }
+  }
+
+  private static HydratedCheckpoint checkpoint(long sequenceNumber) {
+    final CheckpointSummary summary = new CheckpointSummary();
+    summary.setSequence_number(sequenceNumber);
+    final ExecutionDigests digests = new ExecutionDigests();
+    digests.setTransaction("tx" + sequenceNumber);
+    digests.setEffects("fx" + sequenceNumber);
+    final CheckpointContents contents = new CheckpointContents();
+    contents.setTransactions(Collections.singletonList(digests));
+    final TransactionBlockResponse transactionBlock = new TransactionBlockResponse();
+    transactionBlock.setDigest("tx" + sequenceNumber);
+    final List<TransactionBlockResponse> transactionBlocks =
+        Collections.singletonList(transactionBlock);
+    final HydratedCheckpoint checkpoint = new HydratedCheckpoint();
+    checkpoint.setSequenceNumber(sequenceNumber);
+    checkpoint.setSummary(summary);
+    checkpoint.setContent(contents);
+    checkpoint.setTransactionBlocks(transactionBlocks);
+    return checkpoint;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParser;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.objects.HydratedCheckpoint;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The type Checkpoint streamer test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class CheckpointStreamerTest {
+
+  private final AtomicLong tip = new AtomicLong(20);
+
+  private MockWebServer mockWebServer;
+
+  private QueryClient queryClient;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+            final String param =
+                JsonParser.parseString(request.getBody().readUtf8())
+                    .getAsJsonObject()
+                    .getAsJsonArray("params")
+                    .get(0)
+                    .toString();
+            if ("/sui_multiGetTransactionBlocks".equals(request.getPath())) {
+              final String digest =
+                  JsonParser.parseString(param).getAsJsonArray().get(0).getAsString();
+              return result("[{\"digest\":\"" + digest + "\"}]");
+            }
+            final long sequenceNumber = Long.parseLong(param);
+            if (sequenceNumber > tip.get()) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody(
+                      "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"not found\"},"
+                          + "\"id\":1}");
+            }
+            if ("/sui_getCheckpointSummary".equals(request.getPath())) {
+              return result("{\"sequence_number\":" + sequenceNumber + "}");
+            }
+            if ("/sui_getCheckpointContents".equals(request.getPath())) {
+              return result(
+                  "{\"transactions\":[{\"transaction\":\"tx"
+                      + sequenceNumber
+                      + "\",\"effects\":\"fx"
+                      + sequenceNumber
+                      + "\"}]}");
+            }
+            return new MockResponse().setResponseCode(404);
+          }
+        });
+    mockWebServer.start();
+    queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Checkpoints are delivered hydrated and in order, resuming after the watermark and following the
+   * tip.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test checkpoints stream in order from the watermark and follow the tip.")
+  void stream(@TempDir Path dir) throws Exception {
+    final CheckpointWatermark watermark = CheckpointWatermark.file(dir.resolve("watermark"));
+    watermark.save(4);
+    final CheckpointStreamerOptions options = new CheckpointStreamerOptions();
+    options.setWindowSize(8);
+    options.setQueueCapacity(4);
+    options.setRetryInterval(Duration.ofMillis(50));
+    try (CheckpointStreamer streamer = new CheckpointStreamer(queryClient, options, watermark)) {
+      streamer.start();
+      for (long expected = 5; expected <= 20; expected++) {
+        final HydratedCheckpoint checkpoint = streamer.poll(Duration.ofSeconds(5));
+        assertNotNull(checkpoint);
+        assertEquals(expected, checkpoint.getSequenceNumber());
+        assertEquals(expected, checkpoint.getSummary().getSequence_number().longValue());
+        assertEquals("tx" + expected, checkpoint.getTransactionBlocks().get(0).getDigest());
+        streamer.commit(expected);
+      }
+      assertNull(streamer.poll(Duration.ofMillis(200)));
+
+      tip.set(22);
+      assertEquals(21, streamer.poll(Duration.ofSeconds(5)).getSequenceNumber());
+      assertEquals(22, streamer.poll(Duration.ofSeconds(5)).getSequenceNumber());
+    }
+    assertEquals(OptionalLong.of(20), CheckpointWatermark.file(dir.resolve("watermark")).load());
+    assertTrue(Files.exists(dir.resolve("watermark")));
+  }
+
+  private static MockResponse result(String result) {
+    return new MockResponse()
+        .setResponseCode(200)
+        .setBody("{\"jsonrpc\":\"2.0\",\"result\":" + result + ",\"id\":1}");
+  }
+}
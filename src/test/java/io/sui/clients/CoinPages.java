@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import okhttp3.mockwebserver.MockResponse;
+
+/**
+ * The type Coin pages, mock responses of paginated coin queries shared by the pagination tests.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class CoinPages {
+
+  private CoinPages() {}
+
+  static MockResponse page(String data, String nextCursor, boolean hasNextPage) {
+    return new MockResponse()
+        .setResponseCode(200)
+        .setBody(
+            "{\"jsonrpc\":\"2.0\",\"result\":{\"data\":"
+                + data
+                + ",\"nextCursor\":\""
+                + nextCursor
+                + "\",\"hasNextPage\":"
+                + hasNextPage
+                + "},\"id\":1}");
+  }
+
+  static String coin(String id) {
+    return "{\"coinType\":\"0x2::sui::SUI\",\"coinObjectId\":\""
+        + id
+        + "\",\"version\":\"1\",\"digest\":\"d\",\"balance\":\"10\"}";
+  }
+}
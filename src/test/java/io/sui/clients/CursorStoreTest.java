@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventQuery;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The type Cursor store test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class CursorStoreTest {
+
+  /**
+   * Saves reach the file in batches, on the flush interval and on close.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test file cursor store batches flushes.")
+  void file(@TempDir Path dir) throws Exception {
+    final Path path = dir.resolve("cursors");
+    try (CursorStore store = CursorStore.file(path, 2, Duration.ofMinutes(1))) {
+      store.save("events", "tx1:0");
+      assertFalse(Files.exists(path));
+      store.save("events", "tx2:0");
+      assertTrue(Files.exists(path));
+      store.save("checkpoints", "7");
+      assertEquals(Optional.of("7"), store.load("checkpoints"));
+    }
+    try (CursorStore store = CursorStore.file(path, 1000, Duration.ofMillis(50))) {
+      assertEquals(Optional.of("tx2:0"), store.load("events"));
+      assertEquals(
+          OptionalLong.of(7), CheckpointWatermark.cursorStore(store, "checkpoints").load());
+      CheckpointWatermark.cursorStore(store, "checkpoints").save(8);
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!new String(Files.readAllBytes(path)).contains("checkpoints=8")
+          && System.nanoTime() < deadline) {
+        Thread.sleep(20);
+      }
+      assertTrue(new String(Files.readAllBytes(path)).contains("checkpoints=8"));
+    }
+
+    final EventId id = new EventId();
+    id.setTxDigest("9hCdD3bKfx");
+    id.setEventSeq(BigInteger.valueOf(3));
+    final EventId decoded = CursorStore.decodeEventId(CursorStore.encodeEventId(id));
+    assertEquals(id.getTxDigest(), decoded.getTxDigest());
+    assertEquals(id.getEventSeq(), decoded.getEventSeq());
+  }
+
+  /**
+   * A resumable paginator continues after the last item its consumer processed.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test resumable event paginator.")
+  void resumableEvents() throws Exception {
+    final MockWebServer mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            final JsonElement cursor =
+                JsonParser.parseString(request.getBody().readUtf8())
+                    .getAsJsonObject()
+                    .getAsJsonArray("params")
+                    .get(1);
+            final int from =
+                cursor.isJsonNull()
+                    ? 0
+                    : cursor.getAsJsonObject().get("txDigest").getAsString().charAt(2) - '0' + 1;
+            final List<String> data = new ArrayList<>();
+            for (int i = from; i < Math.min(10, from + 3); i++) {
+              data.add(String.format("{\"txDigest\":\"tx%d\",\"id\":%s}", i, id(i)));
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(
+                    String.format(
+                        "{\"jsonrpc\":\"2.0\",\"result\":{\"data\":[%s],\"nextCursor\":%s},"
+                            + "\"id\":1}",
+                        String.join(",", data),
+                        data.isEmpty() ? "null" : id(from + data.size() - 1)));
+          }
+        });
+    mockWebServer.start();
+    try {
+      final QueryClient queryClient =
+          new QueryClientImpl(
+              new OkHttpJsonRpcClientProvider(
+                  mockWebServer.url("").toString().replaceAll("/$", ""),
+                  new GsonJsonHandler(),
+                  new OkHttpJsonRpcClientOptions()));
+      final CursorStore store = CursorStore.inMemory();
+      final Paginator<EventEnvelope> events =
+          Paginator.events(queryClient, EventQuery.AllQuery.All, 3, false, store, "indexer");
+
+      final Iterator<EventEnvelope> first = events.iterator();
+      for (int i = 0; i < 4; i++) {
+        first.next();
+      }
+      assertEquals(Optional.of("tx2:0"), store.load("indexer"));
+
+      final List<String> rest = new ArrayList<>();
+      events.forEach(envelope -> rest.add(envelope.getTxDigest()));
+      assertEquals(Lists.newArrayList("tx3", "tx4", "tx5", "tx6", "tx7", "tx8", "tx9"), rest);
+      assertEquals(Optional.of("tx9:0"), store.load("indexer"));
+    } finally {
+      mockWebServer.shutdown();
+    }
+  }
+
+  private static String id(int tx) {
+    return String.format("{\"txDigest\":\"tx%d\",\"eventSeq\":0}", tx);
+  }
+}
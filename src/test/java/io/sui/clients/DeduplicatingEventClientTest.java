@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.EventId;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.objects.CheckpointSummary;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Deduplicating event client test, against a fullnode holding one move event per
+ * millisecond of [0, 10) where only the event at 5 has another type.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class DeduplicatingEventClientTest {
+
+  private static final String SWAP = "0x2::pool::Swap";
+
+  private MockWebServer mockWebServer;
+
+  private QueryClient queryClient;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            return EventPages.page(
+                request.getBody().readUtf8(),
+                10,
+                t ->
+                    String.format(
+                        "{\"moveEvent\":{\"packageId\":\"0x2\",\"transactionModule\":\"pool\","
+                            + "\"sender\":\"0xa\",\"type\":\"%s\",\"fields\":{},\"bcs\":\"\"}}",
+                        t == 5 ? "0x2::pool::Other" : SWAP));
+          }
+        });
+    mockWebServer.start();
+    queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Ids fall out of the exact window into the bloom filters, and out of those after two windows.
+   */
+  @Test
+  @DisplayName("Test deduplicator windows.")
+  void deduplicator() {
+    final AtomicLong clock = new AtomicLong();
+    final EventDeduplicator deduplicator =
+        new EventDeduplicator(2, Duration.ofNanos(1000), 100, 1e-6, clock::get);
+    assertTrue(deduplicator.add(id(0)));
+    assertTrue(deduplicator.add(id(1)));
+    assertTrue(deduplicator.add(id(2)));
+    assertFalse(deduplicator.add(id(0)));
+    assertFalse(deduplicator.add(id(2)));
+
+    clock.set(1000);
+    assertFalse(deduplicator.add(id(0)));
+    clock.set(2000);
+    assertTrue(deduplicator.add(id(0)));
+    assertEquals(3, deduplicator.getDuplicates());
+
+    // a full generation does not rotate away ids evicted less than a window ago
+    clock.set(0);
+    final EventDeduplicator crowded =
+        new EventDeduplicator(1, Duration.ofNanos(1000), 2, 1e-6, clock::get);
+    for (int i = 0; i < 5; i++) {
+      assertTrue(crowded.add(id(i)));
+    }
+    clock.set(999);
+    assertFalse(crowded.add(id(0)));
+  }
+
+  /**
+   * Overlapping upstreams are merged once and a checkpoint gap is backfilled.
+   *
+   * @throws Throwable the throwable
+   */
+  @Test
+  @DisplayName("Test upstream dedup and checkpoint gap backfill.")
+  void mergeAndBackfill() throws Throwable {
+    final List<Consumer<SuiEvent>> onNexts = new ArrayList<>();
+    final List<Consumer<SuiApiException>> onErrors = new ArrayList<>();
+    final EventClient upstream =
+        (filter, onNext, onError) -> {
+          onNexts.add(onNext);
+          onErrors.add(onError);
+          return Disposable.empty();
+        };
+    final DeduplicatingEventClient client =
+        new DeduplicatingEventClient(
+            Lists.newArrayList(upstream, upstream), queryClient, EventDeduplicator::new);
+    final EventFilter.MoveEventTypeEventFilter filter = new EventFilter.MoveEventTypeEventFilter();
+    filter.setMoveEventType(SWAP);
+    final List<Long> delivered = new ArrayList<>();
+    final AtomicInteger errors = new AtomicInteger();
+    client.subscribeEvent(
+        filter,
+        event -> delivered.add(event.getTimestampMs().longValue()),
+        e -> errors.incrementAndGet());
+
+    onNexts.get(0).accept(event(0));
+    onNexts.get(0).accept(event(1));
+    onNexts.get(1).accept(event(1));
+    onNexts.get(1).accept(event(2));
+    onNexts.get(0).accept(event(2));
+
+    assertEquals(0, client.onCheckpoint(checkpoint(10, 2)));
+    assertEquals(0, client.onCheckpoint(checkpoint(11, 3)));
+    assertEquals(5, client.onCheckpoint(checkpoint(15, 8)));
+    onNexts.get(0).accept(event(8));
+    assertEquals(Lists.newArrayList(0L, 1L, 2L, 3L, 4L, 6L, 7L, 8L), delivered);
+
+    onErrors.get(0).accept(new SuiApiException(new IOException("endpoint lost")));
+    assertEquals(0, errors.get());
+    onErrors.get(1).accept(new SuiApiException(new IOException("endpoint lost")));
+    assertEquals(1, errors.get());
+  }
+
+  private static EventId id(long timestamp) {
+    final EventId id = new EventId();
+    id.setTxDigest("tx" + timestamp);
+    id.setEventSeq(BigInteger.ZERO);
+    return id;
+  }
+
+  private static SuiEvent event(long timestamp) {
+    final SuiEvent event = new SuiEvent();
+    event.setId(id(timestamp));
+    event.setPackageId("0x2");
+    event.setTransactionModule("pool");
+    event.setSender("0xa");
+    event.setType(SWAP);
+    event.setTimestampMs(BigInteger.valueOf(timestamp));
+    return event;
+  }
+
+  private static CheckpointSummary checkpoint(long sequenceNumber, long timestampMs) {
+    final CheckpointSummary checkpoint = new CheckpointSummary();
+    checkpoint.setSequence_number(sequenceNumber);
+    checkpoint.setTimestampMs(timestampMs);
+    return checkpoint;
+  }
+}
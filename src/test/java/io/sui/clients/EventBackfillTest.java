@@ -0,0 +1,207 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.TimeRange;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The type Event backfill test, against a fullnode holding one event per millisecond of [0, 200).
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class EventBackfillTest {
+
+  private static final int EVENTS = 200;
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private QueryClient queryClient;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            if (requests.incrementAndGet() == 3) {
+              return new MockResponse().setResponseCode(503);
+            }
+            return EventPages.page(
+                request.getBody().readUtf8(), Long.MAX_VALUE, t -> "{\"epochChange\":1}");
+          }
+        });
+    mockWebServer.start();
+    queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Every event is handed over once in time order, a failed page is retried.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test backfill merges partitions in time order.")
+  void run() throws Exception {
+    final EventBackfill backfill = new EventBackfill(queryClient, range(), options(null));
+    final List<Long> timestamps = new ArrayList<>();
+    assertEquals(EVENTS, backfill.run(event -> timestamps.add(event.getTimestamp())));
+    assertEquals(LongStream.range(0, EVENTS).boxed().collect(Collectors.toList()), timestamps);
+    assertEquals(4, backfill.getCompletedPartitions());
+  }
+
+  /**
+   * An interrupted backfill resumes after the last page its consumer finished.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test backfill resumes from saved progress.")
+  void resume(@TempDir Path dir) throws Exception {
+    final Path cursors = dir.resolve("cursors");
+    final List<Long> first = new ArrayList<>();
+    try (CursorStore progress = CursorStore.file(cursors, 1000, Duration.ofMinutes(1))) {
+      assertThrows(
+          SuiApiException.class,
+          () ->
+              new EventBackfill(queryClient, range(), options(progress))
+                  .run(
+                      event -> {
+                        if (event.getTimestamp() == 60) {
+                          throw new IllegalStateException("consumer crashed");
+                        }
+                        first.add(event.getTimestamp());
+                      }));
+    }
+    assertEquals(60, first.size());
+
+    final List<Long> second = new ArrayList<>();
+    try (CursorStore progress = CursorStore.file(cursors)) {
+      new EventBackfill(queryClient, range(), options(progress))
+          .run(event -> second.add(event.getTimestamp()));
+    }
+    // partition [50, 100) saved its cursor after the page ending at 56
+    assertEquals(LongStream.range(57, EVENTS).boxed().collect(Collectors.toList()), second);
+  }
+
+  /**
+   * With a spill directory the later partitions fetch their whole range while the first one is
+   * still being consumed.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test spilling partitions fetch ahead of the consumer.")
+  void spill(@TempDir Path dir) throws Exception {
+    final EventBackfillOptions options = options(null);
+    options.setSpillDirectory(dir.resolve("spill"));
+    final EventBackfill backfill = new EventBackfill(queryClient, range(), options);
+    final List<Long> timestamps = new ArrayList<>();
+    final AtomicInteger fetched = new AtomicInteger();
+    assertEquals(
+        EVENTS,
+        backfill.run(
+            event -> {
+              // the last event of partition [0, 50)
+              if (event.getTimestamp() == 49) {
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (backfill.fetchedPartitions() < 4 && System.nanoTime() < deadline) {
+                  Thread.sleep(10);
+                }
+                fetched.set(backfill.fetchedPartitions());
+              }
+              timestamps.add(event.getTimestamp());
+            }));
+    assertEquals(4, fetched.get());
+    assertEquals(LongStream.range(0, EVENTS).boxed().collect(Collectors.toList()), timestamps);
+    try (Stream<Path> files = Files.list(dir.resolve("spill"))) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  private static TimeRange range() {
+    final TimeRange range = new TimeRange();
+    range.setStart_time(0L);
+    range.setEnd_time((long) EVENTS);
+    return range;
+  }
+
+  private static EventBackfillOptions options(CursorStore progress) {
+    final EventBackfillOptions options = new EventBackfillOptions();
+    options.setPartitions(4);
+    options.setPageSize(7);
+    options.setBufferedPages(2);
+    options.setRetryInterval(Duration.ofMillis(10));
+    options.setProgress(progress);
+    return options;
+  }
+}
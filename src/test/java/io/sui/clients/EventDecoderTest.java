@@ -0,0 +1,347 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.novi.bcs.BcsSerializer;
+import com.novi.serde.Bytes;
+import io.sui.bcsgen.Identifier;
+import io.sui.bcsgen.MoveFieldLayout;
+import io.sui.bcsgen.MoveStruct;
+import io.sui.bcsgen.MoveStructLayout;
+import io.sui.bcsgen.MoveTypeLayout;
+import io.sui.bcsgen.MoveValue;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.events.SuiEvent;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.bitcoinj.core.Base58;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Event decoder test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class EventDecoderTest {
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private QueryClient queryClient;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            requests.incrementAndGet();
+            final JsonArray params =
+                JsonParser.parseString(request.getBody().readUtf8())
+                    .getAsJsonObject()
+                    .getAsJsonArray("params");
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(
+                    String.format(
+                        "{\"jsonrpc\":\"2.0\",\"result\":{\"abilities\":{\"abilities\":[]},"
+                            + "\"type_parameters\":[],\"fields\":[%s]},\"id\":1}",
+                        fields(params.get(2).getAsString())));
+          }
+        });
+    mockWebServer.start();
+    queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * A devnet nft mint event decodes to what the fullnode reported as parsed json.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test decoding with resolved and cached layouts.")
+  void resolved() throws Exception {
+    final SuiEvent event = new SuiEvent();
+    event.setType("0x2::devnet_nft::MintNFTEvent");
+    event.setBcs(
+        "midKhP8pfZbcUjq6fLnadCUgMZTJaRuMR9GVmj1zV5dB235TNvG3oPJk5iFKX9xpxAmAp4suSRVCYVPA9ndm4"
+            + "3SeyuztHDq913GzLVy");
+    final EventDecoder decoder = new EventDecoder(queryClient);
+
+    final MintNftEvent mint = decoder.decode(event, MintNftEvent.class).get(5, TimeUnit.SECONDS);
+    assertEquals(
+        "0x07fb833683ccf1bfaab8cbecea6273858cce4309dd5f5e3ddf33e0f1ea9b8cd7", mint.objectId);
+    assertEquals(
+        "0xb43d0468fbc80c81931b73a4b9ef4663e671b65a07ae5b336a0e7d8a70ac0646", mint.creator);
+    assertEquals("Example NFT", mint.name);
+    assertEquals(3, requests.get());
+
+    final MoveValue value = decoder.decode(event).get(5, TimeUnit.SECONDS);
+    final MoveStruct.WithFields struct = (MoveStruct.WithFields) ((MoveValue.Struct) value).value;
+    assertEquals("name", struct.value.get(2).field0.value);
+    assertEquals(3, requests.get());
+  }
+
+  /**
+   * Registered layouts bind integers, vectors, options and type arguments without a fullnode.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test decoding with registered layouts.")
+  void registered() throws Exception {
+    final MoveTypeLayout layout =
+        struct(
+            field("amount_in", new MoveTypeLayout.u64()),
+            field("amount_out", new MoveTypeLayout.u128()),
+            field("path", new MoveTypeLayout.vector(new MoveTypeLayout.u64())),
+            field("memo", new MoveTypeLayout.vector(new MoveTypeLayout.u8())),
+            field(
+                "referrer",
+                struct(field("vec", new MoveTypeLayout.vector(new MoveTypeLayout.address())))),
+            field("flag", new MoveTypeLayout.bool()));
+    final EventDecoder decoder = new EventDecoder(null);
+    decoder.register("0x5::pool::Swap<0x2::sui::SUI>", layout);
+
+    final BcsSerializer serializer = new BcsSerializer();
+    serializer.serialize_u64(-1L);
+    serializer.serialize_u128(BigInteger.TEN.pow(30));
+    serializer.serialize_len(2);
+    serializer.serialize_u64(7L);
+    serializer.serialize_u64(9L);
+    serializer.serialize_bytes(new Bytes("memo".getBytes(StandardCharsets.UTF_8)));
+    serializer.serialize_len(0);
+    serializer.serialize_bool(true);
+    final byte[] bcs = serializer.get_bytes();
+
+    final SuiEvent event = new SuiEvent();
+    event.setType(
+        "0x0000000000000000000000000000000000000000000000000000000000000005::pool::Swap<0x2::sui::SUI>");
+    event.setBcs(Base58.encode(bcs));
+    final Swap swap = decoder.decode(event, Swap.class).get(5, TimeUnit.SECONDS);
+    assertEquals(new BigInteger("18446744073709551615"), swap.amountIn);
+    assertEquals(BigInteger.TEN.pow(30), swap.amountOut);
+    assertEquals(Lists.newArrayList(7L, 9L), swap.path);
+    assertArrayEquals("memo".getBytes(StandardCharsets.UTF_8), swap.memo);
+    assertNull(swap.referrer);
+    assertTrue(swap.flag);
+
+    assertThrows(
+        BcsDeserializationException.class, () -> decoder.decode(bcs, layout, Overflow.class));
+    assertThrows(
+        BcsDeserializationException.class, () -> decoder.decode(bcs, layout, IntOverflow.class));
+    assertTrue(decoder.getLayout("0x5::pool::Swap").isCompletedExceptionally());
+  }
+
+  /**
+   * An option of a struct binds to the class of the struct, rather than to an object holding a vec.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test decoding an option of a struct into the struct class.")
+  void option() throws Exception {
+    final BcsSerializer some = new BcsSerializer();
+    some.serialize_u64(5L);
+    some.serialize_len(1);
+    for (int i = 0; i < 32; i++) {
+      some.serialize_u8((byte) 0xab);
+    }
+    some.serialize_u64(250L);
+    final SuiEvent event = new SuiEvent();
+    event.setType("0x3::market::Listing");
+    event.setBcs(Base58.encode(some.get_bytes()));
+    final EventDecoder decoder = new EventDecoder(queryClient);
+
+    final Listing listing = decoder.decode(event, Listing.class).get(5, TimeUnit.SECONDS);
+    assertEquals(5L, listing.price);
+    assertEquals("0x" + StringUtils.repeat("ab", 32), listing.royalty.recipient);
+    assertEquals(250L, listing.royalty.bps);
+
+    final MoveTypeLayout layout =
+        decoder.getLayout("0x3::market::Listing").get(5, TimeUnit.SECONDS);
+    final BcsSerializer none = new BcsSerializer();
+    none.serialize_u64(6L);
+    none.serialize_len(0);
+    final Listing unlisted = decoder.decode(none.get_bytes(), layout, Listing.class);
+    assertEquals(6L, unlisted.price);
+    assertNull(unlisted.royalty);
+
+    assertThrows(
+        BcsDeserializationException.class,
+        () -> decoder.decode(some.get_bytes(), layout, MisboundListing.class));
+    assertThrows(
+        BcsDeserializationException.class,
+        () -> decoder.decode(none.get_bytes(), layout, Long.class));
+  }
+
+  private static MoveTypeLayout struct(MoveFieldLayout... fields) {
+    return new MoveTypeLayout.struct(new MoveStructLayout.WithFields(Lists.newArrayList(fields)));
+  }
+
+  private static MoveFieldLayout field(String name, MoveTypeLayout layout) {
+    return new MoveFieldLayout(new Identifier(name), layout);
+  }
+
+  private static String fields(String struct) {
+    switch (struct) {
+      case "MintNFTEvent":
+        return field("object_id", "0x2", "object", "ID")
+            + ",{\"name\":\"creator\",\"type_\":\"Address\"},"
+            + field("name", "0x1", "string", "String");
+      case "ID":
+        return "{\"name\":\"bytes\",\"type_\":\"Address\"}";
+      case "Listing":
+        return "{\"name\":\"price\",\"type_\":\"U64\"},"
+            + "{\"name\":\"royalty\",\"type_\":{\"Struct\":{\"address\":\"0x1\","
+            + "\"module\":\"option\",\"name\":\"Option\",\"typeArguments\":[{\"Struct\":"
+            + "{\"address\":\"0x3\",\"module\":\"market\",\"name\":\"Royalty\","
+            + "\"typeArguments\":[]}}]}}}";
+      case "Option":
+        return "{\"name\":\"vec\",\"type_\":{\"Vector\":{\"TypeParameter\":0}}}";
+      case "Royalty":
+        return "{\"name\":\"recipient\",\"type_\":\"Address\"},"
+            + "{\"name\":\"bps\",\"type_\":\"U64\"}";
+      default:
+        return "{\"name\":\"bytes\",\"type_\":{\"Vector\":\"U8\"}}";
+    }
+  }
+
+  private static String field(String name, String address, String module, String struct) {
+    return String.format(
+        "{\"name\":\"%s\",\"type_\":{\"Struct\":{\"address\":\"%s\",\"module\":\"%s\","
+            + "\"name\":\"%s\",\"typeArguments\":[]}}}",
+        name, address, module, struct);
+  }
+
+  /** The type Mint nft event. */
+  static class MintNftEvent {
+
+    private String objectId;
+
+    private String creator;
+
+    private String name;
+  }
+
+  /** The type Swap. */
+  static class Swap {
+
+    private BigInteger amountIn;
+
+    private BigInteger amountOut;
+
+    private List<Long> path;
+
+    private byte[] memo;
+
+    private String referrer;
+
+    private boolean flag;
+  }
+
+  /** The type Listing. */
+  static class Listing {
+
+    private long price;
+
+    private Royalty royalty;
+  }
+
+  /** The type Royalty. */
+  static class Royalty {
+
+    private String recipient;
+
+    private long bps;
+  }
+
+  /** The type Misbound listing, an address does not fit a long. */
+  static class MisboundListing {
+
+    private long price;
+
+    private MisboundRoyalty royalty;
+  }
+
+  /** The type Misbound royalty. */
+  static class MisboundRoyalty {
+
+    private Long recipient;
+  }
+
+  /** The type Overflow, a u64 above the long range does not fit a long. */
+  static class Overflow {
+
+    private long amountIn;
+  }
+
+  /** The type Int overflow, a u64 above the long range does not fit an int either. */
+  static class IntOverflow {
+
+    private int amountIn;
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.models.events.EventEnvelope;
+import io.sui.models.events.EventId;
+import io.sui.models.events.EventKind;
+import io.sui.models.events.EventQuery;
+import io.sui.models.events.EventType;
+import io.sui.models.events.MoveEvent;
+import io.sui.models.events.PaginatedEvents;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.events.TimeRange;
+import io.sui.models.events.TransferObjectEvent;
+import io.sui.models.objects.MoveModule;
+import io.sui.models.objects.SuiObjectOwner;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The type Event index test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class EventIndexTest {
+
+  /**
+   * Queries are answered from the secondary indexes and survive reopening.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test event index queries.")
+  void queries(@TempDir Path dir) throws Exception {
+    try (EventIndex index = new EventIndex(dir, new GsonJsonHandler())) {
+      for (int i = 0; i < 10; i++) {
+        assertTrue(index.index(moveEvent(i)));
+        assertTrue(index.index(transfer(i)));
+      }
+      assertFalse(index.index(moveEvent(3)));
+      assertEquals(20, index.getCount());
+    }
+
+    try (EventIndex index = new EventIndex(dir, new GsonJsonHandler())) {
+      assertEquals(20, index.getCount());
+
+      final EventQuery.SenderEventQuery sender = new EventQuery.SenderEventQuery();
+      sender.setSender("0xs1");
+      assertEquals(
+          Lists.newArrayList("tx1:0", "tx1:1", "tx3:0", "tx3:1", "tx5:0", "tx5:1"),
+          ids(index.getEvents(sender, null, 6, false)));
+
+      final MoveModule module = new MoveModule();
+      module.setSuiPackage("0x2");
+      module.setModule("devnet_nft");
+      final EventQuery.MoveModuleEventQuery moduleQuery = new EventQuery.MoveModuleEventQuery();
+      moduleQuery.setMoveModule(module);
+      assertEquals(10, index.getEvents(moduleQuery, null, 50, false).getData().size());
+
+      final EventQuery.MoveEventEventQuery moveEvent = new EventQuery.MoveEventEventQuery();
+      moveEvent.setMoveEvent("0x2::devnet_nft::MintNFTEvent");
+      final PaginatedEvents mints = index.getEvents(moveEvent, null, 50, true);
+      assertEquals("tx9:0", key(mints.getData().get(0).getId()));
+      assertTrue(mints.getData().get(0).getEvent() instanceof EventKind.MoveEventKind);
+      assertNull(mints.getNextCursor());
+
+      final EventQuery.EventTypeEventQuery transfers = new EventQuery.EventTypeEventQuery();
+      transfers.setEventType(EventType.TransferObject);
+      assertEquals(10, index.getEvents(transfers, null, 50, false).getData().size());
+
+      final SuiObjectOwner.AddressOwner owner = new SuiObjectOwner.AddressOwner();
+      owner.setAddressOwner("0xr2");
+      final EventQuery.RecipientEventQuery recipient = new EventQuery.RecipientEventQuery();
+      recipient.setRecipient(owner);
+      assertEquals(
+          Lists.newArrayList("tx2:1"),
+          ids(index.getEvents(recipient, null, 50, false)).subList(0, 1));
+
+      final EventQuery.ObjectEventQuery object = new EventQuery.ObjectEventQuery();
+      object.setObject("0xo7");
+      assertEquals(Lists.newArrayList("tx7:1"), ids(index.getEvents(object, null, 50, false)));
+
+      final EventQuery.TransactionEventQuery transaction = new EventQuery.TransactionEventQuery();
+      transaction.setTransaction("tx4");
+      assertEquals(
+          Lists.newArrayList("tx4:0", "tx4:1"), ids(index.getEvents(transaction, null, 50, false)));
+
+      final TimeRange range = new TimeRange();
+      range.setStart_time(1002L);
+      range.setEnd_time(1004L);
+      final EventQuery.TimeRangeEventQuery time = new EventQuery.TimeRangeEventQuery();
+      time.setTimeRange(range);
+      assertEquals(
+          Lists.newArrayList("tx2:0", "tx2:1", "tx3:0", "tx3:1"),
+          ids(index.getEvents(time, null, 50, false)));
+
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> index.getEvents(EventQuery.AllQuery.All, null, 0, false));
+    }
+  }
+
+  /**
+   * Walking cursors in both directions visits every event once, time ranges in timestamp order.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test event index pagination.")
+  void pagination(@TempDir Path dir) throws Exception {
+    try (EventIndex index = new EventIndex(dir, new GsonJsonHandler())) {
+      for (int i = 0; i < 10; i++) {
+        index.index(moveEvent(i));
+      }
+      for (boolean desc : new boolean[] {false, true}) {
+        final List<String> seen = new ArrayList<>();
+        EventId cursor = null;
+        do {
+          final PaginatedEvents page = index.getEvents(EventQuery.AllQuery.All, cursor, 3, desc);
+          seen.addAll(ids(page));
+          cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(10, seen.size());
+        assertEquals(desc ? "tx9:0" : "tx0:0", seen.get(0));
+        assertEquals(desc ? "tx0:0" : "tx9:0", seen.get(9));
+      }
+
+      for (int i = 9; i >= 0; i--) {
+        index.index(transfer(i));
+      }
+      final TimeRange range = new TimeRange();
+      range.setStart_time(1002L);
+      range.setEnd_time(1008L);
+      final EventQuery.TimeRangeEventQuery time = new EventQuery.TimeRangeEventQuery();
+      time.setTimeRange(range);
+      final List<String> expected = new ArrayList<>();
+      for (int i = 2; i < 8; i++) {
+        expected.add("tx" + i + ":0");
+        expected.add("tx" + i + ":1");
+      }
+      for (boolean desc : new boolean[] {false, true}) {
+        final List<String> seen = new ArrayList<>();
+        EventId cursor = null;
+        do {
+          final PaginatedEvents page = index.getEvents(time, cursor, 3, desc);
+          seen.addAll(ids(page));
+          cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(desc ? Lists.reverse(expected) : expected, seen);
+      }
+    }
+  }
+
+  /**
+   * Subscribed events are stored without materializing their parsed json.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test event index keeps parsed json raw.")
+  void rawParsedJson(@TempDir Path dir) throws Exception {
+    final GsonJsonHandler jsonHandler = new GsonJsonHandler();
+    final SuiEvent event =
+        jsonHandler.fromJsonValue(
+            "{\"id\":{\"txDigest\":\"tx0\",\"eventSeq\":\"0\"},\"packageId\":\"0x2\","
+                + "\"transactionModule\":\"pool\",\"sender\":\"0xs0\","
+                + "\"type\":\"0x2::pool::SwapEvent\",\"parsedJson\":{\"pool_id\":\"0x5\"},"
+                + "\"bcs\":\"3yT\",\"timestampMs\":\"1000\"}",
+            SuiEvent.class);
+    try (EventIndex index = new EventIndex(dir, jsonHandler)) {
+      assertTrue(index.index(event));
+      assertFalse(event.getLazyParsedJson().isMaterialized());
+      final MoveEvent stored =
+          ((EventKind.MoveEventKind)
+                  index
+                      .getEvents(EventQuery.AllQuery.All, null, 1, false)
+                      .getData()
+                      .get(0)
+                      .getEvent())
+              .getMoveEvent();
+      assertEquals("{\"pool_id\":\"0x5\"}", stored.getLazyFields().getRaw());
+      assertEquals("0x5", stored.getFields().get("pool_id"));
+    }
+  }
+
+  /**
+   * A record torn by a crash is dropped on reopen.
+   *
+   * @param dir the temporary directory
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test event index ignores a torn tail.")
+  void tornTail(@TempDir Path dir) throws Exception {
+    try (EventIndex index = new EventIndex(dir, new GsonJsonHandler())) {
+      index.index(moveEvent(0));
+    }
+    Files.write(dir.resolve("events.log"), new byte[] {0, 0, 1, 0, '{'}, StandardOpenOption.APPEND);
+    try (EventIndex index = new EventIndex(dir, new GsonJsonHandler())) {
+      assertEquals(1, index.getCount());
+      index.index(moveEvent(1));
+      assertEquals(
+          Lists.newArrayList("tx0:0", "tx1:0"),
+          ids(index.getEvents(EventQuery.AllQuery.All, null, 5, false)));
+    }
+  }
+
+  private static List<String> ids(PaginatedEvents page) {
+    return page.getData().stream()
+        .map(envelope -> key(envelope.getId()))
+        .collect(Collectors.toList());
+  }
+
+  private static String key(EventId id) {
+    return id.getTxDigest() + ":" + id.getEventSeq();
+  }
+
+  private static EventId id(int tx, int seq) {
+    final EventId id = new EventId();
+    id.setTxDigest("tx" + tx);
+    id.setEventSeq(BigInteger.valueOf(seq));
+    return id;
+  }
+
+  private static SuiEvent moveEvent(int i) {
+    final SuiEvent event = new SuiEvent();
+    event.setId(id(i, 0));
+    event.setPackageId("0x2");
+    event.setTransactionModule("devnet_nft");
+    event.setSender("0xs" + i % 2);
+    event.setType("0x2::devnet_nft::MintNFTEvent");
+    event.setTimestampMs(BigInteger.valueOf(1000 + i));
+    return event;
+  }
+
+  private static EventEnvelope transfer(int i) {
+    final SuiObjectOwner.AddressOwner recipient = new SuiObjectOwner.AddressOwner();
+    recipient.setAddressOwner("0xr" + i % 4);
+    final TransferObjectEvent transfer = new TransferObjectEvent();
+    transfer.setPackageId("0x2");
+    transfer.setTransactionModule("pay");
+    transfer.setSender("0xs" + i % 2);
+    transfer.setRecipient(recipient);
+    transfer.setObjectType("0x2::coin::Coin<0x2::sui::SUI>");
+    transfer.setObjectId("0xo" + i);
+    transfer.setVersion(1L);
+    final EventKind.TransferObjectEventKind kind = new EventKind.TransferObjectEventKind();
+    kind.setTransferObject(transfer);
+    final EventEnvelope envelope = new EventEnvelope();
+    envelope.setId(id(i, 1));
+    envelope.setTxDigest("tx" + i);
+    envelope.setTimestamp(1000L + i);
+    envelope.setEvent(kind);
+    return envelope;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import okhttp3.mockwebserver.MockResponse;
+
+/**
+ * The type Event pages, mock responses of time range event queries shared by the backfill tests,
+ * with one event per millisecond whose transaction digest is {@code tx<timestamp>}.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+final class EventPages {
+
+  private EventPages() {}
+
+  static MockResponse page(String body, long end, LongFunction<String> event) {
+    final JsonArray params =
+        JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("params");
+    final JsonObject timeRange = params.get(0).getAsJsonObject().getAsJsonObject("TimeRange");
+    final JsonElement cursor = params.get(1);
+    final long from =
+        cursor.isJsonNull()
+            ? timeRange.get("start_time").getAsLong()
+            : Long.parseLong(cursor.getAsJsonObject().get("txDigest").getAsString().substring(2))
+                + 1;
+    final long to =
+        Math.min(
+            Math.min(end, timeRange.get("end_time").getAsLong()), from + params.get(2).getAsInt());
+    final List<String> data = new ArrayList<>();
+    for (long timestamp = from; timestamp < to; timestamp++) {
+      data.add(
+          String.format(
+              "{\"timestamp\":%d,\"txDigest\":\"tx%d\",\"id\":%s,\"event\":%s}",
+              timestamp, timestamp, id(timestamp), event.apply(timestamp)));
+    }
+    return new MockResponse()
+        .setResponseCode(200)
+        .setBody(
+            String.format(
+                "{\"jsonrpc\":\"2.0\",\"result\":{\"data\":[%s],\"nextCursor\":%s},\"id\":1}",
+                String.join(",", data), to > from ? id(to - 1) : "null"));
+  }
+
+  static String id(long timestamp) {
+    return String.format("{\"txDigest\":\"tx%d\",\"eventSeq\":0}", timestamp);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.SuiApiException;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.EventId;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.objects.MoveModule;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Multiplexing event client test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class MultiplexingEventClientTest {
+
+  /** Compiled predicates follow the fullnode's filter semantics. */
+  @Test
+  @DisplayName("Test compiled event filter predicates.")
+  void predicates() {
+    final SuiEvent swap = event("0xa", "0x2::pool::SwapEvent");
+    swap.setParsedJson(
+        ImmutableMap.of("pool", ImmutableMap.of("id", "0xp1"), "amounts", Lists.newArrayList(5.0)));
+
+    assertTrue(EventPredicates.compile(sender("0xa")).test(swap));
+    assertFalse(EventPredicates.compile(sender("0xb")).test(swap));
+    assertTrue(EventPredicates.compile(type("0x2::pool::SwapEvent")).test(swap));
+    assertTrue(EventPredicates.compile(sender("0x000A")).test(swap));
+
+    final SuiEvent normalized =
+        event(
+            "0x000000000000000000000000000000000000000000000000000000000000000a",
+            "0x0000000000000000000000000000000000000000000000000000000000000002::pool::SwapEvent"
+                + "<0x0000000000000000000000000000000000000000000000000000000000000002::sui::SUI>");
+    normalized.setPackageId("0x0000000000000000000000000000000000000000000000000000000000000002");
+    assertTrue(EventPredicates.compile(sender("0xA")).test(normalized));
+    assertTrue(
+        EventPredicates.compile(type("0x2::pool::SwapEvent<0x2::sui::SUI>")).test(normalized));
+    assertFalse(EventPredicates.compile(type("0x2::pool::SwapEvent")).test(normalized));
+
+    final EventFilter.PackageEventFilter suiPackage = new EventFilter.PackageEventFilter();
+    suiPackage.setSuiPackage("0x2");
+    assertTrue(EventPredicates.compile(suiPackage).test(swap));
+
+    final MoveModule module = new MoveModule();
+    module.setSuiPackage("0x2");
+    module.setModule("dex");
+    final EventFilter.MoveModuleEventFilter moveModule = new EventFilter.MoveModuleEventFilter();
+    moveModule.setModule(module);
+    assertFalse(EventPredicates.compile(moveModule).test(swap));
+    assertTrue(EventPredicates.compile(suiPackage).test(normalized));
+    module.setModule("pool");
+    assertTrue(EventPredicates.compile(moveModule).test(normalized));
+
+    assertTrue(EventPredicates.compile(field("/pool/id", "0xp1")).test(swap));
+    assertTrue(EventPredicates.compile(field("/amounts/0", 5)).test(swap));
+    assertFalse(EventPredicates.compile(field("/amounts/1", 5)).test(swap));
+    assertFalse(EventPredicates.compile(field("/pool/id/x", "0xp1")).test(swap));
+
+    final EventFilter.TimeRangeFilter.TimeRange range = new EventFilter.TimeRangeFilter.TimeRange();
+    range.setStart_time(1000L);
+    range.setEnd_time(2000L);
+    final EventFilter.TimeRangeFilter time = new EventFilter.TimeRangeFilter();
+    time.setTimeRange(range);
+    assertTrue(EventPredicates.compile(time).test(swap));
+
+    final EventFilter.AndEventFilter and = new EventFilter.AndEventFilter();
+    and.getAnd()[0] = sender("0xa");
+    and.getAnd()[1] = field("/pool/id", "0xp2");
+    assertFalse(EventPredicates.compile(and).test(swap));
+    final EventFilter.OrEventFilter or = new EventFilter.OrEventFilter();
+    or.getOr()[0] = sender("0xb");
+    or.getOr()[1] = type("0x2::pool::SwapEvent");
+    assertTrue(EventPredicates.compile(or).test(swap));
+
+    final EventFilter.AllEventFilter all = new EventFilter.AllEventFilter();
+    all.setAll(Lists.newArrayList(suiPackage, or, time));
+    assertTrue(EventPredicates.compile(all).test(swap));
+    final Predicate<SuiEvent> none = EventPredicates.compile(new EventFilter.AnyEventFilter());
+    assertFalse(none.test(swap));
+  }
+
+  /**
+   * One broad upstream subscription feeds every local filter.
+   *
+   * @throws Throwable the throwable
+   */
+  @Test
+  @DisplayName("Test multiplexing over one broad upstream subscription.")
+  void broadUpstream() throws Throwable {
+    final FakeEventClient upstream = new FakeEventClient();
+    final MultiplexingEventClient client =
+        new MultiplexingEventClient(upstream, new EventFilter.AllEventFilter());
+    final List<String> fromA = new ArrayList<>();
+    final List<String> fromAgain = new ArrayList<>();
+    final List<String> fromB = new ArrayList<>();
+    final List<SuiApiException> errors = new ArrayList<>();
+    final Disposable a = client.subscribeEvent(sender("0xa"), e -> fromA.add(e.getType()), null);
+    final Disposable again =
+        client.subscribeEvent(sender("0xa"), e -> fromAgain.add(e.getType()), null);
+    final Disposable b =
+        client.subscribeEvent(
+            sender("0xb"),
+            e -> {
+              fromB.add(e.getType());
+              throw new IllegalStateException("consumer failed");
+            },
+            errors::add);
+    assertEquals(1, upstream.subscriptions.size());
+    assertEquals(2, client.getGroupCount());
+
+    upstream.emit(event("0xa", "t1"));
+    upstream.emit(event("0xb", "t2"));
+    upstream.emit(event("0xb", "t3"));
+    upstream.emit(event("0xa", "t4"));
+    assertEquals(Lists.newArrayList("t1", "t4"), fromA);
+    assertEquals(Lists.newArrayList("t1", "t4"), fromAgain);
+    assertEquals(Lists.newArrayList("t2"), fromB);
+    assertEquals(1, errors.size());
+    assertEquals(1, client.getGroupCount());
+
+    a.dispose();
+    b.dispose();
+    assertEquals(0, upstream.disposed);
+    again.dispose();
+    assertEquals(1, upstream.disposed);
+    assertEquals(0, client.getGroupCount());
+  }
+
+  /** Equal filters share one upstream subscription, kept until the last subscriber leaves. */
+  @Test
+  @DisplayName("Test identical filters share an upstream subscription.")
+  void sharedUpstream() {
+    final FakeEventClient upstream = new FakeEventClient();
+    final MultiplexingEventClient client = new MultiplexingEventClient(upstream);
+    final Disposable first = client.subscribeEvent(type("0x2::pool::SwapEvent"), e -> {}, null);
+    final Disposable second = client.subscribeEvent(type("0x2::pool::SwapEvent"), e -> {}, null);
+    final Disposable other = client.subscribeEvent(sender("0xa"), e -> {}, null);
+    assertEquals(2, upstream.subscriptions.size());
+
+    first.dispose();
+    assertEquals(0, upstream.disposed);
+    second.dispose();
+    assertEquals(1, upstream.disposed);
+    other.dispose();
+    assertEquals(2, upstream.disposed);
+  }
+
+  private static SuiEvent event(String sender, String type) {
+    final EventId id = new EventId();
+    id.setTxDigest("tx");
+    id.setEventSeq(BigInteger.ZERO);
+    final SuiEvent event = new SuiEvent();
+    event.setId(id);
+    event.setPackageId("0x2");
+    event.setTransactionModule("pool");
+    event.setSender(sender);
+    event.setType(type);
+    event.setTimestampMs(BigInteger.valueOf(1500));
+    return event;
+  }
+
+  private static EventFilter sender(String sender) {
+    final EventFilter.SenderAddressEventFilter filter = new EventFilter.SenderAddressEventFilter();
+    filter.setSender(sender);
+    return filter;
+  }
+
+  private static EventFilter type(String type) {
+    final EventFilter.MoveEventTypeEventFilter filter = new EventFilter.MoveEventTypeEventFilter();
+    filter.setMoveEventType(type);
+    return filter;
+  }
+
+  private static EventFilter field(String path, Object value) {
+    final EventFilter.MoveEventField<Object> field = new EventFilter.MoveEventField<>();
+    field.setPath(path);
+    field.setValue(value);
+    final EventFilter.MoveEventFieldEventFilter filter =
+        new EventFilter.MoveEventFieldEventFilter();
+    filter.setMoveEventField(field);
+    return filter;
+  }
+
+  private static final class FakeEventClient implements EventClient {
+
+    private final List<Consumer<SuiEvent>> subscriptions = new ArrayList<>();
+
+    private int disposed;
+
+    @Override
+    public Disposable subscribeEvent(
+        EventFilter eventFilter, Consumer<SuiEvent> onNext, Consumer<SuiApiException> onError) {
+      subscriptions.add(onNext);
+      return Disposable.fromAction(() -> disposed++);
+    }
+
+    private void emit(SuiEvent event) throws Throwable {
+      for (Consumer<SuiEvent> subscription : subscriptions) {
+        subscription.accept(event);
+      }
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static io.sui.clients.CoinPages.coin;
+import static io.sui.clients.CoinPages.page;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.objects.Coin;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Paginator test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class PaginatorTest {
+
+  private final AtomicInteger pages = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private QueryClient queryClient;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"/suix_getAllCoins".equals(request.getPath())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            pages.incrementAndGet();
+            final String body = request.getBody().readUtf8();
+            if (body.contains("\"c1\"")) {
+              return page("[" + coin("0x3") + "," + coin("0x4") + "]", "c2", true);
+            }
+            if (body.contains("\"c2\"")) {
+              return page("[" + coin("0x5") + "]", "c3", false);
+            }
+            return page("[" + coin("0x1") + "," + coin("0x2") + "]", "c1", true);
+          }
+        });
+    mockWebServer.start();
+    queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""),
+                new GsonJsonHandler(),
+                new OkHttpJsonRpcClientOptions()));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /** Every item of every page is streamed in order. */
+  @Test
+  @DisplayName("Test paginator streams every page.")
+  void stream() {
+    try (Stream<Coin> coins = Paginator.allCoins(queryClient, "0xa", 2).stream()) {
+      assertEquals(
+          Lists.newArrayList("0x1", "0x2", "0x3", "0x4", "0x5"),
+          coins.map(Coin::getCoinObjectId).collect(Collectors.toList()));
+    }
+    assertEquals(3, pages.get());
+  }
+
+  /**
+   * The next page is requested while the current one is consumed, and no further.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test paginator prefetches exactly one page ahead.")
+  void prefetch() throws Exception {
+    final Iterator<Coin> coins = Paginator.allCoins(queryClient, "0xa", 2).iterator();
+    assertEquals("0x1", coins.next().getCoinObjectId());
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pages.get() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    assertEquals(2, pages.get());
+    assertEquals("0x2", coins.next().getCoinObjectId());
+    assertEquals("0x3", coins.next().getCoinObjectId());
+    assertEquals("0x4", coins.next().getCoinObjectId());
+    assertEquals("0x5", coins.next().getCoinObjectId());
+    assertFalse(coins.hasNext());
+    assertEquals(3, pages.get());
+  }
+
+  /** A scan can resume after a cursor. */
+  @Test
+  @DisplayName("Test paginator resumes after a cursor.")
+  void resume() {
+    final Paginator<Coin> coins =
+        Paginator.of(
+            "c1",
+            cursor -> queryClient.getAllCoins("0xa", cursor, 2),
+            page -> page.getData(),
+            page -> page.isHasNextPage() ? page.getNextCursor() : null);
+    assertTrue(coins.iterator().hasNext());
+    assertEquals(
+        Lists.newArrayList("0x3", "0x4", "0x5"),
+        coins.stream().map(Coin::getCoinObjectId).collect(Collectors.toList()));
+  }
+}
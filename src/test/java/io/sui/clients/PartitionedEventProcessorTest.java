@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.sui.models.events.EventFilter;
+import io.sui.models.events.EventId;
+import io.sui.models.events.SuiEvent;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Partitioned event processor test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class PartitionedEventProcessorTest {
+
+  private static final int POOLS = 8;
+
+  private static final int EVENTS = 400;
+
+  /**
+   * Events of one pool stay in order while pools spread over lanes.
+   *
+   * @throws Throwable the throwable
+   */
+  @Test
+  @DisplayName("Test per key order across parallel lanes.")
+  void perKeyOrder() throws Throwable {
+    final AtomicReference<Consumer<SuiEvent>> upstream = new AtomicReference<>();
+    final EventClient client =
+        (filter, onNext, onError) -> {
+          upstream.set(onNext);
+          return Disposable.empty();
+        };
+    final Map<String, List<Long>> handled = new ConcurrentHashMap<>();
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    final PartitionedEventProcessor processor =
+        new PartitionedEventProcessor(
+            client,
+            new EventFilter.AllEventFilter(),
+            PartitionedEventProcessor.byObjectId("/pool_id"),
+            4,
+            8);
+    processor.start(
+        event -> {
+          threads.add(Thread.currentThread().getName());
+          final String pool = (String) event.getParsedJson().get("pool_id");
+          handled
+              .computeIfAbsent(
+                  PartitionedEventProcessor.byObjectId("/pool_id").apply(event),
+                  k -> Collections.synchronizedList(new ArrayList<>()))
+              .add(event.getId().getEventSeq().longValue());
+          if (pool.endsWith("3")) {
+            throw new IllegalStateException("handler failure");
+          }
+        },
+        e -> {});
+
+    for (int i = 0; i < EVENTS; i++) {
+      // the same pool spelled two ways must share a lane
+      final String pool = (i % 2 == 0 ? "0x" : "0x000") + (i % POOLS);
+      upstream.get().accept(event(pool, i / POOLS));
+    }
+    processor.close();
+
+    assertEquals(POOLS, handled.size());
+    final List<Long> expected =
+        LongStream.range(0, EVENTS / POOLS).boxed().collect(Collectors.toList());
+    handled.values().forEach(seqs -> assertEquals(expected, seqs));
+    assertTrue(threads.size() > 1);
+
+    final List<PartitionedEventProcessor.LaneMetrics> metrics = processor.getLaneMetrics();
+    assertEquals(4, metrics.size());
+    assertEquals(EVENTS, metrics.stream().mapToLong(m -> m.getProcessed()).sum());
+    assertEquals(EVENTS / POOLS, metrics.stream().mapToLong(m -> m.getFailed()).sum());
+    metrics.forEach(
+        m -> {
+          assertEquals(0, m.getQueued());
+          assertEquals(0, m.getQueueDelayMillis());
+        });
+    assertNotNull(metrics.get(0).toString());
+  }
+
+  /**
+   * Closing keeps events already being queued, skips later ones and keeps an interrupt.
+   *
+   * @throws Throwable the throwable
+   */
+  @Test
+  @DisplayName("Test close drains in flight events.")
+  void closeDrainsInFlight() throws Throwable {
+    final AtomicReference<Consumer<SuiEvent>> upstream = new AtomicReference<>();
+    final EventClient client =
+        (filter, onNext, onError) -> {
+          upstream.set(onNext);
+          return Disposable.empty();
+        };
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<Long> handled = Collections.synchronizedList(new ArrayList<>());
+    final PartitionedEventProcessor processor =
+        new PartitionedEventProcessor(
+            client, new EventFilter.AllEventFilter(), PartitionedEventProcessor.bySender(), 1, 1);
+    processor.start(
+        event -> {
+          release.await();
+          handled.add(event.getId().getEventSeq().longValue());
+        },
+        e -> {});
+
+    upstream.get().accept(event("0x1", 0));
+    upstream.get().accept(event("0x1", 1));
+    final Thread blocked =
+        new Thread(
+            () -> {
+              try {
+                upstream.get().accept(event("0x1", 2));
+              } catch (Throwable throwable) {
+                throw new IllegalStateException(throwable);
+              }
+            });
+    blocked.start();
+    while (blocked.getState() != Thread.State.WAITING) {
+      Thread.sleep(5);
+    }
+
+    Thread.currentThread().interrupt();
+    processor.close();
+    assertTrue(Thread.interrupted());
+    upstream.get().accept(event("0x1", 3));
+
+    release.countDown();
+    blocked.join();
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (handled.size() < 3 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    Thread.sleep(50);
+    assertEquals(Lists.newArrayList(0L, 1L, 2L), handled);
+  }
+
+  /**
+   * A handler may close the processor on a poison event without waiting for its own lane.
+   *
+   * @throws Throwable the throwable
+   */
+  @Test
+  @DisplayName("Test close from a handler.")
+  void closeFromHandler() throws Throwable {
+    final AtomicReference<Consumer<SuiEvent>> upstream = new AtomicReference<>();
+    final EventClient client =
+        (filter, onNext, onError) -> {
+          upstream.set(onNext);
+          return Disposable.empty();
+        };
+    final CountDownLatch closed = new CountDownLatch(1);
+    final AtomicReference<PartitionedEventProcessor> processor = new AtomicReference<>();
+    processor.set(
+        new PartitionedEventProcessor(
+            client, new EventFilter.AllEventFilter(), PartitionedEventProcessor.bySender(), 2, 4));
+    processor
+        .get()
+        .start(
+            event -> {
+              processor.get().close();
+              closed.countDown();
+            },
+            e -> {});
+
+    upstream.get().accept(event("0x1", 0));
+    assertTrue(closed.await(5, TimeUnit.SECONDS));
+  }
+
+  private static SuiEvent event(String pool, long seq) {
+    final EventId id = new EventId();
+    id.setTxDigest("tx");
+    id.setEventSeq(BigInteger.valueOf(seq));
+    final SuiEvent event = new SuiEvent();
+    event.setId(id);
+    event.setPackageId("0x2");
+    event.setTransactionModule("pool");
+    event.setSender("0xa");
+    event.setType("0x2::pool::SwapEvent");
+    event.setParsedJson(ImmutableMap.of("pool_id", pool));
+    event.setTimestampMs(BigInteger.valueOf(1500));
+    return event;
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.objects.ObjectDataOptions;
+import io.sui.models.objects.SuiObjectRef;
+import io.sui.models.objects.SuiObjectResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Query client impl test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class QueryClientImplTest {
+
+  private static final String OBJECT_ID =
+      "0x0000000000000000000000000000000000000000000000000000000000000005";
+
+  private final AtomicInteger multiGets = new AtomicInteger();
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private ExecutorService executor;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if ("/sui_multiGetObjects".equals(request.getPath())) {
+              return multiGetObjects(request);
+            }
+            if (!"/sui_getObject".equals(request.getPath())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(
+                    "{\"jsonrpc\":\"2.0\",\"result\":{\"data\":{\"objectId\":\""
+                        + OBJECT_ID
+                        + "\",\"version\":\"3\",\"digest\":"
+                        + "\"5d6Z6kZ4P8nHzGkS9LqJcwdWnN2cHkPgnJqz4Y8ZrxvF\"}},\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+    executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("continuation-%d").build());
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    executor.shutdownNow();
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Cpu bound continuations are dispatched to the configured executor, accessors are not.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test continuations run on the executor.")
+  void continuationExecutor() throws Exception {
+    final AtomicInteger dispatched = new AtomicInteger();
+    final Executor counting =
+        command -> {
+          dispatched.incrementAndGet();
+          executor.execute(command);
+        };
+    final QueryClientImpl queryClient =
+        new QueryClientImpl(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler()),
+            counting);
+
+    queryClient.getObjectRef(OBJECT_ID, new ObjectDataOptions()).get(5, TimeUnit.SECONDS);
+    assertEquals(0, dispatched.get());
+
+    final TransactionBlock transactionBlock = new TransactionBlock(queryClient, counting);
+    transactionBlock.setSender(OBJECT_ID);
+    transactionBlock
+        .setGasData(Lists.newArrayList(OBJECT_ID), OBJECT_ID, 1000L, 1L)
+        .thenCompose(unused -> transactionBlock.build())
+        .get(5, TimeUnit.SECONDS);
+    assertTrue(dispatched.get() > 0);
+
+    final SuiObjectRef objectRef =
+        queryClient.getObjectRef(OBJECT_ID, new ObjectDataOptions()).get(5, TimeUnit.SECONDS);
+    assertEquals(OBJECT_ID, objectRef.getObjectId());
+    assertEquals(3L, objectRef.getVersion().longValue());
+  }
+
+  /**
+   * Large multi gets are chunked, run in parallel up to the cap and reassembled in order.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test multi get objects is chunked and keeps input order.")
+  void chunkedMultiGet() throws Exception {
+    final QueryClientImpl queryClient = queryClient(3, 2);
+    final List<String> ids = Lists.newArrayList("0x1", "0x2", "0x3", "0x4", "0x5", "0x6", "0x7");
+    final List<SuiObjectResponse> objects =
+        queryClient.multiGetObjects(ids, new ObjectDataOptions()).get(5, TimeUnit.SECONDS);
+    assertEquals(
+        ids,
+        objects.stream()
+            .map(object -> object.getData().getObjectId())
+            .collect(Collectors.toList()));
+    assertEquals(3, multiGets.get());
+    assertTrue(maxInFlight.get() <= 2);
+  }
+
+  /**
+   * A failing chunk is reported per id next to the results of the other chunks.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test multi get objects reports partial failures per id.")
+  void partialMultiGet() throws Exception {
+    final QueryClientImpl queryClient = queryClient(2, 4);
+    final ExecutionException exception =
+        assertThrows(
+            ExecutionException.class,
+            () ->
+                queryClient
+                    .multiGetObjects(
+                        Lists.newArrayList("0x1", "0x2", "0xbad", "0x4", "0x5"),
+                        new ObjectDataOptions())
+                    .get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof MultiGetException);
+    final MultiGetException multiGetException = (MultiGetException) exception.getCause();
+    assertEquals(Sets.newHashSet("0xbad", "0x4"), multiGetException.getFailures().keySet());
+    assertEquals(5, multiGetException.getResults().size());
+    assertNull(multiGetException.getResults().get(2));
+    assertEquals(
+        "0x5", ((SuiObjectResponse) multiGetException.getResults().get(4)).getData().getObjectId());
+  }
+
+  private QueryClientImpl queryClient(int chunkSize, int concurrency) {
+    return new QueryClientImpl(
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler()),
+        executor,
+        chunkSize,
+        concurrency);
+  }
+
+  private MockResponse multiGetObjects(RecordedRequest request) throws InterruptedException {
+    multiGets.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(50);
+      final JsonArray ids =
+          JsonParser.parseString(request.getBody().readUtf8())
+              .getAsJsonObject()
+              .getAsJsonArray("params")
+              .get(0)
+              .getAsJsonArray();
+      final List<String> objects = new ArrayList<>();
+      for (JsonElement id : ids) {
+        if ("0xbad".equals(id.getAsString())) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setBody(
+                  "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"bad\"},"
+                      + "\"id\":1}");
+        }
+        objects.add(
+            "{\"data\":{\"objectId\":\""
+                + id.getAsString()
+                + "\",\"version\":\"1\",\"digest\":\"d\"}}");
+      }
+      return new MockResponse()
+          .setResponseCode(200)
+          .setBody("{\"jsonrpc\":\"2.0\",\"result\":[" + String.join(",", objects) + "],\"id\":1}");
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+}
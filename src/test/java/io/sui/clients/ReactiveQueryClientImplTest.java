@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static io.sui.clients.CoinPages.coin;
+import static io.sui.clients.CoinPages.page;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import io.sui.jsonrpc.GsonJsonHandler;
+import io.sui.jsonrpc.OkHttpJsonRpcClientOptions;
+import io.sui.jsonrpc.OkHttpJsonRpcClientProvider;
+import io.sui.models.SuiApiException;
+import io.sui.models.objects.Coin;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Reactive query client impl test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class ReactiveQueryClientImplTest {
+
+  private final AtomicInteger pages = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private ReactiveQueryClient client;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            final String body = request.getBody().readUtf8();
+            if ("/suix_getAllCoins".equals(request.getPath())) {
+              pages.incrementAndGet();
+              if (body.contains("\"c1\"")) {
+                return page("[" + coin("0x3") + "," + coin("0x4") + "]", "c2", true);
+              }
+              if (body.contains("\"c2\"")) {
+                return page("[" + coin("0x5") + "]", "c3", false);
+              }
+              return page("[" + coin("0x1") + "," + coin("0x2") + "]", "c1", true);
+            }
+            if ("/suix_getReferenceGasPrice".equals(request.getPath())) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody(
+                      "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32602,\"message\":\"bad\"},"
+                          + "\"id\":1}");
+            }
+            return new MockResponse().setResponseCode(404);
+          }
+        });
+    mockWebServer.start();
+    client =
+        new ReactiveQueryClientImpl(
+            new QueryClientImpl(
+                new OkHttpJsonRpcClientProvider(
+                    mockWebServer.url("").toString().replaceAll("/$", ""),
+                    new GsonJsonHandler(),
+                    new OkHttpJsonRpcClientOptions())));
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * All pages are walked in order.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test paginated flowable walks every page.")
+  void paginate() throws Exception {
+    final List<String> ids =
+        client.getAllCoins("0xa", null, 2).map(Coin::getCoinObjectId).toList().blockingGet();
+    assertEquals(Lists.newArrayList("0x1", "0x2", "0x3", "0x4", "0x5"), ids);
+    assertEquals(3, pages.get());
+  }
+
+  /**
+   * Pages are only fetched as items are requested.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test paginated flowable honours backpressure.")
+  void backpressure() throws Exception {
+    final TestSubscriber<Coin> subscriber = client.getAllCoins("0xa", null, 2).test(1);
+    subscriber.awaitCount(1);
+    Thread.sleep(200);
+    subscriber.assertValueCount(1);
+    assertTrue(pages.get() <= 2);
+    subscriber.cancel();
+
+    final List<String> resumed =
+        client.getAllCoins("0xa", "c1", 2).map(Coin::getCoinObjectId).toList().blockingGet();
+    assertEquals(Lists.newArrayList("0x3", "0x4", "0x5"), resumed);
+  }
+
+  /**
+   * Json rpc errors are signalled as sui api exceptions.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test single signals api errors.")
+  void error() throws Exception {
+    client
+        .getReferenceGasPrice()
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertError(SuiApiException.class);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.clients;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bitcoinj.core.Base58;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Sui codec test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class SuiCodecTest {
+
+  private static final String ADDRESS =
+      "0x078ad0970cacfec86cd404e6382a86de441ec14c310e3f8c0e310733802f4992";
+
+  /** Address bytes match the hex decoding of the left padded address. */
+  @Test
+  @DisplayName("Test addressBytes.")
+  void addressBytes() {
+    for (String address : new String[] {ADDRESS, "0x2", "2", "0xABCdef"}) {
+      final List<Byte> expected =
+          Arrays.asList(
+              ArrayUtils.toObject(
+                  Hex.decode(
+                      StringUtils.leftPad(StringUtils.removeStart(address, "0x"), 64, "0"))));
+      assertEquals(expected, SuiCodec.addressBytes(address));
+    }
+  }
+
+  /** Addresses are interned and round trip through toAddress. */
+  @Test
+  @DisplayName("Test address interning.")
+  void interning() {
+    final List<Byte> bytes = SuiCodec.addressBytes(ADDRESS);
+    assertSame(bytes, SuiCodec.addressBytes(ADDRESS));
+    assertSame(SuiCodec.toAddress(bytes), SuiCodec.toAddress(bytes));
+    assertEquals(ADDRESS, SuiCodec.toAddress(bytes));
+    assertEquals(
+        "0x0000000000000000000000000000000000000000000000000000000000000002",
+        SuiCodec.toAddress(SuiCodec.addressBytes("0x2")));
+    assertEquals(
+        ADDRESS,
+        SuiCodec.toAddress(Arrays.asList(ArrayUtils.toObject(Hex.decode(ADDRESS.substring(2))))));
+  }
+
+  /** Digest bytes match base58 decoding. */
+  @Test
+  @DisplayName("Test digestBytes.")
+  void digestBytes() {
+    final String digest = "BsDTb4GLr8J8LqbH4uDDRhdQ4qQ6EtW13HvV1n7NioTx";
+    assertArrayEquals(Base58.decode(digest), SuiCodec.digestBytes(digest).content());
+    assertSame(SuiCodec.digestBytes(digest), SuiCodec.digestBytes(digest));
+  }
+
+  /** Hex routines write into caller buffers. */
+  @Test
+  @DisplayName("Test decodeHex and encodeHex.")
+  void hex() {
+    final byte[] bytes = new byte[4];
+    assertEquals(3, SuiCodec.decodeHex("00ff7a", bytes, 1));
+    assertArrayEquals(new byte[] {0, 0, (byte) 0xff, 0x7a}, bytes);
+
+    final char[] chars = new char[8];
+    assertEquals(8, SuiCodec.encodeHex(bytes, chars, 0));
+    assertEquals("0000ff7a", new String(chars));
+
+    assertThrows(IllegalArgumentException.class, () -> SuiCodec.addressBytes("0xzz"));
+    assertThrows(IllegalArgumentException.class, () -> SuiCodec.addressBytes(ADDRESS + "00"));
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.sui.jsonrpc.CircuitBreaker.State;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Circuit breaking json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class CircuitBreakingJsonRpcClientProviderTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private final AtomicBoolean down = new AtomicBoolean(true);
+
+  private MockWebServer mockWebServer;
+
+  private CircuitBreakingJsonRpcClientProvider provider;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            calls.incrementAndGet();
+            if (down.get()) {
+              return new MockResponse().setResponseCode(503);
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+    provider =
+        new CircuitBreakingJsonRpcClientProvider(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler()),
+            options());
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * The circuit opens on failures, fails fast and closes after a good probe.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test circuit opens, fails fast and recovers.")
+  void openAndRecover() throws Exception {
+    for (int i = 0; i < 4; i++) {
+      assertEquals(ErrorCode.FAILURE_RESPONSE, call().getError().getCode());
+    }
+    assertEquals(State.OPEN, provider.getCircuitBreaker().getState());
+
+    assertEquals(ErrorCode.CIRCUIT_OPEN, call().getError().getCode());
+    assertEquals(4, calls.get());
+
+    down.set(false);
+    Thread.sleep(150);
+    assertNull(call().getError());
+    assertEquals(State.CLOSED, provider.getCircuitBreaker().getState());
+    assertEquals(5, calls.get());
+  }
+
+  /** A failed probe opens the circuit again and only one probe is let through. */
+  @Test
+  @DisplayName("Test half open probes.")
+  void halfOpen() throws Exception {
+    final CircuitBreaker breaker = new CircuitBreaker(options());
+    for (int i = 0; i < 3; i++) {
+      breaker.onResult(breaker.tryAcquire(), 0, i == 0);
+    }
+    breaker.onResult(breaker.tryAcquire(), 0, true);
+    assertEquals(State.OPEN, breaker.getState());
+    assertNull(breaker.tryAcquire());
+
+    Thread.sleep(150);
+    final CircuitBreaker.Permit probe = breaker.tryAcquire();
+    assertTrue(probe.isProbe());
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertNull(breaker.tryAcquire());
+    breaker.onResult(probe, TimeUnit.SECONDS.toNanos(2), false);
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  /** Calls admitted before the circuit opened neither close it nor free a probe permit. */
+  @Test
+  @DisplayName("Test late results of earlier generations are ignored.")
+  void lateResults() throws Exception {
+    final CircuitBreaker breaker = new CircuitBreaker(options());
+    final CircuitBreaker.Permit late = breaker.tryAcquire();
+    final CircuitBreaker.Permit cancelled = breaker.tryAcquire();
+    assertFalse(late.isProbe());
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), 0, true);
+    }
+    assertEquals(State.OPEN, breaker.getState());
+
+    Thread.sleep(150);
+    final CircuitBreaker.Permit probe = breaker.tryAcquire();
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    breaker.onResult(late, 0, false);
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    breaker.onCancelled(cancelled);
+    assertNull(breaker.tryAcquire());
+
+    breaker.onCancelled(probe);
+    final CircuitBreaker.Permit retried = breaker.tryAcquire();
+    breaker.onResult(retried, 0, false);
+    assertEquals(State.CLOSED, breaker.getState());
+    breaker.onResult(probe, TimeUnit.SECONDS.toNanos(2), true);
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  private static CircuitBreakingJsonRpcClientOptions options() {
+    final CircuitBreakingJsonRpcClientOptions options = new CircuitBreakingJsonRpcClientOptions();
+    options.setWindowSize(4);
+    options.setMinimumCalls(4);
+    options.setSlowCallDuration(Duration.ofSeconds(1));
+    options.setOpenDuration(Duration.ofMillis(100));
+    options.setHalfOpenCalls(1);
+    return options;
+  }
+
+  private JsonRpc20Response<Long> call() throws Exception {
+    return provider
+        .<Long>call(
+            provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+            "/sui_getObject",
+            new TypeToken<Long>() {}.getType())
+        .get(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Concurrency limiting json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class ConcurrencyLimitingJsonRpcClientProviderTest {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private MockWebServer mockWebServer;
+
+  private OkHttpJsonRpcClientProvider okHttpProvider;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+    okHttpProvider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler());
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Saturated calls are rejected at once without queue.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test calls over the limit fail fast.")
+  void failFast() throws Exception {
+    try (ConcurrencyLimitingJsonRpcClientProvider provider = provider(Duration.ZERO)) {
+      int rejected = 0;
+      for (JsonRpc20Response<Long> response : callAll(provider, 5)) {
+        if (response.getError() != null) {
+          assertEquals(ErrorCode.LIMIT_EXCEEDED, response.getError().getCode());
+          rejected++;
+        }
+      }
+      assertEquals(3, rejected);
+      assertEquals(0, provider.getInFlight());
+    }
+  }
+
+  /**
+   * Saturated calls wait for a slot and drop their expiry timers once done.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test calls over the limit are queued.")
+  void queue() throws Exception {
+    try (ConcurrencyLimitingJsonRpcClientProvider provider = provider(Duration.ofSeconds(5))) {
+      for (JsonRpc20Response<Long> response : callAll(provider, 6)) {
+        assertEquals(1L, response.getResult().longValue());
+      }
+      assertEquals(2, maxInFlight.get());
+      assertEquals(0, provider.getInFlight());
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+      while (provider.pendingExpiries() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(0, provider.pendingExpiries());
+    }
+  }
+
+  /** Limits follow the latency and drop signals. */
+  @Test
+  @DisplayName("Test adaptive limits.")
+  void limits() {
+    final ConcurrencyLimit aimd = ConcurrencyLimit.aimd(10, 1, 20, TimeUnit.SECONDS.toNanos(1));
+    aimd.onSample(TimeUnit.MILLISECONDS.toNanos(10), 10, false);
+    assertEquals(11, aimd.getLimit());
+    aimd.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+    assertEquals(11, aimd.getLimit());
+    aimd.onSample(TimeUnit.SECONDS.toNanos(2), 10, false);
+    assertTrue(aimd.getLimit() < 11);
+
+    final ConcurrencyLimit gradient = ConcurrencyLimit.gradient(20, 1, 100);
+    for (int i = 0; i < 50; i++) {
+      gradient.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20, false);
+    }
+    final int steady = gradient.getLimit();
+    assertTrue(steady > 20);
+    for (int i = 0; i < 20; i++) {
+      gradient.onSample(TimeUnit.MILLISECONDS.toNanos(100), steady, false);
+    }
+    assertTrue(gradient.getLimit() < steady);
+  }
+
+  private ConcurrencyLimitingJsonRpcClientProvider provider(Duration maxQueueTime) {
+    final ConcurrencyLimitingJsonRpcClientOptions options =
+        new ConcurrencyLimitingJsonRpcClientOptions();
+    options.setLimit(ConcurrencyLimit.aimd(2, 2, 2, TimeUnit.SECONDS.toNanos(10)));
+    options.setMaxQueueTime(maxQueueTime);
+    return new ConcurrencyLimitingJsonRpcClientProvider(okHttpProvider, options);
+  }
+
+  private List<JsonRpc20Response<Long>> callAll(
+      ConcurrencyLimitingJsonRpcClientProvider provider, int count) throws Exception {
+    final List<CompletableFuture<JsonRpc20Response<Long>>> futures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      futures.add(
+          provider.call(
+              provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+              "/sui_getObject",
+              new TypeToken<Long>() {}.getType()));
+    }
+    final List<JsonRpc20Response<Long>> responses = new ArrayList<>();
+    for (CompletableFuture<JsonRpc20Response<Long>> future : futures) {
+      responses.add(future.get(10, TimeUnit.SECONDS));
+    }
+    return responses;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParser;
+import io.sui.models.events.SuiEvent;
+import io.sui.models.objects.SuiParsedData;
+import io.sui.models.objects.SuiParsedData.MoveObject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Gson json handler test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class GsonJsonHandlerTest {
+
+  private static final String PARSED_JSON =
+      "{\"pool_id\":\"0x5eb2\",\"amount_in\":\"1000\",\"a2b\":true,\"price\":1.5,"
+          + "\"ticks\":[1,-2,3],\"extra\":null,\"nested\":{\"id\":{\"id\":\"0x1\"}}}";
+
+  private final GsonJsonHandler jsonHandler = new GsonJsonHandler();
+
+  /** The type Swap event. */
+  static class SwapEvent {
+
+    String pool_id;
+
+    String amount_in;
+
+    boolean a2b;
+
+    double price;
+  }
+
+  /** Test parsed json is kept raw until first access. */
+  @Test
+  @DisplayName("Test event parsed json is decoded lazily.")
+  void lazyParsedJson() {
+    final SuiEvent event =
+        jsonHandler.fromJsonValue(
+            "{\"type\":\"0x1::pool::SwapEvent\",\"sender\":\"0x2\",\"parsedJson\":"
+                + PARSED_JSON
+                + ",\"bcs\":\"3yT\"}",
+            SuiEvent.class);
+    assertEquals("0x1::pool::SwapEvent", event.getType());
+    assertFalse(event.getLazyParsedJson().isMaterialized());
+    assertEquals(PARSED_JSON, event.getLazyParsedJson().getRaw());
+
+    final SwapEvent swap = event.getLazyParsedJson().as(SwapEvent.class);
+    assertEquals("0x5eb2", swap.pool_id);
+    assertTrue(swap.a2b);
+    assertEquals(1.5, swap.price);
+    assertFalse(event.getLazyParsedJson().isMaterialized());
+
+    final Map<String, Object> eager = jsonHandler.fromJsonMap(PARSED_JSON);
+    assertEquals(eager, event.getParsedJson());
+    assertTrue(event.getLazyParsedJson().isMaterialized());
+    assertEquals(-2L, ((List<?>) event.getParsedJson().get("ticks")).get(1));
+
+    final SuiEvent copy = new SuiEvent();
+    copy.setParsedJson(eager);
+    assertEquals(copy.getLazyParsedJson(), event.getLazyParsedJson());
+    final SwapEvent bound = copy.getLazyParsedJson().as(SwapEvent.class);
+    assertEquals("0x5eb2", bound.pool_id);
+    assertEquals(1.5, bound.price);
+    assertEquals(PARSED_JSON, jsonHandler.toJsonValue(event.getLazyParsedJson()));
+  }
+
+  /** Test move object fields are streamed without building the map. */
+  @Test
+  @DisplayName("Test move object fields are decoded lazily.")
+  void lazyMoveObjectFields() {
+    final SuiParsedData data =
+        jsonHandler.fromJsonValue(
+            "{\"fields\":"
+                + PARSED_JSON
+                + ",\"type\":\"0x1::pool::Pool\",\"hasPublicTransfer\":true,"
+                + "\"dataType\":\"moveObject\"}",
+            SuiParsedData.class);
+    assertTrue(data instanceof MoveObject);
+    final MoveObject moveObject = (MoveObject) data;
+    assertEquals("0x1::pool::Pool", moveObject.getType());
+    assertTrue(moveObject.isHasPublicTransfer());
+    assertFalse(moveObject.getLazyFields().isMaterialized());
+    assertEquals(jsonHandler.fromJsonMap(PARSED_JSON), moveObject.getFields());
+
+    final SuiParsedData packageObject =
+        jsonHandler.fromJsonValue(
+            "{\"dataType\":\"package\",\"disassembled\":{\"pool\":\"module pool\"}}",
+            SuiParsedData.class);
+    assertEquals(
+        "module pool", ((SuiParsedData.PackageObject) packageObject).getDisassembled().get("pool"));
+  }
+
+  /** Test the deprecated parsed data deserializer still reads through the streaming adapter. */
+  @Test
+  @DisplayName("Test deprecated parsed data deserializer delegates.")
+  void deprecatedParsedDataDeserializer() {
+    @SuppressWarnings("deprecation")
+    final GsonJsonHandler.SuiParsedDataDeserializer deserializer =
+        jsonHandler.new SuiParsedDataDeserializer();
+    final SuiParsedData data =
+        deserializer.deserialize(
+            JsonParser.parseString(
+                "{\"fields\":"
+                    + PARSED_JSON
+                    + ",\"type\":\"0x1::pool::Pool\","
+                    + "\"dataType\":\"moveObject\"}"),
+            SuiParsedData.class,
+            null);
+    assertEquals(jsonHandler.fromJsonMap(PARSED_JSON), ((MoveObject) data).getFields());
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Hedging json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class HedgingJsonRpcClientProviderTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private volatile int slowCall = -1;
+
+  private MockWebServer mockWebServer;
+
+  private HedgingJsonRpcClientProvider provider;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            final MockResponse response =
+                new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+            if (calls.incrementAndGet() == slowCall) {
+              response.setBodyDelay(3, TimeUnit.SECONDS);
+            }
+            return response;
+          }
+        });
+    mockWebServer.start();
+    final HedgingJsonRpcClientOptions options = new HedgingJsonRpcClientOptions();
+    options.setMinSamples(5);
+    options.setMinHedgeDelay(Duration.ofMillis(300));
+    provider =
+        new HedgingJsonRpcClientProvider(
+            new OkHttpJsonRpcClientProvider(
+                mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler()),
+            options);
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    provider.close();
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * A slow read is answered by its hedge.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test slow read is hedged.")
+  void hedgeSlowRead() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      assertEquals(1L, call("sui_getObject").longValue());
+    }
+    assertEquals(0, provider.getHedges());
+
+    slowCall = calls.get() + 1;
+    final long start = System.nanoTime();
+    assertEquals(1L, call("sui_getObject").longValue());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    assertEquals(1, provider.getHedges());
+    assertTrue(
+        provider.latency("sui_getObject", 1.0) >= TimeUnit.MILLISECONDS.toNanos(300),
+        "the hedged call records its latency from the start of the call");
+  }
+
+  /**
+   * Writes are never hedged.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test writes are not hedged.")
+  void noWriteHedge() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      call(JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK);
+    }
+    slowCall = calls.get() + 1;
+    call(JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK);
+    assertEquals(0, provider.getHedges());
+    assertEquals(6, calls.get());
+  }
+
+  private Long call(String method) throws Exception {
+    return provider
+        .<Long>callAndUnwrapResponse(
+            "/" + method,
+            provider.createJsonRpc20Request(method, Lists.newArrayList()),
+            new TypeToken<Long>() {}.getType())
+        .get(10, TimeUnit.SECONDS);
+  }
+}
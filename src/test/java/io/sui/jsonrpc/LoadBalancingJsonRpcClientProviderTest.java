@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Load balancing json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class LoadBalancingJsonRpcClientProviderTest {
+
+  private final AtomicInteger goodCalls = new AtomicInteger();
+
+  private final AtomicInteger badCalls = new AtomicInteger();
+
+  private final AtomicBoolean badIsDown = new AtomicBoolean(true);
+
+  private MockWebServer good;
+
+  private MockWebServer bad;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    good = server(goodCalls, new AtomicBoolean(false));
+    bad = server(badCalls, badIsDown);
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    good.shutdown();
+    bad.shutdown();
+  }
+
+  /**
+   * Reads fail over and the failing node gets ejected.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test read failover and outlier ejection.")
+  void failover() throws Exception {
+    final LoadBalancingJsonRpcClientOptions options = new LoadBalancingJsonRpcClientOptions();
+    options.setSelector(EndpointSelector.roundRobin());
+    options.setConsecutiveFailuresToEject(2);
+    options.setHealthCheckInterval(Duration.ZERO);
+    try (LoadBalancingJsonRpcClientProvider provider = provider(options)) {
+      for (int i = 0; i < 10; i++) {
+        assertEquals(1L, read(provider).longValue());
+      }
+      assertEquals(2, badCalls.get());
+      assertEquals(10, goodCalls.get());
+      assertTrue(provider.getEndpoints().get(1).isEjected(System.nanoTime()));
+      assertFalse(provider.getEndpoints().get(0).isEjected(System.nanoTime()));
+      assertEquals(0, provider.getEndpoints().get(1).getLatencyEwmaNanos());
+      assertTrue(provider.getEndpoints().get(0).getLatencyEwmaNanos() > 0);
+    }
+  }
+
+  /**
+   * Writes are never sent twice.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test writes do not fail over.")
+  void noWriteFailover() throws Exception {
+    final LoadBalancingJsonRpcClientOptions options = new LoadBalancingJsonRpcClientOptions();
+    options.setSelector(EndpointSelector.roundRobin());
+    options.setHealthCheckInterval(Duration.ZERO);
+    try (LoadBalancingJsonRpcClientProvider provider = provider(options)) {
+      int failures = 0;
+      for (int i = 0; i < 4; i++) {
+        final JsonRpc20Response<Long> response =
+            provider
+                .<Long>call(
+                    provider.createJsonRpc20Request(
+                        JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK, Lists.newArrayList()),
+                    "/" + JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK,
+                    new TypeToken<Long>() {}.getType())
+                .get(5, TimeUnit.SECONDS);
+        if (response.getError() != null) {
+          assertEquals(ErrorCode.FAILURE_RESPONSE, response.getError().getCode());
+          failures++;
+        }
+      }
+      assertEquals(2, failures);
+      assertEquals(4, goodCalls.get() + badCalls.get());
+    }
+  }
+
+  /**
+   * Health checks bring an ejected node back.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test health check reinstates endpoints.")
+  void healthCheck() throws Exception {
+    final LoadBalancingJsonRpcClientOptions options = new LoadBalancingJsonRpcClientOptions();
+    options.setConsecutiveFailuresToEject(1);
+    options.setHealthCheckInterval(Duration.ofMillis(100));
+    try (LoadBalancingJsonRpcClientProvider provider = provider(options)) {
+      final JsonRpcEndpoint endpoint = provider.getEndpoints().get(1);
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!endpoint.isEjected(System.nanoTime()) && System.nanoTime() < deadline) {
+        Thread.sleep(20);
+      }
+      assertTrue(endpoint.isEjected(System.nanoTime()));
+
+      badIsDown.set(false);
+      while (endpoint.isEjected(System.nanoTime()) && System.nanoTime() < deadline) {
+        Thread.sleep(20);
+      }
+      assertFalse(endpoint.isEjected(System.nanoTime()));
+      assertNull(
+          provider
+              .call(
+                  provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+                  "/sui_getObject",
+                  new TypeToken<Long>() {}.getType())
+              .get(5, TimeUnit.SECONDS)
+              .getError());
+    }
+  }
+
+  private LoadBalancingJsonRpcClientProvider provider(LoadBalancingJsonRpcClientOptions options) {
+    return new LoadBalancingJsonRpcClientProvider(
+        Lists.newArrayList(baseUrl(good), baseUrl(bad)),
+        new GsonJsonHandler(),
+        new OkHttpJsonRpcClientOptions(),
+        options);
+  }
+
+  private Long read(LoadBalancingJsonRpcClientProvider provider) throws Exception {
+    return provider
+        .<Long>callAndUnwrapResponse(
+            "/sui_getTotalTransactionBlocks",
+            provider.createJsonRpc20Request("sui_getTotalTransactionBlocks", Lists.newArrayList()),
+            new TypeToken<Long>() {}.getType())
+        .get(5, TimeUnit.SECONDS);
+  }
+
+  private static String baseUrl(MockWebServer server) {
+    return server.url("").toString().replaceAll("/$", "");
+  }
+
+  private static MockWebServer server(AtomicInteger calls, AtomicBoolean down) throws IOException {
+    final MockWebServer server = new MockWebServer();
+    server.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            calls.incrementAndGet();
+            if (down.get()) {
+              return new MockResponse().setResponseCode(503);
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+          }
+        });
+    server.start();
+    return server;
+  }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import io.sui.models.SuiApiException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Ok http json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class OkHttpJsonRpcClientProviderTest {
+
+  private static final int CALLS = 32;
+
+  private static final int NOTIFICATIONS = 50;
+
+  private static final Pattern REQUEST_ID = Pattern.compile("\"id\":(\\d+)");
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final AtomicBoolean upgradeWebSocket = new AtomicBoolean();
+
+  private final AtomicBoolean subscriptionInPayload = new AtomicBoolean();
+
+  private MockWebServer mockWebServer;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (upgradeWebSocket.get() && "websocket".equals(request.getHeader("Upgrade"))) {
+              return new MockResponse()
+                  .withWebSocketUpgrade(new SubscriptionServer(subscriptionInPayload.get()));
+            }
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            if ("/slow".equals(request.getPath())) {
+              Thread.sleep(2000);
+            } else if ("/critical".equals(request.getPath())) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody("{\"jsonrpc\":\"2.0\",\"result\":2,\"id\":1}");
+            } else {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              release.await(10, TimeUnit.SECONDS);
+              inFlight.decrementAndGet();
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Load test, the default OkHttp dispatcher caps one host at 5 in-flight calls.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test dispatcher max requests per host is honored.")
+  void concurrency() throws Exception {
+    final OkHttpJsonRpcClientOptions options = new OkHttpJsonRpcClientOptions();
+    options.setMaxRequests(CALLS);
+    options.setMaxRequestsPerHost(CALLS);
+    options.setMaxIdleConnections(CALLS);
+    final OkHttpJsonRpcClientProvider provider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler(), options);
+
+    final List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < CALLS; i++) {
+      futures.add(
+          provider.callAndUnwrapResponse(
+              "/fast",
+              provider.createJsonRpc20Request(
+                  "sui_getTotalTransactionBlocks", Lists.newArrayList()),
+              new TypeToken<Long>() {}.getType()));
+    }
+
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (inFlight.get() < CALLS && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+    System.out.println("achieved concurrency " + maxInFlight.get());
+    assertEquals(CALLS, maxInFlight.get());
+  }
+
+  /**
+   * Per method timeouts fail only the configured method.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test per method timeout.")
+  void methodTimeout() throws Exception {
+    final OkHttpJsonRpcClientOptions options = new OkHttpJsonRpcClientOptions();
+    options.setMethodTimeout("sui_getObject", Duration.ofMillis(200));
+    final OkHttpJsonRpcClientProvider provider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler(), options);
+
+    final JsonRpc20Response<Long> response =
+        provider
+            .<Long>call(
+                provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+                "/slow",
+                new TypeToken<Long>() {}.getType())
+            .get(5, TimeUnit.SECONDS);
+    assertEquals(ErrorCode.IO_ERROR, response.getError().getCode());
+    assertTrue(response.getThrowable() instanceof IOException);
+  }
+
+  /**
+   * Bulk scans saturating their lane do not delay transaction execution.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test priority lanes.")
+  void priorityLanes() throws Exception {
+    final OkHttpJsonRpcClientOptions options = new OkHttpJsonRpcClientOptions();
+    options.setMaxRequests(2);
+    options.setMaxRequestsPerHost(2);
+    options.getLaneMaxRequests().put(RequestPriority.BULK, 2);
+    final OkHttpJsonRpcClientProvider provider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler(), options);
+
+    final List<CompletableFuture<Long>> scans = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      scans.add(
+          provider.callAndUnwrapResponse(
+              "/fast",
+              provider.createJsonRpc20Request("suix_getOwnedObjects", Lists.newArrayList()),
+              new TypeToken<Long>() {}.getType()));
+    }
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (inFlight.get() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    final Long executed =
+        provider
+            .<Long>callAndUnwrapResponse(
+                "/critical",
+                provider.createJsonRpc20Request(
+                    JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK, Lists.newArrayList()),
+                new TypeToken<Long>() {}.getType())
+            .get(2, TimeUnit.SECONDS);
+    assertEquals(2L, executed.longValue());
+    assertEquals(2, maxInFlight.get());
+
+    release.countDown();
+    CompletableFuture.allOf(scans.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    assertEquals(RequestPriority.BULK, RequestPriority.of("suix_queryEvents"));
+    assertEquals(RequestPriority.NORMAL, RequestPriority.of("sui_getObject"));
+  }
+
+  /**
+   * A call past its deadline fails and frees its dispatcher slot.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test deadline cancels the call.")
+  void deadline() throws Exception {
+    final OkHttpJsonRpcClientOptions options = new OkHttpJsonRpcClientOptions();
+    options.setMaxRequests(1);
+    options.setMaxRequestsPerHost(1);
+    final OkHttpJsonRpcClientProvider provider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler(), options);
+
+    final ExecutionException e =
+        assertThrows(
+            ExecutionException.class,
+            () ->
+                provider
+                    .callWithDeadline(
+                        "/fast",
+                        provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+                        new TypeToken<Long>() {}.getType(),
+                        Duration.ofMillis(200))
+                    .get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof SuiApiException);
+    assertTrue(e.getCause().getCause() instanceof TimeoutException);
+
+    final Long result =
+        provider
+            .<Long>callAndUnwrapResponse(
+                "/critical",
+                provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+                new TypeToken<Long>() {}.getType())
+            .get(2, TimeUnit.SECONDS);
+    assertEquals(2L, result.longValue());
+
+    final Long answered =
+        provider
+            .<Long>callWithDeadline(
+                "/critical",
+                provider.createJsonRpc20Request("sui_getObject", Lists.newArrayList()),
+                new TypeToken<Long>() {}.getType(),
+                Duration.ofMinutes(10))
+            .get(2, TimeUnit.SECONDS);
+    assertEquals(2L, answered.longValue());
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+    while (JsonRpcClientProvider.pendingDeadlines() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, JsonRpcClientProvider.pendingDeadlines());
+    release.countDown();
+  }
+
+  /**
+   * Notifications are decoded and delivered by the dispatch workers, in order per subscription.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test subscription notifications are dispatched in order off the reader thread.")
+  void subscriptionDispatch() throws Exception {
+    dispatchInOrder(2);
+  }
+
+  /**
+   * A field named subscription in the event does not move notifications to another worker.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test a subscription field in the event payload does not break dispatch order.")
+  void subscriptionFieldInPayload() throws Exception {
+    subscriptionInPayload.set(true);
+    dispatchInOrder(4);
+    assertEquals(
+        "7",
+        OkHttpJsonRpcClientProvider.subscriptionOf(
+            "{\"params\":{\"result\":{\"subscription\":3},\"subscription\":7}}"));
+    assertNull(OkHttpJsonRpcClientProvider.subscriptionOf("{\"result\":{\"subscription\":3}}"));
+    assertNull(OkHttpJsonRpcClientProvider.subscriptionOf("{\"params\":"));
+  }
+
+  private void dispatchInOrder(int workers) throws Exception {
+    upgradeWebSocket.set(true);
+    final OkHttpJsonRpcClientOptions options = new OkHttpJsonRpcClientOptions();
+    options.setSubscriptionWorkers(workers);
+    options.setSubscriptionRingSize(8);
+    final OkHttpJsonRpcClientProvider provider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler(), options);
+    assertEquals(0, provider.dispatchWorkers());
+
+    final Map<String, List<Long>> received = new ConcurrentHashMap<>();
+    final Map<String, String> threads = new ConcurrentHashMap<>();
+    final CountDownLatch done = new CountDownLatch(2 * NOTIFICATIONS);
+    final List<Disposable> disposables = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      disposables.add(
+          provider.subscribe(
+              provider.createJsonRpc20Request("suix_subscribeEvent", Lists.newArrayList()),
+              event -> {
+                final String digest = event.getId().getTxDigest();
+                received
+                    .computeIfAbsent(digest, k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(event.getId().getEventSeq().longValue());
+                threads.put(Thread.currentThread().getName(), digest);
+                done.countDown();
+              },
+              e -> {}));
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(2, received.size());
+    final List<Long> expected =
+        LongStream.range(0, NOTIFICATIONS).boxed().collect(Collectors.toList());
+    received.values().forEach(events -> assertEquals(expected, events));
+    threads.keySet().forEach(name -> assertTrue(name.startsWith("sui-ws-dispatch-"), name));
+    assertEquals(workers, provider.dispatchWorkers());
+    disposables.forEach(Disposable::dispose);
+    provider.close();
+  }
+
+  /** The type Subscription server, replying to subscribe requests with a burst of events. */
+  private static class SubscriptionServer extends WebSocketListener {
+
+    private final boolean subscriptionInPayload;
+
+    private SubscriptionServer(boolean subscriptionInPayload) {
+      this.subscriptionInPayload = subscriptionInPayload;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket, Response response) {}
+
+    @Override
+    public void onClosing(WebSocket webSocket, int code, String reason) {
+      webSocket.close(code, null);
+    }
+
+    @Override
+    public void onMessage(WebSocket webSocket, String text) {
+      final Matcher matcher = REQUEST_ID.matcher(text);
+      if (!matcher.find()) {
+        return;
+      }
+      final long id = Long.parseLong(matcher.group(1));
+      if (!text.contains("suix_subscribeEvent")) {
+        webSocket.send(String.format("{\"jsonrpc\":\"2.0\",\"result\":true,\"id\":%d}", id));
+        return;
+      }
+      final long subscription = 100 + id;
+      webSocket.send(
+          String.format("{\"jsonrpc\":\"2.0\",\"result\":%d,\"id\":%d}", subscription, id));
+      for (int i = 0; i < NOTIFICATIONS; i++) {
+        final String result =
+            String.format(
+                "{\"id\":{\"txDigest\":\"sub%d\",\"eventSeq\":\"%d\"},\"type\":\"0x2::m::E\","
+                    + "\"parsedJson\":{%s}}",
+                subscription, i, subscriptionInPayload ? "\"subscription\":" + i : "");
+        webSocket.send(
+            String.format(
+                "{\"jsonrpc\":\"2.0\",\"method\":\"suix_subscribeEvent\",\"params\":%s}",
+                subscriptionInPayload
+                    ? String.format("{\"result\":%s,\"subscription\":%d}", result, subscription)
+                    : String.format("{\"subscription\":%d,\"result\":%s}", subscription, result)));
+      }
+    }
+  }
+}
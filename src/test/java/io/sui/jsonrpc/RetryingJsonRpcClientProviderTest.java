@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.sui.jsonrpc.JsonRpc20Response.Error.ErrorCode;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Retrying json rpc client provider test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class RetryingJsonRpcClientProviderTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private final AtomicInteger failuresLeft = new AtomicInteger();
+
+  private final AtomicBoolean malformed = new AtomicBoolean();
+
+  private MockWebServer mockWebServer;
+
+  private OkHttpJsonRpcClientProvider okHttpProvider;
+
+  /**
+   * Before each.
+   *
+   * @throws IOException the io exception
+   */
+  @BeforeEach
+  void beforeEach() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!"POST".equals(request.getMethod())) {
+              return new MockResponse().setResponseCode(404);
+            }
+            calls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+              return new MockResponse().setResponseCode(503);
+            }
+            if (malformed.get()) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody("{\"jsonrpc\":\"2.0\",\"result\":\"one\",\"id\":1}");
+            }
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"jsonrpc\":\"2.0\",\"result\":1,\"id\":1}");
+          }
+        });
+    mockWebServer.start();
+    okHttpProvider =
+        new OkHttpJsonRpcClientProvider(
+            mockWebServer.url("").toString().replaceAll("/$", ""), new GsonJsonHandler());
+  }
+
+  /**
+   * After each.
+   *
+   * @throws IOException the io exception
+   */
+  @AfterEach
+  void afterEach() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  /**
+   * Reads and execution are retried until they succeed.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test idempotent methods are retried.")
+  void retryIdempotent() throws Exception {
+    try (RetryingJsonRpcClientProvider provider = provider(10)) {
+      failuresLeft.set(2);
+      assertNull(call(provider, "suix_getCoins").getError());
+      assertEquals(3, calls.get());
+
+      failuresLeft.set(1);
+      assertNull(call(provider, JsonRpcMethods.EXECUTE_TRANSACTION_BLOCK).getError());
+      assertEquals(5, calls.get());
+      assertEquals(3, provider.getRetries());
+    }
+  }
+
+  /**
+   * Other methods fail on the first transport failure.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test non idempotent methods are not retried.")
+  void noRetry() throws Exception {
+    try (RetryingJsonRpcClientProvider provider = provider(10)) {
+      failuresLeft.set(1);
+      assertEquals(
+          ErrorCode.FAILURE_RESPONSE, call(provider, "unsafe_moveCall").getError().getCode());
+      assertEquals(1, calls.get());
+      assertEquals(0, provider.getRetries());
+    }
+  }
+
+  /**
+   * A response that fails to decode is not sent again.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test decode failures are not retried.")
+  void noRetryDecodeFailure() throws Exception {
+    try (RetryingJsonRpcClientProvider provider = provider(10)) {
+      malformed.set(true);
+      assertThrows(ExecutionException.class, () -> call(provider, "sui_getObject"));
+      assertEquals(1, calls.get());
+      assertEquals(0, provider.getRetries());
+    }
+  }
+
+  /**
+   * The budget stops retries once spent.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test retry budget.")
+  void retryBudget() throws Exception {
+    try (RetryingJsonRpcClientProvider provider = provider(1)) {
+      failuresLeft.set(10);
+      assertEquals(
+          ErrorCode.FAILURE_RESPONSE, call(provider, "sui_getObject").getError().getCode());
+      assertEquals(2, calls.get());
+      assertEquals(1, provider.getRetries());
+    }
+  }
+
+  private RetryingJsonRpcClientProvider provider(int burst) {
+    final RetryingJsonRpcClientOptions options = new RetryingJsonRpcClientOptions();
+    options.setInitialBackoff(Duration.ofMillis(10));
+    options.setRetryBudgetBurst(burst);
+    options.setRetryBudgetRatio(0);
+    return new RetryingJsonRpcClientProvider(okHttpProvider, options);
+  }
+
+  private JsonRpc20Response<Long> call(RetryingJsonRpcClientProvider provider, String method)
+      throws Exception {
+    return provider
+        .<Long>call(
+            provider.createJsonRpc20Request(method, Lists.newArrayList()),
+            "/" + method,
+            new TypeToken<Long>() {}.getType())
+        .get(10, TimeUnit.SECONDS);
+  }
+}
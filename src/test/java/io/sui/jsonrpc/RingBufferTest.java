@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2023 281165273grape@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.sui.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Ring buffer test.
+ *
+ * @author grapebaba
+ * @since 2023.04
+ */
+class RingBufferTest {
+
+  private static final int MESSAGES = 20_000;
+
+  /**
+   * Every wait strategy hands all elements over in order through a ring smaller than the stream.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test ring buffer hands off in order with every wait strategy.")
+  void handoff() throws Exception {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      final RingBuffer<Integer> ring = new RingBuffer<>(60, waitStrategy);
+      assertEquals(64, ring.capacity());
+      final AtomicReference<String> failure = new AtomicReference<>();
+      final Thread consumer =
+          new Thread(
+              () -> {
+                try {
+                  int expected = 0;
+                  Integer element;
+                  while ((element = ring.take()) != null) {
+                    if (element != expected++) {
+                      failure.set(String.format("%s got %d", waitStrategy, element));
+                      return;
+                    }
+                  }
+                  if (expected != MESSAGES) {
+                    failure.set(String.format("%s ended at %d", waitStrategy, expected));
+                  }
+                } catch (InterruptedException e) {
+                  failure.set(e.toString());
+                }
+              });
+      consumer.start();
+      for (int i = 0; i < MESSAGES; i++) {
+        ring.publish(i);
+      }
+      ring.close();
+      consumer.join(10_000);
+      assertFalse(consumer.isAlive());
+      assertNull(failure.get());
+      assertEquals(0, ring.size());
+    }
+  }
+
+  /**
+   * Closing drops new elements but lets the consumer drain the published ones.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  @DisplayName("Test closed ring buffer drains then ends.")
+  void close() throws Exception {
+    final RingBuffer<String> ring = new RingBuffer<>(2, WaitStrategy.BLOCKING);
+    ring.publish("a");
+    ring.publish("b");
+    ring.close();
+    assertFalse(ring.publish("c"));
+    assertEquals("a", ring.take());
+    assertEquals("b", ring.take());
+    assertNull(ring.take());
+  }
+}